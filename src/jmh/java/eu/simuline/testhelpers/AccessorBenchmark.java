@@ -0,0 +1,138 @@
+
+package eu.simuline.testhelpers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the ways {@link Accessor} provides 
+ * to read a private field and to invoke a private method 
+ * with direct access: 
+ * the engines {@link Accessor.Engine#REFLECTION} 
+ * and {@link Accessor.Engine#HANDLES}, 
+ * the typed references {@link FieldRef} and {@link MethodRef} 
+ * and the views generated from these. 
+ * Run it by <code>mvn -Pjmh test-compile exec:exec</code>; 
+ * see also {@link AccessorOpsBenchmark}. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessorBenchmark {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The class accessed. 
+     */
+    static final class Fixture {
+	private int value = 3;
+
+	private int times(int factor) {
+	    return this.value * factor;
+	}
+    } // class Fixture
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    private Fixture fixture;
+
+    private Integer factor;
+
+    private FieldRef<Fixture, Integer> valueRef;
+
+    private ToIntFunction<Fixture> valueView;
+
+    private MethodRef<Fixture, Integer> timesRef;
+
+    private BiFunction<Fixture, Integer, Integer> timesView;
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+	this.fixture = new Fixture();
+	this.factor = 5;
+	this.valueRef = Accessor.field(Fixture.class, "value", int.class);
+	this.valueView = this.valueRef.intGetter();
+	this.timesRef = Accessor.method(Fixture.class, "times",
+					int.class, int.class);
+	this.timesView = this.timesRef.asBiFunction();
+    }
+
+    @Benchmark
+    public int getFieldDirect() {
+	return this.fixture.value;
+    }
+
+    @Benchmark
+    public Object getFieldReflection() throws NoSuchFieldException {
+	return Accessor.Engine.REFLECTION.getField(this.fixture, "value");
+    }
+
+    @Benchmark
+    public Object getFieldHandles() throws NoSuchFieldException {
+	return Accessor.Engine.HANDLES.getField(this.fixture, "value");
+    }
+
+    @Benchmark
+    public int getFieldRef() {
+	return this.valueRef.getInt(this.fixture);
+    }
+
+    @Benchmark
+    public int getFieldView() {
+	return this.valueView.applyAsInt(this.fixture);
+    }
+
+    @Benchmark
+    public int invokeDirect() {
+	return this.fixture.times(this.factor);
+    }
+
+    @Benchmark
+    public Object invokeReflection() throws Exception {
+	return Accessor.Engine.REFLECTION
+	    .invoke(this.fixture, "times", this.factor);
+    }
+
+    @Benchmark
+    public Object invokeHandles() throws Exception {
+	return Accessor.Engine.HANDLES
+	    .invoke(this.fixture, "times", this.factor);
+    }
+
+    @Benchmark
+    public Integer invokeRef() throws Exception {
+	return this.timesRef.invoke(this.fixture, this.factor);
+    }
+
+    @Benchmark
+    public Integer invokeView() {
+	return this.timesView.apply(this.fixture, this.factor);
+    }
+}
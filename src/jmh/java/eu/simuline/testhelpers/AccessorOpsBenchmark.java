@@ -0,0 +1,224 @@
+package eu.simuline.testhelpers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the static methods of {@link Accessor} 
+ * with direct access: 
+ * {@link Accessor#getField(Object, String)}, 
+ * {@link Accessor#setField(Object, String, Object)}, 
+ * {@link Accessor#invoke(Object, String, Object...)}, 
+ * {@link Accessor#invokeStatic(Class, String, Object...)}, 
+ * {@link Accessor#create(Class, Object...)} 
+ * and {@link Accessor#getInnerClass(Class, String)}. 
+ * Fields are of primitive and of object type 
+ * and one of the methods is overloaded. 
+ * The members are declared in {@link Base} 
+ * and accessed either on that class 
+ * or on a subclass five levels below. 
+ * Each benchmark runs with both engines. 
+ * <p>
+ * Run it by <code>mvn -Pjmh test-compile exec:exec</code>; 
+ * the results are written as JSON 
+ * to <code>target/jmh-&lt;version&gt;.json</code> 
+ * for comparing releases. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessorOpsBenchmark {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The class declaring the members accessed. 
+     */
+    static class Base {
+	private int prim = 3;
+	private Integer obj = 4;
+
+	private int times(int factor) {
+	    return this.prim * factor;
+	}
+
+	private int over(String str) {
+	    return str.length();
+	}
+
+	private int over(long[] arr) {
+	    return arr.length;
+	}
+
+	private static int twice(int num) {
+	    return 2 * num;
+	}
+
+	static class Inner {
+	    static class Nested {
+	    }
+	}
+    } // class Base
+
+    static class Deep1 extends Base {
+    }
+
+    static class Deep2 extends Deep1 {
+    }
+
+    static class Deep3 extends Deep2 {
+    }
+
+    static class Deep4 extends Deep3 {
+    }
+
+    static class Deep5 extends Deep4 {
+    }
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The name of the {@link Accessor.Engine} used. 
+     */
+    @Param({"REFLECTION", "HANDLES"})
+    public String engine;
+
+    /**
+     * Whether the members are accessed on {@link Base} 
+     * or on {@link Deep5}. 
+     */
+    @Param({"shallow", "deep"})
+    public String hierarchy;
+
+    private Class<? extends Base> cls;
+
+    private Base target;
+
+    private Integer factor;
+
+    private String str;
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    @Setup
+    public void setUp() {
+	Accessor.setEngine(Accessor.Engine.valueOf(this.engine));
+	this.cls = "deep".equals(this.hierarchy) ? Deep5.class : Base.class;
+	this.target = "deep".equals(this.hierarchy) ? new Deep5() : new Base();
+	this.factor = 5;
+	this.str = "abc";
+    }
+
+    @Benchmark
+    public int getPrimDirect() {
+	return this.target.prim;
+    }
+
+    @Benchmark
+    public Object getPrimAccessor() throws NoSuchFieldException {
+	return Accessor.getField(this.target, "prim");
+    }
+
+    @Benchmark
+    public Integer getObjDirect() {
+	return this.target.obj;
+    }
+
+    @Benchmark
+    public Object getObjAccessor() throws NoSuchFieldException {
+	return Accessor.getField(this.target, "obj");
+    }
+
+    @Benchmark
+    public void setPrimDirect() {
+	this.target.prim = this.factor;
+    }
+
+    @Benchmark
+    public void setPrimAccessor() throws NoSuchFieldException {
+	Accessor.setField(this.target, "prim", this.factor);
+    }
+
+    @Benchmark
+    public void setObjDirect() {
+	this.target.obj = this.factor;
+    }
+
+    @Benchmark
+    public void setObjAccessor() throws NoSuchFieldException {
+	Accessor.setField(this.target, "obj", this.factor);
+    }
+
+    @Benchmark
+    public int invokeDirect() {
+	return this.target.times(this.factor);
+    }
+
+    @Benchmark
+    public Object invokeAccessor() throws Exception {
+	return Accessor.invoke(this.target, "times", this.factor);
+    }
+
+    @Benchmark
+    public int invokeOverloadedDirect() {
+	return this.target.over(this.str);
+    }
+
+    @Benchmark
+    public Object invokeOverloadedAccessor() throws Exception {
+	return Accessor.invoke(this.target, "over", this.str);
+    }
+
+    @Benchmark
+    public int invokeStaticDirect() {
+	return Base.twice(this.factor);
+    }
+
+    @Benchmark
+    public Object invokeStaticAccessor() throws Exception {
+	return Accessor.invokeStatic(Base.class, "twice", this.factor);
+    }
+
+    @Benchmark
+    public Base createDirect() {
+	return "deep".equals(this.hierarchy) ? new Deep5() : new Base();
+    }
+
+    @Benchmark
+    public Base createAccessor() throws Exception {
+	return Accessor.create(this.cls);
+    }
+
+    @Benchmark
+    public Class<?> getInnerClassDirect() {
+	return Base.Inner.Nested.class;
+    }
+
+    @Benchmark
+    public Class<?> getInnerClassAccessor() {
+	return Accessor.getInnerClass(this.cls, "Inner$Nested");
+    }
+}
@@ -0,0 +1,147 @@
+
+package eu.simuline.testhelpers;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Compares arrays of floating point values up to a {@link Tolerance} 
+ * using the vector API of the module <code>jdk.incubator.vector</code>. 
+ * This is compiled only by the opt-in profile <code>vector</code>, 
+ * i.e. with <code>-Pvector</code>, which requires JDK 16 and above, 
+ * and it is used only if the module is added at runtime. 
+ * <p>
+ * The arrays are compared in chunks of the preferred vector length. 
+ * The lanes which are within the tolerance are determined 
+ * by the same operations as in 
+ * {@link Tolerance#mismatchScalar(double[],double[],int,int)} 
+ * and in {@link Tolerance#mismatchScalar(float[],float[],int,int)}. 
+ * Only a chunk with a lane which is not, 
+ * or for which the relative deviation is not defined, 
+ * and the tail of the arrays are compared by these methods, 
+ * so that the result, in particular the exception thrown, 
+ * is the same as if comparing element by element. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+final class VectorKernel implements Tolerance.Kernel {
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    private static final VectorSpecies<Double> DOUBLES =
+	DoubleVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Float> FLOATS =
+	FloatVector.SPECIES_PREFERRED;
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    public int mismatch(double[] expected,
+			double[] actual,
+			int from,
+			int to,
+			Tolerance tol) {
+	double absdev = tol.getAbsDev();
+	if (!(absdev >= 0.0)) {
+	    // equal values may differ in this case 
+	    return tol.mismatchScalar(expected, actual, from, to);
+	}
+	double separator = tol.getSeparator();
+	double reldev = tol.getRelDev();
+	boolean absOnly = tol.isAbsoluteOnly();
+
+	int step = DOUBLES.length();
+	int upper = from + DOUBLES.loopBound(to - from);
+	int res;
+	DoubleVector exp;
+	DoubleVector act;
+	DoubleVector diff;
+	VectorMask<Double> abs;
+	VectorMask<Double> absOk;
+	VectorMask<Double> relOk;
+	for (int i = from; i < upper; i += step) {
+	    exp = DoubleVector.fromArray(DOUBLES, expected, i);
+	    act = DoubleVector.fromArray(DOUBLES, actual,   i);
+	    diff = exp.sub(act);
+	    // as assertEquals(double, double, double) 
+	    absOk = exp.eq(act)
+		.or(exp.test(VectorOperators.IS_NAN)
+		    .and(act.test(VectorOperators.IS_NAN)))
+		.or(diff.abs().compare(VectorOperators.LE, absdev));
+	    if (!absOnly) {
+		abs = exp.abs().compare(VectorOperators.LE, separator);
+		// as testRelEquals(double, double, double) 
+		relOk = diff.div(exp).abs()
+		    .compare(VectorOperators.LE, reldev)
+		    .and(exp.test(VectorOperators.IS_FINITE))
+		    .and(exp.compare(VectorOperators.NE, 0.0));
+		absOk = absOk.and(abs).or(relOk.andNot(abs));
+	    }
+	    if (!absOk.allTrue()) {
+		res = tol.mismatchScalar(expected, actual, i, i + step);
+		if (res >= 0) {
+		    return res;
+		}
+	    }
+	}
+	return tol.mismatchScalar(expected, actual, upper, to);
+    }
+
+    public int mismatch(float[] expected,
+			float[] actual,
+			int from,
+			int to,
+			Tolerance tol) {
+	float absdev = (float) tol.getAbsDev();
+	if (!(absdev >= 0.0f)) {
+	    // equal values may differ in this case 
+	    return tol.mismatchScalar(expected, actual, from, to);
+	}
+	float separator = (float) tol.getSeparator();
+	float reldev = (float) tol.getRelDev();
+	boolean absOnly = tol.isAbsoluteOnly();
+
+	int step = FLOATS.length();
+	int upper = from + FLOATS.loopBound(to - from);
+	int res;
+	FloatVector exp;
+	FloatVector act;
+	FloatVector diff;
+	VectorMask<Float> abs;
+	VectorMask<Float> absOk;
+	VectorMask<Float> relOk;
+	for (int i = from; i < upper; i += step) {
+	    exp = FloatVector.fromArray(FLOATS, expected, i);
+	    act = FloatVector.fromArray(FLOATS, actual,   i);
+	    diff = exp.sub(act);
+	    // as assertEquals(float, float, float) 
+	    absOk = exp.eq(act)
+		.or(exp.test(VectorOperators.IS_NAN)
+		    .and(act.test(VectorOperators.IS_NAN)))
+		.or(diff.abs().compare(VectorOperators.LE, absdev));
+	    if (!absOnly) {
+		abs = exp.abs().compare(VectorOperators.LE, separator);
+		relOk = diff.div(exp).abs()
+		    .compare(VectorOperators.LE, reldev)
+		    .and(exp.test(VectorOperators.IS_FINITE))
+		    .and(exp.compare(VectorOperators.NE, 0.0f));
+		absOk = absOk.and(abs).or(relOk.andNot(abs));
+	    }
+	    if (!absOk.allTrue()) {
+		res = tol.mismatchScalar(expected, actual, i, i + step);
+		if (res >= 0) {
+		    return res;
+		}
+	    }
+	}
+	return tol.mismatchScalar(expected, actual, upper, to);
+    }
+}
@@ -3,12 +3,23 @@ package eu.simuline.testhelpers;
 
 import eu.simuline.util.BasicTypesCompatibilityChecker;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Field;
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import eu.simuline.testhelpers.AccessorMetrics.Operation;
+
 /**
  * Provides access even to private fields, methods, constructors 
  * and inner classes, static or not, via reflection. 
@@ -97,6 +108,56 @@ import java.lang.reflect.InvocationTargetException;
  * in most cases {@link #create(Class,Object[])} is sufficient; 
  * to avoid ambiguities, one has to specify the types of the parameters 
  * and use {@link #create(Class,Class[],Object[])} instead. 
+ * <p>
+ * Once resolved, fields are accessed, methods invoked 
+ * and constructors applied by an {@link Engine}. 
+ * By default this is core reflection, 
+ * but it may be switched globally to method handles 
+ * using {@link #setEngine(Engine)} 
+ * or by setting the system property {@link #PROP_ENGINE}. 
+ * Each engine also offers the methods of this class for itself 
+ * to select the engine at a single call site, 
+ * e.g. <code>Engine.HANDLES.invoke(target, "exa", 3)</code>. 
+ * <p>
+ * For fields of type <code>int</code>, <code>long</code> 
+ * and <code>double</code> there are variants 
+ * like {@link #getIntField(Object, String)} 
+ * and {@link #setDoubleField(Class, String, double)} 
+ * which read and write the field without boxing. 
+ * <p>
+ * If a field or a method is accessed often, 
+ * it is best to resolve it once and for all 
+ * using {@link #field(Class, String, Class)} 
+ * or {@link #method(Class, String, Class, Class[])} 
+ * and to access it through the {@link FieldRef} or {@link MethodRef} 
+ * returned. 
+ * Correspondingly, {@link #instantiator(Class, Class[])} 
+ * resolves a constructor once 
+ * and {@link #createMany(Class, int, IntFunction)} 
+ * creates many fixtures at once. 
+ * Likewise, {@link #path(Class, String)} compiles a chain 
+ * of fields and array elements like <code>a.b[3].c</code> 
+ * into a {@link FieldPath} reading deep private state. 
+ * To read a field of or invoke a method on many objects, 
+ * {@link #getFieldAll(Collection, String, boolean)} 
+ * and {@link #invokeAll(Collection, boolean, String, Object...)} 
+ * resolve the member once for each class of the objects 
+ * and optionally process the objects in parallel. 
+ * <p>
+ * {@link #captureStatics(Class[])} and 
+ * {@link #restoreStatics(StaticsSnapshot)} reset static state 
+ * between tests without loading the classes anew. 
+ * Similarly, {@link #snapshot(Object)} captures 
+ * the state of an object graph 
+ * and {@link #diff(GraphSnapshot, GraphSnapshot)} 
+ * lists the paths where two snapshots differ. 
+ * <p>
+ * To find out how much time tests spend in reflection, 
+ * metrics on the operations of this class can be recorded 
+ * using {@link #setMetricsEnabled(boolean)} 
+ * or by setting the system property {@link #PROP_METRICS}. 
+ * They are returned by {@link #getMetrics()} 
+ * and shown in the status bar of the {@link GUIRunner} after each run. 
  *
  * @param <T>
  *    parameter representing the class to be accessed. 
@@ -106,6 +167,344 @@ import java.lang.reflect.InvocationTargetException;
  */
 public final class Accessor<T> {
 
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The way resolved members are accessed. 
+     * Resolution of members is the same for all engines, 
+     * and so are the exceptions thrown, 
+     * except that the messages of exceptions 
+     * not thrown by this class directly may differ. 
+     * <p>
+     * The methods of an engine with the same name as a method 
+     * of the enclosing class {@link Accessor} 
+     * behave like that method but use this engine 
+     * regardless of the engine selected globally by {@link #setEngine}. 
+     */
+    public enum Engine {
+
+	/**
+	 * Uses core reflection, 
+	 * i.e. {@link Field#get(Object)}, {@link Field#set(Object, Object)}, 
+	 * {@link Method#invoke(Object, Object...)} 
+	 * and {@link Constructor#newInstance(Object...)}. 
+	 */
+	REFLECTION {
+	    Object get(Field aField, Object target) 
+		throws IllegalAccessException {
+		return aField.get(target);
+	    }
+
+	    void set(Field aField, Object target, Object value) 
+		throws IllegalAccessException {
+		aField.set(target, value);
+	    }
+
+	    Object invoke(Method method, Object target, Object... parameters) 
+		throws IllegalAccessException, InvocationTargetException {
+		return method.invoke(target, parameters);
+	    }
+
+	    <T> T newInstance(Constructor<T> constr, Object... parameters) 
+		throws IllegalAccessException, 
+		       InstantiationException, 
+		       InvocationTargetException {
+		return constr.newInstance(parameters);
+	    }
+	},
+
+	/**
+	 * Uses {@link MethodHandle}s 
+	 * obtained via {@link java.lang.invoke.MethodHandles#privateLookupIn}. 
+	 * The handles are created once for each member 
+	 * and cached together with the member. 
+	 * Since final fields cannot be written by a handle, 
+	 * writing a final field falls back to {@link #REFLECTION}. 
+	 */
+	HANDLES {
+	    Object get(Field aField, Object target) {
+		MethodHandle getter = MemberIndex.of(aField.getDeclaringClass())
+		    .getGetter(aField);
+		try {
+		    if (target == null) {
+			return (Object) getter.invokeExact();
+		    }
+		    checkTarget(aField, target);
+		    return (Object) getter.invokeExact(target);
+		} catch (RuntimeException | Error e) {
+		    throw e;
+		} catch (Throwable e) {
+		    throw new IllegalStateException(e);// NOPMD
+		}
+	    }
+
+	    void set(Field aField, Object target, Object value) 
+		throws IllegalAccessException {
+		if (Modifier.isFinal(aField.getModifiers())) {
+		    REFLECTION.set(aField, target, value);
+		    return;
+		}
+		checkValue(aField, value);
+		MethodHandle setter = MemberIndex.of(aField.getDeclaringClass())
+		    .getSetter(aField);
+		try {
+		    if (target == null) {
+			setter.invokeExact(value);
+		    } else {
+			checkTarget(aField, target);
+			setter.invokeExact(target, value);
+		    }
+		} catch (RuntimeException | Error e) {
+		    throw e;
+		} catch (Throwable e) {
+		    throw new IllegalStateException(e);// NOPMD
+		}
+	    }
+
+	    Object invoke(Method method, Object target, Object... parameters) 
+		throws InvocationTargetException {
+		checkParams(method.getParameterTypes(), parameters);
+		MethodHandle invoker = 
+		    MemberIndex.of(method.getDeclaringClass())
+		    .getInvoker(method);
+		if (target != null) {
+		    checkTarget(method, target);
+		}
+		try {
+		    if (target == null) {
+			return (Object) invoker.invokeExact(parameters);
+		    }
+		    return (Object) invoker.invokeExact(target, parameters);
+		} catch (Throwable e) {// NOPMD
+		    // thrown by the method as the arguments are checked 
+		    throw new InvocationTargetException(e);
+		}
+	    }
+
+	    <T> T newInstance(Constructor<T> constr, Object... parameters) 
+		throws InstantiationException, InvocationTargetException {
+		Class<T> cls = constr.getDeclaringClass();
+		if (Modifier.isAbstract(cls.getModifiers())) {
+		    throw new InstantiationException(cls.getName());
+		}
+		checkParams(constr.getParameterTypes(), parameters);
+		MethodHandle creator = MemberIndex.of(cls).getCreator(constr);
+		try {
+		    return cls.cast((Object) creator.invokeExact(parameters));
+		} catch (Throwable e) {// NOPMD
+		    // thrown by the constructor as the arguments are checked 
+		    throw new InvocationTargetException(e);
+		}
+	    }
+	};
+
+	/**
+	 * Returns the value of the given accessible field 
+	 * as {@link Field#get(Object)} does. 
+	 */
+	abstract Object get(Field aField, Object target) 
+	    throws IllegalAccessException;
+
+	/**
+	 * Sets the value of the given accessible field 
+	 * as {@link Field#set(Object, Object)} does. 
+	 */
+	abstract void set(Field aField, Object target, Object value) 
+	    throws IllegalAccessException;
+
+	/**
+	 * Invokes the given accessible method 
+	 * as {@link Method#invoke(Object, Object...)} does. 
+	 */
+	abstract Object invoke(Method method, 
+			       Object target, 
+			       Object... parameters) 
+	    throws IllegalAccessException, InvocationTargetException;
+
+	/**
+	 * Invokes the given accessible constructor 
+	 * as {@link Constructor#newInstance(Object...)} does. 
+	 */
+	abstract <T> T newInstance(Constructor<T> constr, 
+				   Object... parameters) 
+	    throws IllegalAccessException, 
+		   InstantiationException, 
+		   InvocationTargetException;
+
+	/**
+	 * Throws an <code>IllegalArgumentException</code> 
+	 * if <code>target</code> is no instance 
+	 * of the class declaring <code>member</code>. 
+	 */
+	static void checkTarget(java.lang.reflect.Member member, 
+					Object target) {
+	    if (!member.getDeclaringClass().isInstance(target)) {
+		throw new IllegalArgumentException
+		    ("object is not an instance of declaring class");
+	    }
+	}
+
+	/**
+	 * Throws an <code>IllegalArgumentException</code> 
+	 * if <code>value</code> cannot be assigned to <code>aField</code> 
+	 * up to equivalence of primitive types and their wrappers. 
+	 */
+	static void checkValue(Field aField, Object value) {
+	    if (!paramsMatch(new Class<?>[] {aField.getType()}, value)) {
+		throw new IllegalArgumentException
+		    ("Can not set " + aField.getType().getName() + 
+		     " field " + aField.getName() + " to " + 
+		     (value == null ? null : value.getClass().getName()));
+	    }
+	}
+
+	/**
+	 * Throws an <code>IllegalArgumentException</code> 
+	 * if <code>parameters</code> do not fit <code>paramTypes</code> 
+	 * as specified for {@link Accessor#paramsMatch}. 
+	 */
+	static void checkParams(Class<?>[] paramTypes, 
+					Object... parameters) {
+	    if (!paramsMatch(paramTypes, parameters)) {
+		throw new IllegalArgumentException("argument type mismatch");
+	    }
+	}
+
+	/**
+	 * Like {@link Accessor#getField(Object, String)} 
+	 * but using this engine. 
+	 */
+	public Object getField(Object target, String fieldName) 
+	    throws NoSuchFieldException {
+	    return Accessor.getField(this, target.getClass(), target, fieldName);
+	}
+
+	/**
+	 * Like {@link Accessor#getField(Class, String)} 
+	 * but using this engine. 
+	 */
+	public Object getField(Class<?> aClass, String fieldName) 
+	    throws NoSuchFieldException {
+	    return Accessor.getField(this, aClass, null, fieldName);
+	}
+
+	/**
+	 * Like {@link Accessor#getField(Class, Object, String)} 
+	 * but using this engine. 
+	 */
+	public Object getField(Class<?> aClass, 
+			       Object target, 
+			       String fieldName) 
+	    throws NoSuchFieldException {
+	    return Accessor.getField(this, aClass, target, fieldName);
+	}
+
+	/**
+	 * Like {@link Accessor#setField(Object, String, Object)} 
+	 * but using this engine. 
+	 */
+	public void setField(Object target, String fieldName, Object value) 
+	    throws NoSuchFieldException {
+	    Accessor.setField(this, target.getClass(), target, 
+			      fieldName, value);
+	}
+
+	/**
+	 * Like {@link Accessor#setField(Class, String, Object)} 
+	 * but using this engine. 
+	 */
+	public void setField(Class<?> aClass, String fieldName, Object value) 
+	    throws NoSuchFieldException {
+	    Accessor.setField(this, aClass, null, fieldName, value);
+	}
+
+	/**
+	 * Like {@link Accessor#setField(Class, Object, String, Object)} 
+	 * but using this engine. 
+	 */
+	public void setField(Class<?> aClass, 
+			     Object target, 
+			     String fieldName, 
+			     Object value) 
+	    throws NoSuchFieldException {
+	    Accessor.setField(this, aClass, target, fieldName, value);
+	}
+
+	/**
+	 * Like {@link Accessor#invokeStatic(Class, String, Object...)} 
+	 * but using this engine. 
+	 */
+	public Object invokeStatic(Class<?> aClass, 
+				   String methodName, 
+				   Object... parameters) 
+	    throws InvocationTargetException {
+	    return Accessor.invoke(this, aClass, null, methodName, parameters);
+	}
+
+	/**
+	 * Like {@link Accessor#invoke(Object, String, Object...)} 
+	 * but using this engine. 
+	 */
+	public Object invoke(Object target, 
+			     String methodName, 
+			     Object... parameters) 
+	    throws InvocationTargetException {
+	    return Accessor.invoke(this, target.getClass(), target, 
+				   methodName, parameters);
+	}
+
+	/**
+	 * Like {@link Accessor#invoke(Class, Object, String, Object...)} 
+	 * but using this engine. 
+	 */
+	public Object invoke(Class<?> aClass, 
+			     Object target, 
+			     String methodName, 
+			     Object... parameters) 
+	    throws InvocationTargetException {
+	    return Accessor.invoke(this, aClass, target, 
+				   methodName, parameters);
+	}
+
+	/**
+	 * Like {@link Accessor#invoke(Class, Object, String, Class[], Object[])} 
+	 * but using this engine. 
+	 */
+	public Object invoke(Class<?> aClass, 
+			     Object target, 
+			     String methodName, 
+			     Class<?>[] paramCls, 
+			     Object[] parameters) 
+	    throws InvocationTargetException {
+	    return Accessor.invoke(this, aClass, target, 
+				   methodName, paramCls, parameters);
+	}
+
+	/**
+	 * Like {@link Accessor#create(Class, Object...)} 
+	 * but using this engine. 
+	 */
+	public <T> T create(Class<T> aClass, Object... parameters) 
+	    throws InstantiationException, InvocationTargetException {
+	    return Accessor.create(this, aClass, parameters);
+	}
+
+	/**
+	 * Like {@link Accessor#create(Class, Class[], Object...)} 
+	 * but using this engine. 
+	 */
+	public <T> T create(Class<T> aClass, 
+			    Class<?>[] paramCls, 
+			    Object... parameters) 
+	    throws NoSuchMethodException, 
+		   InstantiationException, 
+		   InvocationTargetException {
+	    return Accessor.create(this, aClass, paramCls, parameters);
+	}
+    } // enum Engine
+
     /* -------------------------------------------------------------------- *
      * constants.                                                           *
      * -------------------------------------------------------------------- */
@@ -114,7 +513,7 @@ public final class Accessor<T> {
      * The separator between a class and its enclosing class 
      * for inner classes. 
      */
-    private static final String INNER_SEPARATOR = "$";
+    static final String INNER_SEPARATOR = "$";
 
     /**
      * String denoting an unspecified class. 
@@ -129,6 +528,38 @@ public final class Accessor<T> {
     private static final String STR_IN_CLS = "' in class '";
     private static final String STR_SPEC_NULL_CLS = "Specified null-class. ";
 
+    /**
+     * The name of the system property 
+     * determining the initial value of {@link #engine}. 
+     * Its value is the name of an {@link Engine}, ignoring case. 
+     * If the property is not set or if its value is no such name, 
+     * {@link Engine#REFLECTION} is used; 
+     * in the latter case a warning is printed on <code>System.err</code>. 
+     */
+    public static final String PROP_ENGINE = "eu.simuline.testhelpers.engine";
+
+    /**
+     * The name of the system property 
+     * determining whether metrics are recorded initially. 
+     * Metrics are recorded if and only if its value is <code>true</code>. 
+     *
+     * @see #setMetricsEnabled(boolean) 
+     */
+    public static final String PROP_METRICS = 
+	"eu.simuline.testhelpers.metrics";
+
+    /* -------------------------------------------------------------------- *
+     * class variables.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The engine used by the static methods of this class. 
+     *
+     * @see #getEngine() 
+     * @see #setEngine(Engine) 
+     */
+    private static volatile Engine engine = initEngine();
+
     /* -------------------------------------------------------------------- *
      * private constructor.                                                 *
      * -------------------------------------------------------------------- */
@@ -144,6 +575,109 @@ public final class Accessor<T> {
     private Accessor() {
     }
 
+    /* -------------------------------------------------------------------- *
+     * engine.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the engine given by the property {@link #PROP_ENGINE}. 
+     * Unlike an exception, which would prevent this class from being loaded, 
+     * a value which is no engine yields a warning only. 
+     */
+    private static Engine initEngine() {
+	String name = System.getProperty(PROP_ENGINE);
+	if (name == null) {
+	    return Engine.REFLECTION;
+	}
+	try {
+	    return engineOf(name);
+	} catch (IllegalArgumentException e) {
+	    System.err.println(e.getMessage() + 
+			       "Using " + Engine.REFLECTION + ". ");
+	    return Engine.REFLECTION;
+	}
+    }
+
+    /**
+     * Returns the engine with the given name ignoring case. 
+     *
+     * @throws IllegalArgumentException 
+     *    if there is no engine with the given name. 
+     *    The message names the property {@link #PROP_ENGINE} 
+     *    and the engines. 
+     */
+    static Engine engineOf(String name) {
+	for (Engine eng : Engine.values()) {
+	    if (eng.name().equalsIgnoreCase(name.trim())) {
+		return eng;
+	    }
+	}
+	throw new IllegalArgumentException
+	    ("Value '" + name + "' of property " + PROP_ENGINE + 
+	     " is none of the engines " + 
+	     Arrays.toString(Engine.values()) + ". ");
+    }
+
+    /**
+     * Returns the engine used by the static methods of this class. 
+     */
+    public static Engine getEngine() {
+	return engine;
+    }
+
+    /**
+     * Sets the engine used by the static methods of this class. 
+     *
+     * @param engine 
+     *    a non-<code>null</code> engine. 
+     */
+    public static void setEngine(Engine engine) {
+	if (engine == null) {
+	    throw new IllegalArgumentException("Specified null-engine. ");
+	}
+	Accessor.engine = engine;
+    }
+
+    /* -------------------------------------------------------------------- *
+     * metrics.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns whether metrics on the operations of this class are recorded. 
+     *
+     * @see #setMetricsEnabled(boolean) 
+     */
+    public static boolean isMetricsEnabled() {
+	return AccessorMetrics.isEnabled();
+    }
+
+    /**
+     * Sets whether metrics on the operations of this class are recorded. 
+     * Initially, this is determined by the property {@link #PROP_METRICS}. 
+     * The metrics recorded so far are kept. 
+     *
+     * @see #getMetrics() 
+     * @see #resetMetrics() 
+     */
+    public static void setMetricsEnabled(boolean enabled) {
+	AccessorMetrics.setEnabled(enabled);
+    }
+
+    /**
+     * Returns a snapshot of the metrics recorded 
+     * since the last invocation of {@link #resetMetrics()}. 
+     */
+    public static AccessorMetrics getMetrics() {
+	return AccessorMetrics.snapshot();
+    }
+
+    /**
+     * Resets the metrics recorded so far to zero. 
+     */
+    public static void resetMetrics() {
+	AccessorMetrics.reset();
+    }
+
     /* -------------------------------------------------------------------- *
      * private methods.                                                     *
      * -------------------------------------------------------------------- */
@@ -182,6 +716,8 @@ public final class Accessor<T> {
      * Invokes the specified method with the given parameters 
      * and returns the value (which may be void of course. ) 
      *
+     * @param eng 
+     *    the engine invoking <code>method</code>. 
      * @param method 
      *    a <code>Method</code>. 
      * @param target 
@@ -213,11 +749,43 @@ public final class Accessor<T> {
      *   to wrap an exception thrown by the method invoked. 
      *   Unwrap it using {@link Throwable#getCause}. 
      */
-    private static Object invoke(Method method, 
+    private static Object invoke(Engine eng,
+				 Method method, 
 				 Object target,
 				 Object... parameters) 
 	throws InvocationTargetException {
 
+	checkStatic(method, target);
+
+	try {
+	    AccessorMetrics.countInvocation(Operation.INVOKE);
+	    return eng.invoke(method, target, parameters);
+	} catch (IllegalAccessException ie) {
+	    throw new IllegalStateException// NOPMD
+		("Method should be accessible; still is not. "); 
+	}
+    }
+
+    /**
+     * Throws an exception if a target is given for a static method 
+     * or if no target is given for a member method. 
+     *
+     * @param method 
+     *    a <code>Method</code>. 
+     * @param target 
+     *    the target to which the specified method is to be applied 
+     *    which should be <code>null</code> 
+     *    if and only if the method specified is static. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if the specified method is static but <code>target != null</code>. 
+     *    <li>
+     *    if the specified method is a member method 
+     *    but <code>target == null</code>. 
+     *    </ul>
+     */
+    static void checkStatic(Method method, Object target) {
 	if (Modifier.isStatic(method.getModifiers()) != 
 	    (target == null)) {
 	    if (Modifier.isStatic(method.getModifiers())) {
@@ -230,13 +798,6 @@ public final class Accessor<T> {
 		     " a target has to be provided (not null). ");
 	    }
 	}
-
-	try {
-	    return method.invoke(target, parameters);
-	} catch (IllegalAccessException ie) {
-	    throw new IllegalStateException// NOPMD
-		("Method should be accessible; still is not. "); 
-	}
     }
 
     /**
@@ -365,45 +926,71 @@ public final class Accessor<T> {
 				     boolean shouldBeStatic) 
 	throws NoSuchFieldException {
 
+	Field aField = getFieldObj(aClass, fieldName);
+	checkStatic(aField, shouldBeStatic);
+	return aField;
+    }
+
+    /**
+     * Returns the specified <code>Field</code> object if possible 
+     * regardless whether it is static or not. 
+     *
+     * @param aClass 
+     *    a <code>Class</code> object. 
+     * @param fieldName 
+     *    the name of a field to look for in the specified class 
+     *    and its superclasses. 
+     * @return 
+     *    the specified <code>Field</code> object made accessible. 
+     * @throws IllegalArgumentException 
+     *    if the "<code>null</code>-class" is specified. 
+     * @throws NoSuchFieldException 
+     *    if the specified class and none of its superclasses 
+     *    containd a field with the given name, 
+     *    e.g. because <code>fieldName == null</code>. 
+     * @see #getFieldObj(Class, String, boolean) 
+     */
+    static Field getFieldObj(Class<?> aClass, String fieldName) 
+	throws NoSuchFieldException {
+
 	if (aClass == null) {
 	    throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
 	}
 
-	Field[] cands;
-	Class<?> candClass = aClass;
-
-	do {
-	    // look for the specified field in candClass. 
-	    cands = candClass.getDeclaredFields();
-	    for (Field aField : cands) {
-		if (aField.getName().equals(fieldName)) {
-		    aField.setAccessible(true);// NOPMD
-		    // Here, aField is not null 
-		    // (if no field: Exception thrown). 
-
-		    if (shouldBeStatic != 
-			Modifier.isStatic(aField.getModifiers())) {
-			throw new IllegalArgumentException
-			    ("The specified field '" + fieldName + 
-			     "' should " + 
-			     (shouldBeStatic ? "" : "not ") + 
-			     "be static. ");
-		    }
-
-		    return aField;
-		}
-	    }
-	    // Here, no such field is found. 
+	if (fieldName == null) {
+	    throw new NoSuchFieldException(fieldName);
+	}
 
-	    // prepare search in superclass. 
-	    candClass = candClass.getSuperclass();
-	} while (candClass != null);
-	// Here, the specified field is not found. 
+	// look up the field in aClass and its superclasses once and for all. 
+	Field aField = MemberIndex.of(aClass).getField(fieldName);
+	if (aField == null) {
+	    // Here, the specified field is not found. 
+	    throw new NoSuchFieldException(fieldName);
+	}
+	// Here, aField is not null and accessible. 
+	return aField;
+    }
 
-	// throws a NoSuchFieldException
-	aClass.getDeclaredField(fieldName);
-	throw new IllegalStateException
-	    ("Should throw a NoSuchFieldException. ");
+    /**
+     * Throws an exception if the given field is static 
+     * but should not or the other way round. 
+     *
+     * @param aField 
+     *    a <code>Field</code>. 
+     * @param shouldBeStatic 
+     *    whether the specified field should static. 
+     * @throws IllegalArgumentException 
+     *    if <code>aField</code> is static 
+     *    if and only if <code>shouldBeStatic</code> is not set. 
+     */
+    static void checkStatic(Field aField, boolean shouldBeStatic) {
+	if (shouldBeStatic != Modifier.isStatic(aField.getModifiers())) {
+	    throw new IllegalArgumentException
+		("The specified field '" + aField.getName() + 
+		 "' should " + 
+		 (shouldBeStatic ? "" : "not ") + 
+		 "be static. ");
+	}
     }
 
     /**
@@ -451,16 +1038,33 @@ public final class Accessor<T> {
 				  Object target,
 				  String fieldName) 
 	throws NoSuchFieldException {
+	return getField(engine, aClass, target, fieldName);
+    }
 
-	Field aField = getFieldObj(aClass, fieldName, target == null);
-
+    /**
+     * Like {@link #getField(Class, Object, String)} 
+     * but using the given engine to read the field. 
+     */
+    private static Object getField(Engine eng,
+				   Class<?> aClass,
+				   Object target,
+				   String fieldName) 
+	throws NoSuchFieldException {
+	long start = AccessorMetrics.start();
 	try {
-	    return aField.get(target);
-	} catch (IllegalAccessException e) {
-	    throw new IllegalStateException// NOPMD
-		("Field '" + fieldName + STR_IN_CLS + 
-		 (aClass == null ? target.getClass() : aClass).getName() + 
-		 "is not accessible although it should. ");
+	    Field aField = getFieldObj(aClass, fieldName, target == null);
+
+	    try {
+		AccessorMetrics.countInvocation(Operation.GET_FIELD);
+		return eng.get(aField, target);
+	    } catch (IllegalAccessException e) {
+		throw new IllegalStateException// NOPMD
+		    ("Field '" + fieldName + STR_IN_CLS + 
+		     (aClass == null ? target.getClass() : aClass).getName() + 
+		     "is not accessible although it should. ");
+	    }
+	} finally {
+	    AccessorMetrics.stop(Operation.GET_FIELD, start);
 	}
     }
 
@@ -590,67 +1194,419 @@ public final class Accessor<T> {
 				String fieldName,
 				Object value) 
 	throws NoSuchFieldException {
+	setField(engine, aClass, target, fieldName, value);
+    }
 
-	Field aField = getFieldObj(aClass, fieldName, target == null);
-
-	if (aField.getType().isPrimitive() && value == null) {
-	    throw new IllegalArgumentException
-		("Tried to assign null-value to field '" + fieldName + 
-		 STR_IN_CLS + 
-		 (aClass == null ? target.getClass() : aClass).getName() + 
-		 "' although its type '" + aField.getType() + 
-		 "' is primitive. ");
-	}
-
+    /**
+     * Like {@link #setField(Class, Object, String, Object)} 
+     * but using the given engine to write the field. 
+     */
+    private static void setField(Engine eng,
+				 Class<?> aClass,
+				 Object target,
+				 String fieldName,
+				 Object value) 
+	throws NoSuchFieldException {
+	long start = AccessorMetrics.start();
 	try {
-	    aField.set(target, value);
-	} catch (IllegalAccessException e) {
-	    if (aClass == null) {
-		aClass = target.getClass();
+	    Field aField = getFieldObj(aClass, fieldName, target == null);
+
+	    if (aField.getType().isPrimitive() && value == null) {
+		throw new IllegalArgumentException
+		    ("Tried to assign null-value to field '" + fieldName + 
+		     STR_IN_CLS + 
+		     (aClass == null ? target.getClass() : aClass).getName() + 
+		     "' although its type '" + aField.getType() + 
+		     "' is primitive. ");
 	    }
-	    String clsName = aClass.getName();
-	    if (Modifier.isFinal(aField.getModifiers())) {
-		throw new IllegalArgumentException// NOPMD
+
+	    try {
+		AccessorMetrics.countInvocation(Operation.SET_FIELD);
+		eng.set(aField, target, value);
+	    } catch (IllegalAccessException e) {
+		if (aClass == null) {
+		    aClass = target.getClass();
+		}
+		String clsName = aClass.getName();
+		if (Modifier.isFinal(aField.getModifiers())) {
+		    throw new IllegalArgumentException// NOPMD
+			("Field '" + fieldName + STR_IN_CLS + clsName + 
+			 "' is declared final and is hence not accessible. ");
+		}
+		throw new IllegalStateException// NOPMD
 		    ("Field '" + fieldName + STR_IN_CLS + clsName + 
-		     "' is declared final and is hence not accessible. ");
+		     "' is not accessible although it should. ");
 	    }
-	    throw new IllegalStateException// NOPMD
-		("Field '" + fieldName + STR_IN_CLS + clsName + 
-		 "' is not accessible although it should. ");
+	} finally {
+	    AccessorMetrics.stop(Operation.SET_FIELD, start);
 	}
     }
 
 
     /*----------------------------------------------------------------------*
-     * invoke methods with implicitly specified parameter types             *
+     * primitive getField and setField methods                              *
      *----------------------------------------------------------------------*/
 
     /**
-     * For invoking static methods. 
+     * Returns the cached reference to the specified field. 
+     * The reference checks whether the field is static 
+     * and whether it has the required type. 
      *
      * @param aClass 
-     *    The class of the static method to be invoked. 
-     *    The method is looked up recursively 
-     *    in the superclasses of <code>aClass</code>. 
-     *    Typically one will use the expression 
-     *    <code>&lt;classname&gt;.class</code> 
-     *    to determine the class-object. 
-     * @param methodName 
-     *    the short name of a static method. 
-     *    Short means without package or class. 
-     * @param parameters 
-     *    the list of parameters used when invoking <code>methodName</code>. 
-     *    Note that parameters of elementary types 
-     *    have to be wrapped in an object 
-     *    (e.g. write <code>new Integer(8)</code> 
-     *    instead of just <code>8</code>). 
-     * @return
-     *    <ul>
-     *    <li>
-     *    If the return type of the specified method 
-     *    is <code>Object</code> or a subclass, 
-     *    the return value is returned directly; 
-     *    <li>
+     *    the class in which the field is looked up 
+     *    and recursively in its superclasses. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @throws NoSuchFieldException 
+     *    if the specified class 
+     *    does not contain a field with the given name, 
+     *    e.g. because <code>fieldName == null</code>. 
+     * @throws IllegalArgumentException 
+     *    if the <code>null</code>-class is specified. 
+     */
+    @SuppressWarnings("unchecked")
+    private static FieldRef<Object, ?> fieldRef(Class<?> aClass,
+						String fieldName) 
+	throws NoSuchFieldException {
+
+	if (aClass == null) {
+	    throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
+	}
+	if (fieldName == null) {
+	    throw new NoSuchFieldException(fieldName);
+	}
+	FieldRef<?, ?> ref = MemberIndex.of(aClass).getFieldRef(fieldName);
+	if (ref == null) {
+	    throw new NoSuchFieldException(fieldName);
+	}
+	return (FieldRef<Object, ?>) ref;
+    }
+
+    /**
+     * Returns the value of the specified member field 
+     * of type <code>int</code> without boxing. 
+     * This is like {@link #getField(Object, String)} 
+     * but for fields of type <code>int</code> only. 
+     *
+     * @param target 
+     *    the instance for which a field is to be read. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @throws NoSuchFieldException 
+     *    if the class of <code>target</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if the specified field is static 
+     *    or if its type is not <code>int</code>. 
+     */
+    public static int getIntField(Object target, String fieldName) 
+	throws NoSuchFieldException {
+	return fieldRef(target.getClass(), fieldName).getInt(target);
+    }
+
+    /**
+     * Returns the value of the specified static field 
+     * of type <code>int</code> without boxing. 
+     * This is like {@link #getField(Class, String)} 
+     * but for fields of type <code>int</code> only. 
+     *
+     * @param aClass 
+     *    the class in which the field is looked up. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @throws NoSuchFieldException 
+     *    if <code>aClass</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if <code>aClass</code> is <code>null</code>, 
+     *    if the specified field is not static 
+     *    or if its type is not <code>int</code>. 
+     */
+    public static int getIntField(Class<?> aClass, String fieldName) 
+	throws NoSuchFieldException {
+	return fieldRef(aClass, fieldName).getInt(null);
+    }
+
+    /**
+     * Sets the specified member field 
+     * of type <code>int</code> without boxing. 
+     * This is like {@link #setField(Object, String, Object)} 
+     * but for fields of type <code>int</code> only. 
+     *
+     * @param target 
+     *    the instance for which a field is to be written. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @param value 
+     *    the new value of the field. 
+     * @throws NoSuchFieldException 
+     *    if the class of <code>target</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if the specified field is static or final 
+     *    or if its type is not <code>int</code>. 
+     */
+    public static void setIntField(Object target, 
+				    String fieldName, 
+				    int value) 
+	throws NoSuchFieldException {
+	fieldRef(target.getClass(), fieldName).setInt(target, value);
+    }
+
+    /**
+     * Sets the specified static field 
+     * of type <code>int</code> without boxing. 
+     * This is like {@link #setField(Class, String, Object)} 
+     * but for fields of type <code>int</code> only. 
+     *
+     * @param aClass 
+     *    the class in which the field is looked up. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @param value 
+     *    the new value of the field. 
+     * @throws NoSuchFieldException 
+     *    if <code>aClass</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if <code>aClass</code> is <code>null</code>, 
+     *    if the specified field is not static or final 
+     *    or if its type is not <code>int</code>. 
+     */
+    public static void setIntField(Class<?> aClass, 
+				    String fieldName, 
+				    int value) 
+	throws NoSuchFieldException {
+	fieldRef(aClass, fieldName).setInt(null, value);
+    }
+
+    /**
+     * Returns the value of the specified member field 
+     * of type <code>long</code> without boxing. 
+     * This is like {@link #getField(Object, String)} 
+     * but for fields of type <code>long</code> only. 
+     *
+     * @param target 
+     *    the instance for which a field is to be read. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @throws NoSuchFieldException 
+     *    if the class of <code>target</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if the specified field is static 
+     *    or if its type is not <code>long</code>. 
+     */
+    public static long getLongField(Object target, String fieldName) 
+	throws NoSuchFieldException {
+	return fieldRef(target.getClass(), fieldName).getLong(target);
+    }
+
+    /**
+     * Returns the value of the specified static field 
+     * of type <code>long</code> without boxing. 
+     * This is like {@link #getField(Class, String)} 
+     * but for fields of type <code>long</code> only. 
+     *
+     * @param aClass 
+     *    the class in which the field is looked up. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @throws NoSuchFieldException 
+     *    if <code>aClass</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if <code>aClass</code> is <code>null</code>, 
+     *    if the specified field is not static 
+     *    or if its type is not <code>long</code>. 
+     */
+    public static long getLongField(Class<?> aClass, String fieldName) 
+	throws NoSuchFieldException {
+	return fieldRef(aClass, fieldName).getLong(null);
+    }
+
+    /**
+     * Sets the specified member field 
+     * of type <code>long</code> without boxing. 
+     * This is like {@link #setField(Object, String, Object)} 
+     * but for fields of type <code>long</code> only. 
+     *
+     * @param target 
+     *    the instance for which a field is to be written. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @param value 
+     *    the new value of the field. 
+     * @throws NoSuchFieldException 
+     *    if the class of <code>target</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if the specified field is static or final 
+     *    or if its type is not <code>long</code>. 
+     */
+    public static void setLongField(Object target, 
+				    String fieldName, 
+				    long value) 
+	throws NoSuchFieldException {
+	fieldRef(target.getClass(), fieldName).setLong(target, value);
+    }
+
+    /**
+     * Sets the specified static field 
+     * of type <code>long</code> without boxing. 
+     * This is like {@link #setField(Class, String, Object)} 
+     * but for fields of type <code>long</code> only. 
+     *
+     * @param aClass 
+     *    the class in which the field is looked up. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @param value 
+     *    the new value of the field. 
+     * @throws NoSuchFieldException 
+     *    if <code>aClass</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if <code>aClass</code> is <code>null</code>, 
+     *    if the specified field is not static or final 
+     *    or if its type is not <code>long</code>. 
+     */
+    public static void setLongField(Class<?> aClass, 
+				    String fieldName, 
+				    long value) 
+	throws NoSuchFieldException {
+	fieldRef(aClass, fieldName).setLong(null, value);
+    }
+
+    /**
+     * Returns the value of the specified member field 
+     * of type <code>double</code> without boxing. 
+     * This is like {@link #getField(Object, String)} 
+     * but for fields of type <code>double</code> only. 
+     *
+     * @param target 
+     *    the instance for which a field is to be read. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @throws NoSuchFieldException 
+     *    if the class of <code>target</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if the specified field is static 
+     *    or if its type is not <code>double</code>. 
+     */
+    public static double getDoubleField(Object target, String fieldName) 
+	throws NoSuchFieldException {
+	return fieldRef(target.getClass(), fieldName).getDouble(target);
+    }
+
+    /**
+     * Returns the value of the specified static field 
+     * of type <code>double</code> without boxing. 
+     * This is like {@link #getField(Class, String)} 
+     * but for fields of type <code>double</code> only. 
+     *
+     * @param aClass 
+     *    the class in which the field is looked up. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @throws NoSuchFieldException 
+     *    if <code>aClass</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if <code>aClass</code> is <code>null</code>, 
+     *    if the specified field is not static 
+     *    or if its type is not <code>double</code>. 
+     */
+    public static double getDoubleField(Class<?> aClass, String fieldName) 
+	throws NoSuchFieldException {
+	return fieldRef(aClass, fieldName).getDouble(null);
+    }
+
+    /**
+     * Sets the specified member field 
+     * of type <code>double</code> without boxing. 
+     * This is like {@link #setField(Object, String, Object)} 
+     * but for fields of type <code>double</code> only. 
+     *
+     * @param target 
+     *    the instance for which a field is to be written. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @param value 
+     *    the new value of the field. 
+     * @throws NoSuchFieldException 
+     *    if the class of <code>target</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if the specified field is static or final 
+     *    or if its type is not <code>double</code>. 
+     */
+    public static void setDoubleField(Object target, 
+				    String fieldName, 
+				    double value) 
+	throws NoSuchFieldException {
+	fieldRef(target.getClass(), fieldName).setDouble(target, value);
+    }
+
+    /**
+     * Sets the specified static field 
+     * of type <code>double</code> without boxing. 
+     * This is like {@link #setField(Class, String, Object)} 
+     * but for fields of type <code>double</code> only. 
+     *
+     * @param aClass 
+     *    the class in which the field is looked up. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @param value 
+     *    the new value of the field. 
+     * @throws NoSuchFieldException 
+     *    if <code>aClass</code> 
+     *    does not contain a field with the given name. 
+     * @throws IllegalArgumentException 
+     *    if <code>aClass</code> is <code>null</code>, 
+     *    if the specified field is not static or final 
+     *    or if its type is not <code>double</code>. 
+     */
+    public static void setDoubleField(Class<?> aClass, 
+				    String fieldName, 
+				    double value) 
+	throws NoSuchFieldException {
+	fieldRef(aClass, fieldName).setDouble(null, value);
+    }
+
+
+    /*----------------------------------------------------------------------*
+     * invoke methods with implicitly specified parameter types             *
+     *----------------------------------------------------------------------*/
+
+    /**
+     * For invoking static methods. 
+     *
+     * @param aClass 
+     *    The class of the static method to be invoked. 
+     *    The method is looked up recursively 
+     *    in the superclasses of <code>aClass</code>. 
+     *    Typically one will use the expression 
+     *    <code>&lt;classname&gt;.class</code> 
+     *    to determine the class-object. 
+     * @param methodName 
+     *    the short name of a static method. 
+     *    Short means without package or class. 
+     * @param parameters 
+     *    the list of parameters used when invoking <code>methodName</code>. 
+     *    Note that parameters of elementary types 
+     *    have to be wrapped in an object 
+     *    (e.g. write <code>new Integer(8)</code> 
+     *    instead of just <code>8</code>). 
+     * @return
+     *    <ul>
+     *    <li>
+     *    If the return type of the specified method 
+     *    is <code>Object</code> or a subclass, 
+     *    the return value is returned directly; 
+     *    <li>
      *    if it is a primitive type, it is wrapped 
      *    in an object of the appropriate class. 
      *    E.g. <code>new Integer(5)</code> is returned 
@@ -801,10 +1757,73 @@ public final class Accessor<T> {
 				String methodName,
 				Object... parameters) 
 	throws InvocationTargetException {
-	
-	if (aClass == null) {
-	    throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
+	return invoke(engine, aClass, target, methodName, parameters);
+    }
+
+    /**
+     * Like {@link #invoke(Class, Object, String, Object...)} 
+     * but using the given engine to invoke the method. 
+     */
+    private static Object invoke(Engine eng,
+				 Class<?> aClass,
+				 Object target,
+				 String methodName,
+				 Object... parameters) 
+	throws InvocationTargetException {
+	long start = AccessorMetrics.start();
+	try {
+	    if (aClass == null) {
+		throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
+	    }
+	    return invoke(eng, 
+			  getOverloadedMethod(aClass, methodName, parameters),
+			  target, parameters);
+	} finally {
+	    AccessorMetrics.stop(Operation.INVOKE, start);
 	}
+    }
+
+    /**
+     * Returns the method with the given name 
+     * applicable to the given parameters 
+     * searching <code>aClass</code> and then its superclasses. 
+     * The method is resolved once 
+     * for each tuple of classes of the parameters. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the specified method does not exist or is not unique. 
+     */
+    private static Method getOverloadedMethod(Class<?> aClass,
+					      String methodName,
+					      Object... parameters) {
+	Method toBeInvoked = MemberIndex.of(aClass)
+	    .getOverload(methodName, getParamCls(parameters),
+			 () -> resolveMethod(aClass, methodName, parameters))
+	    .getMember();
+	if (toBeInvoked == null) {
+	    // Here, the desired method is not found. 
+	    throw new IllegalArgumentException
+		("Method " + aClass.getName() + "." + methodName + 
+		 paramsToString(getParamCls(parameters)) + STR_DNE);
+	}
+	return toBeInvoked;
+    }
+
+    /**
+     * Resolves the method with the given name 
+     * applicable to the given parameters 
+     * searching <code>aClass</code> and then its superclasses. 
+     * This is the uncached part 
+     * of {@link #invoke(Class, Object, String, Object...)}. 
+     *
+     * @return 
+     *    the method found or no method if there is none 
+     *    or the information that the method is not unique. 
+     */
+    private static MemberIndex.Overload<Method> 
+	resolveMethod(Class<?> aClass,
+		      String methodName,
+		      Object... parameters) {
 
 	Method[] cands;
 	Class<?> candClass = aClass;
@@ -813,24 +1832,27 @@ public final class Accessor<T> {
 	// Find out the methods matching the signature 
 	// and collect them in "cands". 
 	do {
-	    cands = candClass.getDeclaredMethods();
+	    // cached: getDeclaredMethods() would copy the array each time. 
+	    cands = MemberIndex.of(candClass).getDeclaredMethods();
 
-	    toBeInvoked = getMethod(aClass,
-				    methodName,
-				    cands,
-				    parameters);
+	    try {
+		toBeInvoked = getMethod(aClass,
+					methodName,
+					cands,
+					parameters);
+	    } catch (IllegalArgumentException e) {
+		// the method is not unique 
+		return MemberIndex.Overload.ambiguous(e.getMessage());
+	    }
 
 	    if (toBeInvoked != null) {
-		return invoke(toBeInvoked, target, parameters);
+		return MemberIndex.Overload.of(toBeInvoked);
 	    }
 	    // prepare search in superclass. 
 	    candClass = candClass.getSuperclass();
 	} while (candClass != null);
 	// Here, the desired method is not found. 
-
-	throw new IllegalArgumentException
-	    ("Method " + aClass.getName() + "." + methodName + 
-	     paramsToString(getParamCls(parameters)) + STR_DNE);
+	return MemberIndex.Overload.of(null);
     }
 
     /**
@@ -913,19 +1935,37 @@ public final class Accessor<T> {
 				Class<?>[] paramCls,
 				Object[] parameters) 
 	throws InvocationTargetException {
+	return invoke(engine, aClass, target, methodName, paramCls, parameters);
+    }
 
-	if (aClass == null) {
-	    throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
-	}
-	Method toBeInvoked = getToBeInvoked(aClass, methodName, paramCls);
-	if (toBeInvoked != null) {
-	    return invoke(toBeInvoked, target, parameters);
-	}
-	// Here, the desired method is not found. 
+    /**
+     * Like {@link #invoke(Class, Object, String, Class[], Object[])} 
+     * but using the given engine to invoke the method. 
+     */
+    private static Object invoke(Engine eng,
+				 Class<?> aClass,
+				 Object target,
+				 String methodName,
+				 Class<?>[] paramCls,
+				 Object[] parameters) 
+	throws InvocationTargetException {
+	long start = AccessorMetrics.start();
+	try {
+	    if (aClass == null) {
+		throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
+	    }
+	    Method toBeInvoked = getToBeInvoked(aClass, methodName, paramCls);
+	    if (toBeInvoked != null) {
+		return invoke(eng, toBeInvoked, target, parameters);
+	    }
+	    // Here, the desired method is not found. 
 
-	throw new IllegalArgumentException
-	    ("Method " + aClass.getName() + "." + methodName + 
-	     paramsToString(getParamCls(parameters)) + STR_DNE);
+	    throw new IllegalArgumentException
+		("Method " + aClass.getName() + "." + methodName + 
+		 paramsToString(getParamCls(parameters)) + STR_DNE);
+	} finally {
+	    AccessorMetrics.stop(Operation.INVOKE, start);
+	}
     }
 
     /**
@@ -952,25 +1992,8 @@ public final class Accessor<T> {
 				 String methodName,
 				 Class<?>... paramCls) {
 
-	Method toBeInvoked;
-	for (Class<?> candClass = aClass; 
-	     candClass != null;
-	     candClass = candClass.getSuperclass()) {
-	    try {
-		toBeInvoked = candClass.getDeclaredMethod(methodName, paramCls);
-	    } catch (NoSuchMethodException e) {
-		// method is not found: look it up in subclass. 
-		continue;
-	    }
-	    if (Modifier.isAbstract(toBeInvoked.getModifiers())) {
-		return null;
-	    }
-	    toBeInvoked.setAccessible(true);// NOPMD
-	    return toBeInvoked; // NOPMD 
-	}
-	// Here, the desired method is not found. 
-
-	return null;
+	// looked up once for each signature; includes the negative result. 
+	return MemberIndex.of(aClass).getMethod(methodName, paramCls);
     }
 
 
@@ -1013,19 +2036,33 @@ public final class Accessor<T> {
     public static <T> T create(Class<T> aClass, 
 			       Object... parameters) 
 	throws InstantiationException, InvocationTargetException {
+	return create(engine, aClass, parameters);
+    }
 	
+    /**
+     * Like {@link #create(Class, Object...)} 
+     * but using the given engine to invoke the constructor. 
+     */
+    private static <T> T create(Engine eng,
+				Class<T> aClass, 
+				Object... parameters) 
+	throws InstantiationException, InvocationTargetException {
+	long start = AccessorMetrics.start();
+	try {
+	    Constructor<T> toBeInvoked = getConstructor(aClass, parameters);
+	    // toBeInvoked may also be the default constructor, 
+	    // although this is not EXPLICITLY declared, of course. 
 	
-	Constructor<T> toBeInvoked = getConstructor(aClass, parameters);
-	// toBeInvoked may also be the default constructor, 
-	// although this is not EXPLICITLY declared, of course. 
-
-	if (toBeInvoked == null) {
-	    throw new IllegalArgumentException
-		("Constructor " + aClass.getName() + 
-		 paramsToString(getParamCls(parameters)) + 
-		 STR_DNE);
+	    if (toBeInvoked == null) {
+		throw new IllegalArgumentException
+		    ("Constructor " + aClass.getName() + 
+		     paramsToString(getParamCls(parameters)) + 
+		     STR_DNE);
+	    }
+	    return create(eng, toBeInvoked, parameters);
+	} finally {
+	    AccessorMetrics.stop(Operation.CREATE, start);
 	}
-	return create(toBeInvoked, parameters);
     }
 
     /*
@@ -1123,22 +2160,42 @@ public final class Accessor<T> {
 	throws NoSuchMethodException, 
 	InstantiationException, 
 	InvocationTargetException {
+	return create(engine, aClass, paramCls, parameters);
+    }
 
-	// includes the default constructor?!? -- not specified! 
-	Constructor<T> toBeInvoked = aClass
-	    .getDeclaredConstructor(paramCls);
-	if (toBeInvoked == null) {
-	    throw new IllegalArgumentException
-		("Constructor " + aClass.getName() + 
-		 paramsToString(paramCls) + STR_DNE);
+    /**
+     * Like {@link #create(Class, Class[], Object...)} 
+     * but using the given engine to invoke the constructor. 
+     */
+    private static <T> T create(Engine eng,
+				Class<T> aClass,
+				Class<?>[] paramCls,
+				Object... parameters) 
+	throws NoSuchMethodException, 
+	InstantiationException, 
+	InvocationTargetException {
+	long start = AccessorMetrics.start();
+	try {
+	    // includes the default constructor?!? -- not specified! 
+	    Constructor<T> toBeInvoked = aClass
+		.getDeclaredConstructor(paramCls);
+	    if (toBeInvoked == null) {
+		throw new IllegalArgumentException
+		    ("Constructor " + aClass.getName() + 
+		     paramsToString(paramCls) + STR_DNE);
+	    }
+	    toBeInvoked.setAccessible(true);// NOPMD
+	    return create(eng, toBeInvoked, parameters);
+	} finally {
+	    AccessorMetrics.stop(Operation.CREATE, start);
 	}
-	toBeInvoked.setAccessible(true);// NOPMD
-	return create(toBeInvoked, parameters);
     }
 
     /**
      * Invoke the specified constructor with the given arguments. 
      *
+     * @param eng 
+     *    the engine invoking <code>toBeInvoked</code>. 
      * @param toBeInvoked 
      *    some <code>Constructor</code>. 
      * @param parameters
@@ -1149,12 +2206,14 @@ public final class Accessor<T> {
      *   to wrap an exception thrown by the constructor invoked. 
      *   Unwrap it using {@link Throwable#getCause}. 
      */
-    private static <T> T create(Constructor<T> toBeInvoked,
+    private static <T> T create(Engine eng,
+				Constructor<T> toBeInvoked,
 				Object... parameters) 
 	throws InstantiationException, InvocationTargetException {
 
 	try {
-	    return toBeInvoked.newInstance(parameters);
+	    AccessorMetrics.countInvocation(Operation.CREATE);
+	    return eng.newInstance(toBeInvoked, parameters);
 	} catch (IllegalAccessException ie) {
 	    throw new IllegalStateException// NOPMD
 		("Constructor should be accessible; still is not. "); 
@@ -1336,6 +2395,24 @@ public final class Accessor<T> {
      */
     private static <T> Constructor<T> getConstructor(Class<T> aClass,
 						     Object... parameters) {
+	// resolved once for each tuple of classes of the parameters. 
+	return MemberIndex.of(aClass)
+	    .getOverload(MemberIndex.CONSTRUCTOR, getParamCls(parameters),
+			 () -> resolveConstructor(aClass, parameters))
+	    .getMember();
+    }
+
+    /**
+     * Resolves the constructor of <code>aClass</code> 
+     * applicable to the given parameters. 
+     * This is the uncached part of {@link #getConstructor}. 
+     *
+     * @return 
+     *    the constructor found or no constructor if there is none 
+     *    or the information that the constructor is not unique. 
+     */
+    private static <T> MemberIndex.Overload<Constructor<T>> 
+	resolveConstructor(Class<T> aClass, Object... parameters) {
 
 	Constructor<?>[] cands = //(Constructor<T>[])
 	    aClass.getDeclaredConstructors();
@@ -1350,7 +2427,7 @@ public final class Accessor<T> {
 
 	    if (result != null) {
 		// Found more than one method/constructor. 
-		throw new IllegalArgumentException
+		return MemberIndex.Overload.ambiguous
 		    ("Constructor " + aClass.getName() + 
 		     paramsToString(getParamCls(parameters)) + 
 		     " is not unique: cannot distinguish " + result + 
@@ -1377,7 +2454,524 @@ public final class Accessor<T> {
 	if (result != null) {
 	    result.setAccessible(true);// NOPMD
 	}
-	return result;
+	return MemberIndex.Overload.of(result);
+    }
+
+    /*----------------------------------------------------------------------*
+     * typed references                                                     *
+     *----------------------------------------------------------------------*/
+
+    /**
+     * Returns a reference to the specified field 
+     * which reads and writes the field without looking it up again. 
+     * This is preferable to {@link #getField(Class, Object, String)} 
+     * and to {@link #setField(Class, Object, String, Object)} 
+     * if a field is accessed often. 
+     *
+     * @param aClass 
+     *    The class in which the field is looked up 
+     *    and recursively in its superclasses. 
+     *    Typically one will use the expression 
+     *    <code>&lt;classname&gt;.class</code> 
+     *    to determine the class-object. 
+     * @param fieldName 
+     *     the name of the field. 
+     * @param type 
+     *    the type of the field which may well be primitive, 
+     *    e.g. <code>int.class</code> for a reference 
+     *    of type <code>FieldRef&lt;T, Integer&gt;</code>. 
+     * @return 
+     *    a reference to the specified field. 
+     * @throws NoSuchFieldException 
+     *    if the specified class 
+     *    does not contain a field with the given name, 
+     *    e.g. because <code>fieldName == null</code>. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if the <code>null</code>-class is specified 
+     *    <li>
+     *    if the type of the specified field is not <code>type</code>. 
+     *    </ul>
+     */
+    public static <T, V> FieldRef<T, V> field(Class<T> aClass,
+					      String fieldName,
+					      Class<V> type) 
+	throws NoSuchFieldException {
+
+	Field aField = getFieldObj(aClass, fieldName);
+	if (aField.getType() != type) {
+	    throw new IllegalArgumentException
+		("Field '" + fieldName + STR_IN_CLS + aClass.getName() + 
+		 "' has type '" + aField.getType().getName() + 
+		 "' instead of '" + type.getName() + "'. ");
+	}
+	return new FieldRef<T, V>(aField);
+    }
+
+    /**
+     * Returns a reference to the specified method 
+     * which invokes the method without looking it up again. 
+     * Since the method is specified by its parameter types, 
+     * overloading is resolved once and for all. 
+     * This is preferable to 
+     * {@link #invoke(Class, Object, String, Class[], Object[])} 
+     * if a method is invoked often. 
+     *
+     * @param aClass 
+     *    The class in which the method is looked up 
+     *    and recursively in its superclasses. 
+     * @param methodName 
+     *    the short name of a method. 
+     *    Short means without package or class. 
+     * @param returnType 
+     *    the return type of the specified method 
+     *    which may well be primitive or <code>void.class</code>. 
+     * @param paramCls 
+     *    the types specifying the parameter list of the desired method. 
+     * @return 
+     *    a reference to the specified method. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if the <code>null</code>-class is specified 
+     *    <li>
+     *    if the specified method does not exist 
+     *    <li>
+     *    if the return type of the specified method 
+     *    is not <code>returnType</code>. 
+     *    </ul>
+     */
+    public static <T, R> MethodRef<T, R> method(Class<T> aClass,
+						String methodName,
+						Class<R> returnType,
+						Class<?>... paramCls) {
+	if (aClass == null) {
+	    throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
+	}
+	Method toBeInvoked = getToBeInvoked(aClass, methodName, paramCls);
+	if (toBeInvoked == null) {
+	    throw new IllegalArgumentException
+		("Method " + aClass.getName() + "." + methodName + 
+		 paramsToString(paramCls) + STR_DNE);
+	}
+	if (toBeInvoked.getReturnType() != returnType) {
+	    throw new IllegalArgumentException
+		("Method " + aClass.getName() + "." + methodName + 
+		 paramsToString(paramCls) + " has return type '" + 
+		 toBeInvoked.getReturnType().getName() + 
+		 "' instead of '" + returnType.getName() + "'. ");
+	}
+	return new MethodRef<T, R>(toBeInvoked);
+    }
+
+    /**
+     * Returns an instantiator invoking the specified constructor 
+     * without looking it up again. 
+     * Since the constructor is specified by its parameter types, 
+     * overloading is resolved once and for all. 
+     * This is preferable to {@link #create(Class, Class[], Object...)} 
+     * if many instances are created. 
+     * The instantiator is created once for each constructor 
+     * and then reused. 
+     *
+     * @param aClass 
+     *    the class to be instantiated. 
+     * @param paramTypes 
+     *    the types specifying the parameter list of the constructor. 
+     *    For inner classes which are not static, 
+     *    the enclosing class may be omitted at the first position 
+     *    as in the source code. 
+     * @return 
+     *    an instantiator for the specified constructor. 
+     * @throws NoSuchMethodException 
+     *    if the specified constructor does not exist. 
+     * @throws IllegalArgumentException 
+     *    if the <code>null</code>-class is specified. 
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Instantiator<T> instantiator(Class<T> aClass,
+						   Class<?>... paramTypes) 
+	throws NoSuchMethodException {
+
+	if (aClass == null) {
+	    throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
+	}
+	MemberIndex index = MemberIndex.of(aClass);
+	Constructor<?> constr = null;
+	if (Instantiator.isInner(aClass)) {
+	    // prefer the enclosing class omitted 
+	    Class<?>[] withEncl = new Class<?>[paramTypes.length + 1];
+	    withEncl[0] = aClass.getEnclosingClass();
+	    System.arraycopy(paramTypes, 0, withEncl, 1, paramTypes.length);
+	    constr = index.getDeclaredConstructor(withEncl);
+	}
+	if (constr == null) {
+	    constr = index.getDeclaredConstructor(paramTypes);
+	}
+	if (constr == null) {
+	    throw new NoSuchMethodException
+		("Constructor " + aClass.getName() + 
+		 paramsToString(paramTypes) + STR_DNE);
+	}
+	return (Instantiator<T>) index.getInstantiator(constr);
+    }
+
+    /**
+     * Returns an array of <code>num</code> new instances 
+     * of the given class. 
+     * The <code>i</code>th instance is created 
+     * as {@link #create(Class, Object...)} does 
+     * with parameters <code>args.apply(i)</code>. 
+     * Unlike invoking {@link #create(Class, Object...)} repeatedly, 
+     * the constructor is resolved only 
+     * if the classes of the parameters change 
+     * and it is invoked by an {@link Instantiator}. 
+     *
+     * @param aClass 
+     *    the class to be instantiated. 
+     * @param num 
+     *    the number of instances to be created. 
+     * @param args 
+     *    maps the index of an instance to the list of parameters 
+     *    of the constructor creating it. 
+     *    For inner classes which are not static, 
+     *    the enclosing instance is the first parameter. 
+     * @return 
+     *    an array of the new instances. 
+     * @throws InstantiationException 
+     *    if the instantiation with the specified constructor failed. 
+     * @throws IllegalArgumentException 
+     *    if the <code>null</code>-class is specified 
+     *    or if a constructor specified does not exist or is not unique. 
+     * @throws InvocationTargetException 
+     *   to wrap an exception thrown by the constructor invoked. 
+     *   Unwrap it using {@link Throwable#getCause}. 
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T[] createMany(Class<T> aClass,
+				     int num,
+				     IntFunction<Object[]> args) 
+	throws InstantiationException, InvocationTargetException {
+
+	if (aClass == null) {
+	    throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
+	}
+	T[] res = (T[]) Array.newInstance(aClass, num);
+	MemberIndex index = MemberIndex.of(aClass);
+	Class<?>[] argCls = null;
+	Instantiator<T> inst = null;
+	for (int i = 0; i < num; i++) {
+	    Object[] parameters = args.apply(i);
+	    if (inst == null || !haveClasses(parameters, argCls)) {
+		argCls = getParamCls(parameters);
+		Constructor<T> constr = getConstructor(aClass, parameters);
+		if (constr == null) {
+		    throw new IllegalArgumentException
+			("Constructor " + aClass.getName() + 
+			 paramsToString(argCls) + STR_DNE);
+		}
+		inst = (Instantiator<T>) index.getInstantiator(constr);
+	    }
+	    res[i] = inst.create(parameters);
+	}
+	return res;
+    }
+
+    /**
+     * Returns whether the classes of the given parameters 
+     * are <code>argCls</code> 
+     * as returned by {@link #getParamCls(Object...)}. 
+     */
+    private static boolean haveClasses(Object[] parameters, 
+				       Class<?>[] argCls) {
+	if (parameters.length != argCls.length) {
+	    return false;
+	}
+	for (int j = 0; j < parameters.length; j++) {
+	    Class<?> cls = parameters[j] == null 
+		? null 
+		: parameters[j].getClass();
+	    if (cls != argCls[j]) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Returns the path compiled from the given expression 
+     * which reads nested fields and array elements 
+     * without looking them up again. 
+     * This is preferable to nested invocations of 
+     * {@link #getField(Object, String)} 
+     * if deep private state is read often. 
+     * The path is compiled once for each class and expression 
+     * and then reused. 
+     *
+     * @param aClass 
+     *    The class in which the first field of the path is looked up 
+     *    and recursively in its superclasses. 
+     * @param expression 
+     *    a path like <code>a.b[3](Inner).c</code> 
+     *    as described for {@link FieldPath}. 
+     * @return 
+     *    the compiled path. 
+     * @throws NoSuchFieldException 
+     *    if a field of the path does not exist. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if the <code>null</code>-class 
+     *    or the <code>null</code>-expression is specified 
+     *    <li>
+     *    if the expression is not well-formed 
+     *    <li>
+     *    if an array index is applied to a value which is no array 
+     *    <li>
+     *    if an inner class does not exist 
+     *    or is no subtype of the type it replaces. 
+     *    </ul>
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FieldPath<T> path(Class<T> aClass, String expression) 
+	throws NoSuchFieldException {
+
+	if (aClass == null) {
+	    throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
+	}
+	if (expression == null) {
+	    throw new IllegalArgumentException("Specified null-path. ");
+	}
+	return (FieldPath<T>) MemberIndex.of(aClass).getPath(expression);
+    }
+
+    /*----------------------------------------------------------------------*
+     * bulk access methods                                                  *
+     *----------------------------------------------------------------------*/
+
+    /**
+     * Returns the values of the specified member field 
+     * of all the given targets resp. their wrappers. 
+     * This is equivalent with 
+     * {@link #getFieldAll(Collection, String, boolean)} 
+     * processing the targets sequentially. 
+     */
+    public static Object[] getFieldAll(Collection<?> targets, 
+				       String fieldName) 
+	throws NoSuchFieldException {
+	return getFieldAll(targets, fieldName, false);
+    }
+
+    /**
+     * Returns the values of the specified member field 
+     * of all the given targets resp. their wrappers. 
+     * This is like invoking {@link #getField(Object, String)} 
+     * for each target, 
+     * except that the field is looked up 
+     * only once for each class of the targets. 
+     *
+     * @param targets 
+     *    the objects for which the field is to be read. 
+     *    The field is looked up in the class of each target 
+     *    and its superclasses. 
+     * @param fieldName 
+     *    the name of a member field. 
+     * @param parallel 
+     *    whether the targets are processed in parallel 
+     *    by the common {@link java.util.concurrent.ForkJoinPool}. 
+     *    This pays off for large collections only. 
+     * @return 
+     *    an array with the values of the fields of the targets 
+     *    in the order of iteration over <code>targets</code>. 
+     *    Values of primitive type are wrapped. 
+     * @throws NoSuchFieldException 
+     *    if the class of a target does not contain a field 
+     *    with the given name. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if a target is <code>null</code>. 
+     *    <li>
+     *    if the specified field is static. 
+     *    </ul>
+     */
+    public static Object[] getFieldAll(Collection<?> targets, 
+				       String fieldName, 
+				       boolean parallel) 
+	throws NoSuchFieldException {
+
+	try {
+	    return BulkAccess.apply(targets, target -> {
+		    Field aField = getFieldObj(target.getClass(), fieldName, 
+					       false);
+		    return MemberIndex.of(aField.getDeclaringClass())
+			.getGetter(aField);
+		}, parallel);
+	} catch (InvocationTargetException e) {
+	    throw FieldRef.rethrow(e.getCause());
+	}
+    }
+
+    /**
+     * Invokes the specified member method 
+     * on all the given targets with the given parameters. 
+     * This is equivalent with 
+     * {@link #invokeAll(Collection, boolean, String, Object...)} 
+     * processing the targets sequentially. 
+     */
+    public static Object[] invokeAll(Collection<?> targets, 
+				     String methodName, 
+				     Object... parameters) 
+	throws InvocationTargetException {
+	return invokeAll(targets, false, methodName, parameters);
+    }
+
+    /**
+     * Invokes the specified member method 
+     * on all the given targets with the given parameters. 
+     * This is like invoking {@link #invoke(Object, String, Object...)} 
+     * for each target, 
+     * except that the method is resolved 
+     * only once for each class of the targets. 
+     *
+     * @param targets 
+     *    the objects on which the method is to be invoked. 
+     *    The method is looked up in the class of each target 
+     *    and its superclasses. 
+     * @param parallel 
+     *    whether the targets are processed in parallel 
+     *    by the common {@link java.util.concurrent.ForkJoinPool}. 
+     *    This pays off for large collections only. 
+     *    Of course, the method must then be safe 
+     *    for concurrent invocation on distinct targets. 
+     * @param methodName 
+     *    the short name of a member method. 
+     * @param parameters 
+     *    the list of parameters used for all invocations. 
+     *    Note that parameters of elementary types 
+     *    have to be wrapped in an object. 
+     * @return 
+     *    an array with the return values for the targets 
+     *    in the order of iteration over <code>targets</code>, 
+     *    wrapped if the return type is primitive 
+     *    and <code>null</code> if the method returns no value. 
+     * @throws InvocationTargetException 
+     *    to wrap an exception thrown by the method invoked. 
+     *    Unwrap it using {@link Throwable#getCause}. 
+     *    If the targets are processed sequentially, 
+     *    this refers to the first invocation failing. 
+     *    In parallel mode, it refers to any of the invocations failing 
+     *    and invocations are skipped only on a best effort basis. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if a target is <code>null</code>. 
+     *    <li>
+     *    if the specified method does not exist or is not unique. 
+     *    <li>
+     *    if the specified method is static. 
+     *    </ul>
+     */
+    public static Object[] invokeAll(Collection<?> targets, 
+				     boolean parallel, 
+				     String methodName, 
+				     Object... parameters) 
+	throws InvocationTargetException {
+
+	return BulkAccess.apply(targets, target -> {
+		Method toBeInvoked = getOverloadedMethod(target.getClass(), 
+							 methodName, 
+							 parameters);
+		checkStatic(toBeInvoked, target);
+		Engine.checkParams(toBeInvoked.getParameterTypes(), parameters);
+		return MethodHandles
+		    .insertArguments(MemberIndex
+				     .of(toBeInvoked.getDeclaringClass())
+				     .getInvoker(toBeInvoked),
+				     1, (Object) parameters);
+	    }, parallel);
+    }
+
+    /*----------------------------------------------------------------------*
+     * static state methods                                                 *
+     *----------------------------------------------------------------------*/
+
+    /**
+     * Captures the values of the static fields 
+     * of the given classes and of their inner classes. 
+     * Restoring them by {@link #restoreStatics(StaticsSnapshot)} 
+     * between tests provides pristine static state 
+     * without loading the classes anew. 
+     *
+     * @param classes 
+     *    the classes the static fields of which are to be captured. 
+     *    Inner classes are included recursively, 
+     *    superclasses are not. 
+     * @return 
+     *    a snapshot of the static fields 
+     *    as described for {@link StaticsSnapshot}. 
+     * @throws IllegalArgumentException 
+     *    if one of the classes is <code>null</code>. 
+     */
+    public static StaticsSnapshot captureStatics(Class<?>... classes) {
+	for (Class<?> aClass : classes) {
+	    if (aClass == null) {
+		throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
+	    }
+	}
+	return new StaticsSnapshot(classes);
+    }
+
+    /**
+     * Restores the values of the static fields 
+     * captured in the given snapshot. 
+     *
+     * @param snapshot 
+     *    a snapshot returned by {@link #captureStatics(Class[])}. 
+     */
+    public static void restoreStatics(StaticsSnapshot snapshot) {
+	snapshot.restore();
+    }
+
+    /*----------------------------------------------------------------------*
+     * object graph methods                                                 *
+     *----------------------------------------------------------------------*/
+
+    /**
+     * Captures the state of all objects reachable from <code>root</code>, 
+     * private fields included. 
+     * Comparing snapshots by {@link #diff(GraphSnapshot, GraphSnapshot)} 
+     * replaces reading many fields one by one 
+     * in white-box tests of large data structures. 
+     *
+     * @param root 
+     *    the root of the object graph which may be <code>null</code>. 
+     * @return 
+     *    a snapshot as described for {@link GraphSnapshot}. 
+     */
+    public static GraphSnapshot snapshot(Object root) {
+	return new GraphSnapshot(root);
+    }
+
+    /**
+     * Returns the paths to the fields, elements and entries 
+     * which differ between the given snapshots. 
+     *
+     * @param snap1 
+     *    a snapshot returned by {@link #snapshot(Object)}. 
+     * @param snap2 
+     *    another snapshot returned by {@link #snapshot(Object)}. 
+     * @return 
+     *    the paths relative to the roots in the form 
+     *    described for {@link FieldPath}, e.g. <code>a.b[3].c</code>, 
+     *    in the order of their length. 
+     *    The list is empty if and only if no difference is found. 
+     *    The details are described for {@link GraphSnapshot}. 
+     */
+    public static List<String> diff(GraphSnapshot snap1, 
+				    GraphSnapshot snap2) {
+	return GraphSnapshot.diff(snap1, snap2);
     }
 
     /*----------------------------------------------------------------------*
@@ -1417,11 +3011,16 @@ public final class Accessor<T> {
      */
     public static Class<?> getInnerClass(Class<?> enclosingCls,
 					 String[] pathToInner) {
-	Class<?> result = enclosingCls;
-	for (String clsName : pathToInner) {
-	    result = getInnerClass(result, clsName);
+	long start = AccessorMetrics.start();
+	try {
+	    Class<?> result = enclosingCls;
+	    for (String clsName : pathToInner) {
+		result = innerClass(result, clsName);
+	    }
+	    return result;
+	} finally {
+	    AccessorMetrics.stop(Operation.GET_INNER_CLASS, start);
 	}
-	return result;
     }
 
     /**
@@ -1429,6 +3028,8 @@ public final class Accessor<T> {
      * with the specified name <code>innerClsName</code>. 
      * By inner classes we mean both static inner classes and member classes. 
      * Also inherited classes are included. 
+     * The class found is cached for <code>enclosingCls</code>, 
+     * so that subsequent invocations require a single lookup. 
      *
      * @param enclosingCls 
      *    a <code>Class</code> object which may also be an inner class, 
@@ -1441,19 +3042,32 @@ public final class Accessor<T> {
      *    Here, "$" is as specified in {@link #INNER_SEPARATOR}. 
      *    This remains also true for nested inner classes. 
      *    In this case, <code>shortName</code> itself has the form 
-     *    <code>cls1$...$clsN</code>. 
-     *    <em>CAUTION</em> 
-     *    In this case apply method {@link #getInnerClass(Class, String[])} 
-     *    instead. 
+     *    <code>cls1$...$clsN</code> 
+     *    and each <code>clsI</code> may also be inherited. 
      * @return 
      *    the <code>Class</code> object represented by the parameters. 
      * @throws IllegalArgumentException
      *    if either of the parameters is <code>null</code> or 
      *    if the specified class does not exist. 
      * @see #getInnerClass(Class, String[])
+     * @see MemberIndex#getInnerClass(String) 
      */
     public static Class<?> getInnerClass(Class<?> enclosingCls,
 					 String innerClsName) {
+	long start = AccessorMetrics.start();
+	try {
+	    return innerClass(enclosingCls, innerClsName);
+	} finally {
+	    AccessorMetrics.stop(Operation.GET_INNER_CLASS, start);
+	}
+    }
+
+    /**
+     * Like {@link #getInnerClass(Class, String)} 
+     * but without recording metrics. 
+     */
+    private static Class<?> innerClass(Class<?> enclosingCls,
+				       String innerClsName) {
 
 	if (enclosingCls == null) {
 	    throw new IllegalArgumentException(STR_SPEC_NULL_CLS);
@@ -1463,24 +3077,10 @@ public final class Accessor<T> {
 		("Specified null-class-name. ");
 	}
 
-	Class<?>[] cands;
-	Class<?> candCls = enclosingCls;
-	String candClsName;
-
-	do {
-	    // look for the specified inner class in candClass. 
-
-	    cands = candCls.getDeclaredClasses();
-	    candClsName = candCls.getName() + INNER_SEPARATOR;
-
-	    for (Class<?> aClass : cands) {
-		if (aClass.getName().equals(candClsName + innerClsName)) {
-		    return aClass;
-		}
-	    }
-	    // prepare search in superclass. 
-	    candCls = candCls.getSuperclass();
-	} while (candCls != null);
+	Class<?> res = MemberIndex.of(enclosingCls).getInnerClass(innerClsName);
+	if (res != null) {
+	    return res;
+	}
 	// Here, the specified inner class is not found. 
 
 	throw new IllegalArgumentException
@@ -0,0 +1,337 @@
+
+package eu.simuline.testhelpers;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A snapshot of the metrics recorded by {@link Accessor} 
+ * as returned by {@link Accessor#getMetrics()}. 
+ * Recording is opt-in: 
+ * it is enabled by {@link Accessor#setMetricsEnabled(boolean)} 
+ * or initially by the property {@link Accessor#PROP_METRICS}. 
+ * While disabled, the operations of {@link Accessor} 
+ * do not even read the clock. 
+ * <p>
+ * For each kind of {@link Operation} 
+ * the number of calls, the number of reflective invocations 
+ * and the time spent are recorded. 
+ * A call which fails before the member is invoked, 
+ * e.g. because the member does not exist, 
+ * counts as a call but not as an invocation. 
+ * In addition, the lookups and misses of the caches 
+ * holding the reflective information, see {@link ScopedCache}, 
+ * are reported since metrics were reset the last time. 
+ * These include lookups on behalf of other classes of this package. 
+ * <p>
+ * Only the operations going through the {@link Accessor.Engine} 
+ * are recorded, not those of references like {@link FieldRef}, 
+ * which are intended for hot loops. 
+ * Nested operations are recorded once only. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+public final class AccessorMetrics {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The kinds of operations recorded. 
+     */
+    public enum Operation {
+	/**
+	 * Reading a field as {@link Accessor#getField(Object, String)}. 
+	 */
+	GET_FIELD("getField"),
+	/**
+	 * Writing a field as 
+	 * {@link Accessor#setField(Object, String, Object)}. 
+	 */
+	SET_FIELD("setField"),
+	/**
+	 * Invoking a method as 
+	 * {@link Accessor#invoke(Object, String, Object...)}. 
+	 */
+	INVOKE("invoke"),
+	/**
+	 * Invoking a constructor as 
+	 * {@link Accessor#create(Class, Object...)}. 
+	 */
+	CREATE("create"),
+	/**
+	 * Looking up an inner class as 
+	 * {@link Accessor#getInnerClass(Class, String)}. 
+	 */
+	GET_INNER_CLASS("getInnerClass");
+
+	/**
+	 * The name of the method of {@link Accessor} 
+	 * performing operations of this kind. 
+	 */
+	private final String methodName;
+
+	Operation(String methodName) {
+	    this.methodName = methodName;
+	}
+
+	public String toString() {
+	    return this.methodName;
+	}
+    } // enum Operation
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returned by {@link #start()} if metrics are disabled. 
+     */
+    private static final long NOT_RECORDED = Long.MIN_VALUE;
+
+    /**
+     * The number of operations. 
+     */
+    private static final int NUM_OPS = Operation.values().length;
+
+    /**
+     * For each operation the number of calls so far. 
+     */
+    private static final LongAdder[] CALLS = adders();
+
+    /**
+     * For each operation the number of reflective invocations so far. 
+     */
+    private static final LongAdder[] INVOCATIONS = adders();
+
+    /**
+     * For each operation the time spent so far in nanoseconds. 
+     */
+    private static final LongAdder[] NANOS = adders();
+
+    /* -------------------------------------------------------------------- *
+     * class variables.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Whether metrics are recorded. 
+     */
+    private static volatile boolean enabled =
+	Boolean.getBoolean(Accessor.PROP_METRICS);
+
+    /**
+     * The statistics of the caches when metrics were reset. 
+     */
+    private static volatile ScopedCache.Stats base = ScopedCache.getStats();
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * For each operation the number of calls. 
+     */
+    private final long[] numCalls;
+
+    /**
+     * For each operation the number of reflective invocations. 
+     */
+    private final long[] numInvocations;
+
+    /**
+     * For each operation the time spent in nanoseconds. 
+     */
+    private final long[] nanos;
+
+    /**
+     * The number of cache lookups. 
+     */
+    private final long numLookups;
+
+    /**
+     * The number of cache lookups which were no hit. 
+     */
+    private final long numMisses;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Creates a snapshot of the metrics recorded so far. 
+     */
+    private AccessorMetrics() {
+	this.numCalls       = new long[NUM_OPS];
+	this.numInvocations = new long[NUM_OPS];
+	this.nanos          = new long[NUM_OPS];
+	for (int i = 0; i < NUM_OPS; i++) {
+	    this.numCalls      [i] = CALLS      [i].sum();
+	    this.numInvocations[i] = INVOCATIONS[i].sum();
+	    this.nanos         [i] = NANOS      [i].sum();
+	}
+	ScopedCache.Stats stats = ScopedCache.getStats();
+	ScopedCache.Stats from = base;
+	this.numLookups = stats.getNumLookups() - from.getNumLookups();
+	this.numMisses  = stats.getNumMisses()  - from.getNumMisses();
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    private static LongAdder[] adders() {
+	LongAdder[] res = new LongAdder[NUM_OPS];
+	for (int i = 0; i < NUM_OPS; i++) {
+	    res[i] = new LongAdder();
+	}
+	return res;
+    }
+
+    /**
+     * Returns whether metrics are recorded. 
+     */
+    static boolean isEnabled() {
+	return enabled;
+    }
+
+    /**
+     * Sets whether metrics are recorded. 
+     * The metrics recorded so far are kept. 
+     */
+    static void setEnabled(boolean enabled) {
+	AccessorMetrics.enabled = enabled;
+    }
+
+    /**
+     * Resets all metrics to zero. 
+     * Operations running concurrently may be recorded partially. 
+     */
+    static void reset() {
+	for (int i = 0; i < NUM_OPS; i++) {
+	    CALLS      [i].reset();
+	    INVOCATIONS[i].reset();
+	    NANOS      [i].reset();
+	}
+	base = ScopedCache.getStats();
+    }
+
+    /**
+     * Returns a snapshot of the metrics recorded so far. 
+     */
+    static AccessorMetrics snapshot() {
+	return new AccessorMetrics();
+    }
+
+    /**
+     * Starts recording an operation. 
+     *
+     * @return 
+     *    the current time in nanoseconds 
+     *    to be passed to {@link #stop(Operation, long)} 
+     *    or {@link #NOT_RECORDED} if metrics are disabled. 
+     */
+    static long start() {
+	return enabled ? System.nanoTime() : NOT_RECORDED;
+    }
+
+    /**
+     * Finishes recording an operation started by {@link #start()}. 
+     *
+     * @param op 
+     *    the kind of the operation. 
+     * @param start 
+     *    the value returned by {@link #start()}. 
+     */
+    static void stop(Operation op, long start) {
+	if (start == NOT_RECORDED) {
+	    return;
+	}
+	NANOS[op.ordinal()].add(System.nanoTime() - start);
+	CALLS[op.ordinal()].increment();
+    }
+
+    /**
+     * Counts a reflective invocation for an operation of the given kind. 
+     */
+    static void countInvocation(Operation op) {
+	if (enabled) {
+	    INVOCATIONS[op.ordinal()].increment();
+	}
+    }
+
+    /**
+     * Returns the number of calls of the given kind. 
+     */
+    public long getNumCalls(Operation op) {
+	return this.numCalls[op.ordinal()];
+    }
+
+    /**
+     * Returns the number of reflective invocations 
+     * for calls of the given kind. 
+     */
+    public long getNumInvocations(Operation op) {
+	return this.numInvocations[op.ordinal()];
+    }
+
+    /**
+     * Returns the time spent in calls of the given kind 
+     * in nanoseconds. 
+     */
+    public long getNanos(Operation op) {
+	return this.nanos[op.ordinal()];
+    }
+
+    /**
+     * Returns the time spent in all calls in nanoseconds. 
+     */
+    public long getTotalNanos() {
+	long res = 0;
+	for (long time : this.nanos) {
+	    res += time;
+	}
+	return res;
+    }
+
+    /**
+     * Returns the number of cache lookups. 
+     */
+    public long getNumLookups() {
+	return this.numLookups;
+    }
+
+    /**
+     * Returns the number of cache lookups which were hits. 
+     */
+    public long getNumHits() {
+	return this.numLookups - this.numMisses;
+    }
+
+    /**
+     * Returns the number of cache lookups which were no hit. 
+     */
+    public long getNumMisses() {
+	return this.numMisses;
+    }
+
+    /**
+     * Returns a one-line summary listing the operations called 
+     * with their number of calls and the time spent 
+     * followed by the cache hits. 
+     * This is shown in the status bar of the {@link GUIRunner}. 
+     */
+    public String toString() {
+	StringBuilder res = new StringBuilder("reflection: ");
+	for (Operation op : Operation.values()) {
+	    long num = getNumCalls(op);
+	    if (num != 0) {
+		res.append(String.format("%d %s %.1fms, ",
+					 num, op, getNanos(op) / 1e6));
+	    }
+	}
+	res.append(String.format("%d lookups %d hits",
+				 getNumLookups(), getNumHits()));
+	return res.toString();
+    }
+}
@@ -246,12 +246,14 @@ public final class Actions {
 		 * Then creates a {@link Request} filtering it with {@link #filter} 
 		 * defining the tests to be run and runs those tests 
 		 * invoking {@link #run(Request)}. 
+		 * Finally drops the cached values 
+		 * of the classes loaded by the {@link TestCaseClassLoader}. 
 		 */
 		public void run() {
 			Class<?> newTestClass = null;
+			TestCaseClassLoader loader = new TestCaseClassLoader();
 			try {
-				newTestClass =
-						new TestCaseClassLoader().loadClass(this.testClassName, true);
+				newTestClass = loader.loadClass(this.testClassName, true);
 			} catch (ClassNotFoundException e) {
 				throw new IllegalStateException// NOPMD
 				("Testclass '" + this.testClassName + "' disappeared. ");
@@ -275,6 +277,9 @@ public final class Actions {
 			} catch (StoppedByUserException ee) {
 				// either Break or Stop 
 				Actions.this.listener.testRunAborted();
+			} finally {
+				// the next run uses a new loader 
+				ScopedCache.dropScope(loader);
 			}
 
 			//System.out.println("...Core run()"+this.core);
@@ -0,0 +1,419 @@
+
+package eu.simuline.testhelpers;
+
+import java.lang.reflect.Array;
+
+import java.util.Arrays;
+
+/**
+ * The first position where two arrays of the same type differ 
+ * as found by {@link #find(Object, Object, ArrayMismatch.Leaves)} 
+ * which implements the methods <code>assertArraysEquals</code> 
+ * of {@link Assert}. 
+ * Arrays are compared recursively: 
+ * first the lengths, then the entries in ascending order, 
+ * where entries which are arrays of the same type are compared in turn. 
+ * The other entries, called leaves here, are compared by {@link Leaves}: 
+ * either exactly by {@link #EXACT} or up to a {@link Tolerance}. 
+ * <p>
+ * Finding no mismatch allocates no memory: 
+ * primitive entries are not boxed 
+ * and the index path is built only if a mismatch is found, 
+ * while the recursion unwinds. 
+ * Huge arrays may be searched in parallel by {@link ArraySearch} 
+ * which finds the same mismatch. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+final class ArrayMismatch {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Compares the leaves of arrays, 
+     * i.e. the entries of arrays with primitive component type 
+     * and the entries which are no arrays of the same type. 
+     */
+    abstract static class Leaves {
+
+	/**
+	 * Returns the first index in <code>[from, to)</code> 
+	 * where the given arrays 
+	 * of the same primitive component type and of the same length 
+	 * differ or <code>-1</code> if they coincide in this range. 
+	 */
+	abstract int mismatch(Object expected,
+			      Object actual,
+			      int from,
+			      int to);
+
+	/**
+	 * Returns whether the given entries are equal. 
+	 * These are neither <code>null</code> 
+	 * nor arrays of the same type. 
+	 */
+	abstract boolean equal(Object expected, Object actual);
+
+	/**
+	 * Returns whether the given entries 
+	 * of arrays of type <code>double[]</code> are equal. 
+	 */
+	abstract boolean equal(double expected, double actual);
+
+	/**
+	 * Returns whether the given entries 
+	 * of arrays of type <code>float[]</code> are equal. 
+	 */
+	abstract boolean equal(float expected, float actual);
+    } // class Leaves
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Compares leaves exactly: 
+     * primitive leaves as their wrappers are by {@link Object#equals}, 
+     * i.e. floating point values by their bits 
+     * like {@link Double#doubleToLongBits(double)}, 
+     * other leaves by their <code>equals</code>-method. 
+     */
+    static final Leaves EXACT = new Leaves() {
+	    int mismatch(Object expected, Object actual, int from, int to) {
+		int res = mismatchPrimitive(expected, actual, from, to);
+		return res < 0 ? res : from + res;
+	    }
+
+	    boolean equal(Object expected, Object actual) {
+		return expected.equals(actual);
+	    }
+
+	    boolean equal(double expected, double actual) {
+		return Double.compare(expected, actual) == 0;
+	    }
+
+	    boolean equal(float expected, float actual) {
+		return Float.compare(expected, actual) == 0;
+	    }
+	};
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Whether the arrays differ in length 
+     * rather than in an entry. 
+     */
+    private final boolean isLength;
+
+    /**
+     * The indices leading to the arrays which differ in length 
+     * or to the entries which differ. 
+     * Filled while the recursion unwinds. 
+     */
+    private final int[] indices;
+
+    /**
+     * The expected array if {@link #isLength} 
+     * and the expected entry otherwise, 
+     * wrapped if it is primitive. 
+     */
+    private final Object expected;
+
+    /**
+     * The actual array if {@link #isLength} 
+     * and the actual entry otherwise, 
+     * wrapped if it is primitive. 
+     */
+    private final Object actual;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    private ArrayMismatch(boolean isLength,
+			  int[] indices,
+			  Object expected,
+			  Object actual) {
+	this.isLength = isLength;
+	this.indices  = indices;
+	this.expected = expected;
+	this.actual   = actual;
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the first mismatch between the given arrays 
+     * comparing leaves exactly 
+     * or <code>null</code> if they are equal. 
+     *
+     * @param expected 
+     *    an array. 
+     * @param actual 
+     *    an array of the same type as <code>expected</code>. 
+     */
+    static ArrayMismatch find(Object expected, Object actual) {
+	return find(expected, actual, EXACT);
+    }
+
+    /**
+     * Returns the first mismatch between the given arrays 
+     * comparing leaves by <code>leaves</code> 
+     * or <code>null</code> if they are equal. 
+     *
+     * @param expected 
+     *    an array. 
+     * @param actual 
+     *    an array of the same type as <code>expected</code>. 
+     */
+    static ArrayMismatch find(Object expected, Object actual, Leaves leaves) {
+	return find(expected, actual, 0, leaves);
+    }
+
+    /**
+     * Returns the first mismatch between the given arrays 
+     * or <code>null</code> if they are equal. 
+     * The indices of the mismatch returned are filled 
+     * from position <code>depth</code> on only. 
+     *
+     * @param depth 
+     *    the number of indices leading to the arrays compared. 
+     */
+    private static ArrayMismatch find(Object expected,
+				      Object actual,
+				      int depth,
+				      Leaves leaves) {
+	ArrayMismatch res = length(expected, actual, depth);
+	if (res != null) {
+	    return res;
+	}
+	return find(expected, actual, depth,
+		    0, Array.getLength(expected), leaves);
+    }
+
+    /**
+     * Returns a mismatch if the given arrays differ in length 
+     * and <code>null</code> otherwise. 
+     * The indices of the mismatch returned are not filled. 
+     *
+     * @param depth 
+     *    the number of indices leading to the arrays compared. 
+     */
+    static ArrayMismatch length(Object expected, Object actual, int depth) {
+	return Array.getLength(expected) == Array.getLength(actual)
+	    ? null
+	    : new ArrayMismatch(true, new int[depth], expected, actual);
+    }
+
+    /**
+     * Returns the first mismatch between the entries 
+     * with index in <code>[from, to)</code> of the given arrays 
+     * which have the same length 
+     * or <code>null</code> if they coincide in this range. 
+     * The indices of the mismatch returned are filled 
+     * from position <code>depth</code> on only. 
+     *
+     * @param depth 
+     *    the number of indices leading to the arrays compared. 
+     */
+    static ArrayMismatch find(Object expected,
+			      Object actual,
+			      int depth,
+			      int from,
+			      int to,
+			      Leaves leaves) {
+	if (expected.getClass().getComponentType().isPrimitive()) {
+	    int idx = leaves.mismatch(expected, actual, from, to);
+	    return idx < 0
+		? null
+		: entry(depth, idx,
+			Array.get(expected, idx), Array.get(actual, idx));
+	}
+
+	Object[] exp = (Object[]) expected;
+	Object[] act = (Object[]) actual;
+	Object expEntry;
+	Object actEntry;
+	for (int i = from; i < to; i++) {
+	    expEntry = exp[i];
+	    actEntry = act[i];
+	    if (expEntry == actEntry) {
+		continue;
+	    }
+	    if (expEntry == null || actEntry == null) {
+		return entry(depth, i, expEntry, actEntry);
+	    }
+	    // Here, neither entry is null. 
+	    if (isNested(expEntry, actEntry)) {
+		ArrayMismatch res = find(expEntry, actEntry, depth + 1, leaves);
+		if (res != null) {
+		    res.indices[depth] = i;
+		    return res;
+		}
+		continue;
+	    }
+	    // arrays of different types are not equal 
+	    if (expEntry.getClass().isArray()
+		|| !leaves.equal(expEntry, actEntry)) {
+		return entry(depth, i, expEntry, actEntry);
+	    }
+	}
+	return null;
+    }
+
+    /**
+     * Returns whether the given entries 
+     * are arrays of the same type which are compared recursively. 
+     *
+     * @param expEntry 
+     *    an entry which may be <code>null</code>. 
+     * @param actEntry 
+     *    an entry which may be <code>null</code>. 
+     */
+    static boolean isNested(Object expEntry, Object actEntry) {
+	return expEntry != null && actEntry != null
+	    && expEntry.getClass().isArray()
+	    && expEntry.getClass() == actEntry.getClass();
+    }
+
+    /**
+     * Returns a mismatch of the entries with index <code>idx</code> 
+     * in arrays given by <code>depth</code> indices. 
+     */
+    static ArrayMismatch entry(int depth,
+			       int idx,
+			       Object expected,
+			       Object actual) {
+	int[] indices = new int[depth + 1];
+	indices[depth] = idx;
+	return new ArrayMismatch(false, indices, expected, actual);
+    }
+
+    /**
+     * Returns the first index relative to <code>from</code> 
+     * where the given arrays 
+     * of the same primitive component type and of the same length 
+     * differ in <code>[from, to)</code> 
+     * or <code>-1</code> if they coincide in this range. 
+     * This delegates to <code>Arrays.mismatch</code> 
+     * which is intrinsified and vectorized by the JVM 
+     * and which compares floating point values 
+     * the same way as their wrappers do. 
+     */
+    private static int mismatchPrimitive(Object expected,
+					 Object actual,
+					 int from,
+					 int to) {
+	Class<?> type = expected.getClass().getComponentType();
+	if (type == Integer.TYPE) {
+	    return Arrays.mismatch((int[]) expected, from, to,
+				   (int[]) actual,   from, to);
+	} else if (type == Double.TYPE) {
+	    return Arrays.mismatch((double[]) expected, from, to,
+				   (double[]) actual,   from, to);
+	} else if (type == Long.TYPE) {
+	    return Arrays.mismatch((long[]) expected, from, to,
+				   (long[]) actual,   from, to);
+	} else if (type == Float.TYPE) {
+	    return Arrays.mismatch((float[]) expected, from, to,
+				   (float[]) actual,   from, to);
+	} else if (type == Boolean.TYPE) {
+	    return Arrays.mismatch((boolean[]) expected, from, to,
+				   (boolean[]) actual,   from, to);
+	} else if (type == Character.TYPE) {
+	    return Arrays.mismatch((char[]) expected, from, to,
+				   (char[]) actual,   from, to);
+	} else if (type == Byte.TYPE) {
+	    return Arrays.mismatch((byte[]) expected, from, to,
+				   (byte[]) actual,   from, to);
+	} else {
+	    assert type == Short.TYPE;
+	    return Arrays.mismatch((short[]) expected, from, to,
+				   (short[]) actual,   from, to);
+	}
+    }
+
+    /**
+     * Sets the first indices of this mismatch 
+     * which were not filled when it was found. 
+     *
+     * @param path 
+     *    the indices leading to the arrays compared when it was found. 
+     */
+    void setPath(int[] path) {
+	System.arraycopy(path, 0, this.indices, 0, path.length);
+    }
+
+    /**
+     * Returns whether this mismatch is found before 
+     * the entry given by <code>path</code> followed by <code>idx</code> 
+     * is compared, if arrays are compared sequentially. 
+     * A mismatch of the lengths of arrays 
+     * is found before any entry of these arrays is compared. 
+     */
+    boolean isBefore(int[] path, int idx) {
+	int num = Math.min(this.indices.length, path.length + 1);
+	int pos;
+	for (int i = 0; i < num; i++) {
+	    pos = i < path.length ? path[i] : idx;
+	    if (this.indices[i] != pos) {
+		return this.indices[i] < pos;
+	    }
+	}
+	return this.indices.length <= path.length;
+    }
+
+    /**
+     * Returns whether this mismatch is found before <code>other</code> 
+     * if arrays are compared sequentially. 
+     */
+    boolean isBefore(ArrayMismatch other) {
+	int num = Math.min(this.indices.length, other.indices.length);
+	for (int i = 0; i < num; i++) {
+	    if (this.indices[i] != other.indices[i]) {
+		return this.indices[i] < other.indices[i];
+	    }
+	}
+	return this.indices.length < other.indices.length;
+    }
+
+    /**
+     * Returns whether the arrays differ in length 
+     * rather than in an entry. 
+     */
+    boolean isLength() {
+	return this.isLength;
+    }
+
+    /**
+     * Returns the indices leading to the arrays which differ in length 
+     * or to the entries which differ. 
+     * The array returned may not be modified. 
+     */
+    int[] getIndices() {
+	return this.indices;
+    }
+
+    /**
+     * Returns the expected array if {@link #isLength()} 
+     * and the expected entry otherwise. 
+     */
+    Object getExpected() {
+	return this.expected;
+    }
+
+    /**
+     * Returns the actual array if {@link #isLength()} 
+     * and the actual entry otherwise. 
+     */
+    Object getActual() {
+	return this.actual;
+    }
+}
@@ -0,0 +1,422 @@
+
+package eu.simuline.testhelpers;
+
+import java.lang.reflect.Array;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All mismatches between two arrays of the same type 
+ * as found by {@link #create(Object, Object, ArrayMismatch.Leaves, int)} 
+ * which implements the methods <code>assertArraysEqualsAll</code> 
+ * of {@link Assert}. 
+ * Unlike {@link ArrayMismatch}, the arrays are compared completely 
+ * in a single pass, counting the leaves compared and the mismatches, 
+ * keeping the first few mismatches 
+ * and the statistics of the absolute and relative deviations. 
+ * The memory needed does not depend on the number of mismatches. 
+ * <p>
+ * Arrays are compared recursively as by {@link ArrayMismatch}. 
+ * Arrays which differ in length count as a single mismatch; 
+ * their entries are not compared. 
+ * Deviations are recorded for all leaves which are numbers, 
+ * including the equal ones, 
+ * where the deviation between equal values is zero. 
+ * Deviations which are not finite, 
+ * e.g. the relative deviation from an expected value zero, 
+ * are not recorded. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+final class ArrayReport {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Statistics of deviations, either absolute or relative. 
+     */
+    static final class Deviation {
+
+	/**
+	 * The number of deviations recorded. 
+	 */
+	private long num;
+
+	/**
+	 * The maximal deviation recorded. 
+	 */
+	private double max;
+
+	/**
+	 * The sum of the deviations recorded. 
+	 */
+	private double sum;
+
+	/**
+	 * The sum of the squares of the deviations recorded. 
+	 */
+	private double sumSq;
+
+	/**
+	 * Records the given deviation if it is finite. 
+	 *
+	 * @param dev 
+	 *    a non-negative deviation or <code>NaN</code>. 
+	 */
+	void add(double dev) {
+	    if (Double.isNaN(dev) || Double.isInfinite(dev)) {
+		return;
+	    }
+	    this.num++;
+	    this.max = Math.max(this.max, dev);
+	    this.sum += dev;
+	    this.sumSq += dev * dev;
+	}
+
+	/**
+	 * Records <code>num</code> deviations zero. 
+	 */
+	void addZeros(long num) {
+	    this.num += num;
+	}
+
+	/**
+	 * Returns the number of deviations recorded. 
+	 */
+	long getNum() {
+	    return this.num;
+	}
+
+	/**
+	 * Returns the maximal deviation recorded. 
+	 */
+	double getMax() {
+	    return this.max;
+	}
+
+	/**
+	 * Returns the mean of the deviations recorded 
+	 * which is <code>NaN</code> if none is recorded. 
+	 */
+	double getMean() {
+	    return this.sum / this.num;
+	}
+
+	/**
+	 * Returns the root mean square of the deviations recorded 
+	 * which is <code>NaN</code> if none is recorded. 
+	 */
+	double getRms() {
+	    return Math.sqrt(this.sumSq / this.num);
+	}
+    } // class Deviation
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Compares the leaves. 
+     */
+    private final ArrayMismatch.Leaves leaves;
+
+    /**
+     * The maximal number of mismatches kept in {@link #first}. 
+     */
+    private final int numReported;
+
+    /**
+     * The first mismatches found, at most {@link #numReported}. 
+     */
+    private final List<ArrayMismatch> first;
+
+    /**
+     * The indices leading to the arrays currently compared. 
+     * Only the first entries up to the current depth are valid. 
+     */
+    private int[] path;
+
+    /**
+     * The number of leaves compared 
+     * including arrays which differ in length. 
+     */
+    private long numCompared;
+
+    /**
+     * The number of mismatches found. 
+     */
+    private long numMismatches;
+
+    /**
+     * The statistics of the absolute deviations. 
+     */
+    private final Deviation absDev;
+
+    /**
+     * The statistics of the relative deviations. 
+     */
+    private final Deviation relDev;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    private ArrayReport(ArrayMismatch.Leaves leaves, int numReported) {
+	this.leaves = leaves;
+	this.numReported = numReported;
+	this.first = new ArrayList<ArrayMismatch>(Math.min(numReported, 16));
+	this.path = new int[4];
+	this.absDev = new Deviation();
+	this.relDev = new Deviation();
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Compares the given arrays completely. 
+     *
+     * @param expected 
+     *    an array. 
+     * @param actual 
+     *    an array of the same type as <code>expected</code>. 
+     * @param leaves 
+     *    compares the leaves. 
+     * @param numReported 
+     *    the maximal number of mismatches kept. 
+     */
+    static ArrayReport create(Object expected,
+			      Object actual,
+			      ArrayMismatch.Leaves leaves,
+			      int numReported) {
+	ArrayReport res = new ArrayReport(leaves, numReported);
+	res.compare(expected, actual, 0);
+	return res;
+    }
+
+    /**
+     * Compares the given arrays given by <code>depth</code> indices. 
+     */
+    private void compare(Object expected, Object actual, int depth) {
+	ArrayMismatch length = ArrayMismatch.length(expected, actual, depth);
+	if (length != null) {
+	    this.numCompared++;
+	    mismatch(length, depth);
+	    return;
+	}
+	Class<?> type = expected.getClass().getComponentType();
+	if (type == Double.TYPE) {
+	    compare((double[]) expected, (double[]) actual, depth);
+	} else if (type == Float.TYPE) {
+	    compare((float[]) expected, (float[]) actual, depth);
+	} else if (type.isPrimitive()) {
+	    comparePrimitive(expected, actual, depth);
+	} else {
+	    compare((Object[]) expected, (Object[]) actual, depth);
+	}
+    }
+
+    private void compare(double[] expected, double[] actual, int depth) {
+	this.numCompared += expected.length;
+	double exp;
+	double act;
+	for (int i = 0; i < expected.length; i++) {
+	    exp = expected[i];
+	    act = actual[i];
+	    deviation(exp, act);
+	    if (!this.leaves.equal(exp, act)) {
+		mismatch(depth, i, exp, act);
+	    }
+	}
+    }
+
+    private void compare(float[] expected, float[] actual, int depth) {
+	this.numCompared += expected.length;
+	float exp;
+	float act;
+	for (int i = 0; i < expected.length; i++) {
+	    exp = expected[i];
+	    act = actual[i];
+	    deviation(exp, act);
+	    if (!this.leaves.equal(exp, act)) {
+		mismatch(depth, i, exp, act);
+	    }
+	}
+    }
+
+    /**
+     * Compares arrays of primitive type 
+     * other than <code>double</code> and <code>float</code> 
+     * skipping to the mismatches by {@link ArrayMismatch.Leaves#mismatch}. 
+     * Equal entries which are numbers are recorded with deviation zero. 
+     */
+    private void comparePrimitive(Object expected, Object actual, int depth) {
+	int len = Array.getLength(expected);
+	this.numCompared += len;
+	long numBefore = this.numMismatches;
+	int idx = this.leaves.mismatch(expected, actual, 0, len);
+	Object exp;
+	Object act;
+	while (idx >= 0) {
+	    exp = Array.get(expected, idx);
+	    act = Array.get(actual, idx);
+	    if (exp instanceof Number) {
+		deviation(((Number) exp).doubleValue(),
+			  ((Number) act).doubleValue());
+	    }
+	    mismatch(depth, idx, exp, act);
+	    idx = this.leaves.mismatch(expected, actual, idx + 1, len);
+	}
+	Class<?> type = expected.getClass().getComponentType();
+	if (type != Boolean.TYPE && type != Character.TYPE) {
+	    long numEqual = len - (this.numMismatches - numBefore);
+	    this.absDev.addZeros(numEqual);
+	    this.relDev.addZeros(numEqual);
+	}
+    }
+
+    private void compare(Object[] expected, Object[] actual, int depth) {
+	Object expEntry;
+	Object actEntry;
+	for (int i = 0; i < expected.length; i++) {
+	    expEntry = expected[i];
+	    actEntry = actual[i];
+	    if (ArrayMismatch.isNested(expEntry, actEntry)) {
+		if (this.path.length == depth) {
+		    this.path = Arrays.copyOf(this.path, 2 * depth);
+		}
+		this.path[depth] = i;
+		compare(expEntry, actEntry, depth + 1);
+		continue;
+	    }
+	    this.numCompared++;
+	    if (expEntry instanceof Number && actEntry instanceof Number) {
+		deviation(((Number) expEntry).doubleValue(),
+			  ((Number) actEntry).doubleValue());
+	    }
+	    if (expEntry == actEntry) {
+		continue;
+	    }
+	    // arrays of different types are not equal 
+	    if (expEntry == null || actEntry == null
+		|| expEntry.getClass().isArray()
+		|| !this.leaves.equal(expEntry, actEntry)) {
+		mismatch(depth, i, expEntry, actEntry);
+	    }
+	}
+    }
+
+    /**
+     * Records the absolute and the relative deviation 
+     * between the given values. 
+     */
+    private void deviation(double expected, double actual) {
+	if (expected == actual) {
+	    this.absDev.addZeros(1);
+	    this.relDev.addZeros(1);
+	    return;
+	}
+	double diff = Math.abs(expected - actual);
+	this.absDev.add(diff);
+	this.relDev.add(diff / Math.abs(expected));
+    }
+
+    /**
+     * Records a mismatch of the entries with index <code>idx</code> 
+     * in arrays given by <code>depth</code> indices. 
+     */
+    private void mismatch(int depth, int idx, Object expected, Object actual) {
+	if (this.first.size() < this.numReported) {
+	    mismatch(ArrayMismatch.entry(depth, idx, expected, actual), depth);
+	} else {
+	    this.numMismatches++;
+	}
+    }
+
+    /**
+     * Records a mismatch of the entries with index <code>idx</code> 
+     * in arrays given by <code>depth</code> indices, 
+     * wrapping them only if the mismatch is kept. 
+     */
+    private void mismatch(int depth, int idx, double expected, double actual) {
+	if (this.first.size() < this.numReported) {
+	    mismatch(depth, idx, (Double) expected, (Double) actual);
+	} else {
+	    this.numMismatches++;
+	}
+    }
+
+    /**
+     * Records a mismatch of the entries with index <code>idx</code> 
+     * in arrays given by <code>depth</code> indices, 
+     * wrapping them only if the mismatch is kept. 
+     */
+    private void mismatch(int depth, int idx, float expected, float actual) {
+	if (this.first.size() < this.numReported) {
+	    mismatch(depth, idx, (Float) expected, (Float) actual);
+	} else {
+	    this.numMismatches++;
+	}
+    }
+
+    /**
+     * Records the given mismatch 
+     * of arrays or entries in arrays given by <code>depth</code> indices. 
+     */
+    private void mismatch(ArrayMismatch mismatch, int depth) {
+	this.numMismatches++;
+	if (this.first.size() < this.numReported) {
+	    mismatch.setPath(Arrays.copyOf(this.path, depth));
+	    this.first.add(mismatch);
+	}
+    }
+
+    /**
+     * Returns whether the arrays compared are equal. 
+     */
+    boolean isEqual() {
+	return this.numMismatches == 0;
+    }
+
+    /**
+     * Returns the number of leaves compared 
+     * including arrays which differ in length. 
+     */
+    long getNumCompared() {
+	return this.numCompared;
+    }
+
+    /**
+     * Returns the number of mismatches found. 
+     */
+    long getNumMismatches() {
+	return this.numMismatches;
+    }
+
+    /**
+     * Returns the first mismatches found in the order found. 
+     */
+    List<ArrayMismatch> getFirst() {
+	return this.first;
+    }
+
+    /**
+     * Returns the statistics of the absolute deviations. 
+     */
+    Deviation getAbsDev() {
+	return this.absDev;
+    }
+
+    /**
+     * Returns the statistics of the relative deviations. 
+     */
+    Deviation getRelDev() {
+	return this.relDev;
+    }
+}
@@ -0,0 +1,249 @@
+
+package eu.simuline.testhelpers;
+
+import java.lang.reflect.Array;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Searches the first mismatch of two huge arrays in parallel 
+ * for the parallel variants of <code>assertArraysEquals</code> 
+ * in {@link Assert}. 
+ * The outer dimensions are split recursively 
+ * into ranges of entries processed by the common {@link ForkJoinPool}; 
+ * each instance of this class processes one range. 
+ * A range consisting of a single huge entry 
+ * is searched by splitting the entry in turn. 
+ * A range with at most as many leaves as a given threshold 
+ * is searched sequentially by {@link ArrayMismatch}. 
+ * <p>
+ * All ranges share the first mismatch found so far, 
+ * i.e. the one with the lowest indices. 
+ * Ranges which are not yet processed are skipped 
+ * if they come after that mismatch, 
+ * so that the mismatch finally found is the same 
+ * as the one found sequentially. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+final class ArraySearch extends RecursiveAction {
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    private static final long serialVersionUID = 4632119458219781263L;
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The expected array of the range of this task. 
+     */
+    private final transient Object expected;
+
+    /**
+     * The actual array of the range of this task 
+     * which has the same type and length as {@link #expected}. 
+     */
+    private final transient Object actual;
+
+    /**
+     * The indices leading to {@link #expected} and to {@link #actual}. 
+     */
+    private final int[] path;
+
+    /**
+     * The first index of the range of this task. 
+     */
+    private final int from;
+
+    /**
+     * The index after the range of this task. 
+     */
+    private final int to;
+
+    /**
+     * Compares the leaves. 
+     */
+    private final transient ArrayMismatch.Leaves leaves;
+
+    /**
+     * The maximal number of leaves of a range which is not split. 
+     */
+    private final int threshold;
+
+    /**
+     * The first mismatch found so far shared by all ranges. 
+     */
+    private final transient AtomicReference<ArrayMismatch> first;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    private ArraySearch(Object expected,
+			Object actual,
+			int[] path,
+			int from,
+			int to,
+			ArrayMismatch.Leaves leaves,
+			int threshold,
+			AtomicReference<ArrayMismatch> first) {
+	this.expected = expected;
+	this.actual = actual;
+	this.path = path;
+	this.from = from;
+	this.to = to;
+	this.leaves = leaves;
+	this.threshold = threshold;
+	this.first = first;
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the first mismatch between the given arrays 
+     * or <code>null</code> if they are equal, 
+     * searching in parallel if they have more leaves than 
+     * <code>threshold</code>. 
+     * The result is the same as for 
+     * {@link ArrayMismatch#find(Object, Object, ArrayMismatch.Leaves)}. 
+     *
+     * @param expected 
+     *    an array. 
+     * @param actual 
+     *    an array of the same type as <code>expected</code>. 
+     * @param leaves 
+     *    compares the leaves. 
+     * @param threshold 
+     *    the maximal number of leaves searched sequentially. 
+     *    This is positive. 
+     */
+    static ArrayMismatch find(Object expected,
+			      Object actual,
+			      ArrayMismatch.Leaves leaves,
+			      int threshold) {
+	ArrayMismatch res = ArrayMismatch.length(expected, actual, 0);
+	if (res != null) {
+	    return res;
+	}
+	int len = Array.getLength(expected);
+	if (isSmall(expected, 0, len, threshold)) {
+	    return ArrayMismatch.find(expected, actual, 0, 0, len, leaves);
+	}
+	AtomicReference<ArrayMismatch> first =
+	    new AtomicReference<ArrayMismatch>();
+	ForkJoinPool.commonPool()
+	    .invoke(new ArraySearch(expected, actual, new int[0], 0, len,
+				    leaves, threshold, first));
+	return first.get();
+    }
+
+    /**
+     * Returns whether the entries with index in <code>[from, to)</code> 
+     * of the given array have at most <code>threshold</code> leaves. 
+     * The number of leaves is estimated 
+     * assuming that all entries are shaped as the one at <code>from</code> 
+     * and, recursively, as their first entries. 
+     */
+    private static boolean isSmall(Object array,
+				   int from,
+				   int to,
+				   int threshold) {
+	// does not overflow because both factors are less than 2^31 
+	long size = to - from;
+	Object entry = array;
+	int idx = from;
+	while (size > 0 && size <= threshold
+	       && !entry.getClass().getComponentType().isPrimitive()) {
+	    entry = ((Object[]) entry)[idx];
+	    if (entry == null || !entry.getClass().isArray()) {
+		break;
+	    }
+	    size *= Array.getLength(entry);
+	    idx = 0;
+	}
+	return size <= threshold;
+    }
+
+    protected void compute() {
+	ArrayMismatch found = this.first.get();
+	if (found != null && found.isBefore(this.path, this.from)) {
+	    // a mismatch in a range before this one is found already 
+	    return;
+	}
+
+	if (getPool() == null
+	    || isSmall(this.expected, this.from, this.to, this.threshold)) {
+	    search();
+	    return;
+	}
+	if (this.to - this.from > 1) {
+	    int mid = (this.from + this.to) >>> 1;
+	    invokeAll(new ArraySearch(this.expected, this.actual, this.path,
+				      this.from, mid,
+				      this.leaves, this.threshold, this.first),
+		      new ArraySearch(this.expected, this.actual, this.path,
+				      mid, this.to,
+				      this.leaves, this.threshold, this.first));
+	    return;
+	}
+
+	// Here, the range consists of a single huge entry. 
+	Object expEntry = ((Object[]) this.expected)[this.from];
+	Object actEntry = ((Object[]) this.actual)  [this.from];
+	if (!ArrayMismatch.isNested(expEntry, actEntry)) {
+	    search();
+	    return;
+	}
+	int[] subPath = Arrays.copyOf(this.path, this.path.length + 1);
+	subPath[this.path.length] = this.from;
+	ArrayMismatch res = ArrayMismatch.length(expEntry, actEntry,
+						 subPath.length);
+	if (res != null) {
+	    res.setPath(subPath);
+	    offer(res);
+	    return;
+	}
+	new ArraySearch(expEntry, actEntry, subPath,
+			0, Array.getLength(expEntry),
+			this.leaves, this.threshold, this.first).invoke();
+    }
+
+    /**
+     * Searches the range of this task sequentially 
+     * and offers the mismatch found if any. 
+     */
+    private void search() {
+	ArrayMismatch res = ArrayMismatch.find(this.expected, this.actual,
+					       this.path.length,
+					       this.from, this.to,
+					       this.leaves);
+	if (res != null) {
+	    res.setPath(this.path);
+	    offer(res);
+	}
+    }
+
+    /**
+     * Replaces the first mismatch found so far by <code>mismatch</code> 
+     * if there is none or if <code>mismatch</code> comes before. 
+     */
+    private void offer(ArrayMismatch mismatch) {
+	ArrayMismatch cur;
+	do {
+	    cur = this.first.get();
+	    if (cur != null && cur.isBefore(mismatch)) {
+		return;
+	    }
+	} while (!this.first.compareAndSet(cur, mismatch));
+    }
+}
@@ -1,13 +1,13 @@
 
 package eu.simuline.testhelpers;
 
-import java.lang.reflect.Modifier;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.InvocationTargetException;
 
 import java.util.Comparator;
 import java.util.Collection;
+import java.util.List;
 
 import junit.framework.AssertionFailedError;
 
@@ -39,12 +39,29 @@ import junit.framework.AssertionFailedError;
  * This method can also check for "greater than" or that like. 
  * A variant of this using <code>Comparator</code>s 
  * is {@link #assertIs(Assert.CmpObj,Object,Object,Comparator)}. 
+ * The methods {@link #assertSorted(Assert.CmpObj,List,Comparator)} 
+ * and {@link #assertMonotone(Assert.CmpObj,List)} 
+ * check this relation for all adjacent entries of a list or an array 
+ * at once, possibly in parallel. 
  * <li>
  * The method {@link #assertArraysEquals(Object,Object)} 
  * tests equality of arrays recursively. 
  * <li>
  * The method {@link #assertArraysEquals(Object,Object,double)} 
  * is a combination ot the two. 
+ * The methods {@link #assertArraysRelEquals(Object,Object,double)} 
+ * and {@link #assertArraysAbsRelEquals(Object,double,Object,double,double)} 
+ * are the according variants for relative tolerances. 
+ * The method 
+ * {@link #assertArraysNormAbsEquals(Object,Object,String,double)} 
+ * compares arrays of objects with a metric defined by a method (name) 
+ * as {@link #assertNormAbsEquals(Object,Object,String,double)} does. 
+ * The methods {@link #assertArraysEqualsAll(Object,Object,int)} 
+ * and {@link #assertArraysEqualsAll(Object,Object,double,int)} 
+ * do not stop at the first mismatch but report a summary of all. 
+ * Arrays of type <code>double[]</code> and <code>float[]</code> 
+ * are compared using the vector API 
+ * if the module <code>jdk.incubator.vector</code> is present. 
  * <li>
  * The method 
  * {@link #assertRelEquals(double expected, double actual, double reldev)} 
@@ -191,44 +208,45 @@ public abstract class Assert<E> extends org.junit.Assert {
 	    // Here, expected instanceof Comparable 
 	    // and in particular expected != null. 
 
-	    Method compareTo;
+	    // Invoked directly rather than via reflection. 
+	    // This is type-safe: as for the reflective invocation, 
+	    // the bridge method compareTo(Object) casts actual. 
+	    @SuppressWarnings("unchecked")
+	    Comparable<Object> cmp = (Comparable<Object>) expected;
+	    int result;
+	    try {
+		result = cmp.compareTo(actual);
+	    } catch (Throwable e) {// NOPMD
+		// the method is looked up only to report the exception 
+		throw new IllegalArgumentException// NOPMD
+		    ("Could not test ordering because method " + 
+		     getCompareTo(expected) + STR_RAISED + e + ". ");
+	    }
+	    if (actual != null) {
+		return isValid(result);
+	    }
+	    // by symmetry, expected.compareTo(actual) 
+	    // should have thrown a NullPointerException. 
+
+	    throw new IllegalStateException
+		("Tried to compare <" + expected + 
+		 "> to: <" + actual + 
+		 "> which should raise a NullPointerException. ");	
+	}
+
+	/**
+	 * Returns the method <code>compareTo(Object)</code> 
+	 * of the class of <code>expected</code>. 
+	 */
+	private static Method getCompareTo(Comparable<?> expected) {
 	    try {
-		compareTo = expected.getClass().getMethod("compareTo",
-							  Object.class);
+		return expected.getClass().getMethod("compareTo", Object.class);
 	    } catch (NoSuchMethodException e) {
 		throw new IllegalStateException// NOPMD
 		    (STR_OBJECT + expected + STR_DN_PROV + 
 		     "public int compareTo(Object)\" - impossible " + 
 		     "because expected is declared as Comparable. ");
 	    }
-	    // this is necessary 
-	    // despite compareTo(Object) is supposed to be public, 
-	    // because the including class 
-	    // may not be accessible from within this Accessor. 
-	    compareTo.setAccessible(true);
-
-	    try {
-		Integer result = (Integer) compareTo.invoke(expected, actual);
-		if (actual != null) {
-		    return isValid(result);
-		}
-		// by symmetry, expected.compareTo(actual) 
-		// should have thrown a NullPointerException. 
-
-		throw new IllegalStateException
-		    ("Tried to compare <" + expected + 
-		     "> to: <" + actual + 
-		     "> which should raise a NullPointerException. ");	
-	    } catch (IllegalAccessException iace) {
-		thrwAccessible(compareTo);
-	    } catch (IllegalArgumentException iage) {
-		thrwWrongArgs(compareTo);
-	    } catch (InvocationTargetException ite) {
-		throw new IllegalArgumentException// NOPMD
-		    ("Could not test ordering because method " + compareTo + 
-		     STR_RAISED + ite.getTargetException() + ". ");
-	    }
-	    throw new IllegalStateException();
 	}
 
     } // enum CmpObj 
@@ -246,6 +264,32 @@ public abstract class Assert<E> extends org.junit.Assert {
     private static final String STR_ASTOP      = ">. ";
     private static final String STR_IN_ABS_VAL = " in absolute value. ";
 
+    /**
+     * The name of the system property 
+     * determining the initial threshold for parallel comparison of arrays. 
+     * Its value must be a positive integer. 
+     * If the property is not set or if its value is no such integer, 
+     * <code>65536</code> is used; 
+     * in the latter case a warning is printed on <code>System.err</code>. 
+     *
+     * @see #setParallelThreshold(int) 
+     */
+    public static final String PROP_PARALLEL_THRESHOLD = 
+	"eu.simuline.testhelpers.parallelThreshold";
+
+    /* -------------------------------------------------------------------- *
+     * class variables.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The maximal number of leaves of arrays compared sequentially 
+     * by the parallel variants of <code>assertArraysEquals</code>. 
+     *
+     * @see #getParallelThreshold() 
+     * @see #setParallelThreshold(int) 
+     */
+    private static volatile int parallelThreshold = initParallelThreshold();
+
     /* -------------------------------------------------------------------- *
      * thrower methods.                                                     *
      * -------------------------------------------------------------------- */
@@ -316,53 +360,8 @@ public abstract class Assert<E> extends org.junit.Assert {
 				       //Object... actuals
 				       ) {
 
-	// get the norm2 method or null 
-	Method mNorm2 = Accessor.getToBeInvoked(expected.getClass(),
-						norm,
-						expected.getClass());
-
-
-	// ensure that a method with given signature exists 
-	if (mNorm2 == null) {
-	    throw new IllegalArgumentException
-		(STR_OBJECT + expected + STR_DN_PROV + 
-		 "public ... " + norm + "(" + expected.getClass() + 
-		 ") as expected. ");
-	}
-
-	// ensure the right return type 
-	if (!Double.TYPE.equals(mNorm2.getReturnType())) {
-	    throw new IllegalArgumentException
-		(STR_OBJECT + expected + STR_DN_PROV + 
-		 "public double " + norm + "(" + expected.getClass() + 
-		 ") as expected (have a look at the return type). ");
-	}
-
-	// ensure that the method is a member method 
-	if (Modifier.isStatic(mNorm2.getModifiers())) {
-	    throw new IllegalArgumentException
-		(STR_OBJECT + expected + " provides a static method " + 
-		 "\"public static double " + norm + "(" + expected.getClass() + 
-		 ") not a member method as expected. ");
-	}
-
-	// Here, mNorm contains the correct method representing a norm 
-	// resp. a metric 
-	// (we expect this is unique). ***** 
-
-	try {
-	    // invoke norm method 
-	    return (Double) mNorm2.invoke(expected, actual);
-	} catch (IllegalAccessException iace) {
-	    // throws IllegalStateException but shall never occur 
-	    thrwAccessible(mNorm2);
-	} catch (InvocationTargetException ite) {
-ite.getTargetException().printStackTrace();
-	    throw new IllegalArgumentException // NOPMD
-		("Could not test deviation, because method " + mNorm2 + 
-		 STR_RAISED + ite.getTargetException() + ". ");
-	}
-	throw new IllegalStateException("Reached unreachable statement. ");
+	// resolved and checked once for the class of expected 
+	return Metric.distance(norm, expected, actual);
     } // computeNorm2(...) 
 
 
@@ -439,14 +438,15 @@ ite.getTargetException().printStackTrace();
 					   Object actual, 
 					   String norm,
 					   double delta) {
-	assertNormAbsEquals(expectedActual(expected, actual) + 
-			    ":  deviation " + 
-			    computeNorm2(norm, expected, actual) + 
-			    " exceeds " + delta + STR_IN_ABS_VAL,
-			    expected, 
-			    actual, 
-			    norm,
-			    delta);
+	checkNullsB(norm, expected, actual);
+	double diff = computeNorm2(norm, expected, actual);
+
+	// the message is built only on failure 
+	if (diff > delta) {
+	    fail(expectedActual(expected, actual) + 
+		 ":  deviation " + diff + 
+		 " exceeds " + delta + STR_IN_ABS_VAL);
+	}
     } // assertNormAbsEquals(...) 
 
     /**
@@ -493,49 +493,8 @@ ite.getTargetException().printStackTrace();
 	//checkNullsB(norm, expected); checked by computeNorm2 already
 	//assert expected != null && norm != null;
 
-	// get the norm1 method or null 
-	Method mNorm1 = Accessor.getToBeInvoked(expected.getClass(),
-						norm);
-
-	// ensure that a method with given signature exists 
-	if (mNorm1 == null) {
-	    throw new IllegalArgumentException
-		(STR_OBJECT + expected + STR_DN_PROV + 
-		 "public ... " + norm + "(" + expected.getClass() + 
-		 ") as expected. ");
-	}
-
-	// ensure the right return type 
-	if (!Double.TYPE.equals(mNorm1.getReturnType())) {
-	    throw new IllegalArgumentException
-		(STR_OBJECT + expected + STR_DN_PROV + 
-		 "public double " + norm + 
-		 "() as expected (have a look at the return type). ");
-	}
-
-	// ensure that the method is a member method 
-	if (Modifier.isStatic(mNorm1.getModifiers())) {
-	    throw new IllegalArgumentException
-		(STR_OBJECT + expected + " provides a static method " + 
-		 "\"public static double " + norm + 
-		 "() not a member method as expected. ");
-	}
-
-	// Here, mNorm1 contains the correct method representing a norm 
-	// (we expect this is unique). ***** 
-
-	try {
-	    // invoke norm method 
-	    return (Double) mNorm1.invoke(expected);
-	} catch (IllegalAccessException iace) {
-	    // throws IllegalStateException but shall never occur 
-	    thrwAccessible(mNorm1);
-	} catch (InvocationTargetException ite) {
-	    throw new IllegalArgumentException // NOPMD
-		("Could not test deviation, because method " + mNorm1 + 
-		 STR_RAISED + ite.getTargetException() + ". ");
-	}
-	throw new IllegalStateException("Reached unreachable statement. ");
+	// resolved and checked once for the class of expected 
+	return Metric.norm(norm, expected);
     } // computeNorm1(...) 
 
 
@@ -549,15 +508,16 @@ ite.getTargetException().printStackTrace();
 					   Object actual, 
 					   String norm,
 					   double reldev) {
-	assertNormRelEquals(expectedActual(expected, actual) + 
-			    ":  relative deviation " + 
-			    computeNorm2(norm, expected, actual) /
-			    computeNorm1(norm, expected) + 
-			    " exceeds " + reldev + STR_IN_ABS_VAL,
-			    expected, 
-			    actual, 
-			    norm,
-			    reldev);
+	checkNullsB(norm, expected, actual);
+	double rel = computeNorm2(norm, expected, actual)
+	    / computeNorm1(norm, expected);
+
+	// the message is built only on failure 
+	if (rel > reldev) {
+	    fail(expectedActual(expected, actual) + 
+		 ":  relative deviation " + rel + 
+		 " exceeds " + reldev + STR_IN_ABS_VAL);
+	}
     } // assertNormEquals(...) 
 
     public static void assertNormRelEquals(String message,
@@ -866,11 +826,12 @@ ite.getTargetException().printStackTrace();
 				    Comparable<E> expected,
 				    E actual) {
 
-	assertIs(cmpObj,
-		 "expected: <" + expected + 
+	// the message is built only on failure 
+	if (!(cmpObj.invokeCompareTo(expected, actual))) {
+	    fail("expected: <" + expected + 
 		 "> to be" + cmpObj.message + 
-		 ": <" + actual + STR_ASTOP,
-		  expected, actual);
+		 ": <" + actual + STR_ASTOP);
+	}
     }
 
     /**
@@ -897,12 +858,13 @@ ite.getTargetException().printStackTrace();
 				    E actual,
 				    Comparator<E> cmp) {
 
-	assertIs(cmpObj,
-		 "expected: <" + expected + 
+	// the message is built only on failure 
+	if (!(cmpObj.isValid(invokeCompare(expected, actual, cmp)))) {
+	    fail("expected: <" + expected + 
 		 "> to be" + cmpObj.message + 
 		 ": <" + actual + 
-		 "> with respect to the comparator <" + cmp + STR_ASTOP,
-		  expected, actual, cmp);
+		 "> with respect to the comparator <" + cmp + STR_ASTOP);
+	}
     }
 
 
@@ -932,42 +894,300 @@ ite.getTargetException().printStackTrace();
 					 E obj2,
 					 Comparator<E> cmp) {
 
-	// Check comparator. 
+	checkComparator(cmp);
+	// Here, the comparator is not null. 
+
+	// Invoked directly rather than via reflection. 
+	try {
+	    return cmp.compare(obj1, obj2);
+	} catch (Throwable e) {// NOPMD
+	    // the method is looked up only to report the exception 
+	    throw new IllegalArgumentException// NOPMD
+		("Could not test ordering because method " + 
+		 getCompare(cmp) + STR_RAISED + e + ". ");
+	}
+    }
+
+    /**
+     * Throws an exception if <code>cmp</code> is <code>null</code>. 
+     *
+     * @throws IllegalArgumentException
+     *    for <code>cmp == null</code>. 
+     */
+    private static void checkComparator(Comparator<?> cmp) {
 	if (cmp == null) {
 	    throw new IllegalArgumentException
 		("Found null-comparator . ");
 	}
-	// Here, the comparator is not null. 
+    }
 
-	Method compare;
+    /**
+     * Returns the method <code>compare(Object, Object)</code> 
+     * of the class of <code>cmp</code>. 
+     */
+    private static Method getCompare(Comparator<?> cmp) {
 	try {
-	    compare = cmp.getClass().getMethod("compare",
-					       Object.class,
-					       Object.class);
+	    return cmp.getClass().getMethod("compare",
+					    Object.class,
+					    Object.class);
 	} catch (NoSuchMethodException e) {
 	    throw new IllegalStateException // NOPMD
 		("Comparator " + cmp + STR_DN_PROV + 
 		 "public int compare(Object, Object)\" - impossible. ");
 	}
-	// this is necessary 
-	// despite compare(Object, Object) is supposed to be public, 
-	// because the including Comparator 
-	// may not be accessible from within this Accessor. 
-	compare.setAccessible(true);
+    }
 
+    /**
+     * Fails if some adjacent entries <code>list.get(i)</code> 
+     * and <code>list.get(i+1)</code> are not related as specified 
+     * by <code>cmpObj</code> with respect to <code>cmp</code>. 
+     * E.g. for {@link CmpObj#LESS_EQ} this checks 
+     * whether <code>list</code> is sorted ascending 
+     * and for {@link CmpObj#LESS} whether it is strictly ascending. 
+     * This is equivalent with invoking 
+     * {@link #assertIs(Assert.CmpObj,Object,Object,Comparator)} 
+     * for all adjacent entries in ascending order 
+     * but the failure message includes the indices. 
+     *
+     * @param cmpObj 
+     *    The action that decides whether the relation is satisfied. 
+     * @param list 
+     *    a list. 
+     * @param cmp 
+     *    a comparator which is capable of comparing the entries. 
+     * @throws IllegalArgumentException
+     *    for <code>cmp == null</code> 
+     *    or if invoking <code>cmp.compare</code> for adjacent entries 
+     *    raises an exception. 
+     * @throws AssertionFailedError
+     *    if the value of <code>cmp.compare</code> for adjacent entries 
+     *    is not as specified by <code>cmpObj</code>. 
+     * @see #assertSorted(Assert.CmpObj, List, Comparator, boolean)
+     */
+    public static <E> void assertSorted(CmpObj cmpObj,
+					List<E> list,
+					Comparator<? super E> cmp) {
+	assertSorted(cmpObj, list, cmp, false);
+    }
 
-	try {
-	    return (Integer) compare.invoke(cmp, obj1, obj2);
-	} catch (IllegalAccessException iace) {
-	    thrwAccessible(compare);
-	} catch (IllegalArgumentException iage) {
-	    thrwWrongArgs(compare);
-	} catch (InvocationTargetException ite) {
-	    throw new IllegalArgumentException// NOPMD
-		("Could not test ordering because method " + compare + 
-		 STR_RAISED + ite.getTargetException() + ". ");
+    /**
+     * Is a variant of {@link #assertSorted(Assert.CmpObj,List,Comparator)} 
+     * which checks huge lists in parallel if <code>parallel</code> is set. 
+     * Then the list is split across the common <code>ForkJoinPool</code> 
+     * until parts have at most {@link #getParallelThreshold()} 
+     * adjacent pairs, where the last pair of a part 
+     * consists of its last entry and the first entry of the next part. 
+     * The comparator must be thread-safe 
+     * and the list must not be modified concurrently. 
+     * The failure reported is the same as in sequential mode: 
+     * the one with the lowest index. 
+     *
+     * @param parallel 
+     *    whether huge lists are checked in parallel. 
+     */
+    public static <E> void assertSorted(CmpObj cmpObj,
+					List<E> list,
+					Comparator<? super E> cmp,
+					boolean parallel) {
+	checkComparator(cmp);
+	assertOrdered(cmpObj, 
+		      OrderScan.of(list, (E e1, E e2) -> 
+				   cmpObj.isValid(invokeCompare(e1, e2, cmp))),
+		      cmp, parallel);
+    }
+
+    /**
+     * Is the variant of {@link #assertSorted(Assert.CmpObj,List,Comparator)} 
+     * for arrays. 
+     */
+    public static <E> void assertSorted(CmpObj cmpObj,
+					E[] array,
+					Comparator<? super E> cmp) {
+	assertSorted(cmpObj, array, cmp, false);
+    }
+
+    /**
+     * Is the variant of 
+     * {@link #assertSorted(Assert.CmpObj,List,Comparator,boolean)} 
+     * for arrays. 
+     */
+    public static <E> void assertSorted(CmpObj cmpObj,
+					E[] array,
+					Comparator<? super E> cmp,
+					boolean parallel) {
+	checkComparator(cmp);
+	assertOrdered(cmpObj, 
+		      OrderScan.of(array, (E e1, E e2) -> 
+				   cmpObj.isValid(invokeCompare(e1, e2, cmp))),
+		      cmp, parallel);
+    }
+
+    /**
+     * Fails if some adjacent entries <code>list.get(i)</code> 
+     * and <code>list.get(i+1)</code> are not related as specified 
+     * by <code>cmpObj</code> with respect to their natural ordering. 
+     * E.g. for {@link CmpObj#LESS_EQ} this checks 
+     * whether <code>list</code> is monotonically increasing 
+     * and for {@link CmpObj#GREATER} 
+     * whether it is strictly decreasing. 
+     * This is equivalent with invoking 
+     * {@link #assertIs(Assert.CmpObj,Comparable,Object)} 
+     * for all adjacent entries in ascending order 
+     * but the failure message includes the indices. 
+     *
+     * @param cmpObj 
+     *    The action that decides whether the relation is satisfied. 
+     * @param list 
+     *    a list. 
+     * @throws IllegalArgumentException
+     *    if invoking <code>compareTo</code> for adjacent entries 
+     *    raises an exception. 
+     *    In particular if some entry but the last one is <code>null</code> 
+     *    or the entry after it. 
+     * @throws IllegalStateException
+     *    if <code>compareTo</code> is evaluated 
+     *    for an entry <code>null</code> without throwing an exception 
+     *    as specified for {@link java.lang.Comparable#compareTo}. 
+     * @throws AssertionFailedError
+     *    if the value of <code>compareTo</code> for adjacent entries 
+     *    is not as specified by <code>cmpObj</code>. 
+     * @see #assertMonotone(Assert.CmpObj, List, boolean)
+     */
+    public static <E extends Comparable<? super E>> 
+	void assertMonotone(CmpObj cmpObj, List<E> list) {
+	assertMonotone(cmpObj, list, false);
+    }
+
+    /**
+     * Is a variant of {@link #assertMonotone(Assert.CmpObj,List)} 
+     * which checks huge lists in parallel if <code>parallel</code> is set 
+     * as described for 
+     * {@link #assertSorted(Assert.CmpObj,List,Comparator,boolean)}. 
+     *
+     * @param parallel 
+     *    whether huge lists are checked in parallel. 
+     */
+    public static <E extends Comparable<? super E>> 
+	void assertMonotone(CmpObj cmpObj, List<E> list, boolean parallel) {
+	assertOrdered(cmpObj, 
+		      OrderScan.of(list, (E e1, E e2) -> 
+				   cmpObj.invokeCompareTo(e1, e2)),
+		      null, parallel);
+    }
+
+    /**
+     * Is the variant of {@link #assertMonotone(Assert.CmpObj,List)} 
+     * for arrays. 
+     */
+    public static <E extends Comparable<? super E>> 
+	void assertMonotone(CmpObj cmpObj, E[] array) {
+	assertMonotone(cmpObj, array, false);
+    }
+
+    /**
+     * Is the variant of {@link #assertMonotone(Assert.CmpObj,List,boolean)} 
+     * for arrays. 
+     */
+    public static <E extends Comparable<? super E>> 
+	void assertMonotone(CmpObj cmpObj, E[] array, boolean parallel) {
+	assertOrdered(cmpObj, 
+		      OrderScan.of(array, (E e1, E e2) -> 
+				   cmpObj.invokeCompareTo(e1, e2)),
+		      null, parallel);
+    }
+
+    /**
+     * Is the variant of {@link #assertMonotone(Assert.CmpObj,List)} 
+     * for arrays of type <code>int[]</code>. 
+     * The entries are compared without wrapping them. 
+     */
+    public static void assertMonotone(CmpObj cmpObj, int[] array) {
+	assertMonotone(cmpObj, array, false);
+    }
+
+    /**
+     * Is the variant of {@link #assertMonotone(Assert.CmpObj,List,boolean)} 
+     * for arrays of type <code>int[]</code>. 
+     * The entries are compared without wrapping them. 
+     */
+    public static void assertMonotone(CmpObj cmpObj, 
+				      int[] array, 
+				      boolean parallel) {
+	assertOrdered(cmpObj, OrderScan.of(array, cmpObj), null, parallel);
+    }
+
+    /**
+     * Is the variant of {@link #assertMonotone(Assert.CmpObj,List)} 
+     * for arrays of type <code>long[]</code>. 
+     * The entries are compared without wrapping them. 
+     */
+    public static void assertMonotone(CmpObj cmpObj, long[] array) {
+	assertMonotone(cmpObj, array, false);
+    }
+
+    /**
+     * Is the variant of {@link #assertMonotone(Assert.CmpObj,List,boolean)} 
+     * for arrays of type <code>long[]</code>. 
+     * The entries are compared without wrapping them. 
+     */
+    public static void assertMonotone(CmpObj cmpObj, 
+				      long[] array, 
+				      boolean parallel) {
+	assertOrdered(cmpObj, OrderScan.of(array, cmpObj), null, parallel);
+    }
+
+    /**
+     * Is the variant of {@link #assertMonotone(Assert.CmpObj,List)} 
+     * for arrays of type <code>double[]</code>. 
+     * The entries are compared without wrapping them 
+     * but as their wrappers are, 
+     * i.e. <code>NaN</code> is greater than any other value 
+     * and <code>-0.0</code> is less than <code>0.0</code>. 
+     */
+    public static void assertMonotone(CmpObj cmpObj, double[] array) {
+	assertMonotone(cmpObj, array, false);
+    }
+
+    /**
+     * Is the variant of {@link #assertMonotone(Assert.CmpObj,List,boolean)} 
+     * for arrays of type <code>double[]</code>. 
+     * The entries are compared as for 
+     * {@link #assertMonotone(Assert.CmpObj,double[])}. 
+     */
+    public static void assertMonotone(CmpObj cmpObj, 
+				      double[] array, 
+				      boolean parallel) {
+	assertOrdered(cmpObj, OrderScan.of(array, cmpObj), null, parallel);
+    }
+
+    /**
+     * Fails if some adjacent entries of <code>entries</code> 
+     * are not ordered as required. 
+     * Only a failure allocates, in particular the message. 
+     *
+     * @param cmp 
+     *    the comparator used or <code>null</code> for the natural ordering. 
+     *    This is used for the failure message only. 
+     * @param parallel 
+     *    whether huge lists or arrays are checked in parallel. 
+     */
+    private static void assertOrdered(CmpObj cmpObj,
+				      OrderScan.Entries entries,
+				      Comparator<?> cmp,
+				      boolean parallel) {
+	int idx = parallel 
+	    ? OrderScan.find(entries, parallelThreshold) 
+	    : OrderScan.find(entries);
+	if (idx < 0) {
+	    return;
 	}
-	throw new IllegalStateException();
+	fail("In entries [" + idx + "] and [" + (idx + 1) + 
+	     "] expected: <" + entries.get(idx) + 
+	     "> to be" + cmpObj.message + 
+	     ": <" + entries.get(idx + 1) + 
+	     (cmp == null 
+	      ? STR_ASTOP 
+	      : "> with respect to the comparator <" + cmp + STR_ASTOP));
     }
 
     /**
@@ -1026,7 +1246,6 @@ ite.getTargetException().printStackTrace();
      * @exception AssertionFailedError
      *    if the types of the two arguments do not coincide 
      *    (e.g. because the second one is not an array). 
-     *    See also {@link #assertRecArraysEquals}. 
      * @throws AssertionFailedError
      *    if the the two arrays do not coincide in their lenght 
      *    or in some entry. 
@@ -1045,18 +1264,181 @@ ite.getTargetException().printStackTrace();
 
     public static void assertArraysEquals(Object expected, 
 					  Object actual) {
+	assertArraysEquals(expected, actual, false);
+    }
 
+    /**
+     * Is a variant of {@link #assertArraysEquals(Object,Object)} 
+     * which compares huge arrays in parallel if <code>parallel</code> is set. 
+     * Then the outer dimensions are split 
+     * across the common <code>ForkJoinPool</code> 
+     * until parts have at most {@link #getParallelThreshold()} leaves, 
+     * i.e. entries which are not compared recursively. 
+     * Parts are skipped as soon as a mismatch before them is found. 
+     * The failure reported is the same as in sequential mode: 
+     * the one with the lowest indices. 
+     *
+     * @param expected 
+     *    an array. 
+     * @param actual 
+     *    an array. 
+     * @param parallel 
+     *    whether huge arrays are compared in parallel. 
+     * @exception IllegalArgumentException 
+     *    if <code>expected</code> is not an array. 
+     * @throws AssertionError 
+     *    if exactly one of the arguments is <code>null</code>, 
+     *    if the types of the two arguments do not coincide 
+     *    or if the two arrays do not coincide in their length 
+     *    or in some entry. 
+     */
+    public static void assertArraysEquals(Object expected, 
+					  Object actual, 
+					  boolean parallel) {
+	// Only a mismatch allocates, in particular messages. 
+	ArrayMismatch mismatch = findMismatch(expected, actual, 
+					      ArrayMismatch.EXACT, parallel);
+	if (mismatch != null) {
+	    fail(failMessage(mismatch, null));
+	}
+    }
+
+    /**
+     * Returns the first mismatch between the given arrays 
+     * comparing leaves by <code>leaves</code> 
+     * or <code>null</code> if they are equal or both <code>null</code>. 
+     *
+     * @param parallel 
+     *    whether huge arrays are compared in parallel. 
+     * @exception IllegalArgumentException 
+     *    if <code>expected</code> is not an array. 
+     * @throws AssertionError 
+     *    if exactly one of the arguments is <code>null</code> 
+     *    or if the types of the two arguments do not coincide. 
+     */
+    private static ArrayMismatch findMismatch(Object expected, 
+					      Object actual, 
+					      ArrayMismatch.Leaves leaves, 
+					      boolean parallel) {
+	if (!checkArrays(expected, actual)) {
+	    return null;
+	}
+	// Here, both are arrays of the same type. 
+
+	return parallel 
+	    ? ArraySearch.find(expected, actual, leaves, parallelThreshold) 
+	    : ArrayMismatch.find(expected, actual, leaves);
+    }
+
+    /**
+     * Checks whether the given arguments are arrays of the same type 
+     * or both <code>null</code>. 
+     *
+     * @return 
+     *    whether the given arguments are arrays, 
+     *    i.e. whether they are not <code>null</code>. 
+     * @exception IllegalArgumentException 
+     *    if <code>expected</code> is not an array. 
+     * @throws AssertionError 
+     *    if exactly one of the arguments is <code>null</code> 
+     *    or if the types of the two arguments do not coincide. 
+     */
+    private static boolean checkArrays(Object expected, Object actual) {
 	// Exclude the case that either "expected" or "actual" is null. 
-	if (checkNulls(expectedActual(expected, actual) + ". ",
-		       expected,
-		       actual)) {
-	    return;
+	// Unlike checkNulls, the message is built only on failure. 
+	if (expected == null || actual == null) {
+	    if (expected != actual) {
+		fail(expectedActual(expected, actual) + ". ");
+	    }
+	    return false;
 	}
 	// Here, neither "expected" nor "actual" is null. 
 
 	checkArraysSameClass(expected, actual);
-	// Here, both are arrays or neither of them. 
-	assertRecArraysEquals(expected, actual, new int[0]);
+	return true;
+    }
+
+    /**
+     * Returns the maximal number of leaves of arrays, 
+     * i.e. entries which are not compared recursively, 
+     * which are compared sequentially 
+     * by the parallel variants of <code>assertArraysEquals</code>. 
+     * Larger arrays are split into parts of at most this size. 
+     * Likewise, this is the maximal number of adjacent pairs 
+     * checked sequentially by the parallel variants 
+     * of <code>assertSorted</code> and <code>assertMonotone</code>. 
+     * Initially, this is given by the property 
+     * {@link #PROP_PARALLEL_THRESHOLD} and defaults to <code>65536</code>. 
+     */
+    public static int getParallelThreshold() {
+	return parallelThreshold;
+    }
+
+    /**
+     * Returns the threshold given by the property 
+     * {@link #PROP_PARALLEL_THRESHOLD} or the default <code>65536</code>. 
+     * Unlike an exception, which would prevent this class from being loaded, 
+     * a value which is no positive integer yields a warning only. 
+     */
+    private static int initParallelThreshold() {
+	final int deflt = 1 << 16;
+	String value = System.getProperty(PROP_PARALLEL_THRESHOLD);
+	if (value == null) {
+	    return deflt;
+	}
+	try {
+	    return parseParallelThreshold(value);
+	} catch (IllegalArgumentException e) {
+	    System.err.println(e.getMessage() + "Using " + deflt + ". ");
+	    return deflt;
+	}
+    }
+
+    /**
+     * Returns the threshold given by the value of the property 
+     * {@link #PROP_PARALLEL_THRESHOLD}. 
+     *
+     * @throws IllegalArgumentException 
+     *    if <code>value</code> is no positive integer. 
+     *    The message names the property. 
+     */
+    static int parseParallelThreshold(String value) {
+	try {
+	    int res = Integer.parseInt(value.trim());
+	    checkParallelThreshold(res);
+	    return res;
+	} catch (IllegalArgumentException e) {
+	    // includes NumberFormatException 
+	    throw new IllegalArgumentException// NOPMD
+		("Value '" + value + "' of property " + 
+		 PROP_PARALLEL_THRESHOLD + " is no positive integer. ");
+	}
+    }
+
+    /**
+     * Throws an exception if <code>threshold</code> is not positive. 
+     */
+    private static void checkParallelThreshold(int threshold) {
+	if (threshold < 1) {
+	    throw new IllegalArgumentException
+		("Expected positive threshold; found " + threshold + ". ");
+	}
+    }
+
+    /**
+     * Sets the maximal number of leaves of arrays 
+     * which are compared sequentially 
+     * by the parallel variants of <code>assertArraysEquals</code>. 
+     *
+     * @param threshold 
+     *    a positive number. 
+     * @throws IllegalArgumentException 
+     *    if <code>threshold</code> is not positive. 
+     * @see #getParallelThreshold() 
+     */
+    public static void setParallelThreshold(int threshold) {
+	checkParallelThreshold(threshold);
+	parallelThreshold = threshold;
     }
 
     /**
@@ -1086,78 +1468,6 @@ ite.getTargetException().printStackTrace();
 	}
     }
 
-    /**
-     * Is a deep version of method 
-     * <code>junit.framework.Assert.assertEquals(Object, Object)</code> 
-     * for arrays: 
-     * checks recursively whether the lengths coincide 
-     * and if the entries do so. 
-     * Contract: the classes of the two arguments coincide 
-     * and both are arrays. 
-     *
-     * @param expected 
-     *    the expected array. 
-     * @param actual 
-     *    the actual array. 
-     * @param indices 
-     *    contains the list of indices of the arrays 
-     *    <code>expected</code> and <code>actual</code> 
-     *    within the arrays comprising them. 
-     *    The recursion starts with <code>indices = new int[] {}</code>. 
-     * @throws AssertionFailedError
-     *    if the the two arrays do not coincide in their lenght 
-     *    or in some entry.
-     */
-    private static void assertRecArraysEquals(Object expected, 
-					      Object actual, 
-					      int[] indices) {
-
-	if (Array.getLength(expected) != Array.getLength(actual)) {
-
-	    fail(failLengthMessage(expected, actual, indices));
-	    //fail("expected length: <" + Array.getLength(expected) + 
-	    //	 STR_BUTWAS +       Array.getLength(actual) + STR_ASTOP);
-	}
-	// Here, both are arrays and their lengths coincide. 
-
-	// Check the entries of the arrays. 
-	Object expectedEntry;
-	Object actualEntry;
-	for (int i = 0; i < Array.getLength(expected); i++) {
-	    // Check the i-th entries. 
-
-	    // This works even for primitive types. 
-	    // Instead their wrappers are returned. 
-	    expectedEntry = Array.get(expected, i);
-	    actualEntry   = Array.get(actual,   i);
-
-	    int[] newInd = new int[indices.length + 1];
-	    System.arraycopy(indices, 0, newInd, 0, indices.length);
-	    newInd[newInd.length - 1] = i;
-
-	    if (checkNulls(failMessage(expectedEntry, actualEntry, newInd),
-			   expectedEntry, actualEntry)) {
-		return;
-	    }
-	    // Here, neither "expectedEntry" nor "actualEntry" is null. 
-
-	    if (expectedEntry.getClass().isArray()) {
-		// Here, both of the objects are arrays with the same type. 
-		// Exclude that either "expected" or "actual" is null. 
-
-		assertRecArraysEquals(expectedEntry,
-				      actualEntry,
-				      newInd);
-	    } else {
-		// Here, neither of the objects are arrays 
-		// (but their types coincide). 
-
-		assertEquals(failMessage(expectedEntry, actualEntry, newInd),
-			     expectedEntry, actualEntry);
-	    }
-	}
-    }
-
 /*
     private static String getEntries(int[] indices) {
 
@@ -1233,11 +1543,14 @@ ite.getTargetException().printStackTrace();
      * the corresponding entries given by index path <code>indices</code> 
      * deviate at least <code>delta</code>. 
      * 
+     * @param kind 
+     *    the kind of deviation, e.g. <code>"relative deviation"</code>. 
      */
-    // used in assertRecArraysEquals(Object, Object, int[], double)
-    private static String failMessageDelta(double expectedEntry, 
-					   double actualEntry, 
+    // used in assertArraysEquals(Object, Object, Tolerance, boolean)
+    private static String failMessageDelta(Object expectedEntry, 
+					   Object actualEntry, 
 					   int[] indices, 
+					   String kind, 
 					   double delta) {
 
 	// Determine indices of entry
@@ -1258,7 +1571,9 @@ ite.getTargetException().printStackTrace();
 	message.append(expectedEntry);
 	message.append(STR_BUTWAS);
 	message.append(actualEntry);
-	message.append(">: deviation exceeds ");
+	message.append(">: ");
+	message.append(kind);
+	message.append(" exceeds ");
 	message.append(delta);
 	message.append(STR_IN_ABS_VAL);
 	return message.toString();
@@ -1314,7 +1629,6 @@ ite.getTargetException().printStackTrace();
      * @exception AssertionFailedError
      *    if the types of the two arguments do not coincide 
      *    (e.g. because the second one is not an array). 
-     *    See also {@link #assertRecArraysEquals}. 
      * @throws AssertionFailedError
      *    if the the two arrays do not coincide in their lenght 
      *    or in some entry. 
@@ -1322,119 +1636,468 @@ ite.getTargetException().printStackTrace();
     public static void assertArraysEquals(Object expected, 
 					  Object actual, 
 					  double delta) {
+	assertArraysEquals(expected, actual, delta, false);
+    }
 
-	checkArraysSameClass(expected, actual);
-	// Here, both are arrays or neither of them. 
-	assertRecArraysEquals(expected, actual, new int[0], delta);
+    /**
+     * Is a variant of {@link #assertArraysEquals(Object,Object,double)} 
+     * which compares huge arrays in parallel if <code>parallel</code> is set 
+     * as described for {@link #assertArraysEquals(Object,Object,boolean)}. 
+     *
+     * @param expected 
+     *    the expected array. 
+     * @param actual 
+     *    the actual array 
+     *    which is assumed to be of same type as <code>expected</code>. 
+     * @param delta 
+     *    the allowed deviation as a <code>double</code> value. 
+     * @param parallel 
+     *    whether huge arrays are compared in parallel. 
+     * @exception IllegalArgumentException 
+     *    if <code>expected</code> is not an array 
+     *    or if it has leaves of a primitive type 
+     *    other than <code>double</code> and <code>float</code>. 
+     * @throws AssertionError 
+     *    if exactly one of the arguments is <code>null</code>, 
+     *    if the types of the two arguments do not coincide 
+     *    or if the two arrays do not coincide in their length 
+     *    or in some entry. 
+     * @throws IllegalArgumentException 
+     *    if <code>expected</code> has leaves which are objects 
+     *    other than <code>null</code>. 
+     *    These are compared by a metric method by 
+     *    {@link #assertArraysNormAbsEquals(Object,Object,String,double)}. 
+     */
+    public static void assertArraysEquals(Object expected, 
+					  Object actual, 
+					  double delta, 
+					  boolean parallel) {
+	assertArraysEquals(expected, actual, Tolerance.abs(delta), parallel);
     }
 
     /**
      * Is a deep version of method 
-     * <code>junit.framework.Assert.assertEquals(Object, Object)</code> 
+     * {@link #assertRelEquals(double,double,double)} for arrays: 
+     * checks as {@link #assertArraysEquals(Object,Object,double)} 
+     * but for each pair of entries 
+     * whether their relative deviation exceeds <code>reldev</code> 
+     * in absolute value. 
+     * Entries of arrays of type <code>float[]</code> 
+     * are compared in <code>float</code> arithmetic. 
+     *
+     * @param expected 
+     *    the expected array. 
+     *    Its leaves may be neither <code>0.0</code>, 
+     *    nor an infinite value nor <code>NaN</code>. 
+     * @param actual 
+     *    the actual array 
+     *    which is assumed to be of same type as <code>expected</code>. 
+     * @param reldev 
+     *    the maximum relative deviation 
+     *    which must be a non-negative value. 
+     * @param parallel 
+     *    whether huge arrays are compared in parallel 
+     *    as described for {@link #assertArraysEquals(Object,Object,boolean)}. 
+     * @exception IllegalArgumentException 
+     *    if <code>expected</code> is not an array, 
+     *    if it has leaves of a primitive type 
+     *    other than <code>double</code> and <code>float</code>, 
+     *    if <code>reldev</code> is negative or <code>NaN</code> 
+     *    or if the relative deviation is not defined 
+     *    for a leaf before the first mismatch. 
+     * @throws AssertionError 
+     *    if exactly one of the arguments is <code>null</code>, 
+     *    if the types of the two arguments do not coincide 
+     *    or if the two arrays do not coincide in their length 
+     *    or in some entry. 
+     * @throws IllegalArgumentException 
+     *    if <code>expected</code> has leaves which are objects 
+     *    other than <code>null</code>. 
+     *    These are compared by a metric method by 
+     *    {@link #assertArraysNormAbsEquals(Object,Object,String,double)}. 
+     * @see #testRelEquals(double, double, double)
+     */
+    public static void assertArraysRelEquals(Object expected, 
+					     Object actual, 
+					     double reldev, 
+					     boolean parallel) {
+	assertArraysEquals(expected, actual, Tolerance.rel(reldev), parallel);
+    }
+
+    /**
+     * Is the sequential variant of 
+     * {@link #assertArraysRelEquals(Object,Object,double,boolean)}. 
+     */
+    public static void assertArraysRelEquals(Object expected, 
+					     Object actual, 
+					     double reldev) {
+	assertArraysRelEquals(expected, actual, reldev, false);
+    }
+
+    /**
+     * Is a deep version of method 
+     * {@link #assertAbsRelEquals(double,double,double,double,double)} 
      * for arrays: 
-     * checks recursively whether the lengths coincide 
-     * and if the entries do so. 
-     * Contract: the classes of the two arguments coincide 
-     * and both are arrays. 
+     * checks as {@link #assertArraysEquals(Object,Object,double)} 
+     * but for each pair of entries 
+     * whether their absolute deviation exceeds <code>absdev</code> 
+     * if the expected entry does not exceed <code>separateAbsRel</code> 
+     * in absolute value 
+     * and whether their relative deviation exceeds <code>reldev</code> 
+     * otherwise. 
+     * Entries of arrays of type <code>float[]</code> 
+     * are compared in <code>float</code> arithmetic. 
      *
      * @param expected 
      *    the expected array. 
+     * @param separateAbsRel 
+     *    a non-negative <code>double</code> value 
+     *    separating absolute from relative deviations. 
      * @param actual 
      *    the actual array 
      *    which is assumed to be of same type as <code>expected</code>. 
-     * @param indices 
-     *    contains the list of indices of the arrays 
-     *    <code>expected</code> and <code>actual</code> 
-     *    within the arrays comprising them. 
-     *    The recursion starts with <code>indices = new int[] {}</code>. 
-     *    This is for generating an appropriate message 
-     *    for an <code>AssertionFailedError</code>. 
+     * @param absdev 
+     *    the maximum absolute deviation. 
+     * @param reldev 
+     *    the maximum relative deviation 
+     *    which must be a non-negative value. 
+     * @param parallel 
+     *    whether huge arrays are compared in parallel 
+     *    as described for {@link #assertArraysEquals(Object,Object,boolean)}. 
+     * @exception IllegalArgumentException 
+     *    if <code>expected</code> is not an array, 
+     *    if it has leaves of a primitive type 
+     *    other than <code>double</code> and <code>float</code>, 
+     *    if <code>separateAbsRel</code> is negative, 
+     *    if <code>reldev</code> is negative or <code>NaN</code> 
+     *    or if the relative deviation is not defined 
+     *    for a leaf before the first mismatch. 
+     * @throws AssertionError 
+     *    if exactly one of the arguments is <code>null</code>, 
+     *    if the types of the two arguments do not coincide 
+     *    or if the two arrays do not coincide in their length 
+     *    or in some entry. 
+     * @throws IllegalArgumentException 
+     *    if <code>expected</code> has leaves which are objects 
+     *    other than <code>null</code>. 
+     *    These are compared by a metric method by 
+     *    {@link #assertArraysNormAbsEquals(Object,Object,String,double)}. 
+     */
+    public static void assertArraysAbsRelEquals(Object expected, 
+						double separateAbsRel, 
+						Object actual, 
+						double absdev, 
+						double reldev, 
+						boolean parallel) {
+	assertArraysEquals(expected, actual, 
+			   Tolerance.absRel(separateAbsRel, absdev, reldev), 
+			   parallel);
+    }
+
+    /**
+     * Is the sequential variant of {@link 
+     * #assertArraysAbsRelEquals(Object,double,Object,double,double,boolean)}. 
+     */
+    public static void assertArraysAbsRelEquals(Object expected, 
+						double separateAbsRel, 
+						Object actual, 
+						double absdev, 
+						double reldev) {
+	assertArraysAbsRelEquals(expected, separateAbsRel, actual, 
+				 absdev, reldev, false);
+    }
+
+    /**
+     * Is a deep version of method 
+     * {@link #assertNormAbsEquals(Object,Object,String,double)} 
+     * for arrays: 
+     * checks as {@link #assertArraysEquals(Object,Object)} 
+     * but for each pair of leaves, 
+     * i.e. entries which are not compared recursively, 
+     * whether the distance <code>expected.norm(actual)</code> 
+     * exceeds <code>delta</code>, 
+     * e.g. for matrices of complex numbers or of intervals. 
+     * Leaves which are <code>null</code> 
+     * are equal only to <code>null</code>. 
+     * The metric method is resolved and checked 
+     * once for each class of expected leaves 
+     * and invoked through a cached method handle. 
+     *
+     * @param expected 
+     *    the expected array. 
+     * @param actual 
+     *    the actual array 
+     *    which is assumed to be of same type as <code>expected</code>. 
+     * @param norm 
+     *    the name of a metric method, 
+     *    i.e. of a member method of the form 
+     *    <code>public double norm(Cls other)</code> 
+     *    with <code>Cls</code> the class of an expected leaf 
+     *    as described for 
+     *    {@link #assertNormAbsEquals(String,Object,Object,String,double)}. 
      * @param delta 
      *    the allowed deviation as a <code>double</code> value. 
-     * @throws IllegalArgumentException
-     *    if <code>expected</code> or <code>actual</code> is not an array. 
-     * @throws AssertionFailedError
-     *    if the the two arrays do not coincide in their length 
+     * @param parallel 
+     *    whether huge arrays are compared in parallel 
+     *    as described for {@link #assertArraysEquals(Object,Object,boolean)}. 
+     * @exception IllegalArgumentException 
+     *    if <code>norm</code> is <code>null</code>, 
+     *    if <code>expected</code> is not an array, 
+     *    if it has primitive leaves 
+     *    or if for a leaf before the first mismatch 
+     *    <code>norm</code> does not represent a metric method, 
+     *    it is not applicable to the actual leaf 
+     *    or invoking it raises an exception. 
+     * @throws AssertionError 
+     *    if exactly one of the arguments is <code>null</code>, 
+     *    if the types of the two arguments do not coincide 
+     *    or if the two arrays do not coincide in their length 
      *    or in some entry. 
-     * @throws eu.simuline.util.NotYetImplementedException
-     *    if <code>expected</code> is not 'finally' of primitive type. 
      */
-    private static void assertRecArraysEquals(Object expected, 
-					      Object actual, 
-					      int[] indices,
-					      double delta) {
-
-	// throws IllegalArgumentException if not an array 
-	if (Array.getLength(expected) != Array.getLength(actual)) {
-	    fail(failMessageLength(Array.getLength(expected),
-				   Array.getLength(actual),
-				   indices));
-	}
-	// Here, both are arrays and their lengths coincide. 
-
-	// Check the entries of the arrays. 
-	Object expectedEntry;
-	Object actualEntry;
-	for (int i = 0; i < Array.getLength(expected); i++) {
-	    // Check the i-th entries. 
-
-	    // This works even for primitive types. 
-	    // Instead their wrappers are returned. 
-	    expectedEntry = Array.get(expected, i);
-	    actualEntry   = Array.get(actual,   i);
-
-	    int[] newInd = new int[indices.length + 1];
-	    System.arraycopy(indices, 0, newInd, 0, indices.length);
-	    newInd[newInd.length - 1] = i;
-
-	    Class<?> entryClass = expectedEntry.getClass();
-	    if (entryClass.isArray()) {
-		// Here, both of the objects are arrays with the same type. 
-		assertRecArraysEquals(expectedEntry, actualEntry, 
-				      newInd, delta);
-		return;
+    public static void assertArraysNormAbsEquals(Object expected, 
+						 Object actual, 
+						 String norm, 
+						 double delta, 
+						 boolean parallel) {
+	if (norm == null) {
+	    throw new IllegalArgumentException
+		("Norm is " + norm + 
+		 "; could not prove whether deviation exceeds some threshold. ");
+	}
+	Metric metric = new Metric(norm, delta);
+	ArrayMismatch mismatch = findMismatch(expected, actual, 
+					      metric, parallel);
+	if (mismatch != null) {
+	    fail(failMessageMetric(mismatch, metric));
+	}
+    }
+
+    /**
+     * Is the sequential variant of 
+     * {@link #assertArraysNormAbsEquals(Object,Object,String,double,boolean)}. 
+     */
+    public static void assertArraysNormAbsEquals(Object expected, 
+						 Object actual, 
+						 String norm, 
+						 double delta) {
+	assertArraysNormAbsEquals(expected, actual, norm, delta, false);
+    }
+
+    /**
+     * Returns a failure message for the given mismatch 
+     * found comparing leaves by <code>metric</code>. 
+     */
+    private static String failMessageMetric(ArrayMismatch mismatch, 
+					    Metric metric) {
+	Object expectedEntry = mismatch.getExpected();
+	Object actualEntry   = mismatch.getActual();
+	if (mismatch.isLength()) {
+	    return failMessageLength(Array.getLength(expectedEntry), 
+				     Array.getLength(actualEntry), 
+				     mismatch.getIndices());
+	}
+	if (expectedEntry == null || actualEntry == null
+	    || expectedEntry.getClass().isArray()) {
+	    // e.g. null or arrays of different types 
+	    return failMessage(expectedEntry, actualEntry, 
+			       mismatch.getIndices());
+	}
+	return failMessageDelta(expectedEntry, actualEntry, 
+				mismatch.getIndices(), 
+				"deviation " + 
+				metric.distance(expectedEntry, actualEntry), 
+				metric.getDelta());
+    }
+
+    /**
+     * Fails if the given arrays differ more than <code>tol</code> allows. 
+     */
+    private static void assertArraysEquals(Object expected, 
+					   Object actual, 
+					   Tolerance tol, 
+					   boolean parallel) {
+	ArrayMismatch mismatch = findMismatch(expected, actual, tol, parallel);
+	if (mismatch != null) {
+	    fail(failMessage(mismatch, tol));
+	}
+    }
+
+    /**
+     * Returns a failure message for the given mismatch 
+     * found comparing leaves exactly if <code>tol</code> is <code>null</code> 
+     * and up to <code>tol</code> otherwise. 
+     */
+    private static String failMessage(ArrayMismatch mismatch, Tolerance tol) {
+	Object expectedEntry = mismatch.getExpected();
+	Object actualEntry   = mismatch.getActual();
+	if (tol == null) {
+	    return mismatch.isLength() 
+		? failLengthMessage(expectedEntry, actualEntry, 
+				    mismatch.getIndices()) 
+		: failMessage(expectedEntry, actualEntry, 
+			      mismatch.getIndices());
+	}
+	if (mismatch.isLength()) {
+	    return failMessageLength(Array.getLength(expectedEntry),
+				     Array.getLength(actualEntry),
+				     mismatch.getIndices());
+	}
+	if (expectedEntry instanceof Number && actualEntry instanceof Number) {
+	    double expectedValue = ((Number) expectedEntry).doubleValue();
+	    if (tol.isAbsolute(expectedValue)) {
+		return failMessageDelta(expectedEntry, actualEntry, 
+					mismatch.getIndices(), 
+					"deviation", tol.getAbsDev());
 	    }
+	    return failMessageDelta(expectedEntry, actualEntry, 
+				    mismatch.getIndices(), 
+				    "relative deviation", tol.getRelDev());
+	}
+	// e.g. null or arrays of different types 
+	return failMessage(expectedEntry, actualEntry, mismatch.getIndices());
+    }
 
-	    // Here, neither of the objects are arrays 
-	    // (but their types coincide). 
-	    if (entryClass.isPrimitive()) {
-		// primitive: unwrap before use. 
-		if (entryClass == Double.TYPE) {
-		    assertEquals(failMessageDelta((double) expectedEntry,
-						  (double) actualEntry,
-						  newInd,
-						  delta),
-				 (double) expectedEntry,
-				 (double)   actualEntry,
-				 delta);
-		} else if (entryClass == Float.TYPE) {
-		    assertEquals(failMessageDelta((double) expectedEntry,
-						  (double) actualEntry,
-						  newInd,
-						  delta),
-				 (float) expectedEntry,
-				 (float)   actualEntry,
-				 (float) delta);
-		} else {
-		    throw new IllegalArgumentException
-			("For primitive type " + entryClass + 
-			 " no method assertEquals(" + entryClass + 
-			 "," + entryClass + "," + entryClass + 
-			 ") exists. ");
-		}
-	    } else {
-		// not primitive: use as is. 
-		// **** no, this requires a special norm or metric 
-		// and can thus not be handled uniformly. 
-		throw new eu.simuline.util.NotYetImplementedException();
-		    // ("Primitive type expected; found " + 
-		    //  expectedEntry.getClass() + ". ");
-		// assertEquals(failMessage(expectedEntry,
-		// 			     actualEntry,
-		// 			     newInd),
-		// 		 expectedEntry,actualEntry,delta);
-	    } // else 
-	} // for 
+    /**
+     * Is a variant of {@link #assertArraysEquals(Object,Object)} 
+     * which does not stop at the first mismatch 
+     * but compares the arrays completely in a single pass. 
+     * If they differ, the failure message is a summary 
+     * listing the number of mismatches and of leaves compared, 
+     * i.e. entries which are not compared recursively, 
+     * the first <code>numReported</code> mismatches 
+     * and the maximum, mean and root mean square 
+     * of the absolute and of the relative deviations 
+     * of all leaves which are numbers. 
+     * The memory needed does not depend on the number of mismatches. 
+     *
+     * @param expected 
+     *    an array. 
+     * @param actual 
+     *    an array. 
+     * @param numReported 
+     *    the maximal number of mismatches listed. 
+     * @exception IllegalArgumentException 
+     *    if <code>expected</code> is not an array 
+     *    or if <code>numReported</code> is negative. 
+     * @throws AssertionError 
+     *    if exactly one of the arguments is <code>null</code>, 
+     *    if the types of the two arguments do not coincide 
+     *    or if the two arrays do not coincide in their length 
+     *    or in some entry. 
+     */
+    public static void assertArraysEqualsAll(Object expected, 
+					     Object actual, 
+					     int numReported) {
+	assertArraysEqualsAll(expected, actual, null, numReported);
+    }
+
+    /**
+     * Is a variant of {@link #assertArraysEquals(Object,Object,double)} 
+     * which does not stop at the first mismatch 
+     * but reports a summary of all mismatches 
+     * as {@link #assertArraysEqualsAll(Object,Object,int)} does. 
+     *
+     * @param expected 
+     *    the expected array. 
+     * @param actual 
+     *    the actual array 
+     *    which is assumed to be of same type as <code>expected</code>. 
+     * @param delta 
+     *    the allowed deviation as a <code>double</code> value. 
+     * @param numReported 
+     *    the maximal number of mismatches listed. 
+     * @exception IllegalArgumentException 
+     *    if <code>expected</code> is not an array, 
+     *    if it has leaves of a primitive type 
+     *    other than <code>double</code> and <code>float</code> 
+     *    or if <code>numReported</code> is negative. 
+     * @throws AssertionError 
+     *    if exactly one of the arguments is <code>null</code>, 
+     *    if the types of the two arguments do not coincide 
+     *    or if the two arrays do not coincide in their length 
+     *    or in some entry. 
+     * @throws IllegalArgumentException 
+     *    if <code>expected</code> has leaves which are objects 
+     *    other than <code>null</code>. 
+     *    These are compared by a metric method by 
+     *    {@link #assertArraysNormAbsEquals(Object,Object,String,double)}. 
+     */
+    public static void assertArraysEqualsAll(Object expected, 
+					     Object actual, 
+					     double delta, 
+					     int numReported) {
+	assertArraysEqualsAll(expected, actual, 
+			      Tolerance.abs(delta), numReported);
+    }
+
+    /**
+     * Fails with a summary of all mismatches 
+     * if the given arrays differ 
+     * exactly if <code>tol</code> is <code>null</code> 
+     * and more than <code>tol</code> allows otherwise. 
+     */
+    private static void assertArraysEqualsAll(Object expected, 
+					      Object actual, 
+					      Tolerance tol, 
+					      int numReported) {
+	if (numReported < 0) {
+	    throw new IllegalArgumentException
+		("Expected non-negative number of mismatches reported; found " 
+		 + numReported + ". ");
+	}
+	if (!checkArrays(expected, actual)) {
+	    return;
+	}
+	// Here, both are arrays of the same type. 
+
+	ArrayReport report = ArrayReport.create
+	    (expected, actual, 
+	     tol == null ? ArrayMismatch.EXACT : tol, 
+	     numReported);
+	if (report.isEqual()) {
+	    return;
+	}
+
+	StringBuilder message = new StringBuilder();
+	message.append("Arrays differ in ");
+	message.append(report.getNumMismatches());
+	message.append(" of ");
+	message.append(report.getNumCompared());
+	message.append(" entries compared. ");
+	for (ArrayMismatch mismatch : report.getFirst()) {
+	    message.append('\n');
+	    message.append(failMessage(mismatch, tol));
+	}
+	long numMore = report.getNumMismatches() - report.getFirst().size();
+	if (numMore > 0) {
+	    message.append("\n... and ");
+	    message.append(numMore);
+	    message.append(" more. ");
+	}
+	appendDeviation(message, "Absolute", report.getAbsDev());
+	appendDeviation(message, "Relative", report.getRelDev());
+	fail(message.toString());
+    }
+
+    /**
+     * Appends a line with the statistics of the given deviations 
+     * to <code>message</code> if any deviation is recorded. 
+     */
+    private static void appendDeviation(StringBuilder message, 
+					String kind, 
+					ArrayReport.Deviation dev) {
+	if (dev.getNum() == 0) {
+	    return;
+	}
+	message.append('\n');
+	message.append(kind);
+	message.append(" deviation: max <");
+	message.append(dev.getMax());
+	message.append(">, mean <");
+	message.append(dev.getMean());
+	message.append(">, rms <");
+	message.append(dev.getRms());
+	message.append(STR_ASTOP);
     }
 
     /**
@@ -0,0 +1,232 @@
+package eu.simuline.testhelpers;
+
+import java.lang.invoke.MethodHandle;
+
+import java.lang.reflect.InvocationTargetException;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Applies a member resolved once to all elements of a collection 
+ * for {@link Accessor#getFieldAll(Collection, String, boolean)} 
+ * and {@link Accessor#invokeAll(Collection, boolean, String, Object...)}. 
+ * The member is resolved for the class of the first element 
+ * and again only for elements of another class. 
+ * The results are stored in an array allocated in advance. 
+ * In parallel mode, the elements are split recursively 
+ * into ranges processed by the common {@link ForkJoinPool}; 
+ * each instance of this class processes one range. 
+ *
+ * @param <E>
+ *    the exception thrown when resolving the member. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+final class BulkAccess<E extends Exception> extends RecursiveAction {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Resolves the member to be applied to a target. 
+     *
+     * @param <E>
+     *    the exception thrown if the member cannot be resolved. 
+     */
+    interface Resolver<E extends Exception> {
+
+	/**
+	 * Returns a handle of type <code>(Object)Object</code> 
+	 * applying the member to <code>target</code> 
+	 * and to all other instances of the class of <code>target</code>. 
+	 *
+	 * @param target 
+	 *    a target which is not <code>null</code>. 
+	 */
+	MethodHandle resolve(Object target) throws E;
+    } // interface Resolver
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    private static final long serialVersionUID = -2528915004012781547L;
+
+    /**
+     * The maximal number of targets of a range which is not split. 
+     */
+    private static final int THRESHOLD = 1 << 10;
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Resolves the member for the targets. 
+     */
+    private final transient Resolver<E> resolver;
+
+    /**
+     * The targets shared by all ranges. 
+     */
+    private final transient Object[] targets;
+
+    /**
+     * The results shared by all ranges: 
+     * the entry at an index is the result for the target at the same index. 
+     */
+    private final transient Object[] results;
+
+    /**
+     * The first index of the range of this task. 
+     */
+    private final int from;
+
+    /**
+     * The index after the range of this task. 
+     */
+    private final int to;
+
+    /**
+     * The first failure shared by all ranges. 
+     * Ranges which are not yet processed are skipped after a failure. 
+     */
+    private final transient AtomicReference<Throwable> failure;
+
+    /**
+     * Whether the targets are processed in parallel. 
+     * Else this range is never split, 
+     * even if this task runs in a worker thread of a {@link ForkJoinPool}. 
+     */
+    private final boolean parallel;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    private BulkAccess(Resolver<E> resolver,
+		       Object[] targets,
+		       Object[] results,
+		       int from,
+		       int to,
+		       AtomicReference<Throwable> failure,
+		       boolean parallel) {
+	this.resolver = resolver;
+	this.targets = targets;
+	this.results = results;
+	this.from = from;
+	this.to = to;
+	this.failure = failure;
+	this.parallel = parallel;
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Applies the member resolved by <code>resolver</code> 
+     * to all <code>targets</code>. 
+     *
+     * @param targets 
+     *    the targets in the order of iteration. 
+     * @param resolver 
+     *    resolves the member for the class of each target. 
+     * @param parallel 
+     *    whether the targets are processed in parallel. 
+     * @return 
+     *    the results of the member applied to the targets 
+     *    in the order of iteration. 
+     * @throws E 
+     *    if the member cannot be resolved for a target. 
+     * @throws IllegalArgumentException 
+     *    if a target is <code>null</code>. 
+     * @throws InvocationTargetException 
+     *    to wrap an exception thrown when applying the member. 
+     *    If the targets are processed sequentially, 
+     *    this and the above exceptions refer to the first target failing; 
+     *    otherwise to any of the targets failing. 
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends Exception> Object[] apply(Collection<?> targets,
+						Resolver<E> resolver,
+						boolean parallel) 
+	throws E, InvocationTargetException {
+
+	Object[] targetArr = targets.toArray();
+	Object[] results = new Object[targetArr.length];
+	AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+	BulkAccess<E> task = new BulkAccess<E>(resolver, targetArr, results, 
+					       0, targetArr.length, failure, 
+					       parallel);
+	if (parallel) {
+	    ForkJoinPool.commonPool().invoke(task);
+	} else {
+	    task.compute();
+	}
+
+	Throwable thr = failure.get();
+	if (thr == null) {
+	    return results;
+	}
+	if (thr instanceof InvocationTargetException) {
+	    throw (InvocationTargetException) thr;
+	}
+	if (thr instanceof RuntimeException) {
+	    throw (RuntimeException) thr;
+	}
+	if (thr instanceof Error) {
+	    throw (Error) thr;
+	}
+	// thrown by the resolver 
+	throw (E) thr;
+    }
+
+    protected void compute() {
+	if (this.parallel && this.to - this.from > THRESHOLD) {
+	    int mid = (this.from + this.to) >>> 1;
+	    invokeAll(new BulkAccess<E>(this.resolver, this.targets, 
+					this.results, this.from, mid, 
+					this.failure, true),
+		      new BulkAccess<E>(this.resolver, this.targets, 
+					this.results, mid, this.to, 
+					this.failure, true));
+	    return;
+	}
+	if (this.failure.get() != null) {
+	    return;
+	}
+
+	// the class of the targets last resolved and its handle 
+	Class<?> cls = null;
+	MethodHandle handle = null;
+	for (int i = this.from; i < this.to; i++) {
+	    Object target = this.targets[i];
+	    try {
+		if (target == null) {
+		    throw new IllegalArgumentException
+			("Target at index " + i + " is null. ");
+		}
+		if (target.getClass() != cls) {
+		    handle = this.resolver.resolve(target);
+		    cls = target.getClass();
+		}
+	    } catch (Exception e) {
+		this.failure.compareAndSet(null, e);
+		return;
+	    }
+	    try {
+		this.results[i] = (Object) handle.invokeExact(target);
+	    } catch (Throwable e) {// NOPMD
+		this.failure
+		    .compareAndSet(null, new InvocationTargetException(e));
+		return;
+	    }
+	}
+    }
+}
@@ -0,0 +1,436 @@
+package eu.simuline.testhelpers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * A chain of fields and array elements 
+ * compiled once and for all by {@link Accessor#path(Class, String)}. 
+ * Whereas nested invocations 
+ * <code>Accessor.getField(Accessor.getField(obj, "a"), "b")</code> 
+ * look up each field each time, 
+ * {@link #get(Object)} reads the value at the end of the path 
+ * through a single method handle composed of the handles of all steps. 
+ * Apart from boxing the final value, evaluation allocates nothing; 
+ * final values of type <code>int</code>, <code>long</code> 
+ * and <code>double</code> can be read without boxing 
+ * by {@link #getInt(Object)} and the like. 
+ * <p>
+ * A path consists of steps separated by <code>.</code>. 
+ * Each step is the name of a field, 
+ * followed by any number of array indices like <code>[3]</code> 
+ * and optionally by the short path of an inner class in parentheses. 
+ * The field of the first step is looked up in the class of the path; 
+ * the field of each further step 
+ * in the declared type of the value of the step before. 
+ * If that value is declared with a more general type, 
+ * e.g. <code>Object</code> or an interface, 
+ * the inner class given in parentheses replaces the declared type 
+ * like a cast does. 
+ * It is looked up by {@link Accessor#getInnerClass(Class, String[])} 
+ * in the class in which the field was looked up 
+ * or else in its enclosing classes; 
+ * nested inner classes are separated by <code>$</code>. 
+ * So <code>a.b[3](Node).c</code> reads the field <code>c</code> 
+ * of the fourth element of array <code>b</code> 
+ * in the object in field <code>a</code>, 
+ * where the element is declared as <code>Object</code> 
+ * but is known to be a <code>Node</code>. 
+ * Synthetic fields like <code>this$0</code> 
+ * referring to the enclosing instance of an inner class 
+ * may be steps as well. 
+ * <p>
+ * As for {@link Accessor}, the target is <code>null</code> 
+ * if and only if the field of the first step is static. 
+ * A path is immutable and may be shared among threads. 
+ *
+ * @param <T>
+ *    the class in which the first field is looked up. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+public final class FieldPath<T> {
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The class in which the first field is looked up. 
+     */
+    private final Class<T> cls;
+
+    /**
+     * The expression this path is compiled from. 
+     */
+    private final String expression;
+
+    /**
+     * Whether the field of the first step is static. 
+     */
+    private final boolean isStatic;
+
+    /**
+     * The declared type of the value at the end of this path. 
+     */
+    private final Class<?> type;
+
+    /**
+     * Reads the value at the end of this path; 
+     * its type is <code>(Object)Object</code>. 
+     */
+    private final MethodHandle getter;
+
+    /**
+     * Reads the value at the end of this path without boxing; 
+     * its type is <code>(Object)P</code> 
+     * with {@link #type} being the primitive type <code>P</code>. 
+     * If {@link #type} is not primitive, this is <code>null</code>. 
+     */
+    private final MethodHandle primGetter;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    private FieldPath(Class<T> cls,
+		      String expression,
+		      boolean isStatic,
+		      MethodHandle chain) {
+	this.cls = cls;
+	this.expression = expression;
+	this.isStatic = isStatic;
+	this.type = chain.type().returnType();
+	this.getter = chain.asType(chain.type().generic());
+	this.primGetter = this.type.isPrimitive() ? chain : null;
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Parses the given expression and resolves all its steps. 
+     * This is invoked by {@link MemberIndex#getPath(String)} only. 
+     *
+     * @param cls 
+     *    the class in which the first field is looked up. 
+     * @param expression 
+     *    a path as described in the class documentation. 
+     * @throws NoSuchFieldException 
+     *    if a field of the path does not exist. 
+     * @throws IllegalArgumentException 
+     *    if the expression is not well-formed, 
+     *    if an array index is applied to a value which is no array 
+     *    or if an inner class does not exist 
+     *    or is not a subtype of the type it replaces. 
+     */
+    static <T> FieldPath<T> compile(Class<T> cls, String expression) 
+	throws NoSuchFieldException {
+
+	// the chain reading the value of the steps so far, 
+	// the declared type of that value 
+	// and the class in which the field of the last step was looked up 
+	MethodHandle chain = null;
+	Class<?> type = cls;
+	Class<?> owner;
+	boolean isStatic = false;
+	int pos = 0;
+	int len = expression.length();
+	while (true) {
+	    // field 
+	    int start = pos;
+	    while (pos < len 
+		   && Character.isJavaIdentifierPart(expression.charAt(pos))) {
+		pos++;
+	    }
+	    if (pos == start 
+		|| !Character.isJavaIdentifierStart(expression.charAt(start))) {
+		throw invalid(expression, start);
+	    }
+	    owner = type;
+	    Field aField = Accessor
+		.getFieldObj(owner, expression.substring(start, pos));
+	    MethodHandle hop = MemberIndex.of(aField.getDeclaringClass())
+		.unreflectGetter(aField);
+	    if (Modifier.isStatic(aField.getModifiers())) {
+		isStatic |= chain == null;
+		hop = MethodHandles.dropArguments(hop, 0, Object.class);
+	    }
+	    chain = append(chain, hop);
+
+	    // array indices 
+	    while (pos < len && expression.charAt(pos) == '[') {
+		int end = expression.indexOf(']', pos);
+		int index;
+		try {
+		    index = Integer.parseInt(expression.substring(pos + 1, end));
+		} catch (IndexOutOfBoundsException | NumberFormatException e) {
+		    throw invalid(expression, pos + 1);// NOPMD
+		}
+		type = chain.type().returnType();
+		if (!type.isArray()) {
+		    throw new IllegalArgumentException
+			("Path '" + expression + "': value of type '" + 
+			 type.getName() + "' before position " + pos + 
+			 " is no array. ");
+		}
+		hop = MethodHandles.insertArguments
+		    (MethodHandles.arrayElementGetter(type), 1, index);
+		chain = append(chain, hop);
+		pos = end + 1;
+	    }
+
+	    // inner class 
+	    type = chain.type().returnType();
+	    if (pos < len && expression.charAt(pos) == '(') {
+		int end = expression.indexOf(')', pos);
+		if (end == -1) {
+		    throw invalid(expression, pos + 1);
+		}
+		Class<?> inner = getInnerClass
+		    (owner, expression.substring(pos + 1, end));
+		if (!type.isAssignableFrom(inner)) {
+		    throw new IllegalArgumentException
+			("Path '" + expression + "': inner class '" + 
+			 inner.getName() + "' is no subtype of '" + 
+			 type.getName() + "'. ");
+		}
+		type = inner;
+		chain = chain.asType(chain.type().changeReturnType(type));
+		pos = end + 1;
+	    }
+
+	    if (pos == len) {
+		return new FieldPath<T>(cls, expression, isStatic, chain);
+	    }
+	    if (expression.charAt(pos) != '.') {
+		throw invalid(expression, pos);
+	    }
+	    pos++;
+	}
+    }
+
+    /**
+     * Returns the handle reading the value of <code>hop</code> 
+     * applied to the value read by <code>chain</code>. 
+     *
+     * @param chain 
+     *    a handle of type <code>(Object)X</code> 
+     *    or <code>null</code> for the first hop. 
+     * @param hop 
+     *    a handle of type <code>(R)Y</code> 
+     *    where <code>X</code> is assignable to <code>R</code>. 
+     * @return 
+     *    a handle of type <code>(Object)Y</code>. 
+     */
+    private static MethodHandle append(MethodHandle chain, MethodHandle hop) {
+	if (chain == null) {
+	    return hop.asType(hop.type().changeParameterType(0, Object.class));
+	}
+	Class<?> type = chain.type().returnType();
+	return MethodHandles
+	    .filterReturnValue(chain, hop.asType(hop.type()
+						 .changeParameterType(0, type)));
+    }
+
+    /**
+     * Returns the inner class with the given short path 
+     * of <code>owner</code> or of one of its enclosing classes. 
+     *
+     * @throws IllegalArgumentException 
+     *    if no such class exists. 
+     */
+    private static Class<?> getInnerClass(Class<?> owner, String shortPath) {
+	String[] pathToInner = shortPath.split("\\$", -1);
+	IllegalArgumentException first = null;
+	for (Class<?> cand = owner; cand != null; 
+	     cand = cand.getEnclosingClass()) {
+	    try {
+		return Accessor.getInnerClass(cand, pathToInner);
+	    } catch (IllegalArgumentException e) {
+		if (first == null) {
+		    first = e;
+		}
+	    }
+	}
+	throw first;
+    }
+
+    /**
+     * Returns the exception thrown 
+     * if <code>expression</code> is not well-formed at <code>pos</code>. 
+     */
+    private static IllegalArgumentException invalid(String expression, 
+						    int pos) {
+	return new IllegalArgumentException
+	    ("Path '" + expression + "' is not well-formed at position " + 
+	     pos + ". ");
+    }
+
+    /**
+     * Returns the expression this path is compiled from. 
+     */
+    public String getExpression() {
+	return this.expression;
+    }
+
+    /**
+     * Returns the declared type of the value at the end of this path 
+     * or the inner class given for it. 
+     */
+    public Class<?> getType() {
+	return this.type;
+    }
+
+    /**
+     * Returns whether the field of the first step is static. 
+     */
+    public boolean isStatic() {
+	return this.isStatic;
+    }
+
+    /**
+     * Returns the value at the end of this path. 
+     *
+     * @param target 
+     *    the object in which the field of the first step is to be read. 
+     *    If that field is static, this <em>must</em> be <code>null</code>; 
+     *    otherwise this has to be an instance 
+     *    of the class of this path. 
+     * @return 
+     *    the value at the end of this path 
+     *    which is wrapped if it is primitive. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if the target is <code>null</code> 
+     *    whereas the field of the first step is a member field 
+     *    or the other way round. 
+     *    <li>
+     *    if the target is no instance of the class of this path. 
+     *    </ul>
+     * @throws NullPointerException 
+     *    if the value of a step before the last one is <code>null</code>. 
+     * @throws ArrayIndexOutOfBoundsException 
+     *    if an array index exceeds the length of the array. 
+     * @throws ClassCastException 
+     *    if a value is no instance of the inner class given for it. 
+     */
+    public Object get(T target) {
+	checkTarget(target);
+	try {
+	    return (Object) this.getter.invokeExact((Object) target);
+	} catch (Throwable e) {// NOPMD
+	    throw FieldRef.rethrow(e);
+	}
+    }
+
+    /**
+     * Returns the value at the end of this path 
+     * which must be declared <code>int</code>. 
+     * This is like {@link #get(Object)} but without boxing. 
+     *
+     * @param target 
+     *    the object in which the field of the first step is to be read 
+     *    as for {@link #get(Object)}. 
+     * @throws IllegalArgumentException 
+     *    if the type of the value is not <code>int</code> 
+     *    or as for {@link #get(Object)}. 
+     */
+    public int getInt(T target) {
+	checkType(int.class);
+	checkTarget(target);
+	try {
+	    return (int) this.primGetter.invokeExact((Object) target);
+	} catch (Throwable e) {// NOPMD
+	    throw FieldRef.rethrow(e);
+	}
+    }
+
+    /**
+     * Returns the value at the end of this path 
+     * which must be declared <code>long</code>. 
+     * This is like {@link #get(Object)} but without boxing. 
+     *
+     * @param target 
+     *    the object in which the field of the first step is to be read 
+     *    as for {@link #get(Object)}. 
+     * @throws IllegalArgumentException 
+     *    if the type of the value is not <code>long</code> 
+     *    or as for {@link #get(Object)}. 
+     */
+    public long getLong(T target) {
+	checkType(long.class);
+	checkTarget(target);
+	try {
+	    return (long) this.primGetter.invokeExact((Object) target);
+	} catch (Throwable e) {// NOPMD
+	    throw FieldRef.rethrow(e);
+	}
+    }
+
+    /**
+     * Returns the value at the end of this path 
+     * which must be declared <code>double</code>. 
+     * This is like {@link #get(Object)} but without boxing. 
+     *
+     * @param target 
+     *    the object in which the field of the first step is to be read 
+     *    as for {@link #get(Object)}. 
+     * @throws IllegalArgumentException 
+     *    if the type of the value is not <code>double</code> 
+     *    or as for {@link #get(Object)}. 
+     */
+    public double getDouble(T target) {
+	checkType(double.class);
+	checkTarget(target);
+	try {
+	    return (double) this.primGetter.invokeExact((Object) target);
+	} catch (Throwable e) {// NOPMD
+	    throw FieldRef.rethrow(e);
+	}
+    }
+
+    /**
+     * Throws an exception if the type of the value at the end of this path 
+     * is not <code>type</code>. 
+     */
+    private void checkType(Class<?> type) {
+	if (this.type != type) {
+	    throw new IllegalArgumentException
+		("Path '" + this.expression + "' in class '" + 
+		 this.cls.getName() + "' has type '" + this.type.getName() + 
+		 "' instead of '" + type.getName() + "'. ");
+	}
+    }
+
+    /**
+     * Throws an exception if <code>target</code> does not fit this path. 
+     */
+    private void checkTarget(T target) {
+	if (this.isStatic != (target == null)) {
+	    throw new IllegalArgumentException
+		("Path '" + this.expression + "' in class '" + 
+		 this.cls.getName() + "' starts with a " + 
+		 (this.isStatic ? "static" : "member") + 
+		 " field but the target is " + 
+		 (target == null ? "" : "not ") + "null. ");
+	}
+	if (target != null && !this.cls.isInstance(target)) {
+	    throw new IllegalArgumentException
+		("Expected target of class '" + this.cls.getName() + 
+		 "' but found '" + target.getClass().getName() + "'. ");
+	}
+    }
+
+    public String toString() {
+	return "FieldPath<" + this.cls.getName() + ":" + 
+	    this.expression + ">";
+    }
+}
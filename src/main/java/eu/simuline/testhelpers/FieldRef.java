@@ -0,0 +1,655 @@
+
+package eu.simuline.testhelpers;
+
+import java.lang.invoke.MethodHandle;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A field resolved once and for all 
+ * by {@link Accessor#field(Class, String, Class)}. 
+ * Whereas {@link Accessor#getField(Class, Object, String)} 
+ * looks up the field each time it is invoked, 
+ * {@link #get(Object)} and {@link #set(Object, Object)} 
+ * access the field directly via cached method handles. 
+ * As for {@link Accessor}, the target is <code>null</code> 
+ * if and only if the field is static. 
+ * <p>
+ * Fields of type <code>int</code>, <code>long</code> and <code>double</code> 
+ * can also be accessed without boxing 
+ * by {@link #getInt(Object)}, {@link #setInt(Object, int)} and so on. 
+ * <p>
+ * For member fields accessed in hot loops, 
+ * {@link #intGetter()}, {@link #setter()} and the like 
+ * return views of the field as functional interfaces. 
+ * These skip all checks except the cast of the target 
+ * and are implemented by lambdas capturing the handle of the field. 
+ * Since the classes of lambdas are hidden classes 
+ * the final fields of which are trusted by the JIT, 
+ * a view stored in a <code>static final</code> field 
+ * is compiled to almost direct field access. 
+ * <p>
+ * A reference is immutable and may be shared among threads. 
+ *
+ * @param <T>
+ *    the class in which the field was looked up. 
+ * @param <V>
+ *    the type of the field or its wrapper if the type is primitive. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+public final class FieldRef<T, V> {
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The accessible field referred to. 
+     */
+    private final Field field;
+
+    /**
+     * Whether {@link #field} is static. 
+     */
+    private final boolean isStatic;
+
+    /**
+     * The getter of {@link #field} 
+     * as returned by {@link MemberIndex#getGetter(Field)}. 
+     */
+    private final MethodHandle getter;
+
+    /**
+     * The setter of {@link #field} 
+     * as returned by {@link MemberIndex#getSetter(Field)} 
+     * or <code>null</code> if {@link #field} is final. 
+     */
+    private final MethodHandle setter;
+
+    /**
+     * The getter of {@link #field} 
+     * as returned by {@link MemberIndex#unreflectGetter(Field)} 
+     * if the field is primitive; otherwise <code>null</code>. 
+     */
+    private final MethodHandle primGetter;
+
+    /**
+     * The setter of {@link #field} 
+     * as returned by {@link MemberIndex#unreflectSetter(Field)} 
+     * if the field is primitive and not final; 
+     * otherwise <code>null</code>. 
+     */
+    private final MethodHandle primSetter;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Creates a reference to the given accessible field. 
+     */
+    FieldRef(Field field) {
+	this.field = field;
+	this.isStatic = Modifier.isStatic(field.getModifiers());
+	MemberIndex index = MemberIndex.of(field.getDeclaringClass());
+	this.getter = index.getGetter(field);
+	boolean isFinal = Modifier.isFinal(field.getModifiers());
+	this.setter = isFinal ? null : index.getSetter(field);
+	boolean isPrimitive = field.getType().isPrimitive();
+	this.primGetter = isPrimitive ? index.unreflectGetter(field) : null;
+	this.primSetter = isPrimitive && !isFinal
+	    ? index.unreflectSetter(field)
+	    : null;
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the name of the field referred to. 
+     */
+    public String getName() {
+	return this.field.getName();
+    }
+
+    /**
+     * Returns the type of the field referred to. 
+     */
+    public Class<?> getType() {
+	return this.field.getType();
+    }
+
+    /**
+     * Returns whether the field referred to is static. 
+     */
+    public boolean isStatic() {
+	return this.isStatic;
+    }
+
+    /**
+     * Returns the value of the field referred to. 
+     *
+     * @param target 
+     *    the object for which the field is to be read. 
+     *    For static fields, this <em>must</em> be <code>null</code>; 
+     *    whereas for member fields 
+     *    this has to be the corresponding instance. 
+     * @return 
+     *    the value of the field which is wrapped if it is primitive. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if the target is <code>null</code> 
+     *    whereas the field is a member field or the other way round. 
+     *    <li>
+     *    if the target is no instance of the class declaring the field. 
+     *    </ul>
+     */
+    @SuppressWarnings("unchecked")
+    public V get(T target) {
+	try {
+	    if (this.isStatic && target == null) {
+		return (V) (Object) this.getter.invokeExact();
+	    }
+	    checkTarget(target);
+	    return (V) (Object) this.getter.invokeExact((Object) target);
+	} catch (RuntimeException | Error e) {
+	    throw e;
+	} catch (Throwable e) {
+	    throw new IllegalStateException(e);// NOPMD
+	}
+    }
+
+    /**
+     * Sets the value of the field referred to. 
+     *
+     * @param target 
+     *    the object for which the field is to be written. 
+     *    For static fields, this <em>must</em> be <code>null</code>; 
+     *    whereas for member fields 
+     *    this has to be the corresponding instance. 
+     * @param value 
+     *    the new value of the field. 
+     *    This may be <code>null</code> only if the type is not primitive. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if the target is <code>null</code> 
+     *    whereas the field is a member field or the other way round. 
+     *    <li>
+     *    if the target is no instance of the class declaring the field. 
+     *    <li>
+     *    if the field is final. 
+     *    <li>
+     *    if the field is primitive but <code>value</code> is 
+     *    <code>null</code>. 
+     *    <li>
+     *    if <code>value</code> is no instance of the type of the field 
+     *    or of its wrapper if it is primitive, 
+     *    which is possible through unchecked casts only. 
+     *    </ul>
+     */
+    public void set(T target, V value) {
+	checkWritable();
+	if (value == null && getType().isPrimitive()) {
+	    throw new IllegalArgumentException
+		("Tried to assign null-value to field '" + getName() +
+		 "' in class '" + this.field.getDeclaringClass().getName() +
+		 "' although its type '" + getType() + "' is primitive. ");
+	}
+	Accessor.Engine.checkValue(this.field, value);
+	try {
+	    if (this.isStatic && target == null) {
+		this.setter.invokeExact((Object) value);
+		return;
+	    }
+	    checkTarget(target);
+	    this.setter.invokeExact((Object) target, (Object) value);
+	} catch (RuntimeException | Error e) {
+	    throw e;
+	} catch (Throwable e) {
+	    throw new IllegalStateException(e);// NOPMD
+	}
+    }
+
+    /**
+     * Returns the value of the field referred to 
+     * which must be of type <code>int</code>. 
+     * This is like {@link #get(Object)} but without boxing. 
+     *
+     * @param target 
+     *    the object for which the field is to be read 
+     *    as for {@link #get(Object)}. 
+     * @throws IllegalArgumentException 
+     *    if the type of the field is not <code>int</code> 
+     *    or as for {@link #get(Object)}. 
+     */
+    public int getInt(T target) {
+	checkType(int.class);
+	try {
+	    if (this.isStatic && target == null) {
+		return (int) this.primGetter.invokeExact();
+	    }
+	    checkTarget(target);
+	    return (int) this.primGetter.invokeExact((Object) target);
+	} catch (RuntimeException | Error e) {
+	    throw e;
+	} catch (Throwable e) {
+	    throw new IllegalStateException(e);// NOPMD
+	}
+    }
+
+    /**
+     * Sets the value of the field referred to 
+     * which must be of type <code>int</code>. 
+     * This is like {@link #set(Object, Object)} but without boxing. 
+     *
+     * @param target 
+     *    the object for which the field is to be written 
+     *    as for {@link #set(Object, Object)}. 
+     * @param value 
+     *    the new value of the field. 
+     * @throws IllegalArgumentException 
+     *    if the type of the field is not <code>int</code> 
+     *    or as for {@link #set(Object, Object)}. 
+     */
+    public void setInt(T target, int value) {
+	checkType(int.class);
+	checkWritable();
+	try {
+	    if (this.isStatic && target == null) {
+		this.primSetter.invokeExact(value);
+		return;
+	    }
+	    checkTarget(target);
+	    this.primSetter.invokeExact((Object) target, value);
+	} catch (RuntimeException | Error e) {
+	    throw e;
+	} catch (Throwable e) {
+	    throw new IllegalStateException(e);// NOPMD
+	}
+    }
+
+    /**
+     * Returns the value of the field referred to 
+     * which must be of type <code>long</code>. 
+     * This is like {@link #get(Object)} but without boxing. 
+     *
+     * @param target 
+     *    the object for which the field is to be read 
+     *    as for {@link #get(Object)}. 
+     * @throws IllegalArgumentException 
+     *    if the type of the field is not <code>long</code> 
+     *    or as for {@link #get(Object)}. 
+     */
+    public long getLong(T target) {
+	checkType(long.class);
+	try {
+	    if (this.isStatic && target == null) {
+		return (long) this.primGetter.invokeExact();
+	    }
+	    checkTarget(target);
+	    return (long) this.primGetter.invokeExact((Object) target);
+	} catch (RuntimeException | Error e) {
+	    throw e;
+	} catch (Throwable e) {
+	    throw new IllegalStateException(e);// NOPMD
+	}
+    }
+
+    /**
+     * Sets the value of the field referred to 
+     * which must be of type <code>long</code>. 
+     * This is like {@link #set(Object, Object)} but without boxing. 
+     *
+     * @param target 
+     *    the object for which the field is to be written 
+     *    as for {@link #set(Object, Object)}. 
+     * @param value 
+     *    the new value of the field. 
+     * @throws IllegalArgumentException 
+     *    if the type of the field is not <code>long</code> 
+     *    or as for {@link #set(Object, Object)}. 
+     */
+    public void setLong(T target, long value) {
+	checkType(long.class);
+	checkWritable();
+	try {
+	    if (this.isStatic && target == null) {
+		this.primSetter.invokeExact(value);
+		return;
+	    }
+	    checkTarget(target);
+	    this.primSetter.invokeExact((Object) target, value);
+	} catch (RuntimeException | Error e) {
+	    throw e;
+	} catch (Throwable e) {
+	    throw new IllegalStateException(e);// NOPMD
+	}
+    }
+
+    /**
+     * Returns the value of the field referred to 
+     * which must be of type <code>double</code>. 
+     * This is like {@link #get(Object)} but without boxing. 
+     *
+     * @param target 
+     *    the object for which the field is to be read 
+     *    as for {@link #get(Object)}. 
+     * @throws IllegalArgumentException 
+     *    if the type of the field is not <code>double</code> 
+     *    or as for {@link #get(Object)}. 
+     */
+    public double getDouble(T target) {
+	checkType(double.class);
+	try {
+	    if (this.isStatic && target == null) {
+		return (double) this.primGetter.invokeExact();
+	    }
+	    checkTarget(target);
+	    return (double) this.primGetter.invokeExact((Object) target);
+	} catch (RuntimeException | Error e) {
+	    throw e;
+	} catch (Throwable e) {
+	    throw new IllegalStateException(e);// NOPMD
+	}
+    }
+
+    /**
+     * Sets the value of the field referred to 
+     * which must be of type <code>double</code>. 
+     * This is like {@link #set(Object, Object)} but without boxing. 
+     *
+     * @param target 
+     *    the object for which the field is to be written 
+     *    as for {@link #set(Object, Object)}. 
+     * @param value 
+     *    the new value of the field. 
+     * @throws IllegalArgumentException 
+     *    if the type of the field is not <code>double</code> 
+     *    or as for {@link #set(Object, Object)}. 
+     */
+    public void setDouble(T target, double value) {
+	checkType(double.class);
+	checkWritable();
+	try {
+	    if (this.isStatic && target == null) {
+		this.primSetter.invokeExact(value);
+		return;
+	    }
+	    checkTarget(target);
+	    this.primSetter.invokeExact((Object) target, value);
+	} catch (RuntimeException | Error e) {
+	    throw e;
+	} catch (Throwable e) {
+	    throw new IllegalStateException(e);// NOPMD
+	}
+    }
+
+    /**
+     * Returns a view of the field referred to 
+     * which must be a member field of type <code>int</code>. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the field is static or has another type. 
+     */
+    public ToIntFunction<T> intGetter() {
+	checkView(int.class);
+	MethodHandle handle = this.primGetter;
+	return target -> {
+	    try {
+		return (int) handle.invokeExact((Object) target);
+	    } catch (Throwable e) {
+		throw rethrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Returns a view of the field referred to 
+     * which must be a member field of type <code>long</code>. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the field is static or has another type. 
+     */
+    public ToLongFunction<T> longGetter() {
+	checkView(long.class);
+	MethodHandle handle = this.primGetter;
+	return target -> {
+	    try {
+		return (long) handle.invokeExact((Object) target);
+	    } catch (Throwable e) {
+		throw rethrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Returns a view of the field referred to 
+     * which must be a member field of type <code>double</code>. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the field is static or has another type. 
+     */
+    public ToDoubleFunction<T> doubleGetter() {
+	checkView(double.class);
+	MethodHandle handle = this.primGetter;
+	return target -> {
+	    try {
+		return (double) handle.invokeExact((Object) target);
+	    } catch (Throwable e) {
+		throw rethrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Returns a view of the field referred to 
+     * which must be a member field. 
+     * Primitive values are boxed. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the field is static. 
+     */
+    @SuppressWarnings("unchecked")
+    public Function<T, V> getter() {
+	checkView(getType());
+	MethodHandle handle = this.getter;
+	return target -> {
+	    try {
+		return (V) (Object) handle.invokeExact((Object) target);
+	    } catch (Throwable e) {
+		throw rethrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Returns a view writing the field referred to 
+     * which must be a non-final member field of type <code>int</code>. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the field is static, final or has another type. 
+     */
+    public ObjIntConsumer<T> intSetter() {
+	checkView(int.class);
+	checkWritable();
+	MethodHandle handle = this.primSetter;
+	return (target, value) -> {
+	    try {
+		handle.invokeExact((Object) target, value);
+	    } catch (Throwable e) {
+		throw rethrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Returns a view writing the field referred to 
+     * which must be a non-final member field of type <code>long</code>. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the field is static, final or has another type. 
+     */
+    public ObjLongConsumer<T> longSetter() {
+	checkView(long.class);
+	checkWritable();
+	MethodHandle handle = this.primSetter;
+	return (target, value) -> {
+	    try {
+		handle.invokeExact((Object) target, value);
+	    } catch (Throwable e) {
+		throw rethrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Returns a view writing the field referred to 
+     * which must be a non-final member field of type <code>double</code>. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the field is static, final or has another type. 
+     */
+    public ObjDoubleConsumer<T> doubleSetter() {
+	checkView(double.class);
+	checkWritable();
+	MethodHandle handle = this.primSetter;
+	return (target, value) -> {
+	    try {
+		handle.invokeExact((Object) target, value);
+	    } catch (Throwable e) {
+		throw rethrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Returns a view writing the field referred to 
+     * which must be a non-final member field. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class, 
+     * an <code>IllegalArgumentException</code> 
+     * for a value which is no instance of the type of the field 
+     * as {@link #set(Object, Object)} does 
+     * and a <code>NullPointerException</code> 
+     * if a primitive field is set to <code>null</code>. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the field is static or final. 
+     */
+    public BiConsumer<T, V> setter() {
+	checkView(getType());
+	checkWritable();
+	MethodHandle handle = this.setter;
+	Field fld = this.field;
+	return (target, value) -> {
+	    try {
+		handle.invokeExact((Object) target, (Object) value);
+	    } catch (ClassCastException e) {
+		// thrown by the cast of the target or of the value 
+		if (fld.getDeclaringClass().isInstance(target)) {
+		    Accessor.Engine.checkValue(fld, value);
+		}
+		throw e;
+	    } catch (Throwable e) {
+		throw rethrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Throws an exception if the field referred to is static 
+     * or if its type is not <code>type</code>. 
+     */
+    private void checkView(Class<?> type) {
+	if (this.isStatic) {
+	    throw new IllegalArgumentException
+		("Views are provided for member fields only but field '" + 
+		 getName() + "' is static. ");
+	}
+	checkType(type);
+    }
+
+    /**
+     * Rethrows the given throwable which is unchecked 
+     * because it is thrown by a field access. 
+     */
+    static RuntimeException rethrow(Throwable thr) {
+	if (thr instanceof RuntimeException) {
+	    throw (RuntimeException) thr;
+	}
+	if (thr instanceof Error) {
+	    throw (Error) thr;
+	}
+	throw new IllegalStateException(thr);// NOPMD
+    }
+
+    /**
+     * Throws an exception if the type of the field referred to 
+     * is not <code>type</code>. 
+     */
+    private void checkType(Class<?> type) {
+	if (this.field.getType() != type) {
+	    throw new IllegalArgumentException
+		("Field '" + getName() + "' in class '" + 
+		 this.field.getDeclaringClass().getName() + 
+		 "' has type '" + getType().getName() + 
+		 "' instead of '" + type.getName() + "'. ");
+	}
+    }
+
+    /**
+     * Throws an exception if the field referred to is final. 
+     */
+    private void checkWritable() {
+	if (this.setter == null) {
+	    throw new IllegalArgumentException
+		("Field '" + getName() + "' in class '" + 
+		 this.field.getDeclaringClass().getName() + 
+		 "' is declared final and is hence not accessible. ");
+	}
+    }
+
+    /**
+     * Throws an exception if <code>target</code> 
+     * does not fit the field referred to. 
+     * This is invoked only if the field is not static 
+     * or if <code>target</code> is not <code>null</code>. 
+     */
+    private void checkTarget(T target) {
+	Accessor.checkStatic(this.field, target == null);
+	Accessor.Engine.checkTarget(this.field, target);
+    }
+
+    public String toString() {
+	return "FieldRef<" + this.field + ">";
+    }
+}
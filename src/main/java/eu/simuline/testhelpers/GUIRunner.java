@@ -2562,6 +2562,7 @@ class GUIRunner {
 	// **** strange way to obtain the classname ***** 
 	setStatus("testRunStarted(");
 	this.testHierarchy.getActions().setEnableForRun(true); //running 
+	Accessor.resetMetrics();
 
 	TestCase root = this.testHierarchy.getRoot();
 
@@ -2573,13 +2574,18 @@ class GUIRunner {
 
     /**
      * Notifies that a test has been finished sufficiently or not. 
+     * If {@link Accessor#isMetricsEnabled()}, 
+     * the metrics recorded during the run are appended to the status. 
      *
      * @param runTime
      *    the time execution of the test took in milliseconds. 
      */
     void testRunFinished(long runTime) {
-	setStatus("testRunFinished(required: " + 
-		 runTime + "ms. ");
+	String msg = "testRunFinished(required: " + runTime + "ms. ";
+	if (Accessor.isMetricsEnabled()) {
+	    msg += Accessor.getMetrics();
+	}
+	setStatus(msg);
 	this.testHierarchy.getActions().setEnableForRun(false); //!running
     }
 
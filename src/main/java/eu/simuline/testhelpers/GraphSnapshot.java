@@ -0,0 +1,854 @@
+package eu.simuline.testhelpers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The state of all objects reachable from a root object 
+ * captured by {@link Accessor#snapshot(Object)} 
+ * to be compared by {@link Accessor#diff(GraphSnapshot, GraphSnapshot)}. 
+ * <p>
+ * The objects reached are the nodes of the snapshot. 
+ * Depending on its class, a node is captured in one of the following ways: 
+ * <ul>
+ * <li>
+ * Arrays are captured element by element. 
+ * <li>
+ * Objects of classes which are accessible by reflection, 
+ * i.e. which are in an unnamed module or in a package 
+ * open to this class, are captured field by field, 
+ * including private fields and those declared in superclasses 
+ * but excluding static fields. 
+ * The fields of a class are determined and compiled to method handles 
+ * once for each class. 
+ * Superclasses from the first one which is not accessible on 
+ * are skipped, 
+ * except for collections and maps, which are captured as below. 
+ * <li>
+ * Other collections and maps, e.g. those of <code>java.util</code>, 
+ * are captured by iterating over their elements resp. entries. 
+ * This includes accessible collections and maps 
+ * extending an inaccessible one, 
+ * e.g. a class in the unnamed module extending <code>HashMap</code>; 
+ * then the fields of the accessible classes are not captured. 
+ * The elements of sets are captured in the order of iteration, 
+ * so equal sets may be captured in different order. 
+ * <li>
+ * Enums and all other objects are captured as leaves 
+ * which are compared by {@link Object#equals(Object)}. 
+ * This includes strings and wrappers of primitive values. 
+ * Note that leaves are referenced, not copied, 
+ * so a snapshot is precise only if its leaves are immutable. 
+ * </ul>
+ * Each node is captured once even if it is reachable on several paths; 
+ * so cycles are no problem. 
+ * The graph is traversed breadth first without recursion 
+ * and the snapshot is stored in a few flat arrays: 
+ * for each node its class and the range of its slots in a common 
+ * <code>long</code>-array. 
+ * A slot contains the bits of a primitive value 
+ * or the index of the node referred to. 
+ * So even snapshots of graphs with millions of nodes are feasible. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+public final class GraphSnapshot {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The fields of a class captured in a snapshot 
+     * together with handles reading them. 
+     */
+    private static final class Plan {
+
+	/**
+	 * Whether objects of the class are captured field by field. 
+	 * If not, all other fields of this plan are empty. 
+	 */
+	private final boolean isOpen;
+
+	/**
+	 * Whether {@link #isOpen} and the fields of all superclasses 
+	 * but {@link Object} are captured. 
+	 * If not, the fields of the superclasses 
+	 * from the first one which is not open on are skipped. 
+	 */
+	private final boolean isComplete;
+
+	/**
+	 * The names of the fields captured. 
+	 */
+	private final String[] names;
+
+	/**
+	 * Whether the fields captured are primitive. 
+	 */
+	private final boolean[] isPrimitive;
+
+	/**
+	 * The getters of the fields captured: 
+	 * for primitive fields of type <code>(Object)long</code> 
+	 * returning the bits of the value as {@link #bits(MethodHandle)}; 
+	 * for other fields of type <code>(Object)Object</code>. 
+	 */
+	private final MethodHandle[] getters;
+
+	Plan(Class<?> cls) {
+	    this.isOpen = isOpen(cls);
+	    List<Field> fields = new ArrayList<Field>();
+	    Class<?> sup = cls;
+	    for (;
+		 this.isOpen && sup != null && isOpen(sup);
+		 sup = sup.getSuperclass()) {
+		for (Field aField : sup.getDeclaredFields()) {
+		    if (!Modifier.isStatic(aField.getModifiers())) {
+			aField.setAccessible(true);// NOPMD
+			fields.add(aField);
+		    }
+		}
+	    }
+	    // Object has no instance fields 
+	    this.isComplete = this.isOpen 
+		&& (sup == null || sup == Object.class);
+	    int num = fields.size();
+	    this.names = new String[num];
+	    this.isPrimitive = new boolean[num];
+	    this.getters = new MethodHandle[num];
+	    for (int i = 0; i < num; i++) {
+		Field aField = fields.get(i);
+		MethodHandle getter = MemberIndex
+		    .of(aField.getDeclaringClass()).unreflectGetter(aField);
+		this.names[i] = aField.getName();
+		this.isPrimitive[i] = aField.getType().isPrimitive();
+		this.getters[i] = this.isPrimitive[i]
+		    ? bits(getter)
+		    : getter.asType(getter.type().generic());
+	    }
+	}
+
+	/**
+	 * Returns whether the fields of <code>cls</code> 
+	 * are accessible by reflection. 
+	 */
+	private static boolean isOpen(Class<?> cls) {
+	    Module module = cls.getModule();
+	    return !module.isNamed()
+		|| module.isOpen(cls.getPackageName(),
+				 GraphSnapshot.class.getModule());
+	}
+
+	int size() {
+	    return this.getters.length;
+	}
+    } // class Plan
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Kind of a node captured as a leaf. 
+     */
+    private static final byte LEAF = 0;
+
+    /**
+     * Kind of a node captured field by field. 
+     */
+    private static final byte OBJECT = 1;
+
+    /**
+     * Kind of an array with primitive components. 
+     */
+    private static final byte PRIMITIVES = 2;
+
+    /**
+     * Kind of an array with object components 
+     * or a collection captured element by element. 
+     */
+    private static final byte ELEMENTS = 3;
+
+    /**
+     * Kind of a map captured entry by entry: 
+     * the slots alternate between keys and values. 
+     */
+    private static final byte ENTRIES = 4;
+
+    /**
+     * The slot of a <code>null</code> reference. 
+     */
+    private static final int NULL = -1;
+
+    /**
+     * Attaches its {@link Plan} to a class. 
+     */
+    private static final ScopedCache<Plan> PLANS =
+	new ScopedCache<Plan>(Plan::new, Plan::size);
+
+    /**
+     * Converts a <code>float</code> into its bits. 
+     */
+    private static final MethodHandle FLOAT_BITS;
+
+    /**
+     * Converts a <code>double</code> into its bits. 
+     */
+    private static final MethodHandle DOUBLE_BITS;
+
+    static {
+	MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+	try {
+	    FLOAT_BITS = lookup
+		.findStatic(Float.class, "floatToRawIntBits",
+			    MethodType.methodType(int.class, float.class));
+	    DOUBLE_BITS = lookup
+		.findStatic(Double.class, "doubleToRawLongBits",
+			    MethodType.methodType(long.class, double.class));
+	} catch (ReflectiveOperationException e) {
+	    throw new IllegalStateException(e);// NOPMD
+	}
+    }
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The number of nodes which is <code>0</code> 
+     * if and only if the root is <code>null</code>. 
+     * The root is node <code>0</code>. 
+     */
+    private int numNodes;
+
+    /**
+     * The classes of the nodes. 
+     */
+    private Class<?>[] types;
+
+    /**
+     * The kinds of the nodes like {@link #OBJECT}. 
+     */
+    private byte[] kinds;
+
+    /**
+     * The slots of node <code>i</code> range 
+     * from <code>starts[i]</code> to <code>starts[i+1]</code> exclusively. 
+     */
+    private int[] starts;
+
+    /**
+     * The slots of all nodes. 
+     */
+    private long[] slots;
+
+    /**
+     * The number of slots used. 
+     */
+    private int numSlots;
+
+    /**
+     * The nodes which are leaves at their index; 
+     * the other entries are <code>null</code>. 
+     */
+    private Object[] leaves;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Captures the graph reachable from the given root. 
+     * This is invoked by {@link Accessor#snapshot(Object)} only. 
+     *
+     * @param root 
+     *    the root of the graph or <code>null</code>. 
+     */
+    GraphSnapshot(Object root) {
+	this.types = new Class<?>[16];
+	this.kinds = new byte[16];
+	this.starts = new int[17];
+	this.slots = new long[64];
+	this.leaves = new Object[16];
+	if (root == null) {
+	    return;
+	}
+
+	// the nodes by index which are released when captured 
+	Map<Object, Integer> ids = new IdentityHashMap<Object, Integer>();
+	Object[] nodes = new Object[16];
+	nodes[0] = root;
+	ids.put(root, 0);
+	this.numNodes = 1;
+	for (int cur = 0; cur < this.numNodes; cur++) {
+	    Object node = nodes[cur];
+	    nodes[cur] = null;
+	    this.starts[cur] = this.numSlots;
+	    Class<?> cls = node.getClass();
+	    this.types[cur] = cls;
+	    if (cls.isArray()) {
+		if (cls.getComponentType().isPrimitive()) {
+		    this.kinds[cur] = PRIMITIVES;
+		    addPrimitives(node);
+		} else {
+		    this.kinds[cur] = ELEMENTS;
+		    Object[] elems = (Object[]) node;
+		    ensureSlots(elems.length);
+		    for (Object elem : elems) {
+			nodes = addRef(elem, ids, nodes);
+		    }
+		}
+		continue;
+	    }
+	    Plan plan = node instanceof Enum ? null : PLANS.get(cls);
+	    // Capturing a map or a collection field by field 
+	    // would miss its contents 
+	    // if the fields of some superclass like HashMap are skipped. 
+	    if (plan != null && plan.isOpen 
+		&& (plan.isComplete 
+		    || !(node instanceof Map || node instanceof Collection))) {
+		this.kinds[cur] = OBJECT;
+		ensureSlots(plan.size());
+		for (int i = 0; i < plan.size(); i++) {
+		    try {
+			if (plan.isPrimitive[i]) {
+			    this.slots[this.numSlots++] =
+				(long) plan.getters[i].invokeExact(node);
+			} else {
+			    nodes = addRef((Object) plan.getters[i]
+					   .invokeExact(node), ids, nodes);
+			}
+		    } catch (Throwable e) {// NOPMD
+			throw FieldRef.rethrow(e);
+		    }
+		}
+	    } else if (node instanceof Map) {
+		this.kinds[cur] = ENTRIES;
+		for (Map.Entry<?, ?> entry : ((Map<?, ?>) node).entrySet()) {
+		    ensureSlots(2);
+		    nodes = addRef(entry.getKey(),   ids, nodes);
+		    nodes = addRef(entry.getValue(), ids, nodes);
+		}
+	    } else if (node instanceof Collection) {
+		this.kinds[cur] = ELEMENTS;
+		for (Object elem : (Collection<?>) node) {
+		    ensureSlots(1);
+		    nodes = addRef(elem, ids, nodes);
+		}
+	    } else {
+		this.kinds[cur] = LEAF;
+		this.leaves[cur] = node;
+	    }
+	}
+	this.starts[this.numNodes] = this.numSlots;
+
+	// trim 
+	this.types  = Arrays.copyOf(this.types,  this.numNodes);
+	this.kinds  = Arrays.copyOf(this.kinds,  this.numNodes);
+	this.starts = Arrays.copyOf(this.starts, this.numNodes + 1);
+	this.slots  = Arrays.copyOf(this.slots,  this.numSlots);
+	this.leaves = Arrays.copyOf(this.leaves, this.numNodes);
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Adapts a getter of type <code>(Object)P</code> 
+     * with primitive type <code>P</code> 
+     * to type <code>(Object)long</code> returning the bits of the value. 
+     * Floating point values are converted into their raw bits 
+     * so that equal bits mean identical values. 
+     */
+    private static MethodHandle bits(MethodHandle getter) {
+	MethodHandle res = getter.asType(getter.type()
+					 .changeParameterType(0, Object.class));
+	Class<?> type = res.type().returnType();
+	if (type == float.class) {
+	    res = MethodHandles.filterReturnValue(res, FLOAT_BITS);
+	} else if (type == double.class) {
+	    res = MethodHandles.filterReturnValue(res, DOUBLE_BITS);
+	}
+	return MethodHandles
+	    .explicitCastArguments(res, res.type()
+				   .changeReturnType(long.class));
+    }
+
+    /**
+     * Adds a slot referring to <code>ref</code> 
+     * which is added as a new node if it is not yet a node. 
+     * Assumes that there is room for the slot. 
+     *
+     * @return 
+     *    the array of nodes which may be grown. 
+     */
+    private Object[] addRef(Object ref,
+			    Map<Object, Integer> ids,
+			    Object[] nodes) {
+	if (ref == null) {
+	    this.slots[this.numSlots++] = NULL;
+	    return nodes;
+	}
+	Integer id = ids.get(ref);
+	if (id != null) {
+	    this.slots[this.numSlots++] = id;
+	    return nodes;
+	}
+	int newId = this.numNodes++;
+	ids.put(ref, newId);
+	this.slots[this.numSlots++] = newId;
+	Object[] res = nodes;
+	if (newId == res.length) {
+	    int len = 2 * newId;
+	    res = Arrays.copyOf(res, len);
+	    this.types  = Arrays.copyOf(this.types,  len);
+	    this.kinds  = Arrays.copyOf(this.kinds,  len);
+	    this.starts = Arrays.copyOf(this.starts, len + 1);
+	    this.leaves = Arrays.copyOf(this.leaves, len);
+	}
+	res[newId] = ref;
+	return res;
+    }
+
+    /**
+     * Adds the bits of the components of the given primitive array as slots. 
+     */
+    private void addPrimitives(Object array) {
+	if (array instanceof int[]) {
+	    int[] arr = (int[]) array;
+	    ensureSlots(arr.length);
+	    for (int val : arr) {
+		this.slots[this.numSlots++] = val;
+	    }
+	} else if (array instanceof long[]) {
+	    long[] arr = (long[]) array;
+	    ensureSlots(arr.length);
+	    System.arraycopy(arr, 0, this.slots, this.numSlots, arr.length);
+	    this.numSlots += arr.length;
+	} else if (array instanceof double[]) {
+	    double[] arr = (double[]) array;
+	    ensureSlots(arr.length);
+	    for (double val : arr) {
+		this.slots[this.numSlots++] = Double.doubleToRawLongBits(val);
+	    }
+	} else if (array instanceof float[]) {
+	    float[] arr = (float[]) array;
+	    ensureSlots(arr.length);
+	    for (float val : arr) {
+		this.slots[this.numSlots++] = Float.floatToRawIntBits(val);
+	    }
+	} else if (array instanceof boolean[]) {
+	    boolean[] arr = (boolean[]) array;
+	    ensureSlots(arr.length);
+	    for (boolean val : arr) {
+		this.slots[this.numSlots++] = val ? 1 : 0;
+	    }
+	} else if (array instanceof char[]) {
+	    char[] arr = (char[]) array;
+	    ensureSlots(arr.length);
+	    for (char val : arr) {
+		this.slots[this.numSlots++] = val;
+	    }
+	} else if (array instanceof short[]) {
+	    short[] arr = (short[]) array;
+	    ensureSlots(arr.length);
+	    for (short val : arr) {
+		this.slots[this.numSlots++] = val;
+	    }
+	} else {
+	    byte[] arr = (byte[]) array;
+	    ensureSlots(arr.length);
+	    for (byte val : arr) {
+		this.slots[this.numSlots++] = val;
+	    }
+	}
+    }
+
+    /**
+     * Ensures that there is room for the given number of further slots. 
+     */
+    private void ensureSlots(int num) {
+	int min = this.numSlots + num;
+	if (min > this.slots.length) {
+	    this.slots = Arrays.copyOf(this.slots,
+				       Math.max(min, 2 * this.slots.length));
+	}
+    }
+
+    /**
+     * Returns the number of objects captured. 
+     */
+    public int size() {
+	return this.numNodes;
+    }
+
+    /**
+     * Returns the paths to the differences between the given snapshots. 
+     * This is invoked by 
+     * {@link Accessor#diff(GraphSnapshot, GraphSnapshot)} only. 
+     * <p>
+     * The graphs are traversed in parallel breadth first 
+     * starting with the roots 
+     * along the paths on which the nodes of <code>snap1</code> 
+     * are first reached. 
+     * So if a node other than a leaf is reachable on several paths, 
+     * differences are reported for the shortest one only. 
+     * Two nodes differ as a whole if their classes differ 
+     * or if they are leaves which are not equal; 
+     * otherwise their fields, elements and entries are compared. 
+     * The paths have the form described for {@link FieldPath}: 
+     * for objects the name of the field differing is appended, 
+     * for arrays and collections the index, 
+     * e.g. <code>a.b[3].c</code>, 
+     * where a different length is reported 
+     * by appending <code>.length</code> 
+     * and the common elements are compared. 
+     * For maps with leaves as keys, the entries are compared by key 
+     * which is appended in braces, e.g. <code>cache{key}</code>; 
+     * other maps are compared like collections of entries 
+     * alternating between keys and values. 
+     * Likewise, sets with leaves as elements are compared by membership 
+     * and an element contained in one of the sets only 
+     * is appended in braces, e.g. <code>tags{elem}</code>, 
+     * whereas other sets are compared like lists 
+     * in the order of iteration 
+     * so that differences are reported also for equal sets 
+     * iterated in different order. 
+     * The difference of the roots as a whole is reported 
+     * as the empty path. 
+     */
+    static List<String> diff(GraphSnapshot snap1, GraphSnapshot snap2) {
+	List<String> res = new ArrayList<String>();
+	if (snap1.numNodes == 0 || snap2.numNodes == 0) {
+	    if (snap1.numNodes != snap2.numNodes) {
+		res.add("");
+	    }
+	    return res;
+	}
+	new Comparison(snap1, snap2, res).run();
+	return res;
+    }
+
+    /**
+     * Appends the path of the given slot relative to its node. 
+     *
+     * @param keyed 
+     *    whether the node is a map compared by key with its counterpart. 
+     *    Then for the slot of a value the key is appended in braces. 
+     */
+    private void appendStep(StringBuilder path, int node, int index,
+			    boolean keyed) {
+	switch (this.kinds[node]) {
+	case OBJECT:
+	    if (path.length() > 0) {
+		path.append('.');
+	    }
+	    path.append(PLANS.get(this.types[node]).names[index]);
+	    break;
+	case ENTRIES:
+	    if (keyed && index % 2 == 1) {
+		int key = (int) this.slots[this.starts[node] + index - 1];
+		path.append('{').append(this.leaves[key]).append('}');
+		break;
+	    }
+	    path.append('[').append(index).append(']');
+	    break;
+	default:
+	    path.append('[').append(index).append(']');
+	    break;
+	}
+    }
+
+    /**
+     * The state of a comparison of two snapshots. 
+     * This avoids passing many arrays around. 
+     */
+    private static final class Comparison {
+
+	private final GraphSnapshot snap1;
+
+	private final GraphSnapshot snap2;
+
+	private final List<String> res;
+
+	/**
+	 * The pairs of nodes to be compared, 
+	 * the first node from {@link #snap1} at even indices 
+	 * and the second one from {@link #snap2} at odd indices. 
+	 */
+	private int[] pairs;
+
+	/**
+	 * For each pair, the index of the pair with the parents 
+	 * and the slot index within the parent of {@link #snap1} 
+	 * at even resp. odd indices. 
+	 * For the roots, the parent is <code>-1</code>. 
+	 */
+	private int[] edges;
+
+	private int numPairs;
+
+	/**
+	 * Whether the nodes of a pair are maps compared by key. 
+	 */
+	private boolean[] keyed;
+
+	/**
+	 * Whether a node of {@link #snap1} is already scheduled. 
+	 */
+	private final boolean[] seen;
+
+	Comparison(GraphSnapshot snap1,
+		   GraphSnapshot snap2,
+		   List<String> res) {
+	    this.snap1 = snap1;
+	    this.snap2 = snap2;
+	    this.res = res;
+	    this.pairs = new int[32];
+	    this.edges = new int[32];
+	    this.keyed = new boolean[16];
+	    this.seen = new boolean[snap1.numNodes];
+	    schedule(0, 0, -1, -1);
+	}
+
+	void run() {
+	    for (int cur = 0; cur < this.numPairs; cur++) {
+		int node1 = this.pairs[2 * cur];
+		int node2 = this.pairs[2 * cur + 1];
+		GraphSnapshot s1 = this.snap1;
+		GraphSnapshot s2 = this.snap2;
+		if (s1.types[node1] != s2.types[node2]) {
+		    report(cur, null);
+		    continue;
+		}
+		int start1 = s1.starts[node1];
+		int start2 = s2.starts[node2];
+		int len1 = s1.starts[node1 + 1] - start1;
+		int len2 = s2.starts[node2 + 1] - start2;
+		switch (s1.kinds[node1]) {
+		case LEAF:
+		    if (!Objects.equals(s1.leaves[node1], s2.leaves[node2])) {
+			report(cur, null);
+		    }
+		    break;
+		case OBJECT:
+		    compareSlots(cur, node1, start1, start2, len1, false);
+		    break;
+		case PRIMITIVES:
+		    if (len1 != len2) {
+			report(cur, ".length");
+		    }
+		    compareSlots(cur, node1, start1, start2,
+				 Math.min(len1, len2), true);
+		    break;
+		case ELEMENTS:
+		    if (Set.class.isAssignableFrom(s1.types[node1])
+			&& areLeaves(s1, node1, 1) && areLeaves(s2, node2, 1)) {
+			compareMembers(cur, node1, node2);
+			break;
+		    }
+		    if (len1 != len2) {
+			report(cur, ".length");
+		    }
+		    compareSlots(cur, node1, start1, start2,
+				 Math.min(len1, len2), false);
+		    break;
+		case ENTRIES:
+		    if (areLeaves(s1, node1, 2) && areLeaves(s2, node2, 2)) {
+			this.keyed[cur] = true;
+			compareEntries(cur, node1, node2);
+		    } else {
+			if (len1 != len2) {
+			    report(cur, ".length");
+			}
+			compareSlots(cur, node1, start1, start2,
+				     Math.min(len1, len2), false);
+		    }
+		    break;
+		default:
+		    throw new IllegalStateException("Unknown kind. ");
+		}
+	    }
+	}
+
+	/**
+	 * Compares <code>len</code> slots of two nodes. 
+	 *
+	 * @param allPrimitive 
+	 *    whether all slots are primitive; 
+	 *    otherwise the plan of <code>node1</code> decides. 
+	 */
+	private void compareSlots(int cur, int node1,
+				  int start1, int start2, int len,
+				  boolean allPrimitive) {
+	    boolean[] isPrimitive = !allPrimitive
+		&& this.snap1.kinds[node1] == OBJECT
+		? PLANS.get(this.snap1.types[node1]).isPrimitive
+		: null;
+	    for (int i = 0; i < len; i++) {
+		long slot1 = this.snap1.slots[start1 + i];
+		long slot2 = this.snap2.slots[start2 + i];
+		if (allPrimitive || isPrimitive != null && isPrimitive[i]) {
+		    if (slot1 != slot2) {
+			reportSlot(cur, node1, i);
+		    }
+		} else {
+		    compareRefs(cur, node1, i, (int) slot1, (int) slot2);
+		}
+	    }
+	}
+
+	/**
+	 * Compares the entries of two maps with leaves as keys by key. 
+	 */
+	private void compareEntries(int cur, int node1, int node2) {
+	    GraphSnapshot s1 = this.snap1;
+	    GraphSnapshot s2 = this.snap2;
+	    Map<Object, Integer> values2 = new HashMap<Object, Integer>();
+	    for (int i = s2.starts[node2]; i < s2.starts[node2 + 1]; i += 2) {
+		values2.put(s2.leaves[(int) s2.slots[i]], 
+			    (int) s2.slots[i + 1]);
+	    }
+	    int start1 = s1.starts[node1];
+	    for (int i = start1; i < s1.starts[node1 + 1]; i += 2) {
+		Object key = s1.leaves[(int) s1.slots[i]];
+		Integer value2 = values2.remove(key);
+		if (value2 == null) {
+		    // missing in snap2 
+		    reportSlot(cur, node1, i + 1 - start1);
+		} else {
+		    compareRefs(cur, node1, i + 1 - start1,
+				(int) s1.slots[i + 1], value2);
+		}
+	    }
+	    for (Object key : values2.keySet()) {
+		// missing in snap1 
+		this.res.add(path(cur) + "{" + key + "}");
+	    }
+	}
+
+	/**
+	 * Compares two sets with leaves as elements by membership. 
+	 */
+	private void compareMembers(int cur, int node1, int node2) {
+	    GraphSnapshot s1 = this.snap1;
+	    GraphSnapshot s2 = this.snap2;
+	    Set<Object> members2 = new HashSet<Object>();
+	    for (int i = s2.starts[node2]; i < s2.starts[node2 + 1]; i++) {
+		members2.add(s2.leaves[(int) s2.slots[i]]);
+	    }
+	    for (int i = s1.starts[node1]; i < s1.starts[node1 + 1]; i++) {
+		Object elem = s1.leaves[(int) s1.slots[i]];
+		if (!members2.remove(elem)) {
+		    // missing in snap2 
+		    this.res.add(path(cur) + "{" + elem + "}");
+		}
+	    }
+	    for (Object elem : members2) {
+		// missing in snap1 
+		this.res.add(path(cur) + "{" + elem + "}");
+	    }
+	}
+
+	private void compareRefs(int cur, int node1, int index,
+				 int ref1, int ref2) {
+	    if (ref1 == NULL || ref2 == NULL) {
+		if (ref1 != ref2) {
+		    reportSlot(cur, node1, index);
+		}
+	    } else if (this.snap1.kinds[ref1] == LEAF) {
+		// leaves like small integers are often shared: 
+		// compare them on each path 
+		if (this.snap1.types[ref1] != this.snap2.types[ref2] 
+		    || !Objects.equals(this.snap1.leaves[ref1], 
+				       this.snap2.leaves[ref2])) {
+		    reportSlot(cur, node1, index);
+		}
+	    } else if (!this.seen[ref1]) {
+		schedule(ref1, ref2, cur, index);
+	    }
+	}
+
+	private void schedule(int node1, int node2, int parent, int index) {
+	    this.seen[node1] = true;
+	    if (2 * this.numPairs == this.pairs.length) {
+		this.pairs = Arrays.copyOf(this.pairs, 2 * this.pairs.length);
+		this.edges = Arrays.copyOf(this.edges, 2 * this.edges.length);
+		this.keyed = Arrays.copyOf(this.keyed, 2 * this.keyed.length);
+	    }
+	    this.pairs[2 * this.numPairs]     = node1;
+	    this.pairs[2 * this.numPairs + 1] = node2;
+	    this.edges[2 * this.numPairs]     = parent;
+	    this.edges[2 * this.numPairs + 1] = index;
+	    this.numPairs++;
+	}
+
+	private void report(int cur, String suffix) {
+	    this.res.add(suffix == null ? path(cur) : path(cur) + suffix);
+	}
+
+	private void reportSlot(int cur, int node1, int index) {
+	    StringBuilder path = new StringBuilder(path(cur));
+	    this.snap1.appendStep(path, node1, index, this.keyed[cur]);
+	    this.res.add(path.toString());
+	}
+
+	/**
+	 * Returns the path to the nodes of the given pair. 
+	 */
+	private String path(int pair) {
+	    List<Integer> chain = new ArrayList<Integer>();
+	    for (int cur = pair; this.edges[2 * cur] != -1;
+		 cur = this.edges[2 * cur]) {
+		chain.add(cur);
+	    }
+	    StringBuilder res = new StringBuilder();
+	    for (int i = chain.size() - 1; i >= 0; i--) {
+		int cur = chain.get(i);
+		int parent = this.edges[2 * cur];
+		this.snap1.appendStep(res, this.pairs[2 * parent],
+				      this.edges[2 * cur + 1],
+				      this.keyed[parent]);
+	    }
+	    return res.toString();
+	}
+
+	/**
+	 * Returns whether every <code>step</code>-th slot 
+	 * of the given node of <code>snap</code> refers to a leaf, 
+	 * i.e. for <code>step</code> one 
+	 * whether the node is a collection with leaves as elements 
+	 * and for <code>step</code> two 
+	 * whether the node is a map with leaves as keys. 
+	 */
+	private static boolean areLeaves(GraphSnapshot snap, int node,
+					 int step) {
+	    for (int i = snap.starts[node]; i < snap.starts[node + 1];
+		 i += step) {
+		int key = (int) snap.slots[i];
+		if (key == NULL || snap.leaves[key] == null) {
+		    return false;
+		}
+	    }
+	    return true;
+	}
+    } // class Comparison
+}
@@ -0,0 +1,177 @@
+package eu.simuline.testhelpers;
+
+import java.lang.invoke.MethodHandle;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+
+/**
+ * A constructor resolved once and for all 
+ * by {@link Accessor#instantiator(Class, Class[])}. 
+ * Whereas {@link Accessor#create(Class, Object...)} 
+ * looks up the constructor each time it is invoked, 
+ * {@link #newInstance(Object...)} 
+ * invokes the constructor directly via a cached method handle. 
+ * This pays off when creating many fixtures. 
+ * <p>
+ * For inner classes which are not static, 
+ * the enclosing instance is the first parameter of the constructor 
+ * as for {@link Constructor#newInstance(Object...)}. 
+ * So it must be passed to {@link #newInstance(Object...)} 
+ * as the first parameter. 
+ * <p>
+ * An instantiator is immutable and may be shared among threads. 
+ *
+ * @param <T>
+ *    the class to be instantiated. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+public final class Instantiator<T> {
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The accessible constructor invoked. 
+     */
+    private final Constructor<T> constr;
+
+    /**
+     * The parameter types of {@link #constr} 
+     * including the class of the enclosing instance for inner classes. 
+     * This is cached because 
+     * {@link Constructor#getParameterTypes()} copies. 
+     */
+    private final Class<?>[] paramTypes;
+
+    /**
+     * Whether the class instantiated is an inner class 
+     * requiring an enclosing instance. 
+     */
+    private final boolean isInner;
+
+    /**
+     * The creator of {@link #constr} 
+     * as returned by {@link MemberIndex#getCreator(Constructor)} 
+     * or <code>null</code> if the class instantiated is abstract. 
+     */
+    private final MethodHandle creator;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Creates an instantiator invoking the given accessible constructor. 
+     * This is invoked by {@link MemberIndex#getInstantiator(Constructor)} 
+     * only. 
+     */
+    Instantiator(Constructor<T> constr) {
+	this.constr = constr;
+	this.paramTypes = constr.getParameterTypes();
+	Class<T> cls = constr.getDeclaringClass();
+	this.isInner = isInner(cls);
+	this.creator = Modifier.isAbstract(cls.getModifiers())
+	    ? null
+	    : MemberIndex.of(cls).getCreator(constr);
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns whether <code>cls</code> is an inner class 
+     * the constructors of which take an enclosing instance. 
+     */
+    static boolean isInner(Class<?> cls) {
+	return cls.isMemberClass() && !Modifier.isStatic(cls.getModifiers());
+    }
+
+    /**
+     * Returns the class instantiated. 
+     */
+    public Class<T> getDeclaringClass() {
+	return this.constr.getDeclaringClass();
+    }
+
+    /**
+     * Returns whether the class instantiated is an inner class 
+     * so that the first parameter 
+     * of {@link #newInstance(Object...)} is the enclosing instance. 
+     */
+    public boolean isInner() {
+	return this.isInner;
+    }
+
+    /**
+     * Creates a new instance invoking the constructor 
+     * with the given parameters. 
+     *
+     * @param parameters 
+     *    the list of parameters of the constructor, 
+     *    for inner classes preceded by the enclosing instance. 
+     *    Note that parameters of elementary types 
+     *    have to be wrapped in an object. 
+     * @return 
+     *    the new instance. 
+     * @throws InstantiationException 
+     *    if the class instantiated is abstract. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if the parameters do not fit the parameter types 
+     *    of the constructor. 
+     *    <li>
+     *    if the class instantiated is an inner class 
+     *    but the enclosing instance is <code>null</code>. 
+     *    </ul>
+     * @throws InvocationTargetException 
+     *   to wrap an exception thrown by the constructor invoked. 
+     *   Unwrap it using {@link Throwable#getCause}. 
+     */
+    public T newInstance(Object... parameters) 
+	throws InstantiationException, InvocationTargetException {
+	Accessor.Engine.checkParams(this.paramTypes, parameters);
+	if (this.isInner && parameters[0] == null) {
+	    throw new IllegalArgumentException
+		("Inner class " + getDeclaringClass().getName() + 
+		 " requires an enclosing instance but found null. ");
+	}
+	return create(parameters);
+    }
+
+    /**
+     * Creates a new instance invoking the constructor 
+     * with the given parameters without checking them. 
+     * This is for parameters the classes of which 
+     * the constructor has been resolved for. 
+     *
+     * @throws InstantiationException 
+     *    if the class instantiated is abstract. 
+     * @throws InvocationTargetException 
+     *   to wrap an exception thrown by the constructor invoked. 
+     */
+    @SuppressWarnings("unchecked")
+    T create(Object... parameters) 
+	throws InstantiationException, InvocationTargetException {
+	if (this.creator == null) {
+	    throw new InstantiationException
+		(getDeclaringClass().getName() + " is abstract. ");
+	}
+	try {
+	    return (T) (Object) this.creator.invokeExact(parameters);
+	} catch (Throwable e) {// NOPMD
+	    // thrown by the constructor as the arguments are checked 
+	    throw new InvocationTargetException(e);
+	}
+    }
+
+    public String toString() {
+	return "Instantiator<" + this.constr + ">";
+    }
+}
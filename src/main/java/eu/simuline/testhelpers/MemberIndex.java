@@ -0,0 +1,1085 @@
+
+package eu.simuline.testhelpers;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches the results of resolving the members of a single class 
+ * as performed by {@link Accessor}. 
+ * For each class there is at most one such index 
+ * which is obtained by {@link #of(Class)}. 
+ * The index is attached to its class via a {@link ScopedCache} 
+ * and so it does not prevent the class from being unloaded, 
+ * e.g. if the {@link TestCaseClassLoader} of a test run is dropped. 
+ * Moreover, the indices of the classes of a test run 
+ * are dropped explicitly when the run is finished. 
+ * <p>
+ * Each index resolves a member at most once, 
+ * including the negative result that there is no such member. 
+ * Resolved members are made accessible once, 
+ * when they are resolved. 
+ * All methods of this class may be invoked concurrently. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+final class MemberIndex {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The key of a method with given name and parameter types. 
+     * This is used as a key in {@link MemberIndex#exactMethods} 
+     * and, with the classes of the arguments as parameter types, 
+     * in {@link MemberIndex#overloads}. 
+     */
+    static final class Signature {
+
+	/**
+	 * The name of the method. 
+	 */
+	private final String name;
+
+	/**
+	 * The types of the parameters of the method. 
+	 */
+	private final Class<?>[] paramCls;
+
+	/**
+	 * The hash code which is computed once. 
+	 */
+	private final int hash;
+
+	Signature(String name, Class<?>... paramCls) {
+	    this.name = name;
+	    this.paramCls = paramCls;
+	    this.hash = 31 * Objects.hashCode(name) + Arrays.hashCode(paramCls);
+	}
+
+	public boolean equals(Object other) {
+	    if (!(other instanceof Signature)) {
+		return false;
+	    }
+	    Signature sig = (Signature) other;
+	    return this.hash == sig.hash
+		&& Objects.equals(this.name, sig.name)
+		&& Arrays.equals(this.paramCls, sig.paramCls);
+	}
+
+	public int hashCode() {
+	    return this.hash;
+	}
+    } // class Signature
+
+    /**
+     * The result of resolving a method or a constructor 
+     * for the classes of the actual arguments, 
+     * i.e. a member or the information that there is no such member 
+     * or that it is not unique. 
+     *
+     * @param <M>
+     *    either <code>Method</code> or <code>Constructor</code>. 
+     */
+    static final class Overload<M extends Executable> {
+
+	/**
+	 * The member resolved or <code>null</code> if there is none. 
+	 * This is <code>null</code> also if {@link #ambiguity} is not. 
+	 */
+	private final M member;
+
+	/**
+	 * The message of the exception to be thrown 
+	 * if the member is not unique; 
+	 * otherwise <code>null</code>. 
+	 */
+	private final String ambiguity;
+
+	private Overload(M member, String ambiguity) {
+	    this.member = member;
+	    this.ambiguity = ambiguity;
+	}
+
+	/**
+	 * Returns the result that <code>member</code> has been resolved. 
+	 *
+	 * @param member 
+	 *    an accessible member 
+	 *    or <code>null</code> if there is no such member. 
+	 */
+	static <M extends Executable> Overload<M> of(M member) {
+	    return new Overload<M>(member, null);
+	}
+
+	/**
+	 * Returns the result that the member is not unique. 
+	 *
+	 * @param ambiguity 
+	 *    the message of the exception to be thrown 
+	 *    by {@link #getMember()}. 
+	 */
+	static <M extends Executable> Overload<M> ambiguous(String ambiguity) {
+	    return new Overload<M>(null, ambiguity);
+	}
+
+	/**
+	 * Returns the member resolved. 
+	 *
+	 * @return 
+	 *    the member or <code>null</code> if there is no such member. 
+	 * @throws IllegalArgumentException 
+	 *    if the member is not unique. 
+	 */
+	M getMember() {
+	    if (this.ambiguity != null) {
+		throw new IllegalArgumentException(this.ambiguity);
+	    }
+	    return this.member;
+	}
+    } // class Overload 
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Attaches to each class its index. 
+     */
+    private static final ScopedCache<MemberIndex> INDICES =
+	new ScopedCache<MemberIndex>(MemberIndex::new, MemberIndex::size);
+
+    /**
+     * The lookup of this class 
+     * from which the private lookups of the indexed classes are derived. 
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * The name used for constructors in {@link #overloads}. 
+     * This is the name of constructors in class files 
+     * and so no method may have this name. 
+     */
+    static final String CONSTRUCTOR = "<init>";
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The class indexed by this index. 
+     */
+    private final Class<?> cls;
+
+    /**
+     * The index of the superclass of {@link #cls} 
+     * or <code>null</code> if there is no superclass. 
+     */
+    private final MemberIndex superIndex;
+
+    /**
+     * Maps the names of the fields declared in {@link #cls} 
+     * to the fields. 
+     * Note that these fields are not (yet) accessible. 
+     */
+    private final Map<String, Field> declaredFields;
+
+    /**
+     * The methods declared in {@link #cls}. 
+     * This is the cached result of {@link Class#getDeclaredMethods()} 
+     * and may thus never be modified. 
+     */
+    private final Method[] declaredMethods;
+
+    /**
+     * Maps the names of the methods declared in {@link #cls} 
+     * to the methods with that name. 
+     * Note that these methods are not (yet) accessible. 
+     *
+     * @see #getDeclaredMethod(String, Class[]) 
+     */
+    private final Map<String, List<Method>> declaredMethodsByName;
+
+    /**
+     * Maps the names of fields to the field found first 
+     * searching {@link #cls} and then its superclasses. 
+     * If there is no such field, the value is empty. 
+     */
+    private final ConcurrentMap<String, Optional<Field>> fields;
+
+    /**
+     * Maps the signatures of methods to the method found first 
+     * searching {@link #cls} and then its superclasses. 
+     * If there is no such method, the value is empty. 
+     *
+     * @see #getMethod(String, Class[]) 
+     */
+    private final ConcurrentMap<Signature, Optional<Method>> exactMethods;
+
+    /**
+     * Maps the names of methods together with the classes of arguments 
+     * to the method they are resolved to. 
+     * For constructors, the name is {@link #CONSTRUCTOR}. 
+     *
+     * @see #getOverload(String, Class[], Supplier) 
+     */
+    private final ConcurrentMap<Signature, Overload<?>> overloads;
+
+    /**
+     * The lookup with private access to {@link #cls} 
+     * which is created lazily by {@link #lookup()}. 
+     */
+    private volatile MethodHandles.Lookup lookup;
+
+    /**
+     * Maps the fields declared in {@link #cls} to their getters. 
+     * The getters are adapted to the generic type 
+     * <code>(Object)Object</code> for instance fields 
+     * and <code>()Object</code> for static fields. 
+     *
+     * @see #getGetter(Field) 
+     */
+    private final ConcurrentMap<Field, MethodHandle> getters;
+
+    /**
+     * Maps the fields declared in {@link #cls} to their setters. 
+     * The setters are adapted to the generic type 
+     * <code>(Object,Object)void</code> for instance fields 
+     * and <code>(Object)void</code> for static fields. 
+     *
+     * @see #getSetter(Field) 
+     */
+    private final ConcurrentMap<Field, MethodHandle> setters;
+
+    /**
+     * Maps the methods and constructors declared in {@link #cls} 
+     * to handles taking their parameters as an <code>Object[]</code>. 
+     * The types are <code>(Object,Object[])Object</code> 
+     * for instance methods 
+     * and <code>(Object[])Object</code> 
+     * for static methods and for constructors. 
+     *
+     * @see #getInvoker(Method) 
+     * @see #getCreator(Constructor) 
+     */
+    private final ConcurrentMap<Member, MethodHandle> invokers;
+
+    /**
+     * Maps methods declared in {@link #cls} 
+     * together with a functional interface, 
+     * the name and the type of its single abstract method 
+     * to the instance of the interface spun for the method. 
+     * If no instance can be spun, the value is empty. 
+     *
+     * @see #spinLambda(Method, Class, String, MethodType) 
+     */
+    private final ConcurrentMap<List<Object>, Optional<Object>> lambdas;
+
+    /**
+     * Maps the names of fields to references 
+     * to the field returned by {@link #getField(String)}. 
+     * Fields which do not exist have no entry. 
+     *
+     * @see #getFieldRef(String) 
+     */
+    private final ConcurrentMap<String, FieldRef<?, ?>> fieldRefs;
+
+    /**
+     * Maps expressions to the paths compiled from them 
+     * starting in {@link #cls}. 
+     * Expressions which cannot be compiled have no entry. 
+     *
+     * @see #getPath(String) 
+     */
+    private final ConcurrentMap<String, FieldPath<?>> paths;
+
+    /**
+     * Maps the constructors of {@link #cls} to their instantiators. 
+     *
+     * @see #getInstantiator(Constructor) 
+     */
+    private final ConcurrentMap<Constructor<?>, Instantiator<?>> instantiators;
+
+    /**
+     * Maps the short names of the classes declared in {@link #cls} 
+     * to these classes. 
+     * This is computed when first needed 
+     * from {@link Class#getDeclaredClasses()}. 
+     *
+     * @see #getDeclaredClasses() 
+     */
+    private volatile Map<String, Class<?>> declaredClasses;
+
+    /**
+     * Maps short paths of inner classes <code>cls1$...$clsN</code> 
+     * to the class found first 
+     * searching {@link #cls} and then its superclasses for <code>cls1</code> 
+     * and so on for the further segments. 
+     * If there is no such class, the value is empty. 
+     *
+     * @see #getInnerClass(String) 
+     */
+    private final ConcurrentMap<String, Optional<Class<?>>> innerClasses;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Creates the index for the given class. 
+     * This is invoked by {@link #INDICES} only. 
+     */
+    private MemberIndex(Class<?> cls) {
+	this.cls = cls;
+	Class<?> superCls = cls.getSuperclass();
+	this.superIndex = superCls == null ? null : of(superCls);
+
+	Field[] cands = cls.getDeclaredFields();
+	this.declaredFields = new HashMap<String, Field>(2 * cands.length);
+	for (Field aField : cands) {
+	    this.declaredFields.put(aField.getName(), aField);
+	}
+	this.declaredMethods = cls.getDeclaredMethods();
+	this.declaredMethodsByName = 
+	    new HashMap<String, List<Method>>(2 * this.declaredMethods.length);
+	for (Method aMethod : this.declaredMethods) {
+	    this.declaredMethodsByName
+		.computeIfAbsent(aMethod.getName(), 
+				 name -> new ArrayList<Method>(1))
+		.add(aMethod);
+	}
+
+	this.fields       = new ConcurrentHashMap<String,    Optional<Field>>();
+	this.exactMethods = new ConcurrentHashMap<Signature, Optional<Method>>();
+	this.overloads    = new ConcurrentHashMap<Signature, Overload<?>>();
+	this.getters  = new ConcurrentHashMap<Field,  MethodHandle>();
+	this.setters  = new ConcurrentHashMap<Field,  MethodHandle>();
+	this.invokers = new ConcurrentHashMap<Member, MethodHandle>();
+	this.lambdas  = new ConcurrentHashMap<List<Object>, Optional<Object>>();
+	this.fieldRefs = new ConcurrentHashMap<String, FieldRef<?, ?>>();
+	this.paths     = new ConcurrentHashMap<String, FieldPath<?>>();
+	this.instantiators = 
+	    new ConcurrentHashMap<Constructor<?>, Instantiator<?>>();
+	this.innerClasses = new ConcurrentHashMap<String, Optional<Class<?>>>();
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the index of the given class. 
+     *
+     * @param cls 
+     *    some non-<code>null</code> class. 
+     * @return 
+     *    the one index of <code>cls</code>. 
+     */
+    static MemberIndex of(Class<?> cls) {
+	return INDICES.get(cls);
+    }
+
+    /**
+     * Returns the number of members and handles cached by this index. 
+     */
+    int size() {
+	return this.fields.size() + this.exactMethods.size() 
+	    + this.overloads.size() + this.fieldRefs.size() + this.paths.size() 
+	    + this.instantiators.size() + this.innerClasses.size() 
+	    + this.getters.size() + this.setters.size() + this.invokers.size() 
+	    + this.lambdas.size();
+    }
+
+    /**
+     * Returns whether <code>cls</code> can be referred to 
+     * by an index of a class loaded by <code>loader</code> 
+     * without keeping alive a class loader which could be dropped otherwise. 
+     * This is the case if <code>cls</code> is loaded by <code>loader</code> 
+     * or by one of its ancestors. 
+     *
+     * @param cls 
+     *    a class or <code>null</code> which is trivially visible. 
+     * @param loader 
+     *    a class loader or <code>null</code> for the bootstrap loader. 
+     */
+    static boolean isVisible(Class<?> cls, ClassLoader loader) {
+	if (cls == null) {
+	    return true;
+	}
+	ClassLoader clsLoader = cls.getClassLoader();
+	if (clsLoader == null) {
+	    return true;
+	}
+	for (ClassLoader cand = loader; cand != null; cand = cand.getParent()) {
+	    if (cand == clsLoader) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
+    /**
+     * Returns whether all the given classes are visible 
+     * from the class loader of {@link #cls} 
+     * in the sense of {@link #isVisible(Class, ClassLoader)}. 
+     * Only keys built from such classes are cached. 
+     */
+    boolean areVisible(Class<?>... classes) {
+	ClassLoader loader = this.cls.getClassLoader();
+	for (Class<?> aCls : classes) {
+	    if (!isVisible(aCls, loader)) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Returns the class indexed by this index. 
+     */
+    Class<?> getIndexedClass() {
+	return this.cls;
+    }
+
+    /**
+     * Returns the methods declared by the indexed class 
+     * as {@link Class#getDeclaredMethods()} does, 
+     * but without copying. 
+     * So the array returned may never be modified. 
+     */
+    Method[] getDeclaredMethods() {
+	return this.declaredMethods;
+    }
+
+    /**
+     * Returns the field with the given name 
+     * declared in the indexed class or in a superclass. 
+     * If more than one class declares the field, 
+     * the one which is lowest in the hierarchy is returned. 
+     *
+     * @param fieldName 
+     *    the name of the field which is not <code>null</code>. 
+     * @return 
+     *    the field made accessible 
+     *    or <code>null</code> if no such field exists. 
+     */
+    Field getField(String fieldName) {
+	Optional<Field> res = this.fields.get(fieldName);
+	INDICES.countLookup(res != null);
+	if (res == null) {
+	    res = this.fields.computeIfAbsent(fieldName, this::resolveField);
+	}
+	return res.orElse(null);
+    }
+
+    /**
+     * Returns a reference to the field 
+     * which is returned by {@link #getField(String)}. 
+     * The reference is created once and then reused. 
+     *
+     * @param fieldName 
+     *    the name of the field which is not <code>null</code>. 
+     * @return 
+     *    a reference to the field 
+     *    or <code>null</code> if no such field exists. 
+     */
+    FieldRef<?, ?> getFieldRef(String fieldName) {
+	FieldRef<?, ?> res = this.fieldRefs.get(fieldName);
+	INDICES.countLookup(res != null);
+	if (res == null) {
+	    Field aField = getField(fieldName);
+	    if (aField == null) {
+		return null;
+	    }
+	    res = this.fieldRefs
+		.computeIfAbsent(fieldName, name -> new FieldRef<>(aField));
+	}
+	return res;
+    }
+
+    /**
+     * Returns the path compiled from the given expression 
+     * starting in the indexed class. 
+     * The path is compiled once and then reused. 
+     *
+     * @param expression 
+     *    a path as described for {@link FieldPath}. 
+     * @throws NoSuchFieldException 
+     *    if a field of the path does not exist. 
+     * @throws IllegalArgumentException 
+     *    if the path cannot be compiled for another reason. 
+     * @see FieldPath#compile(Class, String) 
+     */
+    FieldPath<?> getPath(String expression) throws NoSuchFieldException {
+	FieldPath<?> res = this.paths.get(expression);
+	INDICES.countLookup(res != null);
+	if (res == null) {
+	    res = FieldPath.compile(this.cls, expression);
+	    FieldPath<?> old = this.paths.putIfAbsent(expression, res);
+	    if (old != null) {
+		res = old;
+	    }
+	}
+	return res;
+    }
+
+    /**
+     * Returns the inner class with the given short path 
+     * declared in the indexed class or in a superclass. 
+     * A path <code>cls1$...$clsN</code> with more than one segment 
+     * is resolved segment by segment, 
+     * each segment in the class found for the path before. 
+     * The class is resolved once and then reused. 
+     *
+     * @param path 
+     *    a short path which is not <code>null</code>. 
+     * @return 
+     *    the inner class or <code>null</code> if no such class exists. 
+     * @see Accessor#getInnerClass(Class, String) 
+     */
+    Class<?> getInnerClass(String path) {
+	Optional<Class<?>> res = this.innerClasses.get(path);
+	INDICES.countLookup(res != null);
+	if (res == null) {
+	    // resolving may recurse into this map, so no computeIfAbsent 
+	    res = resolveInnerClass(path);
+	    Optional<Class<?>> old = this.innerClasses.putIfAbsent(path, res);
+	    if (old != null) {
+		res = old;
+	    }
+	}
+	return res.orElse(null);
+    }
+
+    private Optional<Class<?>> resolveInnerClass(String path) {
+	Class<?> res = getDeclaredClasses().get(path);
+	if (res == null && this.superIndex != null) {
+	    res = this.superIndex.getInnerClass(path);
+	}
+	if (res == null) {
+	    int idx = path.lastIndexOf(Accessor.INNER_SEPARATOR);
+	    if (idx > 0 && idx < path.length() - 1) {
+		Class<?> outer = getInnerClass(path.substring(0, idx));
+		if (outer != null) {
+		    res = of(outer).getInnerClass(path.substring(idx + 1));
+		}
+	    }
+	}
+	return Optional.ofNullable(res);
+    }
+
+    /**
+     * Returns the map {@link #declaredClasses} computing it if necessary. 
+     * Concurrent invocations may compute equal maps, 
+     * of which only one is kept. 
+     */
+    private Map<String, Class<?>> getDeclaredClasses() {
+	Map<String, Class<?>> res = this.declaredClasses;
+	if (res == null) {
+	    Class<?>[] cands = this.cls.getDeclaredClasses();
+	    String prefix = this.cls.getName() + Accessor.INNER_SEPARATOR;
+	    res = new HashMap<String, Class<?>>(2 * cands.length);
+	    for (Class<?> aClass : cands) {
+		if (aClass.getName().startsWith(prefix)) {
+		    res.put(aClass.getName().substring(prefix.length()), aClass);
+		}
+	    }
+	    this.declaredClasses = res;
+	}
+	return res;
+    }
+
+    private Optional<Field> resolveField(String fieldName) {
+	Field aField = this.declaredFields.get(fieldName);
+	if (aField == null) {
+	    return Optional.ofNullable(this.superIndex == null
+				       ? null
+				       : this.superIndex.getField(fieldName));
+	}
+	aField.setAccessible(true);// NOPMD
+	return Optional.of(aField);
+    }
+
+    /**
+     * Returns the method with the given name and parameter types 
+     * declared in the indexed class or in a superclass. 
+     * If more than one class declares such a method, 
+     * the one which is lowest in the hierarchy is considered. 
+     *
+     * @param methodName 
+     *    the name of the method which is not <code>null</code>. 
+     * @param paramCls 
+     *    the types specifying the parameter list of the desired method. 
+     * @return 
+     *    the method made accessible or <code>null</code> 
+     *    if no such method exists or if the method considered is abstract. 
+     */
+    Method getMethod(String methodName, Class<?>... paramCls) {
+	if (paramCls == null) {
+	    // as for Class.getDeclaredMethod 
+	    paramCls = new Class<?>[0];
+	}
+	if (!areVisible(paramCls)) {
+	    return resolveMethod(methodName, paramCls).orElse(null);
+	}
+	Signature sig = new Signature(methodName, paramCls.clone());
+	Optional<Method> res = this.exactMethods.get(sig);
+	INDICES.countLookup(res != null);
+	if (res == null) {
+	    res = this.exactMethods
+		.computeIfAbsent(sig, key -> resolveMethod(key.name, 
+							   key.paramCls));
+	}
+	return res.orElse(null);
+    }
+
+    /**
+     * Returns the method or constructor with the given name 
+     * applicable to arguments of the given classes. 
+     * The resolution is performed by <code>resolver</code> 
+     * the first time and cached, 
+     * unless one of the classes of the arguments 
+     * is loaded by a class loader not visible from the indexed class. 
+     * Thus resolution must depend on the classes of the arguments only. 
+     *
+     * @param name 
+     *    the name of a method or {@link #CONSTRUCTOR}. 
+     * @param argCls 
+     *    the classes of the arguments 
+     *    where <code>null</code> represents a <code>null</code>-argument. 
+     *    This array may not be modified afterwards. 
+     * @param resolver 
+     *    resolves the member 
+     *    if the result is not cached. 
+     * @return 
+     *    the result of the resolution. 
+     */
+    @SuppressWarnings("unchecked")
+    <M extends Executable> Overload<M> getOverload(String name,
+						   Class<?>[] argCls,
+						   Supplier<Overload<M>> resolver) {
+	if (!areVisible(argCls)) {
+	    return resolver.get();
+	}
+	Signature sig = new Signature(name, argCls);
+	Overload<?> res = this.overloads.get(sig);
+	INDICES.countLookup(res != null);
+	if (res == null) {
+	    res = this.overloads.computeIfAbsent(sig, key -> resolver.get());
+	}
+	return (Overload<M>) res;
+    }
+
+    private Optional<Method> resolveMethod(String methodName,
+					   Class<?>... paramCls) {
+	Method toBeInvoked = getDeclaredMethod(methodName, paramCls);
+	if (toBeInvoked == null) {
+	    // method is not found: look it up in superclass 
+	    // which also caches the result. 
+	    return Optional.ofNullable(this.superIndex == null
+				       ? null
+				       : this.superIndex
+				       .getMethod(methodName, paramCls));
+	}
+	if (Modifier.isAbstract(toBeInvoked.getModifiers())) {
+	    return Optional.empty();
+	}
+	toBeInvoked.setAccessible(true);// NOPMD
+	return Optional.of(toBeInvoked);
+    }
+
+    /**
+     * Returns the method declared in the indexed class 
+     * with the given name and parameter types 
+     * as {@link Class#getDeclaredMethod(String, Class[])} does, 
+     * but returns <code>null</code> instead of throwing an exception 
+     * if there is no such method. 
+     * If there is more than one such method, 
+     * the one with the most specific return type is returned, 
+     * if any; otherwise the first one. 
+     *
+     * @param methodName 
+     *    the name of the method which may be <code>null</code>. 
+     * @param paramCls 
+     *    the types specifying the parameter list of the desired method. 
+     * @return 
+     *    the method which is not necessarily accessible 
+     *    or <code>null</code>. 
+     */
+    private Method getDeclaredMethod(String methodName, Class<?>... paramCls) {
+	List<Method> cands = this.declaredMethodsByName.get(methodName);
+	if (cands == null) {
+	    return null;
+	}
+	Method res = null;
+	for (Method cand : cands) {
+	    if (!Arrays.equals(cand.getParameterTypes(), paramCls)) {
+		continue;
+	    }
+	    if (res == null || res.getReturnType()
+		.isAssignableFrom(cand.getReturnType())) {
+		res = cand;
+	    }
+	}
+	return res;
+    }
+
+    /**
+     * Returns a lookup with private access to {@link #cls} if possible. 
+     * If the package of {@link #cls} is not open to this class, 
+     * the lookup of this class is returned instead. 
+     * Then creating a handle relies on the member being accessible 
+     * as the members returned by this index are. 
+     */
+    private MethodHandles.Lookup lookup() {
+	MethodHandles.Lookup res = this.lookup;
+	if (res == null) {
+	    try {
+		res = MethodHandles.privateLookupIn(this.cls, LOOKUP);
+	    } catch (IllegalAccessException e) {
+		res = LOOKUP;
+	    }
+	    this.lookup = res;
+	}
+	return res;
+    }
+
+    /**
+     * Returns the cached getter of the given field 
+     * adapted to type <code>(Object)Object</code> 
+     * or <code>()Object</code> if the field is static. 
+     *
+     * @param aField 
+     *    a field declared in the indexed class 
+     *    as returned by {@link #getField(String)}. 
+     * @throws IllegalStateException 
+     *    if the field is not accessible although it should. 
+     */
+    MethodHandle getGetter(Field aField) {
+	return this.getters.computeIfAbsent(aField, fld -> {
+		MethodHandle res = unreflectGetter(fld);
+		return res.asType(res.type().generic());
+	    });
+    }
+
+    /**
+     * Returns a new getter of the given field 
+     * of type <code>(Object)F</code> 
+     * or <code>()F</code> if the field is static, 
+     * where <code>F</code> is the type of the field. 
+     * Unlike {@link #getGetter(Field)}, 
+     * this does not box primitive values. 
+     *
+     * @param aField 
+     *    a field declared in the indexed class 
+     *    as returned by {@link #getField(String)}. 
+     * @throws IllegalStateException 
+     *    if the field is not accessible although it should. 
+     */
+    MethodHandle unreflectGetter(Field aField) {
+	try {
+	    return receiverAsObject(lookup().unreflectGetter(aField), aField);
+	} catch (IllegalAccessException e) {
+	    throw notAccessible(aField);
+	}
+    }
+
+    /**
+     * Returns the cached setter of the given non-final field 
+     * adapted to type <code>(Object,Object)void</code> 
+     * or <code>(Object)void</code> if the field is static. 
+     *
+     * @param aField 
+     *    a non-final field declared in the indexed class 
+     *    as returned by {@link #getField(String)}. 
+     * @throws IllegalStateException 
+     *    if the field is not accessible although it should. 
+     */
+    MethodHandle getSetter(Field aField) {
+	return this.setters.computeIfAbsent(aField, fld -> {
+		MethodHandle res = unreflectSetter(fld);
+		return res.asType(res.type().generic()
+				  .changeReturnType(void.class));
+	    });
+    }
+
+    /**
+     * Returns a new setter of the given non-final field 
+     * of type <code>(Object,F)void</code> 
+     * or <code>(F)void</code> if the field is static, 
+     * where <code>F</code> is the type of the field. 
+     * Unlike {@link #getSetter(Field)}, 
+     * this does not unbox primitive values. 
+     *
+     * @param aField 
+     *    a non-final field declared in the indexed class 
+     *    as returned by {@link #getField(String)}. 
+     * @throws IllegalStateException 
+     *    if the field is not accessible although it should. 
+     */
+    MethodHandle unreflectSetter(Field aField) {
+	try {
+	    return receiverAsObject(lookup().unreflectSetter(aField), aField);
+	} catch (IllegalAccessException e) {
+	    throw notAccessible(aField);
+	}
+    }
+
+    /**
+     * Adapts the type of the receiver of <code>handle</code> 
+     * to <code>Object</code> unless <code>aField</code> is static. 
+     */
+    private static MethodHandle receiverAsObject(MethodHandle handle, 
+						 Field aField) {
+	if (Modifier.isStatic(aField.getModifiers())) {
+	    return handle;
+	}
+	return handle.asType(handle.type()
+			     .changeParameterType(0, Object.class));
+    }
+
+    /**
+     * Returns the exception thrown 
+     * if no handle can be created for <code>aField</code>. 
+     */
+    private IllegalStateException notAccessible(Field aField) {
+	return new IllegalStateException// NOPMD
+	    ("Field '" + aField.getName() + "' in class '" + 
+	     this.cls.getName() + 
+	     "' is not accessible although it should. ");
+    }
+
+    /**
+     * Returns the cached invoker of the given method 
+     * of type <code>(Object,Object[])Object</code> 
+     * or <code>(Object[])Object</code> if the method is static. 
+     * The invoker returns <code>null</code> for void methods 
+     * and boxes primitive return values. 
+     * Variable arity methods are treated as methods with fixed arity 
+     * as {@link Method#invoke(Object, Object...)} does. 
+     *
+     * @param method 
+     *    a non-abstract method declared in the indexed class. 
+     * @throws IllegalStateException 
+     *    if the method is not accessible although it should. 
+     */
+    MethodHandle getInvoker(Method method) {
+	return this.invokers.computeIfAbsent(method, mem -> {
+		try {
+		    return spread(lookup().unreflect(method),
+				  method.getParameterCount());
+		} catch (IllegalAccessException e) {
+		    throw new IllegalStateException// NOPMD
+			("Method should be accessible; still is not. "); 
+		}
+	    });
+    }
+
+    /**
+     * Returns the cached creator of the given constructor 
+     * of type <code>(Object[])Object</code>. 
+     *
+     * @param constr 
+     *    a constructor of the indexed class which is not abstract. 
+     * @throws IllegalStateException 
+     *    if the constructor is not accessible although it should. 
+     */
+    MethodHandle getCreator(Constructor<?> constr) {
+	return this.invokers.computeIfAbsent(constr, mem -> {
+		try {
+		    return spread(lookup().unreflectConstructor(constr),
+				  constr.getParameterCount());
+		} catch (IllegalAccessException e) {
+		    throw new IllegalStateException// NOPMD
+			("Constructor should be accessible; still is not. "); 
+		}
+	    });
+    }
+
+    /**
+     * Returns the constructor of the indexed class 
+     * with exactly the given parameter types made accessible 
+     * or <code>null</code> if there is none. 
+     * Unlike {@link Class#getDeclaredConstructor(Class[])}, 
+     * this throws no exception if the constructor does not exist. 
+     *
+     * @param paramCls 
+     *    the parameter types of the constructor. 
+     */
+    Constructor<?> getDeclaredConstructor(Class<?>... paramCls) {
+	for (Constructor<?> constr : this.cls.getDeclaredConstructors()) {
+	    if (Arrays.equals(constr.getParameterTypes(), paramCls)) {
+		constr.setAccessible(true);// NOPMD
+		return constr;
+	    }
+	}
+	return null;
+    }
+
+    /**
+     * Returns the cached instantiator of the given constructor. 
+     *
+     * @param constr 
+     *    an accessible constructor of the indexed class. 
+     */
+    Instantiator<?> getInstantiator(Constructor<?> constr) {
+	Instantiator<?> res = this.instantiators.get(constr);
+	INDICES.countLookup(res != null);
+	if (res == null) {
+	    res = this.instantiators
+		.computeIfAbsent(constr, key -> new Instantiator<>(key));
+	}
+	return res;
+    }
+
+    /**
+     * Returns a new handle of the given method 
+     * adapted to a generic type without spreading the parameters, 
+     * i.e. <code>(Object,Object...)Object</code> for instance methods 
+     * with as many parameters as the method has. 
+     *
+     * @param method 
+     *    a non-abstract method declared in the indexed class. 
+     * @throws IllegalStateException 
+     *    if the method is not accessible although it should. 
+     */
+    MethodHandle unreflectGeneric(Method method) {
+	try {
+	    MethodHandle res = lookup().unreflect(method).asFixedArity();
+	    return res.asType(res.type().generic());
+	} catch (IllegalAccessException e) {
+	    throw new IllegalStateException// NOPMD
+		("Method should be accessible; still is not. "); 
+	}
+    }
+
+    /**
+     * Returns a new handle of the given method adapted to <code>type</code>, 
+     * e.g. <code>(Object,Object)double</code> for a member method 
+     * with a single parameter returning <code>double</code>, 
+     * so that primitive return values are not boxed. 
+     *
+     * @param method 
+     *    a non-abstract method declared in the indexed class. 
+     * @param type 
+     *    a type the handle of <code>method</code> can be adapted to 
+     *    by {@link MethodHandle#asType(MethodType)}. 
+     * @throws IllegalStateException 
+     *    if the method is not accessible although it should. 
+     */
+    MethodHandle unreflect(Method method, MethodType type) {
+	try {
+	    return lookup().unreflect(method).asFixedArity().asType(type);
+	} catch (IllegalAccessException e) {
+	    throw new IllegalStateException// NOPMD
+		("Method should be accessible; still is not. "); 
+	}
+    }
+
+    /**
+     * Returns the cached instance of the functional interface 
+     * <code>iface</code> 
+     * the single abstract method of which directly invokes 
+     * the given method. 
+     * The class of the instance is spun by {@link LambdaMetafactory} 
+     * as a hidden nestmate of the indexed class 
+     * once for the given method and interface. 
+     * Since the instance has no state, it may be shared. 
+     * This requires a lookup with full privilege access, 
+     * i.e. the indexed class must be in the module of this class. 
+     * Moreover, the method may not return <code>void</code>. 
+     *
+     * @param method 
+     *    a non-abstract method declared in the indexed class. 
+     * @param iface 
+     *    a functional interface. 
+     * @param samName 
+     *    the name of the single abstract method of <code>iface</code>. 
+     * @param samType 
+     *    the erased type of the single abstract method. 
+     *    If it returns a primitive type 
+     *    as for <code>ToDoubleFunction</code>, 
+     *    the return value of <code>method</code> is not boxed. 
+     * @return 
+     *    the instance or <code>null</code> 
+     *    if it cannot be created for the reasons given above. 
+     */
+    Object spinLambda(Method method, 
+		      Class<?> iface, 
+		      String samName, 
+		      MethodType samType) {
+	List<Object> key = List.of(method, iface, samName, samType);
+	Optional<Object> res = this.lambdas.get(key);
+	INDICES.countLookup(res != null);
+	if (res == null) {
+	    res = this.lambdas.computeIfAbsent(key, k -> Optional
+		.ofNullable(newLambda(method, iface, samName, samType)));
+	}
+	return res.orElse(null);
+    }
+
+    /**
+     * Returns a new instance as described for 
+     * {@link #spinLambda(Method, Class, String, MethodType)} 
+     * or <code>null</code> if it cannot be created. 
+     */
+    private Object newLambda(Method method, 
+			     Class<?> iface, 
+			     String samName, 
+			     MethodType samType) {
+	MethodHandles.Lookup lkp = lookup();
+	if (lkp.lookupClass() != this.cls 
+	    || !lkp.hasFullPrivilegeAccess() 
+	    || method.getReturnType() == void.class) {
+	    return null;
+	}
+	try {
+	    MethodHandle impl = lkp.unreflect(method);
+	    MethodType instType = impl.type().wrap();
+	    if (samType.returnType().isPrimitive()) {
+		instType = instType.changeReturnType(samType.returnType());
+	    }
+	    CallSite site = LambdaMetafactory
+		.metafactory(lkp, samName, MethodType.methodType(iface),
+			     samType, impl, instType);
+	    return site.getTarget().invoke();
+	} catch (Throwable e) {// NOPMD
+	    // not supported: fall back on handles 
+	    return null;
+	}
+    }
+
+    /**
+     * Adapts <code>handle</code> to a generic type 
+     * collecting the last <code>numParams</code> parameters 
+     * into an <code>Object[]</code>. 
+     */
+    private static MethodHandle spread(MethodHandle handle, int numParams) {
+	MethodHandle res = handle.asFixedArity();
+	res = res.asType(res.type().generic());
+	return res.asSpreader(Object[].class, numParams);
+    }
+}
@@ -0,0 +1,250 @@
+
+package eu.simuline.testhelpers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A method resolved once and for all 
+ * by {@link Accessor#method(Class, String, Class, Class[])}. 
+ * Whereas {@link Accessor#invoke(Class, Object, String, Object...)} 
+ * looks up the method each time it is invoked, 
+ * {@link #invoke(Object, Object...)} 
+ * invokes the method directly via a cached method handle. 
+ * As for {@link Accessor}, the target is <code>null</code> 
+ * if and only if the method is static. 
+ * <p>
+ * For member methods invoked in hot loops, 
+ * {@link #asFunction()} and {@link #asBiFunction()} 
+ * return views of the method as functional interfaces. 
+ * If possible, these are spun by 
+ * {@link java.lang.invoke.LambdaMetafactory} 
+ * and invoke the method directly; 
+ * otherwise they are lambdas capturing the handle of the method. 
+ * <p>
+ * A reference is immutable and may be shared among threads. 
+ *
+ * @param <T>
+ *    the class in which the method was looked up. 
+ * @param <R>
+ *    the return type of the method 
+ *    or its wrapper if the type is primitive 
+ *    and {@link Void} if the method returns no value. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+public final class MethodRef<T, R> {
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The accessible method referred to. 
+     */
+    private final Method method;
+
+    /**
+     * Whether {@link #method} is static. 
+     */
+    private final boolean isStatic;
+
+    /**
+     * The parameter types of {@link #method}. 
+     * This is cached because {@link Method#getParameterTypes()} copies. 
+     */
+    private final Class<?>[] paramTypes;
+
+    /**
+     * The invoker of {@link #method} 
+     * as returned by {@link MemberIndex#getInvoker(Method)}. 
+     */
+    private final MethodHandle invoker;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Creates a reference to the given accessible method. 
+     */
+    MethodRef(Method method) {
+	this.method = method;
+	this.isStatic = Modifier.isStatic(method.getModifiers());
+	this.paramTypes = method.getParameterTypes();
+	this.invoker = MemberIndex.of(method.getDeclaringClass())
+	    .getInvoker(method);
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the name of the method referred to. 
+     */
+    public String getName() {
+	return this.method.getName();
+    }
+
+    /**
+     * Returns whether the method referred to is static. 
+     */
+    public boolean isStatic() {
+	return this.isStatic;
+    }
+
+    /**
+     * Invokes the method referred to with the given parameters. 
+     *
+     * @param target 
+     *    the target to which the method is to be applied. 
+     *    The target <em>must</em> be <code>null</code> 
+     *    if and only if the method is static. 
+     * @param parameters 
+     *    the list of parameters used when invoking the method. 
+     *    Note that parameters of elementary types 
+     *    have to be wrapped in an object. 
+     * @return 
+     *    the return value of the method, 
+     *    wrapped if it is primitive 
+     *    and <code>null</code> if the method returns no value. 
+     * @throws IllegalArgumentException 
+     *    <ul>
+     *    <li>
+     *    if the method is static but <code>target != null</code> 
+     *    or the other way round. 
+     *    <li>
+     *    if the target is no instance of the class declaring the method. 
+     *    <li>
+     *    if the parameters do not fit the parameter types of the method. 
+     *    </ul>
+     * @throws InvocationTargetException 
+     *   to wrap an exception thrown by the method invoked. 
+     *   Unwrap it using {@link Throwable#getCause}. 
+     */
+    @SuppressWarnings("unchecked")
+    public R invoke(T target, Object... parameters)
+	throws InvocationTargetException {
+
+	Accessor.checkStatic(this.method, target);
+	Accessor.Engine.checkParams(this.paramTypes, parameters);
+	if (!this.isStatic) {
+	    Accessor.Engine.checkTarget(this.method, target);
+	}
+	try {
+	    if (this.isStatic) {
+		return (R) (Object) this.invoker.invokeExact(parameters);
+	    }
+	    return (R) (Object) this.invoker.invokeExact((Object) target,
+							 parameters);
+	} catch (Throwable e) {// NOPMD
+	    // thrown by the method as the arguments are checked 
+	    throw new InvocationTargetException(e);
+	}
+    }
+
+    /**
+     * Returns a view of the method referred to 
+     * which must be a member method without parameters. 
+     * Primitive return values are boxed; 
+     * for <code>void</code> methods the view returns <code>null</code>. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class. 
+     * Exceptions thrown by the method are not wrapped, 
+     * so the view may throw checked exceptions not declared. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the method is static or has parameters. 
+     */
+    @SuppressWarnings("unchecked")
+    public Function<T, R> asFunction() {
+	MemberIndex index = checkView(0);
+	Object direct = index.spinLambda(this.method, 
+					 Function.class, "apply", 
+					 MethodType.genericMethodType(1));
+	if (direct != null) {
+	    return (Function<T, R>) direct;
+	}
+	MethodHandle handle = index.unreflectGeneric(this.method);
+	return target -> {
+	    try {
+		return (R) (Object) handle.invokeExact((Object) target);
+	    } catch (Throwable e) {
+		throw MethodRef.<RuntimeException>sneakyThrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Returns a view of the method referred to 
+     * which must be a member method with a single parameter. 
+     * Primitive parameters and return values are boxed; 
+     * for <code>void</code> methods the view returns <code>null</code>. 
+     * The view throws a <code>ClassCastException</code> 
+     * for a target which is no instance of the declaring class. 
+     * Exceptions thrown by the method are not wrapped, 
+     * so the view may throw checked exceptions not declared. 
+     *
+     * @param <A> 
+     *    the type of the parameter or its wrapper if it is primitive. 
+     * @throws IllegalArgumentException 
+     *    if the method is static or has not exactly one parameter. 
+     */
+    @SuppressWarnings("unchecked")
+    public <A> BiFunction<T, A, R> asBiFunction() {
+	MemberIndex index = checkView(1);
+	Object direct = index.spinLambda(this.method, 
+					 BiFunction.class, "apply", 
+					 MethodType.genericMethodType(2));
+	if (direct != null) {
+	    return (BiFunction<T, A, R>) direct;
+	}
+	MethodHandle handle = index.unreflectGeneric(this.method);
+	return (target, arg) -> {
+	    try {
+		return (R) (Object) handle.invokeExact((Object) target, 
+						       (Object) arg);
+	    } catch (Throwable e) {
+		throw MethodRef.<RuntimeException>sneakyThrow(e);
+	    }
+	};
+    }
+
+    /**
+     * Throws an exception if the method referred to is static 
+     * or if it has not the given number of parameters. 
+     *
+     * @return 
+     *    the index of the class declaring the method. 
+     */
+    private MemberIndex checkView(int numParams) {
+	if (this.isStatic || this.paramTypes.length != numParams) {
+	    throw new IllegalArgumentException
+		("View requires a member method with " + numParams + 
+		 " parameters; found " + this.method + ". ");
+	}
+	return MemberIndex.of(this.method.getDeclaringClass());
+    }
+
+    /**
+     * Throws <code>thr</code> as if it were unchecked. 
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> E sneakyThrow(Throwable thr) 
+	throws E {
+	throw (E) thr;
+    }
+
+    public String toString() {
+	return "MethodRef<" + this.method + ">";
+    }
+}
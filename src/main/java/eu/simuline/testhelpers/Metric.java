@@ -0,0 +1,473 @@
+
+package eu.simuline.testhelpers;
+
+import java.lang.invoke.MethodHandleProxies;
+import java.lang.invoke.MethodType;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compares leaves of arrays which are objects 
+ * by a metric method given by its name 
+ * for the methods <code>assertArraysNormAbsEquals</code> of {@link Assert}, 
+ * e.g. the entries of matrices of complex numbers or of intervals. 
+ * As for {@link Assert#assertNormAbsEquals(Object,Object,String,double)}, 
+ * the distance between an expected and an actual leaf 
+ * is <code>expected.norm(actual)</code> 
+ * and the leaves are equal if it does not exceed a given deviation. 
+ * <p>
+ * Norm and metric methods are resolved and checked 
+ * once for each class and name 
+ * and invoked through {@link Adapter}s to functional interfaces 
+ * which are attached to the class by a {@link ScopedCache}. 
+ * These are used also by the methods <code>assertNormAbsEquals</code> 
+ * and <code>assertNormRelEquals</code> of {@link Assert} 
+ * via {@link #distance(String, Object, Object)} 
+ * and {@link #norm(String, Object)}. 
+ * Since the leaves of an array are mostly of a single class, 
+ * a metric tries the adapter used last first. 
+ * Primitive leaves cannot be compared by a metric method. 
+ * A metric may be shared among threads. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+final class Metric extends ArrayMismatch.Leaves {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * A norm or a metric method of a class 
+     * together with a view as a functional interface. 
+     * The view invokes the method directly if possible, 
+     * in particular without boxing the value returned. 
+     *
+     * @param <F>
+     *    either <code>ToDoubleFunction</code> 
+     *    or <code>ToDoubleBiFunction</code>. 
+     */
+    static final class Adapter<F> {
+
+	/**
+	 * The class in which {@link #method} was looked up. 
+	 */
+	private final Class<?> cls;
+
+	/**
+	 * The norm or metric method which is a member method. 
+	 */
+	private final Method method;
+
+	/**
+	 * The view of {@link #method} as a functional interface. 
+	 */
+	private final F function;
+
+	/**
+	 * Creates an adapter of <code>method</code> 
+	 * looked up in <code>cls</code> 
+	 * to the functional interface <code>iface</code> 
+	 * the single abstract method of which is <code>applyAsDouble</code> 
+	 * with the given type. 
+	 */
+	@SuppressWarnings("unchecked")
+	Adapter(Class<?> cls, 
+		Method method, 
+		Class<?> iface, 
+		MethodType samType) {
+	    this.cls = cls;
+	    this.method = method;
+	    MemberIndex index = MemberIndex.of(method.getDeclaringClass());
+	    Object direct = index.spinLambda(method, iface, 
+					     "applyAsDouble", samType);
+	    this.function = (F) (direct == null
+				 ? MethodHandleProxies.asInterfaceInstance
+				 (iface, index.unreflect(method, samType))
+				 : direct);
+	}
+
+	/**
+	 * Returns the exception thrown 
+	 * if invoking the method raises <code>thr</code>. 
+	 */
+	IllegalArgumentException raised(Throwable thr) {
+	    if (thr instanceof UndeclaredThrowableException) {
+		// thrown by a proxy for checked exceptions 
+		thr = thr.getCause();
+	    }
+	    return new IllegalArgumentException
+		("Could not test deviation, because method " + this.method + 
+		 " raised " + thr + ". ");
+	}
+    } // class Adapter
+
+    /**
+     * The norm and the metric methods of a single class 
+     * by their names. 
+     * Methods are added when they are first used 
+     * and when they are found to be valid; 
+     * otherwise each use raises the exception anew. 
+     */
+    static final class Adapters {
+
+	/**
+	 * Maps the names of norm methods to their adapters. 
+	 */
+	private final ConcurrentMap<String, Adapter<ToDoubleFunction<Object>>>
+	    norms;
+
+	/**
+	 * Maps the names of metric methods to their adapters. 
+	 */
+	private final
+	    ConcurrentMap<String, Adapter<ToDoubleBiFunction<Object, Object>>>
+	    metrics;
+
+	Adapters() {
+	    this.norms = new ConcurrentHashMap
+		<String, Adapter<ToDoubleFunction<Object>>>();
+	    this.metrics = new ConcurrentHashMap
+		<String, Adapter<ToDoubleBiFunction<Object, Object>>>();
+	}
+
+	/**
+	 * Returns the number of adapters for the statistics. 
+	 */
+	int size() {
+	    return this.norms.size() + this.metrics.size();
+	}
+    } // class Adapters
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Attaches its {@link Adapters} to a class. 
+     */
+    private static final ScopedCache<Adapters> ADAPTERS =
+	new ScopedCache<Adapters>(cls -> new Adapters(), Adapters::size);
+
+    /**
+     * The erased type of <code>ToDoubleFunction.applyAsDouble</code>. 
+     */
+    private static final MethodType NORM_TYPE =
+	MethodType.methodType(Double.TYPE, Object.class);
+
+    /**
+     * The erased type of <code>ToDoubleBiFunction.applyAsDouble</code>. 
+     */
+    private static final MethodType METRIC_TYPE =
+	MethodType.methodType(Double.TYPE, Object.class, Object.class);
+
+    private static final String STR_OBJECT  = "Object ";
+    private static final String STR_DN_PROV = " does not provide a method \"";
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The name of the metric method. 
+     */
+    private final String norm;
+
+    /**
+     * The maximal distance allowed. 
+     */
+    private final double delta;
+
+    /**
+     * The adapter used last 
+     * or <code>null</code> if no leaves are compared yet. 
+     */
+    private volatile Adapter<ToDoubleBiFunction<Object, Object>> last;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Creates a metric given by the method named <code>norm</code> 
+     * allowing distances up to <code>delta</code>. 
+     *
+     * @param norm 
+     *    the name of a metric method 
+     *    as described for {@link #getMetric(Object, String)}. 
+     */
+    Metric(String norm, double delta) {
+	this.norm = norm;
+	this.delta = delta;
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the metric method named <code>norm</code> 
+     * for the class of <code>expected</code>, 
+     * i.e. a member method of the form <code>public double norm(Cls)</code> 
+     * where <code>Cls</code> is the class of <code>expected</code>. 
+     *
+     * @throws IllegalArgumentException 
+     *    if there is no such method, 
+     *    if it does not return <code>double</code> 
+     *    or if it is static. 
+     */
+    static Method getMetric(Object expected, String norm) {
+	// get the norm2 method or null 
+	Method mNorm2 = Accessor.getToBeInvoked(expected.getClass(), 
+						norm, 
+						expected.getClass());
+
+	// ensure that a method with given signature exists 
+	if (mNorm2 == null) {
+	    throw new IllegalArgumentException
+		(STR_OBJECT + expected + STR_DN_PROV + 
+		 "public ... " + norm + "(" + expected.getClass() + 
+		 ") as expected. ");
+	}
+
+	// ensure the right return type 
+	if (!Double.TYPE.equals(mNorm2.getReturnType())) {
+	    throw new IllegalArgumentException
+		(STR_OBJECT + expected + STR_DN_PROV + 
+		 "public double " + norm + "(" + expected.getClass() + 
+		 ") as expected (have a look at the return type). ");
+	}
+
+	// ensure that the method is a member method 
+	if (Modifier.isStatic(mNorm2.getModifiers())) {
+	    throw new IllegalArgumentException
+		(STR_OBJECT + expected + " provides a static method " + 
+		 "\"public static double " + norm + "(" + expected.getClass() + 
+		 ") not a member method as expected. ");
+	}
+	return mNorm2;
+    }
+
+    /**
+     * Returns the norm method named <code>norm</code> 
+     * for the class of <code>expected</code>, 
+     * i.e. a member method of the form <code>public double norm()</code>. 
+     *
+     * @throws IllegalArgumentException 
+     *    if there is no such method, 
+     *    if it does not return <code>double</code> 
+     *    or if it is static. 
+     */
+    static Method getNorm(Object expected, String norm) {
+	// get the norm1 method or null 
+	Method mNorm1 = Accessor.getToBeInvoked(expected.getClass(), 
+						norm);
+
+	// ensure that a method with given signature exists 
+	if (mNorm1 == null) {
+	    throw new IllegalArgumentException
+		(STR_OBJECT + expected + STR_DN_PROV + 
+		 "public ... " + norm + "(" + expected.getClass() + 
+		 ") as expected. ");
+	}
+
+	// ensure the right return type 
+	if (!Double.TYPE.equals(mNorm1.getReturnType())) {
+	    throw new IllegalArgumentException
+		(STR_OBJECT + expected + STR_DN_PROV + 
+		 "public double " + norm + 
+		 "() as expected (have a look at the return type). ");
+	}
+
+	// ensure that the method is a member method 
+	if (Modifier.isStatic(mNorm1.getModifiers())) {
+	    throw new IllegalArgumentException
+		(STR_OBJECT + expected + " provides a static method " + 
+		 "\"public static double " + norm + 
+		 "() not a member method as expected. ");
+	}
+	return mNorm1;
+    }
+
+    /**
+     * Returns the adapter of the metric method named <code>norm</code> 
+     * for the class of <code>expected</code>, 
+     * resolving and checking it by {@link #getMetric(Object, String)} 
+     * only the first time. 
+     */
+    private static Adapter<ToDoubleBiFunction<Object, Object>>
+	getMetricAdapter(Object expected, String norm) {
+	Adapters adapters = ADAPTERS.get(expected.getClass());
+	Adapter<ToDoubleBiFunction<Object, Object>> res =
+	    adapters.metrics.get(norm);
+	ADAPTERS.countLookup(res != null);
+	if (res == null) {
+	    res = adapters.metrics.computeIfAbsent
+		(norm, key -> new Adapter<ToDoubleBiFunction<Object, Object>>
+		 (expected.getClass(), getMetric(expected, key), 
+		  ToDoubleBiFunction.class, METRIC_TYPE));
+	}
+	return res;
+    }
+
+    /**
+     * Returns the adapter of the norm method named <code>norm</code> 
+     * for the class of <code>expected</code>, 
+     * resolving and checking it by {@link #getNorm(Object, String)} 
+     * only the first time. 
+     */
+    private static Adapter<ToDoubleFunction<Object>>
+	getNormAdapter(Object expected, String norm) {
+	Adapters adapters = ADAPTERS.get(expected.getClass());
+	Adapter<ToDoubleFunction<Object>> res = adapters.norms.get(norm);
+	ADAPTERS.countLookup(res != null);
+	if (res == null) {
+	    res = adapters.norms.computeIfAbsent
+		(norm, key -> new Adapter<ToDoubleFunction<Object>>
+		 (expected.getClass(), getNorm(expected, key), 
+		  ToDoubleFunction.class, NORM_TYPE));
+	}
+	return res;
+    }
+
+    /**
+     * Returns the distance <code>expected.norm(actual)</code> 
+     * invoking the metric method named <code>norm</code> 
+     * via its cached adapter. 
+     *
+     * @param expected 
+     *    an object which is not <code>null</code>. 
+     * @param actual 
+     *    an object which is not <code>null</code>. 
+     * @throws IllegalArgumentException 
+     *    if there is no metric method for the class of <code>expected</code> 
+     *    as described for {@link #getMetric(Object, String)}, 
+     *    if it is not applicable to <code>actual</code> 
+     *    or if invoking it raises an exception. 
+     */
+    static double distance(String norm, Object expected, Object actual) {
+	return distance(getMetricAdapter(expected, norm), expected, actual);
+    }
+
+    /**
+     * Returns the norm <code>expected.norm()</code> 
+     * invoking the norm method named <code>norm</code> 
+     * via its cached adapter. 
+     *
+     * @param expected 
+     *    an object which is not <code>null</code>. 
+     * @throws IllegalArgumentException 
+     *    if there is no norm method for the class of <code>expected</code> 
+     *    as described for {@link #getNorm(Object, String)} 
+     *    or if invoking it raises an exception. 
+     */
+    static double norm(String norm, Object expected) {
+	Adapter<ToDoubleFunction<Object>> adapter =
+	    getNormAdapter(expected, norm);
+	try {
+	    return adapter.function.applyAsDouble(expected);
+	} catch (Throwable e) {// NOPMD
+	    throw adapter.raised(e);
+	}
+    }
+
+    /**
+     * Returns the distance <code>expected.norm(actual)</code> 
+     * invoking the metric method via <code>adapter</code>. 
+     *
+     * @throws IllegalArgumentException 
+     *    if the metric method is not applicable to <code>actual</code> 
+     *    or if invoking it raises an exception. 
+     */
+    private static double distance
+	(Adapter<ToDoubleBiFunction<Object, Object>> adapter, 
+	 Object expected, 
+	 Object actual) {
+	if (!adapter.cls.isInstance(actual)) {
+	    throw new IllegalArgumentException
+		("Could not test deviation, because method " + 
+		 adapter.method + " is not applicable to <" + actual + ">. ");
+	}
+	try {
+	    return adapter.function.applyAsDouble(expected, actual);
+	} catch (Throwable e) {// NOPMD
+	    throw adapter.raised(e);
+	}
+    }
+
+    /**
+     * Returns the name of the metric method. 
+     */
+    String getNorm() {
+	return this.norm;
+    }
+
+    /**
+     * Returns the maximal distance allowed. 
+     */
+    double getDelta() {
+	return this.delta;
+    }
+
+    /**
+     * Returns the distance <code>expected.norm(actual)</code> 
+     * between the given leaves. 
+     *
+     * @param expected 
+     *    a leaf which is not <code>null</code>. 
+     * @param actual 
+     *    a leaf which is not <code>null</code>. 
+     * @throws IllegalArgumentException 
+     *    as described for {@link #distance(String, Object, Object)}. 
+     */
+    double distance(Object expected, Object actual) {
+	Adapter<ToDoubleBiFunction<Object, Object>> res = this.last;
+	if (res == null || res.cls != expected.getClass()) {
+	    res = getMetricAdapter(expected, this.norm);
+	    this.last = res;
+	}
+	return distance(res, expected, actual);
+    }
+
+    int mismatch(Object expected, Object actual, int from, int to) {
+	throw noMetric(expected.getClass().getComponentType());
+    }
+
+    /**
+     * Returns whether the distance between the given leaves 
+     * does not exceed the maximal distance allowed. 
+     *
+     * @throws IllegalArgumentException 
+     *    as described for {@link #distance(Object, Object)}. 
+     */
+    boolean equal(Object expected, Object actual) {
+	// as assertNormAbsEquals(Object, Object, String, double) 
+	return !(distance(expected, actual) > this.delta);
+    }
+
+    boolean equal(double expected, double actual) {
+	throw noMetric(Double.TYPE);
+    }
+
+    boolean equal(float expected, float actual) {
+	throw noMetric(Float.TYPE);
+    }
+
+    /**
+     * Returns the exception thrown for leaves of primitive type 
+     * which have no metric method. 
+     */
+    private IllegalArgumentException noMetric(Class<?> type) {
+	return new IllegalArgumentException
+	    ("For primitive type " + type + 
+	     " no metric method " + this.norm + " exists. ");
+    }
+}
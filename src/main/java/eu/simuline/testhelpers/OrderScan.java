@@ -0,0 +1,388 @@
+
+package eu.simuline.testhelpers;
+
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiPredicate;
+
+/**
+ * Searches the first pair of adjacent entries of a list or an array 
+ * which are not ordered as required 
+ * for the methods <code>assertSorted</code> and <code>assertMonotone</code> 
+ * of {@link Assert}. 
+ * The pair with index <code>i</code> consists of the entries 
+ * with index <code>i</code> and <code>i+1</code>. 
+ * <p>
+ * Huge lists and arrays may be searched in parallel: 
+ * the range of indices of pairs is split recursively 
+ * into ranges processed by the common {@link ForkJoinPool}; 
+ * each instance of this class processes one range. 
+ * As the last pair of a range reads the first entry of the next range, 
+ * the pairs across the boundaries of the ranges are checked as well. 
+ * As in {@link ArraySearch}, all ranges share the first pair found so far 
+ * and ranges after that pair are skipped, 
+ * so that the pair finally found is the same as the one found sequentially. 
+ * This holds also for an exception 
+ * raised while comparing entries. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+final class OrderScan extends RecursiveAction {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The entries of a list or an array 
+     * together with the order required for adjacent entries. 
+     */
+    abstract static class Entries {
+
+	/**
+	 * Returns the number of entries. 
+	 */
+	abstract int size();
+
+	/**
+	 * Returns the entry with the given index, 
+	 * wrapped if it is primitive. 
+	 * This is used for failure messages only. 
+	 */
+	abstract Object get(int idx);
+
+	/**
+	 * Returns the first index <code>i</code> in <code>[from, to)</code> 
+	 * such that the entries with index <code>i</code> and <code>i+1</code> 
+	 * are not ordered as required 
+	 * or <code>-1</code> if there is no such index. 
+	 * In particular, this is <code>-1</code> if the range is empty. 
+	 *
+	 * @param to 
+	 *    at most the number of entries minus one. 
+	 */
+	abstract int find(int from, int to);
+    } // class Entries
+
+    /**
+     * The first pair found so far shared by all ranges. 
+     */
+    private static final class First {
+
+	/**
+	 * The index of the first pair found so far 
+	 * or {@link Integer#MAX_VALUE} if none is found yet. 
+	 * For an exception this is the first index of its range. 
+	 */
+	private volatile int index = Integer.MAX_VALUE;
+
+	/**
+	 * The exception raised for the pair {@link #index} 
+	 * or <code>null</code> if it is not ordered as required. 
+	 */
+	private RuntimeException exc;
+
+	/**
+	 * Replaces the first pair found so far 
+	 * by the given one if it comes before. 
+	 */
+	synchronized void offer(int index, RuntimeException exc) {
+	    if (index < this.index) {
+		this.index = index;
+		this.exc = exc;
+	    }
+	}
+    } // class First
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    private static final long serialVersionUID = -2857413302175539741L;
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The entries searched. 
+     */
+    private final transient Entries entries;
+
+    /**
+     * The index of the first pair of the range of this task. 
+     */
+    private final int from;
+
+    /**
+     * The index after the last pair of the range of this task. 
+     */
+    private final int to;
+
+    /**
+     * The maximal number of pairs of a range which is not split. 
+     */
+    private final int threshold;
+
+    /**
+     * The first pair found so far shared by all ranges. 
+     */
+    private final transient First first;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    private OrderScan(Entries entries, 
+		      int from, 
+		      int to, 
+		      int threshold, 
+		      First first) {
+	this.entries = entries;
+	this.from = from;
+	this.to = to;
+	this.threshold = threshold;
+	this.first = first;
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the entries of the given array 
+     * where adjacent entries <code>e1</code> and <code>e2</code> 
+     * are ordered as required 
+     * if <code>cmpObj.isValid(Integer.compare(e1, e2))</code>. 
+     */
+    static Entries of(final int[] array, final Assert.CmpObj cmpObj) {
+	return new Entries() {
+	    int size() {
+		return array.length;
+	    }
+
+	    Object get(int idx) {
+		return array[idx];
+	    }
+
+	    int find(int from, int to) {
+		for (int i = from; i < to; i++) {
+		    if (!cmpObj.isValid(Integer.compare(array[i], 
+						    array[i + 1]))) {
+			return i;
+		    }
+		}
+		return -1;
+	    }
+	};
+    }
+
+    /**
+     * Returns the entries of the given array 
+     * where adjacent entries <code>e1</code> and <code>e2</code> 
+     * are ordered as required 
+     * if <code>cmpObj.isValid(Long.compare(e1, e2))</code>. 
+     */
+    static Entries of(final long[] array, final Assert.CmpObj cmpObj) {
+	return new Entries() {
+	    int size() {
+		return array.length;
+	    }
+
+	    Object get(int idx) {
+		return array[idx];
+	    }
+
+	    int find(int from, int to) {
+		for (int i = from; i < to; i++) {
+		    if (!cmpObj.isValid(Long.compare(array[i], 
+						 array[i + 1]))) {
+			return i;
+		    }
+		}
+		return -1;
+	    }
+	};
+    }
+
+    /**
+     * Returns the entries of the given array 
+     * where adjacent entries <code>e1</code> and <code>e2</code> 
+     * are ordered as required 
+     * if <code>cmpObj.isValid(Double.compare(e1, e2))</code>, 
+     * i.e. as their wrappers by <code>compareTo</code>. 
+     */
+    static Entries of(final double[] array, final Assert.CmpObj cmpObj) {
+	return new Entries() {
+	    int size() {
+		return array.length;
+	    }
+
+	    Object get(int idx) {
+		return array[idx];
+	    }
+
+	    int find(int from, int to) {
+		for (int i = from; i < to; i++) {
+		    if (!cmpObj.isValid(Double.compare(array[i], 
+						   array[i + 1]))) {
+			return i;
+		    }
+		}
+		return -1;
+	    }
+	};
+    }
+
+    /**
+     * Returns the entries of the given array 
+     * where adjacent entries <code>e1</code> and <code>e2</code> 
+     * are ordered as required if <code>ordered.test(e1, e2)</code>. 
+     */
+    static <E> Entries of(final E[] array, 
+			  final BiPredicate<? super E, ? super E> ordered) {
+	return new Entries() {
+	    int size() {
+		return array.length;
+	    }
+
+	    Object get(int idx) {
+		return array[idx];
+	    }
+
+	    int find(int from, int to) {
+		for (int i = from; i < to; i++) {
+		    if (!ordered.test(array[i], array[i + 1])) {
+			return i;
+		    }
+		}
+		return -1;
+	    }
+	};
+    }
+
+    /**
+     * Returns the entries of the given list 
+     * where adjacent entries <code>e1</code> and <code>e2</code> 
+     * are ordered as required if <code>ordered.test(e1, e2)</code>. 
+     * A list without fast random access is copied into an array. 
+     */
+    @SuppressWarnings("unchecked")
+    static <E> Entries of(final List<E> list, 
+			  final BiPredicate<? super E, ? super E> ordered) {
+	if (!(list instanceof RandomAccess)) {
+	    // the array has runtime type Object[] but contains E's only 
+	    return of((E[]) list.toArray(), ordered);
+	}
+	return new Entries() {
+	    int size() {
+		return list.size();
+	    }
+
+	    Object get(int idx) {
+		return list.get(idx);
+	    }
+
+	    int find(int from, int to) {
+		if (from >= to) {
+		    // no pair, e.g. for an empty list 
+		    return -1;
+		}
+		E next = list.get(from);
+		E curr;
+		for (int i = from; i < to; i++) {
+		    curr = next;
+		    next = list.get(i + 1);
+		    if (!ordered.test(curr, next)) {
+			return i;
+		    }
+		}
+		return -1;
+	    }
+	};
+    }
+
+    /**
+     * Returns the index of the first pair of the given entries 
+     * which are not ordered as required 
+     * or <code>-1</code> if all pairs are ordered, 
+     * searching sequentially. 
+     *
+     * @throws RuntimeException 
+     *    if comparing entries raises an exception. 
+     */
+    static int find(Entries entries) {
+	return entries.find(0, Math.max(entries.size() - 1, 0));
+    }
+
+    /**
+     * Returns the index of the first pair of the given entries 
+     * which are not ordered as required 
+     * or <code>-1</code> if all pairs are ordered, 
+     * searching in parallel if there are more pairs than 
+     * <code>threshold</code>. 
+     * The result is the same as for {@link #find(OrderScan.Entries)}. 
+     *
+     * @param threshold 
+     *    the maximal number of pairs searched sequentially. 
+     *    This is positive. 
+     * @throws RuntimeException 
+     *    the exception raised first in sequential order 
+     *    if comparing entries raises an exception. 
+     */
+    static int find(Entries entries, int threshold) {
+	int num = Math.max(entries.size() - 1, 0);
+	if (num <= threshold) {
+	    return entries.find(0, num);
+	}
+	First first = new First();
+	ForkJoinPool.commonPool()
+	    .invoke(new OrderScan(entries, 0, num, threshold, first));
+	if (first.exc != null) {
+	    // rethrown in the calling thread without being wrapped 
+	    throw first.exc;
+	}
+	return first.index == Integer.MAX_VALUE ? -1 : first.index;
+    }
+
+    protected void compute() {
+	if (this.first.index < this.from) {
+	    // a pair in a range before this one is found already 
+	    return;
+	}
+
+	if (getPool() == null || this.to - this.from <= this.threshold) {
+	    search();
+	    return;
+	}
+	int mid = (this.from + this.to) >>> 1;
+	invokeAll(new OrderScan(this.entries, this.from, mid, 
+				this.threshold, this.first), 
+		  new OrderScan(this.entries, mid, this.to, 
+				this.threshold, this.first));
+    }
+
+    /**
+     * Searches the range of this task sequentially 
+     * and offers the pair found if any. 
+     * If comparing raises an exception, 
+     * it is offered with the first index of this range: 
+     * no pair in this range before the one raising the exception 
+     * is found and ranges do not overlap. 
+     */
+    private void search() {
+	int res;
+	try {
+	    res = this.entries.find(this.from, this.to);
+	} catch (RuntimeException e) {
+	    this.first.offer(this.from, e);
+	    return;
+	}
+	if (res >= 0) {
+	    this.first.offer(res, null);
+	}
+    }
+}
@@ -0,0 +1,345 @@
+
+package eu.simuline.testhelpers;
+
+import java.lang.ref.WeakReference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A cache attaching to classes values computed from them, 
+ * like a {@link ClassValue} does, 
+ * but with values grouped by the class loader defining the class. 
+ * This is the caching layer for reflective information 
+ * used throughout this package, e.g. by {@link Accessor}. 
+ * <p>
+ * Since the values are attached to the classes, 
+ * they never keep a class or its class loader alive. 
+ * Still, a long session reloading the tests many times 
+ * accumulates values for outdated class generations 
+ * until these are collected. 
+ * To avoid this, the values of all classes defined by a loader 
+ * can be dropped at once by {@link #dropScope(ClassLoader)}, 
+ * which {@link Actions} does 
+ * after each run with a fresh {@link TestCaseClassLoader}. 
+ * <p>
+ * Each cache counts its lookups and misses. 
+ * {@link #getStats()} sums them up over all caches 
+ * together with the current number of classes and entries. 
+ * All methods of this class may be invoked concurrently. 
+ *
+ * @param <V>
+ *    the type of the values attached to classes. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+public final class ScopedCache<V> {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * A snapshot of the statistics of one or all caches. 
+     */
+    public static final class Stats {
+
+	/**
+	 * The number of classes with an attached value. 
+	 */
+	private final int numClasses;
+
+	/**
+	 * The number of entries in all values. 
+	 * If a value is no map, it counts as a single entry. 
+	 */
+	private final int numEntries;
+
+	/**
+	 * The number of lookups so far. 
+	 */
+	private final long numLookups;
+
+	/**
+	 * The number of lookups so far 
+	 * which required to compute a value or an entry. 
+	 */
+	private final long numMisses;
+
+	Stats(int numClasses, int numEntries, long numLookups, long numMisses) {
+	    this.numClasses = numClasses;
+	    this.numEntries = numEntries;
+	    this.numLookups = numLookups;
+	    this.numMisses  = numMisses;
+	}
+
+	/**
+	 * Returns the number of classes with an attached value. 
+	 */
+	public int getNumClasses() {
+	    return this.numClasses;
+	}
+
+	/**
+	 * Returns the number of entries in all values. 
+	 */
+	public int getNumEntries() {
+	    return this.numEntries;
+	}
+
+	/**
+	 * Returns the number of lookups so far. 
+	 */
+	public long getNumLookups() {
+	    return this.numLookups;
+	}
+
+	/**
+	 * Returns the number of lookups which were no hit. 
+	 */
+	public long getNumMisses() {
+	    return this.numMisses;
+	}
+
+	/**
+	 * Returns the ratio of lookups which were hits 
+	 * or <code>0</code> if there were no lookups so far. 
+	 */
+	public double getHitRate() {
+	    return this.numLookups == 0
+		? 0
+		: (this.numLookups - this.numMisses) / (double) this.numLookups;
+	}
+
+	Stats add(Stats other) {
+	    return new Stats(this.numClasses + other.numClasses,
+			     this.numEntries + other.numEntries,
+			     this.numLookups + other.numLookups,
+			     this.numMisses  + other.numMisses);
+	}
+
+	public String toString() {
+	    return String.format("cache: %d classes, %d entries, %.1f%% hits",
+				 this.numClasses, this.numEntries,
+				 100 * getHitRate());
+	}
+    } // class Stats
+
+    /**
+     * Registers a value attached to a class 
+     * without keeping either alive. 
+     */
+    private static final class Registration<V>
+	extends WeakReference<Class<?>> {
+
+	/**
+	 * The value attached to the referent. 
+	 */
+	private final WeakReference<V> value;
+
+	Registration(Class<?> cls, V value) {
+	    super(cls);
+	    this.value = new WeakReference<V>(value);
+	}
+
+	/**
+	 * Returns the value registered 
+	 * or <code>null</code> if the class is no longer present 
+	 * or if the value has been discarded. 
+	 * The latter occurs if two threads computed a value 
+	 * for the same class concurrently. 
+	 */
+	V getValue() {
+	    return get() == null ? null : this.value.get();
+	}
+    } // class Registration
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * All caches created so far. 
+     */
+    private static final List<ScopedCache<?>> CACHES =
+	new CopyOnWriteArrayList<ScopedCache<?>>();
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Attaches the values to the classes. 
+     */
+    private final ClassValue<V> values;
+
+    /**
+     * Returns the number of entries of a value. 
+     */
+    private final ToIntFunction<V> sizer;
+
+    /**
+     * Maps the class loaders to the registrations 
+     * of the classes they define. 
+     * The bootstrap loader is represented by <code>null</code>. 
+     * Accessed under its own lock only. 
+     */
+    private final Map<ClassLoader, List<Registration<V>>> scopes;
+
+    /**
+     * The number of lookups so far. 
+     */
+    private final LongAdder numLookups;
+
+    /**
+     * The number of misses so far. 
+     */
+    private final LongAdder numMisses;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Creates a new cache and registers it for {@link #dropScope} 
+     * and {@link #getStats()}. 
+     *
+     * @param computer 
+     *    computes the value attached to a class. 
+     * @param sizer 
+     *    returns the number of entries of a value 
+     *    for the statistics. 
+     */
+    ScopedCache(Function<Class<?>, V> computer, ToIntFunction<V> sizer) {
+	this.sizer = sizer;
+	this.scopes = new WeakHashMap<ClassLoader, List<Registration<V>>>();
+	this.numLookups = new LongAdder();
+	this.numMisses  = new LongAdder();
+	this.values = new ClassValue<V>() {
+		protected V computeValue(Class<?> cls) {
+		    V res = computer.apply(cls);
+		    register(cls, res);
+		    ScopedCache.this.numMisses.increment();
+		    return res;
+		}
+	    };
+	CACHES.add(this);
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the value attached to the given class 
+     * computing it if necessary. 
+     *
+     * @param cls 
+     *    some non-<code>null</code> class. 
+     */
+    V get(Class<?> cls) {
+	this.numLookups.increment();
+	return this.values.get(cls);
+    }
+
+    /**
+     * Counts a lookup of an entry within a value. 
+     * This is for values which are caches themselves. 
+     *
+     * @param hit 
+     *    whether the entry was present. 
+     */
+    void countLookup(boolean hit) {
+	this.numLookups.increment();
+	if (!hit) {
+	    this.numMisses.increment();
+	}
+    }
+
+    private void register(Class<?> cls, V value) {
+	ClassLoader loader = cls.getClassLoader();
+	synchronized (this.scopes) {
+	    List<Registration<V>> regs = this.scopes
+		.computeIfAbsent(loader, ldr -> new ArrayList<Registration<V>>());
+	    // drop registrations of classes collected meanwhile 
+	    // from time to time 
+	    if (regs.size() >= 64 && Integer.bitCount(regs.size()) == 1) {
+		regs.removeIf(reg -> reg.get() == null);
+	    }
+	    regs.add(new Registration<V>(cls, value));
+	}
+    }
+
+    /**
+     * Drops the values of all classes defined by the given loader. 
+     * Values attached again later are computed anew. 
+     */
+    void drop(ClassLoader loader) {
+	List<Registration<V>> regs;
+	synchronized (this.scopes) {
+	    regs = this.scopes.remove(loader);
+	}
+	if (regs == null) {
+	    return;
+	}
+	for (Registration<V> reg : regs) {
+	    Class<?> cls = reg.get();
+	    if (cls != null) {
+		this.values.remove(cls);
+	    }
+	}
+    }
+
+    /**
+     * Returns the statistics of this cache. 
+     */
+    Stats stats() {
+	int numClasses = 0;
+	int numEntries = 0;
+	synchronized (this.scopes) {
+	    for (List<Registration<V>> regs : this.scopes.values()) {
+		for (Registration<V> reg : regs) {
+		    V value = reg.getValue();
+		    if (value != null) {
+			numClasses++;
+			numEntries += this.sizer.applyAsInt(value);
+		    }
+		}
+	    }
+	}
+	return new Stats(numClasses, numEntries,
+			 this.numLookups.sum(), this.numMisses.sum());
+    }
+
+    /**
+     * Drops the values attached to all classes defined by the given loader 
+     * in all caches. 
+     * This is invoked when a test run with that loader is finished. 
+     *
+     * @param loader 
+     *    a class loader which shall not be the bootstrap loader. 
+     */
+    public static void dropScope(ClassLoader loader) {
+	for (ScopedCache<?> cache : CACHES) {
+	    cache.drop(loader);
+	}
+    }
+
+    /**
+     * Returns the statistics summed up over all caches. 
+     */
+    public static Stats getStats() {
+	Stats res = new Stats(0, 0, 0, 0);
+	for (ScopedCache<?> cache : CACHES) {
+	    res = res.add(cache.stats());
+	}
+	return res;
+    }
+}
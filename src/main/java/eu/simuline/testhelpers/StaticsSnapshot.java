@@ -0,0 +1,208 @@
+package eu.simuline.testhelpers;
+
+import java.lang.invoke.MethodHandle;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The values of the static fields of some classes 
+ * captured by {@link Accessor#captureStatics(Class[])} 
+ * to be restored by {@link Accessor#restoreStatics(StaticsSnapshot)}. 
+ * This is a lightweight alternative to loading classes anew 
+ * with a fresh {@link TestCaseClassLoader} 
+ * just to get their static state back: 
+ * the classes stay loaded and compiled. 
+ * <p>
+ * A snapshot comprises all static fields which are not final 
+ * declared in the given classes 
+ * and recursively in their inner classes 
+ * as returned by {@link Class#getDeclaredClasses()}, 
+ * which are also the classes found by 
+ * {@link Accessor#getInnerClass(Class, String)}, 
+ * but not those declared in superclasses. 
+ * The fields and their handles are determined 
+ * once for each class given. 
+ * Note that the snapshot is shallow: 
+ * it restores the references stored in the fields, 
+ * but not the state of the objects referred to. 
+ * Final fields are not captured because they cannot be restored; 
+ * so neither is the content of a final collection or array. 
+ * Capturing initializes the classes if this is not yet done. 
+ * <p>
+ * A snapshot is immutable and may be restored any number of times. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+public final class StaticsSnapshot {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The static non-final fields of a class and its inner classes 
+     * together with their handles. 
+     */
+    private static final class Statics {
+
+	/**
+	 * The fields captured. 
+	 */
+	private final Field[] fields;
+
+	/**
+	 * The getters of {@link #fields} of type <code>()Object</code>. 
+	 */
+	private final MethodHandle[] getters;
+
+	/**
+	 * The setters of {@link #fields} of type <code>(Object)void</code>. 
+	 */
+	private final MethodHandle[] setters;
+
+	Statics(Class<?> cls) {
+	    List<Field> cands = new ArrayList<Field>();
+	    collect(cls, cands);
+	    this.fields  = cands.toArray(new Field[cands.size()]);
+	    this.getters = new MethodHandle[this.fields.length];
+	    this.setters = new MethodHandle[this.fields.length];
+	    for (int i = 0; i < this.fields.length; i++) {
+		MemberIndex index = MemberIndex
+		    .of(this.fields[i].getDeclaringClass());
+		this.getters[i] = index.getGetter(this.fields[i]);
+		this.setters[i] = index.getSetter(this.fields[i]);
+	    }
+	}
+
+	/**
+	 * Adds the static non-final fields of <code>cls</code> 
+	 * and of its inner classes to <code>cands</code> 
+	 * making them accessible. 
+	 */
+	private static void collect(Class<?> cls, List<Field> cands) {
+	    for (Field aField : cls.getDeclaredFields()) {
+		int mod = aField.getModifiers();
+		if (Modifier.isStatic(mod) && !Modifier.isFinal(mod)) {
+		    aField.setAccessible(true);// NOPMD
+		    cands.add(aField);
+		}
+	    }
+	    for (Class<?> inner : cls.getDeclaredClasses()) {
+		collect(inner, cands);
+	    }
+	}
+
+	int size() {
+	    return this.fields.length;
+	}
+    } // class Statics 
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Attaches its {@link Statics} to a class. 
+     */
+    private static final ScopedCache<Statics> STATICS =
+	new ScopedCache<Statics>(Statics::new, Statics::size);
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The statics of the classes captured. 
+     */
+    private final Statics[] statics;
+
+    /**
+     * The values captured: 
+     * the value of the <code>j</code>th field of the <code>i</code>th 
+     * entry of {@link #statics} is at <code>values[i][j]</code>. 
+     */
+    private final Object[][] values;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Captures the values of the static fields of the given classes. 
+     * This is invoked by {@link Accessor#captureStatics(Class[])} only. 
+     *
+     * @param classes 
+     *    the classes to be captured which are not <code>null</code>. 
+     */
+    StaticsSnapshot(Class<?>... classes) {
+	this.statics = new Statics[classes.length];
+	this.values = new Object[classes.length][];
+	for (int i = 0; i < classes.length; i++) {
+	    Statics stat = STATICS.get(classes[i]);
+	    Object[] vals = new Object[stat.size()];
+	    for (int j = 0; j < vals.length; j++) {
+		try {
+		    vals[j] = (Object) stat.getters[j].invokeExact();
+		} catch (Throwable e) {// NOPMD
+		    throw FieldRef.rethrow(e);
+		}
+	    }
+	    this.statics[i] = stat;
+	    this.values[i] = vals;
+	}
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Restores the values of all fields captured. 
+     * This is invoked by {@link Accessor#restoreStatics(StaticsSnapshot)}. 
+     */
+    void restore() {
+	for (int i = 0; i < this.statics.length; i++) {
+	    MethodHandle[] setters = this.statics[i].setters;
+	    Object[] vals = this.values[i];
+	    for (int j = 0; j < vals.length; j++) {
+		try {
+		    setters[j].invokeExact(vals[j]);
+		} catch (Throwable e) {// NOPMD
+		    throw FieldRef.rethrow(e);
+		}
+	    }
+	}
+    }
+
+    /**
+     * Returns the number of fields captured. 
+     */
+    public int size() {
+	int res = 0;
+	for (Statics stat : this.statics) {
+	    res += stat.size();
+	}
+	return res;
+    }
+
+    public String toString() {
+	StringBuilder res = new StringBuilder("StaticsSnapshot<");
+	for (int i = 0; i < this.statics.length; i++) {
+	    Field[] fields = this.statics[i].fields;
+	    for (int j = 0; j < fields.length; j++) {
+		if (res.length() > "StaticsSnapshot<".length()) {
+		    res.append(", ");
+		}
+		res.append(fields[j].getDeclaringClass().getName())
+		    .append('.').append(fields[j].getName())
+		    .append('=').append(this.values[i][j]);
+	    }
+	}
+	return res.append('>').toString();
+    }
+}
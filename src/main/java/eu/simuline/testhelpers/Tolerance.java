@@ -0,0 +1,377 @@
+
+package eu.simuline.testhelpers;
+
+/**
+ * Compares floating point leaves of arrays up to a tolerance 
+ * for the methods <code>assertArraysEquals</code> 
+ * with a deviation and the like in {@link Assert}. 
+ * A tolerance is either 
+ * <ul>
+ * <li>
+ * absolute as for {@link #abs(double)} 
+ * with the semantics of <code>assertEquals(double, double, double)</code>, 
+ * <li>
+ * relative as for {@link #rel(double)} 
+ * with the semantics of {@link Assert#testRelEquals(double,double,double)} 
+ * or 
+ * <li>
+ * absolute for small expected values and relative for the others 
+ * as for {@link #absRel(double, double, double)} 
+ * with the semantics of 
+ * {@link Assert#assertAbsRelEquals(double,double,double,double,double)}. 
+ * </ul>
+ * Arrays of type <code>float[]</code> are compared in 
+ * <code>float</code> arithmetic 
+ * as <code>assertEquals(float, float, float)</code> does. 
+ * Other primitive leaves cannot be compared 
+ * and leaves which are objects require a {@link Metric}. 
+ * <p>
+ * If the module <code>jdk.incubator.vector</code> is present, 
+ * i.e. the virtual machine runs with 
+ * <code>--add-modules jdk.incubator.vector</code>, 
+ * arrays are compared by a {@link Kernel} using the vector API. 
+ * Otherwise, and if the kernel was not compiled, 
+ * they are compared element by element. 
+ * Both ways find the same mismatch and throw the same exceptions. 
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0 
+ */
+final class Tolerance extends ArrayMismatch.Leaves {
+
+    /* -------------------------------------------------------------------- *
+     * inner classes.                                                       *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Compares arrays of floating point values up to a {@link Tolerance} 
+     * faster than {@link Tolerance#mismatchScalar(double[],double[],int,int)} 
+     * and {@link Tolerance#mismatchScalar(float[],float[],int,int)} do 
+     * but with the same result. 
+     */
+    interface Kernel {
+
+	/**
+	 * Returns the first index in <code>[from, to)</code> 
+	 * where the given arrays of the same length 
+	 * differ more than <code>tol</code> allows 
+	 * or <code>-1</code> if they coincide in this range. 
+	 *
+	 * @throws IllegalArgumentException 
+	 *    if the relative deviation is not defined 
+	 *    for an expected value before the first mismatch. 
+	 */
+	int mismatch(double[] expected,
+		     double[] actual,
+		     int from,
+		     int to,
+		     Tolerance tol);
+
+	/**
+	 * Returns the first index in <code>[from, to)</code> 
+	 * where the given arrays of the same length 
+	 * differ more than <code>tol</code> allows 
+	 * or <code>-1</code> if they coincide in this range. 
+	 *
+	 * @throws IllegalArgumentException 
+	 *    if the relative deviation is not defined 
+	 *    for an expected value before the first mismatch. 
+	 */
+	int mismatch(float[] expected,
+		     float[] actual,
+		     int from,
+		     int to,
+		     Tolerance tol);
+    } // interface Kernel
+
+    /* -------------------------------------------------------------------- *
+     * class constants.                                                     *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The name of the module providing the vector API. 
+     */
+    static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * The name of the class implementing {@link Kernel} 
+     * by the vector API. 
+     * It is compiled only by the profile <code>vector</code> 
+     * which requires a JDK providing {@link #VECTOR_MODULE}. 
+     */
+    private static final String VECTOR_KERNEL =
+	"eu.simuline.testhelpers.VectorKernel";
+
+    /**
+     * The kernel using the vector API 
+     * or <code>null</code> if it is not available. 
+     */
+    private static final Kernel KERNEL = vectorKernel();
+
+    private static final String STR_ASTOP = ">. ";
+
+    /* -------------------------------------------------------------------- *
+     * fields.                                                              *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * The absolute value of expected values 
+     * up to which the absolute deviation is checked 
+     * and above which the relative deviation is checked. 
+     * This is <code>NaN</code> if the relative deviation is always checked. 
+     */
+    private final double separator;
+
+    /**
+     * The maximal absolute deviation allowed. 
+     */
+    private final double absdev;
+
+    /**
+     * The maximal relative deviation allowed. 
+     * This is <code>NaN</code> if the absolute deviation is always checked. 
+     */
+    private final double reldev;
+
+    /* -------------------------------------------------------------------- *
+     * constructor.                                                         *
+     * -------------------------------------------------------------------- */
+
+    private Tolerance(double separator, double absdev, double reldev) {
+	this.separator = separator;
+	this.absdev = absdev;
+	this.reldev = reldev;
+    }
+
+    /* -------------------------------------------------------------------- *
+     * methods.                                                             *
+     * -------------------------------------------------------------------- */
+
+    /**
+     * Returns the kernel using the vector API 
+     * or <code>null</code> if it is not available. 
+     */
+    private static Kernel vectorKernel() {
+	if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+	    return null;
+	}
+	try {
+	    return (Kernel) Class.forName(VECTOR_KERNEL)
+		.getDeclaredConstructor().newInstance();
+	} catch (ReflectiveOperationException | LinkageError e) {
+	    // not compiled, i.e. built without profile vector 
+	    return null;
+	}
+    }
+
+    /**
+     * Returns whether arrays are compared by the vector API. 
+     */
+    static boolean isVectorized() {
+	return KERNEL != null;
+    }
+
+    /**
+     * Returns a tolerance allowing the given absolute deviation. 
+     */
+    static Tolerance abs(double absdev) {
+	return new Tolerance(Double.POSITIVE_INFINITY, absdev, Double.NaN);
+    }
+
+    /**
+     * Returns a tolerance allowing the given relative deviation. 
+     *
+     * @throws IllegalArgumentException 
+     *    if <code>reldev</code> is negative or <code>NaN</code>. 
+     */
+    static Tolerance rel(double reldev) {
+	checkRelDev(reldev);
+	return new Tolerance(Double.NaN, 0.0, reldev);
+    }
+
+    /**
+     * Returns a tolerance allowing the given absolute deviation 
+     * for expected values 
+     * with absolute value up to <code>separateAbsRel</code> 
+     * and the given relative deviation for the others. 
+     *
+     * @throws IllegalArgumentException 
+     *    if <code>separateAbsRel</code> is negative 
+     *    or if <code>reldev</code> is negative or <code>NaN</code>. 
+     */
+    static Tolerance absRel(double separateAbsRel,
+			    double absdev,
+			    double reldev) {
+	if (separateAbsRel < 0) {
+	    throw new IllegalArgumentException
+		("Found negative separator " + separateAbsRel + ". ");
+	}
+	checkRelDev(reldev);
+	return new Tolerance(separateAbsRel, absdev, reldev);
+    }
+
+    private static void checkRelDev(double reldev) {
+	if (Double.isNaN(reldev) || reldev < 0.0) {
+	    throw new IllegalArgumentException
+		("The relative deviation may not be <" + reldev + STR_ASTOP);
+	}
+    }
+
+    private static void checkRelDefined(double expected) {
+	if (expected == 0.0 ||
+	    Double.isInfinite(expected) ||
+	    Double.isNaN(expected)) {
+	    throw new IllegalArgumentException
+		("Relative deviation for expected value <" +
+		 expected + "> is not defined. ");
+	}
+    }
+
+    /**
+     * Returns whether only the absolute deviation is checked. 
+     */
+    boolean isAbsoluteOnly() {
+	return Double.isNaN(this.reldev);
+    }
+
+    /**
+     * Returns the absolute value of expected values 
+     * up to which the absolute deviation is checked 
+     * and above which the relative deviation is checked. 
+     * This is <code>NaN</code> if the relative deviation is always checked 
+     * and irrelevant if {@link #isAbsoluteOnly()}. 
+     */
+    double getSeparator() {
+	return this.separator;
+    }
+
+    /**
+     * Returns the maximal absolute deviation allowed. 
+     */
+    double getAbsDev() {
+	return this.absdev;
+    }
+
+    /**
+     * Returns the maximal relative deviation allowed. 
+     * This is irrelevant if {@link #isAbsoluteOnly()}. 
+     */
+    double getRelDev() {
+	return this.reldev;
+    }
+
+    /**
+     * Returns whether for the given expected value 
+     * the absolute deviation is checked rather than the relative one. 
+     */
+    boolean isAbsolute(double expected) {
+	return isAbsoluteOnly() || Math.abs(expected) <= this.separator;
+    }
+
+    int mismatch(Object expected, Object actual, int from, int to) {
+	Class<?> type = expected.getClass().getComponentType();
+	if (type == Double.TYPE) {
+	    return KERNEL == null
+		? mismatchScalar((double[]) expected, (double[]) actual,
+				 from, to)
+		: KERNEL.mismatch((double[]) expected, (double[]) actual,
+				  from, to, this);
+	}
+	if (type == Float.TYPE) {
+	    return KERNEL == null
+		? mismatchScalar((float[]) expected, (float[]) actual,
+				 from, to)
+		: KERNEL.mismatch((float[]) expected, (float[]) actual,
+				  from, to, this);
+	}
+	throw new IllegalArgumentException
+	    ("For primitive type " + type +
+	     " no method assertEquals(" + type +
+	     "," + type + "," + type +
+	     ") exists. ");
+    }
+
+    boolean equal(Object expected, Object actual) {
+	// this requires a special norm or metric 
+	// and can thus not be handled uniformly. 
+	throw new IllegalArgumentException
+	    ("Leaves of " + expected.getClass() + 
+	     " require a metric method as for assertArraysNormAbsEquals. ");
+    }
+
+    /**
+     * Returns whether the given values differ at most 
+     * as much as this tolerance allows. 
+     *
+     * @throws IllegalArgumentException
+     *    if the relative deviation is not defined for <code>expected</code>. 
+     */
+    boolean equal(double expected, double actual) {
+	if (isAbsolute(expected)) {
+	    // as assertEquals(double, double, double) 
+	    return Double.compare(expected, actual) == 0
+		|| Math.abs(expected - actual) <= this.absdev;
+	}
+	// as testRelEquals(double, double, double) 
+	checkRelDefined(expected);
+	return Math.abs((expected - actual) / expected) <= this.reldev;
+    }
+
+    /**
+     * Returns whether the given values differ at most 
+     * as much as this tolerance allows 
+     * in <code>float</code> arithmetic. 
+     *
+     * @throws IllegalArgumentException
+     *    if the relative deviation is not defined for <code>expected</code>. 
+     */
+    boolean equal(float expected, float actual) {
+	if (isAbsoluteOnly() || Math.abs(expected) <= (float) this.separator) {
+	    // as assertEquals(float, float, float) 
+	    return Float.compare(expected, actual) == 0
+		|| Math.abs(expected - actual) <= (float) this.absdev;
+	}
+	checkRelDefined(expected);
+	return Math.abs((expected - actual) / expected) <= (float) this.reldev;
+    }
+
+    /**
+     * Returns the first index in <code>[from, to)</code> 
+     * where the given arrays of the same length 
+     * differ more than this tolerance allows 
+     * or <code>-1</code> if they coincide in this range, 
+     * comparing element by element by {@link #equal(double, double)}. 
+     *
+     * @throws IllegalArgumentException
+     *    if the relative deviation is not defined 
+     *    for an expected value before the first mismatch. 
+     */
+    int mismatchScalar(double[] expected, double[] actual, int from, int to) {
+	for (int i = from; i < to; i++) {
+	    if (!equal(expected[i], actual[i])) {
+		return i;
+	    }
+	}
+	return -1;
+    }
+
+    /**
+     * Returns the first index in <code>[from, to)</code> 
+     * where the given arrays of the same length 
+     * differ more than this tolerance allows 
+     * or <code>-1</code> if they coincide in this range, 
+     * comparing element by element by {@link #equal(float, float)}. 
+     *
+     * @throws IllegalArgumentException
+     *    if the relative deviation is not defined 
+     *    for an expected value before the first mismatch. 
+     */
+    int mismatchScalar(float[] expected, float[] actual, int from, int to) {
+	for (int i = from; i < to; i++) {
+	    if (!equal(expected[i], actual[i])) {
+		return i;
+	    }
+	}
+	return -1;
+    }
+}
@@ -7,9 +7,9 @@ package eu.simuline.testhelpers;
 
 import static org.junit.Assert.assertEquals;
 //import org.junit.AssumptionViolatedException;
-// import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertTrue;
 // import static org.junit.Assert.assertNull;
-// import static org.junit.Assert.fail;
+import static org.junit.Assert.fail;
 //import org.junit.Ignore;
 import org.junit.Test;
 // import org.junit.Before;
@@ -17,6 +17,24 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import eu.simuline.testhelpers.AccessorMetrics.Operation;
+
+import java.lang.reflect.InvocationTargetException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
 /**
  * Testclass for class <code>Accessor</code>.
  * This is rudimentary only.
@@ -66,6 +84,76 @@ public class AccessorTest {
 		public void testGetInnerClass() {
 			AccessorTest.TEST.testGetInnerClass();
 		}
+
+		@Test
+		public void testMemberCache() throws Exception {
+			AccessorTest.TEST.testMemberCache();
+		}
+
+		@Test
+		public void testEngine() throws Exception {
+			AccessorTest.TEST.testEngine();
+		}
+
+		@Test
+		public void testTypedRefs() throws Exception {
+			AccessorTest.TEST.testTypedRefs();
+		}
+
+		@Test
+		public void testPrimitiveFields() throws Exception {
+			AccessorTest.TEST.testPrimitiveFields();
+		}
+
+		@Test
+		public void testOverloadCache() throws Exception {
+			AccessorTest.TEST.testOverloadCache();
+		}
+
+		@Test
+		public void testGetToBeInvoked() throws Exception {
+			AccessorTest.TEST.testGetToBeInvoked();
+		}
+
+		@Test
+		public void testScopedCache() throws Exception {
+			AccessorTest.TEST.testScopedCache();
+		}
+
+		@Test
+		public void testViews() throws Exception {
+			AccessorTest.TEST.testViews();
+		}
+
+		@Test
+		public void testPath() throws Exception {
+			AccessorTest.TEST.testPath();
+		}
+
+		@Test
+		public void testBulk() throws Exception {
+			AccessorTest.TEST.testBulk();
+		}
+
+		@Test
+		public void testStatics() throws Exception {
+			AccessorTest.TEST.testStatics();
+		}
+
+		@Test
+		public void testSnapshot() throws Exception {
+			AccessorTest.TEST.testSnapshot();
+		}
+
+		@Test
+		public void testInstantiator() throws Exception {
+			AccessorTest.TEST.testInstantiator();
+		}
+
+		@Test
+		public void testMetrics() throws Exception {
+			AccessorTest.TEST.testMetrics();
+		}
 	} // class TestAll 
 
 
@@ -87,10 +175,15 @@ public class AccessorTest {
 		}
 	}
 
+	static class StaticB extends Static {
+	}
+
 	static class ForTests {
 		private int aPrimitiveField = 3;
 		private static int aStaticPrimitiveField = 4;
 		private final static int aFinalField = -1;
+		private double aDoubleField = 0.5;
+		private static long aStaticLongField = 7L;
 
 		// This is only to avoid a warning because of unused field aFinalField. 
 		public static int getFinalFieldDummy() {
@@ -155,6 +248,91 @@ public class AccessorTest {
 		}
 	}
 
+	static class ForOverloads {
+		private final String kind;
+
+		ForOverloads(int i) {
+			this.kind = "int";
+		}
+
+		ForOverloads(Integer i) {
+			this.kind = "Integer";
+		}
+
+		ForOverloads(String str) {
+			this.kind = "String";
+		}
+
+		private String exa(int i) {
+			return "int";
+		}
+
+		private String exa(Integer i) {
+			return "Integer";
+		}
+
+		private String exa(String str) {
+			return "String";
+		}
+
+		// This is only to avoid a warning because of unused methods. 
+		public String exaP() {
+			return exa(0) + exa(Integer.valueOf(0)) + exa("") + this.kind;
+		}
+	}
+
+	static class ForPaths {
+		private static ForPaths instance = new ForPaths();
+		private final Object inner = new Inner();
+		private int[][] matrix = { { 1, 2 }, { 3, 4 } };
+		private ForTests[] tests = { new ForTests(), new ForTestsB() };
+
+		private class Inner {
+			private long count = 5L;
+			private Object[] others = { new Other() };
+		}
+
+		private static class Other {
+			private double weight = 0.25;
+		}
+
+		// This is only to avoid a warning because of unused fields. 
+		public Object getP() {
+			return instance.inner;
+		}
+	}
+
+	static class ForGraph {
+		private String name;
+		private int weight;
+		private double ratio = 0.5;
+		private ForGraph next;
+		private final List<ForGraph> children = new ArrayList<ForGraph>();
+		private final Map<String, Integer> counts =
+				new HashMap<String, Integer>();
+		private int[] values = { 1, 2, 3 };
+
+		ForGraph(String name) {
+			this.name = name;
+		}
+	}
+
+	/**
+	 * A map in the unnamed module extending a class of java.util.
+	 */
+	static class ForRegistry extends HashMap<String, ForGraph> {
+		private static final long serialVersionUID = 1L;
+		private int version;
+	}
+
+	/**
+	 * A list in the unnamed module extending a class of java.util.
+	 */
+	static class ForHistory extends ArrayList<String> {
+		private static final long serialVersionUID = 1L;
+		private int version;
+	}
+
 	/**
 	 * Initializes this class and all its inner classes
 	 */
@@ -580,8 +758,1002 @@ public class AccessorTest {
 		//
 		assertEquals(ForTests.class,
 				Accessor.getInnerClass(AccessorTest.class, "ForTests"));
+
+
+		// testcase 5 
+		//
+		// get nested and inherited inner classes 
+		//
+		assertEquals(NonStatic.NonStatic1.class, Accessor.getInnerClass(
+				AccessorTest.class, "NonStatic$NonStatic1"));
+		assertEquals(NonStatic.NonStatic1.class, Accessor.getInnerClass(
+				AccessorTest.class, new String[] { "NonStatic", "NonStatic1" }));
+		assertEquals(Static.Static2.class,
+				Accessor.getInnerClass(StaticB.class, "Static2"));
+		assertEquals(Static.Static2.class,
+				Accessor.getInnerClass(AccessorTest.class, "StaticB$Static2"));
+		for (int i = 0; i < 2; i++) {
+			try {
+				Accessor.getInnerClass(AccessorTest.class, "Static$Static1");
+				fail("exception expected. ");
+			} catch (IllegalArgumentException e) {
+				assertEquals("Class '" + AccessorTest.class.getName()
+						+ "' has no inner class named 'Static$Static1'. ",
+						e.getMessage());
+			} // end of try-catch
+		}
 	} // testGetInnerClass 
 
+	public void testMemberCache() throws Exception {
+
+		// testcase 1
+		//
+		// negative results are cached but still reported each time 
+		//
+		for (int i = 0; i < 2; i++) {
+			try {
+				Accessor.getField(ForTests.class, null, "aNonExistingField");
+				fail("exception expected. ");
+			} catch (NoSuchFieldException e) {
+				assertEquals("aNonExistingField", e.getMessage());
+			} // end of try-catch
+		}
+
+
+		// testcase 2
+		//
+		// concurrent lookups of fields and methods 
+		//
+		final int numThreads = 8;
+		final int numRuns = 1000;
+		final AtomicInteger numFailed = new AtomicInteger();
+		Thread[] threads = new Thread[numThreads];
+		for (int i = 0; i < numThreads; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						ForTestsB obj = new ForTestsB();
+						for (int j = 0; j < numRuns; j++) {
+							if (!Integer.valueOf(33).equals(Accessor
+									.getField(obj, "aPrimitiveField"))
+									|| !Integer.valueOf(3).equals(Accessor
+											.getField(ForTests.class, obj,
+													"aPrimitiveField"))
+									|| !Integer.valueOf(66).equals(Accessor
+											.invoke(obj, "privateMethod",
+													Integer.valueOf(2)))) {
+								numFailed.incrementAndGet();
+							}
+						}
+					} catch (Exception e) {
+						numFailed.incrementAndGet();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, numFailed.get());
+	} // testMemberCache 
+
+	public void testEngine() throws Exception {
+		Accessor.Engine eng = Accessor.Engine.HANDLES;
+
+		// testcase 1
+		//
+		// selecting the engine at the call site 
+		//
+		ForTestsB obj = new ForTestsB();
+		assertEquals(33, eng.getField(obj, "aPrimitiveField"));
+		assertEquals(3, eng.getField(ForTests.class, obj, "aPrimitiveField"));
+		eng.setField(obj, "aPrimitiveField", Integer.valueOf(5));
+		assertEquals(5, eng.getField(obj, "aPrimitiveField"));
+		assertEquals(10, eng.invoke(obj, "privateMethod", Integer.valueOf(2)));
+		eng.setField(ForTests.class, "aStaticPrimitiveField",
+				Integer.valueOf(4));
+		assertEquals(8, eng.invokeStatic(ForTests.class,
+				"privateStaticMethod", Integer.valueOf(2)));
+		assertEquals(3, eng.create(ForTests.class).aPrimitiveField);
+
+		try {
+			eng.setField(ForTests.class, "aFinalField", Integer.valueOf(0));
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Field 'aFinalField' in class '"
+					+ ForTests.class.getName()
+					+ "' is declared final and is hence not accessible. ",
+					e.getMessage());
+		}
+		try {
+			eng.setField(obj, "aPrimitiveField", "no int");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+		try {
+			eng.invoke(ForTests.class.getDeclaredMethod("privateMethod",
+					int.class), new Object(), Integer.valueOf(2));
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("object is not an instance of declaring class",
+					e.getMessage());
+		}
+
+		// testcase 2
+		//
+		// selecting the engine globally 
+		//
+		Accessor.Engine old = Accessor.getEngine();
+		try {
+			Accessor.setEngine(eng);
+			assertEquals(eng, Accessor.getEngine());
+			obj = new ForTestsB();
+			assertEquals(33, Accessor.getField(obj, "aPrimitiveField"));
+			Accessor.setField(ForTests.class, obj, "aPrimitiveField",
+					Integer.valueOf(7));
+			assertEquals(7, Accessor.getField(ForTests.class, obj,
+					"aPrimitiveField"));
+			testCreate();
+			testInvoke();
+		} finally {
+			Accessor.setEngine(old);
+		}
+
+		// testcase 3
+		//
+		// parsing the value of the property 
+		//
+		assertEquals(Accessor.Engine.HANDLES, Accessor.engineOf("handles"));
+		assertEquals(Accessor.Engine.REFLECTION,
+				Accessor.engineOf(" Reflection"));
+		try {
+			Accessor.engineOf("handle");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Value 'handle' of property "
+					+ Accessor.PROP_ENGINE
+					+ " is none of the engines [REFLECTION, HANDLES]. ",
+					e.getMessage());
+		}
+	} // testEngine 
+
+	public void testTypedRefs() throws Exception {
+
+		// testcase 1
+		//
+		// fields 
+		//
+		FieldRef<ForTestsB, Integer> fieldB = Accessor.field(ForTestsB.class,
+				"aPrimitiveField", int.class);
+		FieldRef<ForTests, Integer> field = Accessor.field(ForTests.class,
+				"aPrimitiveField", int.class);
+		ForTestsB obj = new ForTestsB();
+		assertEquals(Integer.valueOf(33), fieldB.get(obj));
+		assertEquals(Integer.valueOf(3), field.get(obj));
+		fieldB.set(obj, 34);
+		assertEquals(Integer.valueOf(34), fieldB.get(obj));
+		assertEquals(Integer.valueOf(3), field.get(obj));
+
+		FieldRef<ForTests, Integer> stField = Accessor.field(ForTests.class,
+				"aStaticPrimitiveField", int.class);
+		assertTrue(stField.isStatic());
+		stField.set(null, 4);
+		assertEquals(Integer.valueOf(4), stField.get(null));
+
+		try {
+			field.get(null);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("The specified field 'aPrimitiveField' "
+					+ "should be static. ", e.getMessage());
+		}
+		try {
+			field.set(obj, null);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		FieldRef<ForTests, Object> rawField = (FieldRef) field;
+		try {
+			rawField.set(obj, "no int");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Can not set int field aPrimitiveField "
+					+ "to java.lang.String", e.getMessage());
+		}
+		try {
+			rawField.setter().accept(obj, "no int");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Can not set int field aPrimitiveField "
+					+ "to java.lang.String", e.getMessage());
+		}
+		try {
+			@SuppressWarnings({"unchecked", "rawtypes"})
+			BiConsumer<Object, Object> setter =
+					(BiConsumer) field.setter();
+			setter.accept("no target", 1);
+			fail("exception expected. ");
+		} catch (ClassCastException e) {
+			// expected 
+		}
+		assertEquals(Integer.valueOf(3), field.get(obj));
+		try {
+			Accessor.field(ForTests.class, "aFinalField", int.class)
+					.set(null, 0);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+		try {
+			Accessor.field(ForTests.class, "aPrimitiveField", long.class);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+		try {
+			Accessor.field(ForTests.class, "noSuchField", int.class);
+			fail("exception expected. ");
+		} catch (NoSuchFieldException e) {
+			assertEquals("noSuchField", e.getMessage());
+		}
+
+		// testcase 2
+		//
+		// methods 
+		//
+		MethodRef<ForTestsB, Integer> method = Accessor.method(ForTestsB.class,
+				"privateMethod", int.class, int.class);
+		assertEquals(Integer.valueOf(66), method.invoke(new ForTestsB(), 2));
+		MethodRef<ForTests, Integer> stMethod = Accessor.method(
+				ForTests.class, "privateStaticMethod", int.class, int.class);
+		assertEquals(Integer.valueOf(8), stMethod.invoke(null, 2));
+		try {
+			method.invoke(new ForTestsB(), "2");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("argument type mismatch", e.getMessage());
+		}
+		try {
+			Accessor.method(ForTests.class, "privateMethod", int.class,
+					Integer.class);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+	} // testTypedRefs 
+
+	public void testPrimitiveFields() throws Exception {
+
+		// testcase 1
+		//
+		// member fields 
+		//
+		ForTestsB obj = new ForTestsB();
+		assertEquals(33, Accessor.getIntField(obj, "aPrimitiveField"));
+		Accessor.setIntField(obj, "aPrimitiveField", 35);
+		assertEquals(35, Accessor.getIntField(obj, "aPrimitiveField"));
+		assertEquals(0.5, Accessor.getDoubleField(obj, "aDoubleField"), 0.0);
+		Accessor.setDoubleField(obj, "aDoubleField", 1.5);
+		assertEquals(1.5, Accessor.getDoubleField(obj, "aDoubleField"), 0.0);
+
+		// testcase 2
+		//
+		// static fields 
+		//
+		assertEquals(7L, Accessor.getLongField(ForTests.class,
+				"aStaticLongField"));
+		Accessor.setLongField(ForTests.class, "aStaticLongField", 8L);
+		assertEquals(8L, Accessor.getLongField(ForTestsB.class,
+				"aStaticLongField"));
+		Accessor.setLongField(ForTests.class, "aStaticLongField", 7L);
+
+		// testcase 3
+		//
+		// failures 
+		//
+		try {
+			Accessor.getLongField(obj, "aPrimitiveField");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Field 'aPrimitiveField' in class '"
+					+ ForTestsB.class.getName()
+					+ "' has type 'int' instead of 'long'. ", e.getMessage());
+		}
+		try {
+			Accessor.getLongField(obj, "aStaticLongField");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("The specified field 'aStaticLongField' "
+					+ "should not be static. ", e.getMessage());
+		}
+		try {
+			Accessor.setIntField(ForTests.class, "aFinalField", 0);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Field 'aFinalField' in class '"
+					+ ForTests.class.getName()
+					+ "' is declared final and is hence not accessible. ",
+					e.getMessage());
+		}
+		try {
+			Accessor.getIntField(obj, "noSuchField");
+			fail("exception expected. ");
+		} catch (NoSuchFieldException e) {
+			assertEquals("noSuchField", e.getMessage());
+		}
+	} // testPrimitiveFields 
+
+	public void testOverloadCache() throws Exception {
+		ForOverloads obj = Accessor.create(ForOverloads.class, "");
+
+		// testcase 1
+		//
+		// unique methods and constructors are found repeatedly 
+		//
+		for (int i = 0; i < 3; i++) {
+			assertEquals("String", Accessor.invoke(obj, "exa", "x"));
+			assertEquals("String",
+					Accessor.create(ForOverloads.class, "x").kind);
+		}
+
+		// testcase 2
+		//
+		// ambiguities are reported repeatedly 
+		//
+		String msg = null;
+		for (int i = 0; i < 3; i++) {
+			try {
+				Accessor.invoke(obj, "exa", Integer.valueOf(1));
+				fail("exception expected. ");
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().contains(" is not unique: "));
+				if (msg != null) {
+					assertEquals(msg, e.getMessage());
+				}
+				msg = e.getMessage();
+			}
+			try {
+				Accessor.create(ForOverloads.class, (Object) null);
+				fail("exception expected. ");
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().contains(" is not unique: "));
+			}
+		}
+
+		// testcase 3
+		//
+		// non-existing methods are reported repeatedly 
+		//
+		for (int i = 0; i < 3; i++) {
+			try {
+				Accessor.invoke(obj, "exa", 1.0);
+				fail("exception expected. ");
+			} catch (IllegalArgumentException e) {
+				assertEquals("Method " + ForOverloads.class.getName()
+						+ ".exa(java.lang.Double) does not exist. ",
+						e.getMessage());
+			}
+		}
+	} // testOverloadCache 
+
+	public void testGetToBeInvoked() throws Exception {
+
+		// testcase 1
+		//
+		// declared, inherited and overwritten methods 
+		//
+		assertEquals(ForTestsB.class.getDeclaredMethod("privateMethod",
+				int.class), Accessor.getToBeInvoked(ForTestsB.class,
+						"privateMethod", int.class));
+		assertEquals(ForTests.class.getDeclaredMethod("getFinalFieldDummy"),
+				Accessor.getToBeInvoked(ForTestsB.class, "getFinalFieldDummy"));
+		assertEquals(Object.class.getDeclaredMethod("toString"),
+				Accessor.getToBeInvoked(ForTestsB.class, "toString"));
+
+		// testcase 2
+		//
+		// methods which do not exist 
+		//
+		for (int i = 0; i < 3; i++) {
+			assertEquals(null, Accessor.getToBeInvoked(ForTestsB.class,
+					"privateMethod", long.class));
+			assertEquals(null, Accessor.getToBeInvoked(ForTestsB.class,
+					"noSuchMethod"));
+		}
+	} // testGetToBeInvoked 
+
+	public void testScopedCache() throws Exception {
+		ForTestsB obj = new ForTestsB();
+
+		// testcase 1
+		//
+		// repeated lookups are hits 
+		//
+		Accessor.getField(obj, "aPrimitiveField");
+		ScopedCache.Stats before = ScopedCache.getStats();
+		for (int i = 0; i < 100; i++) {
+			Accessor.getField(obj, "aPrimitiveField");
+		}
+		ScopedCache.Stats after = ScopedCache.getStats();
+		assertTrue(after.getNumLookups() >= before.getNumLookups() + 100);
+		assertEquals(before.getNumMisses(), after.getNumMisses());
+		assertEquals(before.getNumClasses(), after.getNumClasses());
+		assertTrue(after.getNumEntries() > 0);
+		assertTrue(after.getHitRate() > 0);
+
+		// testcase 2
+		//
+		// dropping the scope of a loader 
+		//
+		ScopedCache.dropScope(ForTestsB.class.getClassLoader());
+		ScopedCache.Stats dropped = ScopedCache.getStats();
+		assertTrue(dropped.getNumClasses() < after.getNumClasses());
+		assertTrue(dropped.getNumEntries() < after.getNumEntries());
+		assertEquals(33, Accessor.getField(obj, "aPrimitiveField"));
+		assertTrue(ScopedCache.getStats().getNumMisses() > after
+				.getNumMisses());
+	} // testScopedCache 
+
+	public void testViews() throws Exception {
+		ForTestsB obj = new ForTestsB();
+
+		// testcase 1 
+		//
+		// field views 
+		//
+		ToIntFunction<ForTestsB> intGetter = Accessor
+				.field(ForTestsB.class, "aPrimitiveField", int.class)
+				.intGetter();
+		ObjIntConsumer<ForTestsB> intSetter = Accessor
+				.field(ForTestsB.class, "aPrimitiveField", int.class)
+				.intSetter();
+		assertEquals(33, intGetter.applyAsInt(obj));
+		intSetter.accept(obj, 34);
+		assertEquals(34, intGetter.applyAsInt(obj));
+		intSetter.accept(obj, 33);
+
+		Function<ForTests, Double> getter = Accessor
+				.field(ForTests.class, "aDoubleField", double.class)
+				.getter();
+		assertEquals(Double.valueOf(0.5), getter.apply(obj));
+
+		try {
+			Accessor.field(ForTests.class, "aFinalField", int.class)
+					.intSetter();
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+		try {
+			Accessor.field(ForTests.class, "aStaticLongField", long.class)
+					.longGetter();
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Views are provided for member fields only "
+					+ "but field 'aStaticLongField' is static. ",
+					e.getMessage());
+		}
+
+		// testcase 2 
+		//
+		// method views 
+		//
+		BiFunction<ForTestsB, Integer, Integer> privateMethod = Accessor
+				.method(ForTestsB.class, "privateMethod", int.class,
+						int.class)
+				.asBiFunction();
+		assertEquals(Integer.valueOf(66), privateMethod.apply(obj, 2));
+		// the view is spun once 
+		assertTrue(privateMethod == Accessor.method(ForTestsB.class,
+				"privateMethod", int.class, int.class)
+				.<Integer>asBiFunction());
+
+		Function<ForOverloads, String> exaP = Accessor
+				.method(ForOverloads.class, "exaP", String.class)
+				.asFunction();
+		assertEquals("intIntegerStringString",
+				exaP.apply(new ForOverloads("")));
+
+		try {
+			Accessor.method(ForTestsB.class, "privateMethod", int.class,
+					int.class).asFunction();
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+		try {
+			Accessor.method(ForTests.class, "privateStaticMethod",
+					int.class, int.class).asBiFunction();
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+	} // testViews 
+
+	public void testPath() throws Exception {
+		ForPaths obj = new ForPaths();
+
+		// testcase 1 
+		//
+		// fields, array elements and inner classes 
+		//
+		FieldPath<ForPaths> path = Accessor.path(ForPaths.class,
+				"matrix[1][0]");
+		assertEquals(int.class, path.getType());
+		assertEquals(3, path.getInt(obj));
+		assertEquals(Integer.valueOf(3), path.get(obj));
+		assertTrue(path == Accessor.path(ForPaths.class, "matrix[1][0]"));
+
+		// the declared type of the elements is ForTests 
+		assertEquals(3, Accessor.path(ForPaths.class,
+				"tests[1].aPrimitiveField").getInt(obj));
+		assertEquals(33, Accessor.path(ForTestsB.class,
+				"aPrimitiveField").getInt(new ForTestsB()));
+
+		assertEquals(5L, Accessor.path(ForPaths.class, "inner(Inner).count")
+				.getLong(obj));
+		assertEquals(0.25, Accessor.path(ForPaths.class,
+				"inner(Inner).others[0](Other).weight").getDouble(obj),
+				0.0);
+
+		// static first step 
+		assertEquals(2, Accessor.path(ForPaths.class, "instance.matrix[0][1]")
+				.getInt(null));
+
+		// testcase 2 
+		//
+		// errors 
+		//
+		try {
+			Accessor.path(ForPaths.class, "matrix[1].length");
+			fail("exception expected. ");
+		} catch (NoSuchFieldException e) {
+			assertEquals("length", e.getMessage());
+		}
+		try {
+			Accessor.path(ForPaths.class, "tests.aPrimitiveField[0]");
+			fail("exception expected. ");
+		} catch (NoSuchFieldException e) {
+			assertEquals("aPrimitiveField", e.getMessage());
+		}
+		try {
+			Accessor.path(ForPaths.class, "tests[0].aPrimitiveField[0]");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Path 'tests[0].aPrimitiveField[0]': "
+					+ "value of type 'int' before position 24 is no array. ",
+					e.getMessage());
+		}
+		try {
+			Accessor.path(ForPaths.class, "matrix[1");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Path 'matrix[1' is not well-formed at position 7. ",
+					e.getMessage());
+		}
+		try {
+			Accessor.path(ForPaths.class, "tests[0](Inner)");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+		try {
+			Accessor.path(ForPaths.class, "inner(Inner).count").getInt(obj);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+		try {
+			Accessor.path(ForPaths.class, "matrix[2][0]").getInt(obj);
+			fail("exception expected. ");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected 
+		}
+		try {
+			Accessor.path(ForPaths.class, "matrix[0][0]").getInt(null);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+	} // testPath 
+
+	public void testBulk() throws Exception {
+		List<ForTests> objs = new ArrayList<ForTests>();
+		for (int i = 0; i < 5000; i++) {
+			objs.add(i % 3 == 0 ? new ForTests() : new ForTestsB());
+		}
+
+		// testcase 1 
+		//
+		// sequential and parallel 
+		//
+		for (boolean parallel : new boolean[] { false, true }) {
+			Object[] values = Accessor.getFieldAll(objs, "aPrimitiveField",
+					parallel);
+			Object[] results = Accessor.invokeAll(objs, parallel,
+					"privateMethod", 2);
+			assertEquals(objs.size(), values.length);
+			assertEquals(objs.size(), results.length);
+			for (int i = 0; i < objs.size(); i++) {
+				int exp = i % 3 == 0 ? 3 : 33;
+				assertEquals(exp, values[i]);
+				assertEquals(2 * exp, results[i]);
+			}
+		}
+		assertEquals(0, Accessor.getFieldAll(new ArrayList<ForTests>(),
+				"aPrimitiveField").length);
+
+		// testcase 2 
+		//
+		// errors 
+		//
+		objs.set(4000, null);
+		try {
+			Accessor.getFieldAll(objs, "aPrimitiveField", true);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Target at index 4000 is null. ", e.getMessage());
+		}
+		try {
+			Accessor.getFieldAll(objs, "aStaticPrimitiveField");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("The specified field 'aStaticPrimitiveField' "
+					+ "should not be static. ", e.getMessage());
+		}
+		try {
+			Accessor.getFieldAll(objs, "noSuchField");
+			fail("exception expected. ");
+		} catch (NoSuchFieldException e) {
+			assertEquals("noSuchField", e.getMessage());
+		}
+		try {
+			Accessor.invokeAll(objs, "privateStaticMethod", 2);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			// expected 
+		}
+		try {
+			Accessor.invokeAll(Arrays.asList("abc", "a"), true, "charAt", 2);
+			fail("exception expected. ");
+		} catch (InvocationTargetException e) {
+			assertTrue(e.getCause() instanceof IndexOutOfBoundsException);
+		}
+
+		// testcase 3 
+		//
+		// sequential also if called in a worker thread of a fork join pool 
+		//
+		final AtomicInteger counter = new AtomicInteger();
+		final List<AtomicInteger> counters = new ArrayList<AtomicInteger>();
+		for (int i = 0; i < 5000; i++) {
+			counters.add(counter);
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Object[] results = pool.submit(() -> Accessor
+					.invokeAll(counters, false, "getAndIncrement")).get();
+			for (int i = 0; i < results.length; i++) {
+				assertEquals(i, results[i]);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	} // testBulk 
+
+	public void testStatics() throws Exception {
+		ForPaths instance = (ForPaths) Accessor.getField(ForPaths.class,
+				"instance");
+
+		// testcase 1 
+		//
+		// fields of the class and of its inner classes 
+		//
+		StaticsSnapshot snapshot = Accessor.captureStatics(ForTests.class,
+				ForPaths.class);
+		// aStaticPrimitiveField, aStaticLongField, instance 
+		assertEquals(3, snapshot.size());
+
+		Accessor.setField(ForTests.class, "aStaticPrimitiveField", 40);
+		Accessor.setField(ForTests.class, "aStaticLongField", 70L);
+		Accessor.setField(ForPaths.class, "instance", null);
+		Accessor.restoreStatics(snapshot);
+		assertEquals(4, Accessor.getField(ForTests.class,
+				"aStaticPrimitiveField"));
+		assertEquals(7L, Accessor.getField(ForTests.class,
+				"aStaticLongField"));
+		assertTrue(instance == Accessor.getField(ForPaths.class,
+				"instance"));
+
+		// restoring twice 
+		Accessor.setField(ForTests.class, "aStaticPrimitiveField", 41);
+		Accessor.restoreStatics(snapshot);
+		assertEquals(4, Accessor.getField(ForTests.class,
+				"aStaticPrimitiveField"));
+
+		// inner classes 
+		snapshot = Accessor.captureStatics(AccessorTest.class);
+		// at least the fields above and ForTestsB.aStaticPrimitiveField 
+		assertTrue(snapshot.size() >= 4);
+		Object captured = Accessor.getField(ForTestsB.class,
+				"aStaticPrimitiveField");
+		Accessor.setField(ForTestsB.class, "aStaticPrimitiveField", 0);
+		Accessor.restoreStatics(snapshot);
+		assertEquals(captured, Accessor.getField(ForTestsB.class,
+				"aStaticPrimitiveField"));
+
+		// testcase 2 
+		//
+		// errors 
+		//
+		try {
+			Accessor.captureStatics(ForTests.class, null);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Specified null-class. ", e.getMessage());
+		}
+	} // testStatics 
+
+	public void testSnapshot() throws Exception {
+		ForGraph root = new ForGraph("a");
+		ForGraph child1 = new ForGraph("b");
+		ForGraph child2 = new ForGraph("c");
+		root.next = child1;
+		child1.next = root;
+		root.children.add(child1);
+		root.children.add(child2);
+		root.counts.put("x", 1);
+		root.counts.put("z", 1);
+
+		// testcase 1 
+		//
+		// no change 
+		//
+		GraphSnapshot snap1 = Accessor.snapshot(root);
+		assertTrue(snap1.size() > 3);
+		assertEquals(0, Accessor.diff(snap1, Accessor.snapshot(root))
+				.size());
+		assertEquals(0, Accessor.diff(Accessor.snapshot(null),
+				Accessor.snapshot(null)).size());
+		assertEquals(Arrays.asList(""),
+				Accessor.diff(Accessor.snapshot(null), snap1));
+
+		// testcase 2 
+		//
+		// changes 
+		//
+		child2.weight = 5;
+		child2.name = "C";
+		child1.values[1] = 7;
+		root.ratio = -0.5;
+		root.counts.put("x", 3);
+		root.counts.put("y", 2);
+		root.children.add(null);
+		List<String> diff = Accessor.diff(snap1, Accessor.snapshot(root));
+		assertEquals(new HashSet<String>(Arrays.asList("ratio",
+				"children.length", "counts{x}", "counts{y}", "next.values[1]",
+				"children[1].name", "children[1].weight")),
+				new HashSet<String>(diff));
+		assertEquals(7, diff.size());
+
+		// testcase 3 
+		//
+		// long chains 
+		//
+		ForGraph head = new ForGraph("head");
+		ForGraph last = head;
+		for (int i = 0; i < 100000; i++) {
+			last.next = new ForGraph(null);
+			last = last.next;
+		}
+		snap1 = Accessor.snapshot(head);
+		last.weight = 1;
+		assertEquals(1, Accessor.diff(snap1, Accessor.snapshot(head))
+				.size());
+
+		// testcase 4 
+		//
+		// subclasses of collections and maps of java.util 
+		//
+		ForRegistry registry = new ForRegistry();
+		registry.put("a", new ForGraph("a"));
+		snap1 = Accessor.snapshot(registry);
+		registry.get("a").weight = 1;
+		registry.put("b", new ForGraph("b"));
+		assertEquals(new HashSet<String>(Arrays.asList("{a}.weight", "{b}")),
+				new HashSet<String>(Accessor.diff(snap1,
+						Accessor.snapshot(registry))));
+
+		ForHistory history = new ForHistory();
+		history.add("a");
+		snap1 = Accessor.snapshot(history);
+		history.set(0, "b");
+		history.add("c");
+		assertEquals(new HashSet<String>(Arrays.asList("[0]", ".length")),
+				new HashSet<String>(Accessor.diff(snap1,
+						Accessor.snapshot(history))));
+
+		// testcase 5 
+		//
+		// maps compared by key with one snapshot only 
+		//
+		Map<String, Integer> leafKeys = new HashMap<String, Integer>();
+		leafKeys.put("a", 1);
+		Map<String, Integer> nullKey = new HashMap<String, Integer>();
+		nullKey.put(null, 1);
+		assertEquals(Arrays.asList("[0]"), Accessor.diff(
+				Accessor.snapshot(leafKeys), Accessor.snapshot(nullKey)));
+		assertEquals(Arrays.asList("[0][0]"), Accessor.diff(
+				Accessor.snapshot(Arrays.asList(leafKeys)),
+				Accessor.snapshot(Arrays.asList(nullKey))));
+
+		// testcase 6 
+		//
+		// sets with leaves as elements compared by membership 
+		//
+		HashSet<Integer> set1 = new HashSet<Integer>();
+		set1.add(1);
+		set1.add(17);
+		HashSet<Integer> set2 = new HashSet<Integer>();
+		set2.add(17);
+		set2.add(1);
+		assertEquals(0, Accessor.diff(Accessor.snapshot(set1),
+				Accessor.snapshot(set2)).size());
+		set2.remove(17);
+		set2.add(2);
+		assertEquals(Arrays.asList("{17}", "{2}"), Accessor.diff(
+				Accessor.snapshot(set1), Accessor.snapshot(set2)));
+	} // testSnapshot 
+
+	public void testInstantiator() throws Exception {
+
+		// testcase 1 
+		//
+		// overloaded constructors 
+		//
+		Instantiator<ForOverloads> inst = Accessor
+				.instantiator(ForOverloads.class, int.class);
+		assertTrue(inst == Accessor.instantiator(ForOverloads.class,
+				int.class));
+		assertEquals("int", Accessor.getField(inst.newInstance(3), "kind"));
+		inst = Accessor.instantiator(ForOverloads.class, Integer.class);
+		assertEquals("Integer",
+				Accessor.getField(inst.newInstance(3), "kind"));
+		assertEquals("Integer",
+				Accessor.getField(inst.newInstance((Object) null), "kind"));
+		try {
+			inst.newInstance("");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("argument type mismatch", e.getMessage());
+		}
+		try {
+			Accessor.instantiator(ForOverloads.class, long.class);
+			fail("exception expected. ");
+		} catch (NoSuchMethodException e) {
+			assertEquals("Constructor eu.simuline.testhelpers."
+					+ "AccessorTest$ForOverloads(long) does not exist. ",
+					e.getMessage());
+		}
+
+		// testcase 2 
+		//
+		// inner classes 
+		//
+		Instantiator<NonStatic> instNS = Accessor
+				.instantiator(NonStatic.class);
+		assertTrue(instNS.isInner());
+		assertTrue(instNS == Accessor.instantiator(NonStatic.class,
+				AccessorTest.class));
+		NonStatic nonStatic = instNS.newInstance(this);
+		assertTrue(this == Accessor.getField(nonStatic, "this$0"));
+		assertEquals(NonStatic.NonStatic1.class, Accessor
+				.instantiator(NonStatic.NonStatic1.class)
+				.newInstance(nonStatic).getClass());
+		assertTrue(!Accessor.instantiator(Static.Static2.class).isInner());
+		try {
+			instNS.newInstance((Object) null);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Inner class eu.simuline.testhelpers."
+					+ "AccessorTest$NonStatic requires an enclosing instance "
+					+ "but found null. ", e.getMessage());
+		}
+
+		// testcase 3 
+		//
+		// many instances 
+		//
+		ForOverloads[] objs = Accessor.createMany(ForOverloads.class, 1000,
+				i -> new Object[] { "s" + i });
+		assertEquals(1000, objs.length);
+		for (ForOverloads obj : objs) {
+			assertEquals("String", Accessor.getField(obj, "kind"));
+		}
+		NonStatic[] inners = Accessor.createMany(NonStatic.class, 10,
+				i -> new Object[] { this });
+		assertTrue(this == Accessor.getField(inners[9], "this$0"));
+		try {
+			Accessor.createMany(ForOverloads.class, 2,
+					i -> i == 0 ? new Object[] { "" } : new Object[] { 1L });
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Constructor eu.simuline.testhelpers."
+					+ "AccessorTest$ForOverloads(java.lang.Long) "
+					+ "does not exist. ", e.getMessage());
+		}
+	} // testInstantiator 
+
+	public void testMetrics() throws Exception {
+
+		// testcase 1 
+		//
+		// disabled: nothing recorded 
+		//
+		boolean wasEnabled = Accessor.isMetricsEnabled();
+		Accessor.setMetricsEnabled(false);
+		Accessor.resetMetrics();
+		ForTests obj = new ForTests();
+		Accessor.getField(obj, "aPrimitiveField");
+		AccessorMetrics metrics = Accessor.getMetrics();
+		assertEquals(0, metrics.getNumCalls(Operation.GET_FIELD));
+		assertEquals(0, metrics.getTotalNanos());
+
+		// testcase 2 
+		//
+		// enabled: calls, invocations and cache lookups recorded 
+		//
+		Accessor.setMetricsEnabled(true);
+		try {
+			for (int i = 0; i < 3; i++) {
+				Accessor.getField(obj, "aPrimitiveField");
+			}
+			try {
+				Accessor.getField(obj, "aNonExistingField");
+				fail("exception expected. ");
+			} catch (NoSuchFieldException e) {
+				assertEquals("aNonExistingField", e.getMessage());
+			}
+			Accessor.setField(obj, "aPrimitiveField", 5);
+			Accessor.invoke(obj, "privateMethod", 2);
+			Accessor.create(ForOverloads.class, "");
+			Accessor.getInnerClass(AccessorTest.class,
+					new String[] { "NonStatic", "NonStatic1" });
+
+			metrics = Accessor.getMetrics();
+			assertEquals(4, metrics.getNumCalls(Operation.GET_FIELD));
+			assertEquals(3, metrics.getNumInvocations(Operation.GET_FIELD));
+			assertEquals(1, metrics.getNumCalls(Operation.SET_FIELD));
+			assertEquals(1, metrics.getNumInvocations(Operation.SET_FIELD));
+			assertEquals(1, metrics.getNumCalls(Operation.INVOKE));
+			assertEquals(1, metrics.getNumInvocations(Operation.INVOKE));
+			assertEquals(1, metrics.getNumCalls(Operation.CREATE));
+			assertEquals(1, metrics.getNumInvocations(Operation.CREATE));
+			assertEquals(1, metrics.getNumCalls(Operation.GET_INNER_CLASS));
+			assertTrue(metrics.getNanos(Operation.GET_FIELD) > 0);
+			assertTrue(metrics.getNumLookups() > 0);
+			assertEquals(metrics.getNumLookups(),
+					metrics.getNumHits() + metrics.getNumMisses());
+			assertTrue(metrics.toString(),
+					metrics.toString().startsWith("reflection: 4 getField "));
+
+			// testcase 3 
+			//
+			// reset 
+			//
+			Accessor.resetMetrics();
+			metrics = Accessor.getMetrics();
+			assertEquals(0, metrics.getNumCalls(Operation.GET_FIELD));
+			assertEquals(0, metrics.getNumLookups());
+		} finally {
+			Accessor.setMetricsEnabled(wasEnabled);
+		}
+	} // testMetrics 
+
 	/* -------------------------------------------------------------------- *
 	 * framework. *
 	 * -------------------------------------------------------------------- */
@@ -0,0 +1,1211 @@
+package eu.simuline.testhelpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+import java.lang.management.ManagementFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Testclass for class <code>Assert</code>.
+ * This is rudimentary only.
+ *
+ * @author <a href="mailto:ernst.reissner@simuline.eu">Ernst Reissner</a>
+ * @version 1.0
+ */
+@RunWith(Suite.class)
+@SuiteClasses({AssertTest.TestAll.class})
+public class AssertTest {
+
+	/* -------------------------------------------------------------------- *
+	 * framework. *
+	 * -------------------------------------------------------------------- */
+
+	static AssertTest TEST = new AssertTest();
+
+	public static class TestAll {
+		@Test
+		public void testArraysEquals() throws Exception {
+			AssertTest.TEST.testArraysEquals();
+		}
+
+		@Test
+		public void testArraysEqualsAllocation() throws Exception {
+			AssertTest.TEST.testArraysEqualsAllocation();
+		}
+
+		@Test
+		public void testArraysEqualsPrimitive() throws Exception {
+			AssertTest.TEST.testArraysEqualsPrimitive();
+		}
+
+		@Test
+		public void testArraysEqualsParallel() throws Exception {
+			AssertTest.TEST.testArraysEqualsParallel();
+		}
+
+		@Test
+		public void testArraysTolerance() throws Exception {
+			AssertTest.TEST.testArraysTolerance();
+		}
+
+		@Test
+		public void testArraysEqualsAll() throws Exception {
+			AssertTest.TEST.testArraysEqualsAll();
+		}
+
+		@Test
+		public void testArraysNormAbsEquals() throws Exception {
+			AssertTest.TEST.testArraysNormAbsEquals();
+		}
+
+		@Test
+		public void testNormEquals() throws Exception {
+			AssertTest.TEST.testNormEquals();
+		}
+
+		@Test
+		public void testAssertIs() throws Exception {
+			AssertTest.TEST.testAssertIs();
+		}
+
+		@Test
+		public void testAssertSorted() throws Exception {
+			AssertTest.TEST.testAssertSorted();
+		}
+	} // class TestAll
+
+	/**
+	 * A complex number with the metric <code>dist</code>
+	 * for {@link #testArraysNormAbsEquals()}.
+	 */
+	public static class Complex {
+		private final double re;
+		private final double im;
+
+		public Complex(double re, double im) {
+			this.re = re;
+			this.im = im;
+		}
+
+		public double dist(Complex other) {
+			if (Double.isNaN(other.re)) {
+				throw new IllegalStateException("NaN");
+			}
+			return Math.hypot(this.re - other.re, this.im - other.im);
+		}
+
+		public static double norm(Complex other) {
+			return 0.0;
+		}
+
+		public double dist() {
+			return Math.hypot(this.re, this.im);
+		}
+
+		public String toString() {
+			return this.re + "+" + this.im + "i";
+		}
+	} // class Complex
+
+	/**
+	 * A comparable which is not accessible from within {@link Assert}
+	 * and which does not throw an exception comparing with null
+	 * for {@link #testAssertIs()}.
+	 */
+	private static class Version implements Comparable<Version> {
+		private final int num;
+
+		Version(int num) {
+			this.num = num;
+		}
+
+		public int compareTo(Version other) {
+			return other == null ? 1 : Integer.compare(this.num, other.num);
+		}
+
+		public String toString() {
+			return "v" + this.num;
+		}
+	} // class Version
+
+	/* -------------------------------------------------------------------- *
+	 * methods for tests. *
+	 * -------------------------------------------------------------------- */
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far.
+	 */
+	static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Asserts that <code>Assert.assertArraysEquals</code>
+	 * fails for the given arrays with the given message.
+	 */
+	static void assertArraysDiffer(String message,
+			Object expected, Object actual) {
+		try {
+			Assert.assertArraysEquals(expected, actual);
+		} catch (AssertionError e) {
+			assertEquals(message, e.getMessage());
+			return;
+		}
+		fail("exception expected. ");
+	}
+
+	/**
+	 * Asserts that <code>Assert.assertArraysEquals</code>
+	 * with tolerance <code>delta</code> fails for the given arrays
+	 * with the given message, both sequentially and in parallel.
+	 */
+	static void assertArraysDiffer(String message,
+			Object expected, Object actual, double delta) {
+		for (boolean parallel : new boolean[] { false, true }) {
+			try {
+				Assert.assertArraysEquals(expected, actual, delta, parallel);
+			} catch (AssertionError e) {
+				assertEquals(message, e.getMessage());
+				continue;
+			}
+			fail("exception expected. ");
+		}
+	}
+
+	/**
+	 * Asserts that <code>Assert.assertArraysRelEquals</code>
+	 * fails for the given arrays with the given message,
+	 * both sequentially and in parallel.
+	 */
+	static void assertArraysDifferRel(String message,
+			Object expected, Object actual, double reldev) {
+		for (boolean parallel : new boolean[] { false, true }) {
+			try {
+				Assert.assertArraysRelEquals(expected, actual, reldev,
+						parallel);
+			} catch (AssertionError e) {
+				assertEquals(message, e.getMessage());
+				continue;
+			}
+			fail("exception expected. ");
+		}
+	}
+
+	/**
+	 * Returns the index of the first mismatch
+	 * or the message of the exception thrown
+	 * comparing the given arrays by <code>tol</code>
+	 * either by the kernel if present or element by element.
+	 */
+	static String mismatch(Tolerance tol, Object expected, Object actual,
+			boolean scalar) {
+		int len = java.lang.reflect.Array.getLength(expected);
+		try {
+			if (!scalar) {
+				return "" + tol.mismatch(expected, actual, 0, len);
+			}
+			if (expected instanceof double[]) {
+				return "" + tol.mismatchScalar((double[]) expected,
+						(double[]) actual, 0, len);
+			}
+			return "" + tol.mismatchScalar((float[]) expected,
+					(float[]) actual, 0, len);
+		} catch (IllegalArgumentException e) {
+			return e.getMessage();
+		}
+	}
+
+	/**
+	 * Asserts that <code>Assert.assertArraysEquals</code>
+	 * in parallel fails for the given arrays with the given message.
+	 */
+	static void assertArraysDifferParallel(String message,
+			Object expected, Object actual) {
+		try {
+			Assert.assertArraysEquals(expected, actual, true);
+		} catch (AssertionError e) {
+			assertEquals(message, e.getMessage());
+			return;
+		}
+		fail("exception expected. ");
+	}
+
+	public void testArraysEquals() throws Exception {
+
+		// testcase 1
+		//
+		// equal arrays
+		//
+		Assert.assertArraysEquals(new int[] { 1, 2, 3 }, new int[] { 1, 2, 3 });
+		Assert.assertArraysEquals(new double[] { Double.NaN, 0.5 },
+				new double[] { Double.NaN, 0.5 });
+		Assert.assertArraysEquals(
+				new Object[][] { { null, "a" }, null, { new int[] { 3 } } },
+				new Object[][] { { null, "a" }, null, { new int[] { 3 } } });
+		Assert.assertArraysEquals(null, null);
+
+		// testcase 2
+		//
+		// arrays with different entries
+		//
+		assertArraysDiffer("In entry [2] expected  <3> but was: <4>. ",
+				new int[] { 1, 2, 3 }, new int[] { 1, 2, 4 });
+		assertArraysDiffer("In entry [1] expected  <0.0> but was: <-0.0>. ",
+				new double[] { 0.5, 0.0 }, new double[] { 0.5, -0.0 });
+		// entries after a pair of null entries are checked also
+		assertArraysDiffer("In entry [1, 1] expected  <a> but was: <b>. ",
+				new Object[][] { { "a" }, { null, "a" } },
+				new Object[][] { { "a" }, { null, "b" } });
+		assertArraysDiffer("In entry [0, 0] expected  <null> but was: <a>. ",
+				new String[][] { { null } }, new String[][] { { "a" } });
+		assertArraysDiffer("In entry [1, 0, 0] expected  <3> but was: <5>. ",
+				new int[][][] { {}, { { 3 } } },
+				new int[][][] { {}, { { 5 } } });
+
+		// testcase 3
+		//
+		// arrays with different lengths or types
+		//
+		assertArraysDiffer("Expected array with length <2> "
+				+ "but was array with length <1>. ",
+				new int[] { 1, 2 }, new int[] { 1 });
+		assertArraysDiffer("In entry [1] expected array with length <1> "
+				+ "but was array with length <0>. ",
+				new int[][] { {}, { 1 } }, new int[][] { {}, {} });
+		assertArraysDiffer("expected class: <class [I> "
+				+ "but was: <class [J>. ",
+				new int[] { 1 }, new long[] { 1 });
+		try {
+			Assert.assertArraysEquals("no array", "no array");
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Array expected; found type class java.lang.String. ",
+					e.getMessage());
+		}
+	} // testArraysEquals
+
+	public void testArraysEqualsAllocation() throws Exception {
+		final int len = 1000000;
+		int[] ints1 = new int[len];
+		int[] ints2 = new int[len];
+		double[] doubles1 = new double[len];
+		double[] doubles2 = new double[len];
+		String[][] strs1 = new String[len / 10][1];
+		String[][] strs2 = new String[len / 10][1];
+		for (int i = 0; i < len; i++) {
+			ints1[i] = ints2[i] = i;
+			doubles1[i] = doubles2[i] = i / 3.0;
+		}
+		for (int i = 0; i < len / 10; i++) {
+			strs1[i][0] = strs2[i][0] = "s" + i;
+		}
+
+		// warm up: load classes involved
+		Assert.assertArraysEquals(ints1, ints2);
+		Assert.assertArraysEquals(doubles1, doubles2);
+		Assert.assertArraysEquals(strs1, strs2);
+
+		long before = allocatedBytes();
+		Assert.assertArraysEquals(ints1, ints2);
+		Assert.assertArraysEquals(doubles1, doubles2);
+		Assert.assertArraysEquals(strs1, strs2);
+		long allocated = allocatedBytes() - before;
+		// far less than a single byte per entry
+		assertTrue("allocated " + allocated + " bytes. ",
+				allocated < len / 100);
+	} // testArraysEqualsAllocation
+
+	public void testArraysEqualsPrimitive() throws Exception {
+		// long enough for vectorized comparison 
+		final int len = 100;
+		final int idx = 70;
+
+		// testcase 1
+		//
+		// all primitive types with a mismatch behind vector length 
+		//
+		int[] ints1 = new int[len];
+		int[] ints2 = new int[len];
+		Assert.assertArraysEquals(ints1, ints2);
+		ints2[idx] = 1;
+		assertArraysDiffer("In entry [70] expected  <0> but was: <1>. ",
+				ints1, ints2);
+
+		long[] longs1 = new long[len];
+		long[] longs2 = new long[len];
+		Assert.assertArraysEquals(longs1, longs2);
+		longs2[idx] = -1L;
+		assertArraysDiffer("In entry [70] expected  <0> but was: <-1>. ",
+				longs1, longs2);
+
+		short[] shorts1 = new short[len];
+		short[] shorts2 = new short[len];
+		Assert.assertArraysEquals(shorts1, shorts2);
+		shorts2[idx] = 2;
+		assertArraysDiffer("In entry [70] expected  <0> but was: <2>. ",
+				shorts1, shorts2);
+
+		byte[] bytes1 = new byte[len];
+		byte[] bytes2 = new byte[len];
+		Assert.assertArraysEquals(bytes1, bytes2);
+		bytes2[idx] = 3;
+		assertArraysDiffer("In entry [70] expected  <0> but was: <3>. ",
+				bytes1, bytes2);
+
+		char[] chars1 = new char[len];
+		char[] chars2 = new char[len];
+		Arrays.fill(chars1, 'a');
+		Arrays.fill(chars2, 'a');
+		Assert.assertArraysEquals(chars1, chars2);
+		chars2[idx] = 'b';
+		assertArraysDiffer("In entry [70] expected  <a> but was: <b>. ",
+				chars1, chars2);
+
+		boolean[] bools1 = new boolean[len];
+		boolean[] bools2 = new boolean[len];
+		Assert.assertArraysEquals(bools1, bools2);
+		bools2[idx] = true;
+		assertArraysDiffer("In entry [70] expected  <false> but was: <true>. ",
+				bools1, bools2);
+
+		float[] floats1 = new float[len];
+		float[] floats2 = new float[len];
+		floats1[idx - 1] = floats2[idx - 1] = Float.NaN;
+		Assert.assertArraysEquals(floats1, floats2);
+		floats2[idx] = -0.0f;
+		assertArraysDiffer("In entry [70] expected  <0.0> but was: <-0.0>. ",
+				floats1, floats2);
+
+		double[] doubles1 = new double[len];
+		double[] doubles2 = new double[len];
+		doubles1[idx - 1] = Double.NaN;
+		doubles2[idx - 1] = Double.longBitsToDouble(0x7ff8000000000001L);
+		// different NaNs are equal as for Double.equals 
+		Assert.assertArraysEquals(doubles1, doubles2);
+		doubles2[idx] = 0.5;
+		assertArraysDiffer("In entry [70] expected  <0.0> but was: <0.5>. ",
+				doubles1, doubles2);
+
+		// testcase 2
+		//
+		// leaves of multi-dimensional arrays 
+		//
+		double[][] matrix1 = new double[3][len];
+		double[][] matrix2 = new double[3][len];
+		Assert.assertArraysEquals(matrix1, matrix2);
+		matrix2[2][idx] = 0.25;
+		assertArraysDiffer("In entry [2, 70] expected  <0.0> but was: <0.25>. ",
+				matrix1, matrix2);
+	} // testArraysEqualsPrimitive
+
+	public void testArraysEqualsParallel() throws Exception {
+		final int threshold = Assert.getParallelThreshold();
+		double[][][] cube1 = new double[16][16][64];
+		double[][][] cube2 = new double[16][16][64];
+		for (int i = 0; i < cube1.length; i++) {
+			for (int j = 0; j < cube1[i].length; j++) {
+				for (int k = 0; k < cube1[i][j].length; k++) {
+					cube1[i][j][k] = cube2[i][j][k] = i * j + k;
+				}
+			}
+		}
+		// a single huge entry 
+		double[][] row1 = new double[1][1 << 12];
+		double[][] row2 = new double[1][1 << 12];
+
+		// split into tiny parts 
+		Assert.setParallelThreshold(8);
+		try {
+			// testcase 1
+			//
+			// equal arrays
+			//
+			Assert.assertArraysEquals(cube1, cube2, true);
+			Assert.assertArraysEquals(cube1, cube2, 0.0, true);
+			Assert.assertArraysEquals(row1, row2, true);
+			Assert.assertArraysEquals(null, null, true);
+
+			// testcase 2
+			//
+			// the mismatch with the lowest indices is reported
+			//
+			cube2[13][2][5] += 1.0;
+			cube2[3][15][60] += 0.5;
+			for (int run = 0; run < 20; run++) {
+				assertArraysDifferParallel("In entry [3, 15, 60] "
+						+ "expected  <105.0> but was: <105.5>. ",
+						cube1, cube2);
+			}
+			assertArraysDiffer("In entry [3, 15, 60] "
+					+ "expected  <105.0> but was: <105.5>. ",
+					cube1, cube2);
+			assertArraysDiffer("In entry [3, 15, 60] "
+					+ "expected <105.0> but was: <105.5>: "
+					+ "deviation exceeds 0.25 in absolute value. ",
+					cube1, cube2, 0.25);
+			assertArraysDiffer("In entry [13, 2, 5] "
+					+ "expected <31.0> but was: <32.0>: "
+					+ "deviation exceeds 0.5 in absolute value. ",
+					cube1, cube2, 0.5);
+			Assert.assertArraysEquals(cube1, cube2, 1.0, true);
+
+			// a length mismatch before 
+			cube2[2] = new double[15][64];
+			assertArraysDifferParallel("In entry [2] expected "
+					+ "array with length <16> "
+					+ "but was array with length <15>. ",
+					cube1, cube2);
+			// and after an entry mismatch 
+			cube2[2] = cube1[2];
+			cube2[7] = new double[15][64];
+			assertArraysDifferParallel("In entry [3, 15, 60] "
+					+ "expected  <105.0> but was: <105.5>. ",
+					cube1, cube2);
+
+			// testcase 3
+			//
+			// within a single huge entry
+			//
+			row2[0][4000] = 1.0;
+			row2[0][1000] = 2.0;
+			assertArraysDifferParallel("In entry [0, 1000] "
+					+ "expected  <0.0> but was: <2.0>. ",
+					row1, row2);
+			row2[0] = new double[1];
+			assertArraysDifferParallel("In entry [0] expected "
+					+ "array with length <4096> "
+					+ "but was array with length <1>. ",
+					row1, row2);
+		} finally {
+			Assert.setParallelThreshold(threshold);
+		}
+
+		// testcase 4
+		//
+		// invalid threshold
+		//
+		try {
+			Assert.setParallelThreshold(0);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Expected positive threshold; found 0. ",
+					e.getMessage());
+		}
+		assertEquals(threshold, Assert.getParallelThreshold());
+		assertEquals(8, Assert.parseParallelThreshold(" 8"));
+		for (String value : new String[] { "0", "-1", "many" }) {
+			try {
+				Assert.parseParallelThreshold(value);
+				fail("exception expected. ");
+			} catch (IllegalArgumentException e) {
+				assertEquals("Value '" + value + "' of property "
+						+ Assert.PROP_PARALLEL_THRESHOLD
+						+ " is no positive integer. ", e.getMessage());
+			}
+		}
+	} // testArraysEqualsParallel
+
+	public void testArraysTolerance() throws Exception {
+		// not a multiple of the vector length 
+		final int len = 1003;
+		double[] doubles1 = new double[len];
+		double[] doubles2 = new double[len];
+		float[] floats1 = new float[len];
+		float[] floats2 = new float[len];
+		for (int i = 0; i < len; i++) {
+			doubles1[i] = doubles2[i] = 1.0 + i;
+			floats1[i] = floats2[i] = 1.0f + i;
+		}
+
+		// testcase 1
+		//
+		// absolute deviation
+		//
+		Assert.assertArraysEquals(doubles1, doubles2, 0.0);
+		Assert.assertArraysEquals(floats1, floats2, 0.0);
+		doubles2[700] += 0.5;
+		floats2[1001] += 0.5f;
+		Assert.assertArraysEquals(doubles1, doubles2, 0.5);
+		Assert.assertArraysEquals(floats1, floats2, 0.5, true);
+		assertArraysDiffer("In entry [700] expected <701.0> but was: <701.5>: "
+				+ "deviation exceeds 0.25 in absolute value. ",
+				doubles1, doubles2, 0.25);
+		assertArraysDiffer("In entry [1001] expected <1002.0> "
+				+ "but was: <1002.5>: "
+				+ "deviation exceeds 0.25 in absolute value. ",
+				floats1, floats2, 0.25);
+
+		// testcase 2
+		//
+		// relative deviation
+		//
+		Assert.assertArraysRelEquals(doubles1, doubles2, 1e-3);
+		Assert.assertArraysRelEquals(floats1, floats2, 1e-3, true);
+		assertArraysDifferRel("In entry [700] expected <701.0> "
+				+ "but was: <701.5>: "
+				+ "relative deviation exceeds 1.0E-4 in absolute value. ",
+				doubles1, doubles2, 1e-4);
+		assertArraysDifferRel("In entry [1001] expected <1002.0> "
+				+ "but was: <1002.5>: "
+				+ "relative deviation exceeds 1.0E-4 in absolute value. ",
+				floats1, floats2, 1e-4);
+		try {
+			Assert.assertArraysRelEquals(doubles1, doubles2, -1.0);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("The relative deviation may not be <-1.0>. ",
+					e.getMessage());
+		}
+		doubles1[3] = doubles2[3] = 0.0;
+		try {
+			Assert.assertArraysRelEquals(doubles1, doubles2, 1e-3);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Relative deviation for expected value <0.0> "
+					+ "is not defined. ", e.getMessage());
+		}
+
+		// testcase 3
+		//
+		// absolute deviation for small values, relative for the others
+		//
+		doubles2[3] = 0.125;
+		Assert.assertArraysAbsRelEquals(doubles1, 1.0, doubles2, 0.25, 1e-3);
+		try {
+			Assert.assertArraysAbsRelEquals(doubles1, 1.0, doubles2,
+					0.0625, 1e-3, true);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("In entry [3] expected <0.0> but was: <0.125>: "
+					+ "deviation exceeds 0.0625 in absolute value. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertArraysAbsRelEquals(doubles1, 1.0, doubles2,
+					0.25, 1e-4);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("In entry [700] expected <701.0> but was: <701.5>: "
+					+ "relative deviation exceeds 1.0E-4 in absolute value. ",
+					e.getMessage());
+		}
+
+		// testcase 4
+		//
+		// the vector kernel, if present, agrees with scalar comparison
+		//
+		final double[] values = { 0.0, -0.0, 1.0, -2.0, 1e-4, 3e5,
+				Double.NaN, Double.POSITIVE_INFINITY,
+				Double.NEGATIVE_INFINITY };
+		final Tolerance[] tols = { Tolerance.abs(1e-3), Tolerance.abs(-1.0),
+				Tolerance.abs(Double.POSITIVE_INFINITY),
+				Tolerance.rel(1e-3), Tolerance.rel(Double.POSITIVE_INFINITY),
+				Tolerance.absRel(0.5, 1e-3, 1e-3) };
+		java.util.Random rnd = new java.util.Random(1003);
+		for (int run = 0; run < 500; run++) {
+			int num = rnd.nextInt(70);
+			double[] dExp = new double[num];
+			double[] dAct = new double[num];
+			float[] fExp = new float[num];
+			float[] fAct = new float[num];
+			for (int i = 0; i < num; i++) {
+				dExp[i] = rnd.nextInt(10) == 0
+						? values[rnd.nextInt(values.length)]
+						: 1.0 + rnd.nextDouble();
+				// mostly equal or within tolerance 
+				switch (rnd.nextInt(20)) {
+				case 0:
+					dAct[i] = values[rnd.nextInt(values.length)];
+					break;
+				case 1:
+					dAct[i] = dExp[i] * (1.0 + 1e-2 * rnd.nextGaussian());
+					break;
+				default:
+					dAct[i] = dExp[i] * (1.0 + 1e-4 * rnd.nextGaussian());
+					break;
+				}
+				fExp[i] = (float) dExp[i];
+				fAct[i] = (float) dAct[i];
+			}
+			for (Tolerance tol : tols) {
+				assertEquals(mismatch(tol, dExp, dAct, true),
+						mismatch(tol, dExp, dAct, false));
+				assertEquals(mismatch(tol, fExp, fAct, true),
+						mismatch(tol, fExp, fAct, false));
+			}
+		}
+	} // testArraysTolerance
+
+	public void testArraysEqualsAll() throws Exception {
+		final int len = 1000000;
+		double[] doubles1 = new double[len];
+		double[] doubles2 = new double[len];
+		for (int i = 0; i < len; i++) {
+			doubles1[i] = doubles2[i] = 1.0;
+		}
+
+		// testcase 1
+		//
+		// equal arrays
+		//
+		Assert.assertArraysEqualsAll(doubles1, doubles2, 3);
+		Assert.assertArraysEqualsAll(doubles1, doubles2, 0.0, 3);
+		Assert.assertArraysEqualsAll(null, null, 3);
+
+		// testcase 2
+		//
+		// all mismatches are counted but only the first ones listed
+		//
+		for (int i = 0; i < len; i += 10) {
+			doubles2[i] = 1.5;
+		}
+		try {
+			Assert.assertArraysEqualsAll(doubles1, doubles2, 2);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("Arrays differ in 100000 of 1000000 "
+					+ "entries compared. "
+					+ "\nIn entry [0] expected  <1.0> but was: <1.5>. "
+					+ "\nIn entry [10] expected  <1.0> but was: <1.5>. "
+					+ "\n... and 99998 more. "
+					+ "\nAbsolute deviation: "
+					+ "max <0.5>, mean <0.05>, rms <0.15811388300841897>. "
+					+ "\nRelative deviation: "
+					+ "max <0.5>, mean <0.05>, rms <0.15811388300841897>. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertArraysEqualsAll(doubles1, doubles2, 0.25, 1);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith(
+					"Arrays differ in 100000 of 1000000 entries compared. "
+					+ "\nIn entry [0] expected <1.0> but was: <1.5>: "
+					+ "deviation exceeds 0.25 in absolute value. "
+					+ "\n... and 99999 more. "));
+		}
+		// within the tolerance 
+		Assert.assertArraysEqualsAll(doubles1, doubles2, 0.5, 1);
+
+		// testcase 3
+		//
+		// nested arrays with lengths, nulls and integral leaves
+		//
+		try {
+			Assert.assertArraysEqualsAll(
+					new Object[][] { { 1, 2, null }, { "a" } },
+					new Object[][] { { 1, 4, "b" }, { "a", "c" } }, 10);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("Arrays differ in 3 of 4 entries compared. "
+					+ "\nIn entry [0, 1] expected  <2> but was: <4>. "
+					+ "\nIn entry [0, 2] expected  <null> but was: <b>. "
+					+ "\nIn entry [1] expected array with length <1> "
+					+ "but was array with length <2>. "
+					+ "\nAbsolute deviation: max <2.0>, mean <1.0>, "
+					+ "rms <1.4142135623730951>. "
+					+ "\nRelative deviation: max <1.0>, mean <0.5>, "
+					+ "rms <0.7071067811865476>. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertArraysEqualsAll(new int[][] { { 1, 2 }, { 0, 3 } },
+					new int[][] { { 1, 2 }, { 5, 3 } }, 0);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			// the relative deviation from 0 is not recorded 
+			assertEquals("Arrays differ in 1 of 4 entries compared. "
+					+ "\n... and 1 more. "
+					+ "\nAbsolute deviation: max <5.0>, mean <1.25>, "
+					+ "rms <2.5>. "
+					+ "\nRelative deviation: max <0.0>, mean <0.0>, "
+					+ "rms <0.0>. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertArraysEqualsAll(doubles1, doubles2, -1);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Expected non-negative number "
+					+ "of mismatches reported; found -1. ", e.getMessage());
+		}
+	} // testArraysEqualsAll
+
+	public void testArraysNormAbsEquals() throws Exception {
+		final int len = 300;
+		Complex[][] cmps1 = new Complex[len][len];
+		Complex[][] cmps2 = new Complex[len][len];
+		for (int i = 0; i < len; i++) {
+			for (int j = 0; j < len; j++) {
+				cmps1[i][j] = new Complex(i, j);
+				cmps2[i][j] = new Complex(i, j + 0.5);
+			}
+		}
+
+		// testcase 1
+		//
+		// matrices within and beyond the tolerance
+		//
+		int threshold = Assert.getParallelThreshold();
+		Assert.setParallelThreshold(1000);
+		try {
+			for (boolean parallel : new boolean[] { false, true }) {
+				Assert.assertArraysNormAbsEquals(cmps1, cmps2, "dist", 0.5,
+						parallel);
+				Assert.assertArraysNormAbsEquals(null, null, "dist", 0.5,
+						parallel);
+				try {
+					Assert.assertArraysNormAbsEquals(cmps1, cmps2, "dist",
+							0.25, parallel);
+					fail("exception expected. ");
+				} catch (AssertionError e) {
+					assertEquals("In entry [0, 0] expected <0.0+0.0i> "
+							+ "but was: <0.0+0.5i>: "
+							+ "deviation 0.5 exceeds 0.25 in absolute value. ",
+							e.getMessage());
+				}
+				cmps2[len - 1][len - 2] = new Complex(0.0, 0.0);
+				try {
+					Assert.assertArraysNormAbsEquals(cmps1, cmps2, "dist",
+							0.5, parallel);
+					fail("exception expected. ");
+				} catch (AssertionError e) {
+					assertTrue(e.getMessage(), e.getMessage().startsWith(
+							"In entry [299, 298] expected <299.0+298.0i> "
+							+ "but was: <0.0+0.0i>: deviation "));
+				}
+				cmps2[len - 1][len - 2] = new Complex(len - 1, len - 1.5);
+			}
+		} finally {
+			Assert.setParallelThreshold(threshold);
+		}
+
+		// testcase 2
+		//
+		// nulls and lengths
+		//
+		try {
+			Assert.assertArraysNormAbsEquals(
+					new Complex[][] { { new Complex(1, 0) }, {} },
+					new Complex[][] { { null }, {} }, "dist", 0.5);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("In entry [0, 0] expected  <1.0+0.0i> "
+					+ "but was: <null>. ", e.getMessage());
+		}
+		try {
+			Assert.assertArraysNormAbsEquals(
+					new Complex[][] { {}, { new Complex(1, 0) } },
+					new Complex[][] { {}, {} }, "dist", 0.5);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("In entry [1] expected lengths <1> "
+					+ "but was: <0>. ", e.getMessage());
+		}
+
+		// testcase 3
+		//
+		// no metric method and exceptions raised by the metric
+		//
+		Complex[] cmps3 = new Complex[] { new Complex(1, 0) };
+		try {
+			Assert.assertArraysNormAbsEquals(cmps3,
+					new Complex[] { new Complex(1, 0) }, "norm", 0.5);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Object 1.0+0.0i provides a static method "
+					+ "\"public static double norm(class "
+					+ Complex.class.getName()
+					+ ") not a member method as expected. ", e.getMessage());
+		}
+		try {
+			Assert.assertArraysNormAbsEquals(cmps3,
+					new Complex[] { new Complex(Double.NaN, 0) }, "dist", 0.5);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().endsWith(
+					" raised java.lang.IllegalStateException: NaN. "));
+		}
+		try {
+			Assert.assertArraysNormAbsEquals(new Object[] { cmps3[0] },
+					new Object[] { "1" }, "dist", 0.5);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().endsWith(
+					" is not applicable to <1>. "));
+		}
+		try {
+			Assert.assertArraysNormAbsEquals(new double[] { 1.0 },
+					new double[] { 1.0 }, "dist", 0.5);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("For primitive type double "
+					+ "no metric method dist exists. ", e.getMessage());
+		}
+		try {
+			Assert.assertArraysNormAbsEquals(cmps3, cmps3, null, 0.5);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Norm is null; could not prove "
+					+ "whether deviation exceeds some threshold. ",
+					e.getMessage());
+		}
+		// the same messages as for single objects 
+		try {
+			Assert.assertNormAbsEquals(cmps3[0], cmps3[0], "norm", 0.5);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage()
+					.startsWith("Object 1.0+0.0i provides a static method "));
+		}
+		Assert.assertNormAbsEquals(cmps1[1][1], cmps2[1][1], "dist", 0.5);
+	} // testArraysNormAbsEquals
+
+	public void testNormEquals() throws Exception {
+		Complex cmp1 = new Complex(3, 4);
+		Complex cmp2 = new Complex(3, 4.5);
+
+		// testcase 1
+		//
+		// the checks of the metric method are performed on each call
+		//
+		for (int i = 0; i < 2; i++) {
+			try {
+				Assert.assertNormAbsEquals(cmp1, cmp2, "norm", 0.5);
+				fail("exception expected. ");
+			} catch (IllegalArgumentException e) {
+				assertEquals("Object 3.0+4.0i provides a static method "
+						+ "\"public static double norm(class "
+						+ Complex.class.getName()
+						+ ") not a member method as expected. ",
+						e.getMessage());
+			}
+			try {
+				Assert.assertNormRelEquals(cmp1, cmp2, "length", 0.5);
+				fail("exception expected. ");
+			} catch (IllegalArgumentException e) {
+				assertEquals("Object 3.0+4.0i does not provide a method "
+						+ "\"public ... length(class "
+						+ Complex.class.getName() + ") as expected. ",
+						e.getMessage());
+			}
+		}
+
+		// testcase 2
+		//
+		// deviations within and beyond the tolerance
+		//
+		Assert.assertNormAbsEquals(cmp1, cmp2, "dist", 0.5);
+		Assert.assertNormRelEquals(cmp1, cmp2, "dist", 0.1);
+		try {
+			Assert.assertNormAbsEquals(cmp1, cmp2, "dist", 0.25);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("expected: <3.0+4.0i> but was: <3.0+4.5i>:  "
+					+ "deviation 0.5 exceeds 0.25 in absolute value. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertNormRelEquals(cmp1, cmp2, "dist", 0.05);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("expected: <3.0+4.0i> but was: <3.0+4.5i>:  "
+					+ "relative deviation 0.1 exceeds 0.05 "
+					+ "in absolute value. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertNormAbsEquals(cmp1,
+					new Complex(Double.NaN, 0), "dist", 0.5);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().endsWith(
+					" raised java.lang.IllegalStateException: NaN. "));
+		}
+
+		// testcase 3
+		//
+		// the methods are resolved once
+		//
+		long misses = ScopedCache.getStats().getNumMisses();
+		for (int i = 0; i < 10000; i++) {
+			Assert.assertNormAbsEquals(cmp1, cmp2, "dist", 0.5);
+			Assert.assertNormRelEquals(cmp1, cmp2, "dist", 0.1);
+		}
+		assertEquals(misses, ScopedCache.getStats().getNumMisses());
+	} // testNormEquals
+
+	public void testAssertIs() throws Exception {
+		Version v1 = new Version(1);
+		Version v2 = new Version(2);
+
+		// testcase 1
+		//
+		// the relations, in particular for a private class
+		//
+		Assert.assertIs(Assert.CmpObj.LESS, v1, v2);
+		Assert.assertIs(Assert.CmpObj.LESS_EQ, v1, v1);
+		Assert.assertIs(Assert.CmpObj.GREATER, v2, v1);
+		Assert.assertIs(Assert.CmpObj.NOT_EQUAL, v2, v1);
+		// compareTo is consistent with equals only up to the scale
+		Assert.assertIs(Assert.CmpObj.EQUAL,
+				new java.math.BigDecimal("1.0"),
+				new java.math.BigDecimal("1.00"));
+		try {
+			Assert.assertIs(Assert.CmpObj.GREATER_EQ, v1, v2);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("expected: <v1> to be greater or equal: <v2>. ",
+					e.getMessage());
+		}
+		Assert.assertIs(Assert.CmpObj.LESS, "a", "b",
+				String.CASE_INSENSITIVE_ORDER);
+		try {
+			Assert.assertIs(Assert.CmpObj.LESS, "a", "A",
+					String.CASE_INSENSITIVE_ORDER);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage(), e.getMessage()
+					.startsWith("expected: <a> to be less: <A> "
+							+ "with respect to the comparator <"));
+		}
+
+		// testcase 2
+		//
+		// exceptions and the null-symmetry check
+		//
+		try {
+			Assert.assertIs(Assert.CmpObj.LESS, 1, null);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(
+					" raised java.lang.NullPointerException"));
+		}
+		try {
+			Assert.assertIs(Assert.CmpObj.GREATER, v1, null);
+			fail("exception expected. ");
+		} catch (IllegalStateException e) {
+			assertEquals("Tried to compare <v1> to: <null> "
+					+ "which should raise a NullPointerException. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertIs(Assert.CmpObj.LESS, null, v1);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Found expected value null -- "
+					+ "Use method assertNull instead. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertIs(Assert.CmpObj.LESS, v1, v2,
+					(Version a, Version b) -> {
+						throw new UnsupportedOperationException();
+					});
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith(
+					"Could not test ordering because method "));
+			assertTrue(e.getMessage(), e.getMessage().endsWith(
+					" raised java.lang.UnsupportedOperationException. "));
+		}
+		try {
+			Assert.assertIs(Assert.CmpObj.LESS, v1, v2, null);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Found null-comparator . ", e.getMessage());
+		}
+	} // testAssertIs
+
+	public void testAssertSorted() throws Exception {
+		final int threshold = Assert.getParallelThreshold();
+		int[] ints = new int[1000];
+		long[] longs = new long[ints.length];
+		double[] doubles = new double[ints.length];
+		Integer[] boxed = new Integer[ints.length];
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = i / 2;
+			longs[i] = ints[i];
+			doubles[i] = ints[i];
+			boxed[i] = ints[i];
+		}
+		List<Integer> list = Arrays.asList(boxed);
+
+		// testcase 1
+		//
+		// sorted sequences, also the empty one and a singleton
+		//
+		Assert.assertMonotone(Assert.CmpObj.LESS_EQ, ints);
+		Assert.assertMonotone(Assert.CmpObj.LESS_EQ, longs);
+		Assert.assertMonotone(Assert.CmpObj.LESS_EQ, doubles);
+		Assert.assertMonotone(Assert.CmpObj.LESS_EQ, boxed);
+		Assert.assertMonotone(Assert.CmpObj.LESS_EQ, list);
+		Assert.assertMonotone(Assert.CmpObj.LESS, new int[0]);
+		Assert.assertMonotone(Assert.CmpObj.LESS, new int[1]);
+		Assert.assertMonotone(Assert.CmpObj.GREATER, new double[] {
+				Double.NaN, 1.0, 0.0, -0.0 });
+		Assert.assertSorted(Assert.CmpObj.GREATER_EQ, list,
+				(Integer a, Integer b) -> Integer.compare(b, a));
+		Assert.assertSorted(Assert.CmpObj.LESS,
+				new String[] { "a", "B", "c" },
+				String.CASE_INSENSITIVE_ORDER);
+		Assert.assertMonotone(Assert.CmpObj.LESS, new ArrayList<Integer>());
+		Assert.assertMonotone(Assert.CmpObj.LESS,
+				Collections.<Integer>emptyList());
+		Assert.assertSorted(Assert.CmpObj.LESS, Arrays.<String>asList(),
+				String.CASE_INSENSITIVE_ORDER);
+
+		// testcase 2
+		//
+		// the first pair not ordered is reported
+		//
+		try {
+			Assert.assertMonotone(Assert.CmpObj.LESS, ints);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("In entries [0] and [1] "
+					+ "expected: <0> to be less: <0>. ", e.getMessage());
+		}
+		try {
+			Assert.assertMonotone(Assert.CmpObj.NOT_EQUAL, longs);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("In entries [0] and [1] "
+					+ "expected: <0> to be not equal: <0>. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertMonotone(Assert.CmpObj.LESS_EQ,
+					new double[] { 0.0, Double.NaN, 1.0 });
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("In entries [1] and [2] "
+					+ "expected: <NaN> to be less or equal: <1.0>. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertMonotone(Assert.CmpObj.GREATER_EQ,
+					new LinkedList<Integer>(list));
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertEquals("In entries [1] and [2] "
+					+ "expected: <0> to be greater or equal: <1>. ",
+					e.getMessage());
+		}
+		try {
+			Assert.assertSorted(Assert.CmpObj.LESS,
+					new String[] { "a", "B", "b" },
+					String.CASE_INSENSITIVE_ORDER);
+			fail("exception expected. ");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage(), e.getMessage()
+					.startsWith("In entries [1] and [2] expected: <B> "
+							+ "to be less: <b> "
+							+ "with respect to the comparator <"));
+		}
+
+		// testcase 3
+		//
+		// exceptions
+		//
+		try {
+			Assert.assertSorted(Assert.CmpObj.LESS, new String[0], null);
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Found null-comparator . ", e.getMessage());
+		}
+		try {
+			Assert.assertMonotone(Assert.CmpObj.LESS_EQ,
+					Arrays.asList(1, 2, null));
+			fail("exception expected. ");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(
+					" raised java.lang.NullPointerException"));
+		}
+
+		// testcase 4
+		//
+		// parallel search finds the same as the sequential one,
+		// also across the boundaries of the parts
+		//
+		Assert.setParallelThreshold(8);
+		try {
+			Assert.assertMonotone(Assert.CmpObj.LESS_EQ, ints, true);
+			Assert.assertMonotone(Assert.CmpObj.LESS_EQ, longs, true);
+			Assert.assertMonotone(Assert.CmpObj.LESS_EQ, doubles, true);
+			Assert.assertMonotone(Assert.CmpObj.LESS_EQ, boxed, true);
+			Assert.assertMonotone(Assert.CmpObj.LESS_EQ, list, true);
+			Assert.assertSorted(Assert.CmpObj.GREATER_EQ, list,
+					(Integer a, Integer b) -> Integer.compare(b, a), true);
+
+			// the pair [7], [8] crosses the boundary of the first part
+			ints[7] = 5;
+			ints[900] = -1;
+			boxed[7] = 5;
+			boxed[950] = null;
+			for (int run = 0; run < 20; run++) {
+				try {
+					Assert.assertMonotone(Assert.CmpObj.LESS_EQ, ints, true);
+					fail("exception expected. ");
+				} catch (AssertionError e) {
+					assertEquals("In entries [7] and [8] "
+							+ "expected: <5> to be less or equal: <4>. ",
+							e.getMessage());
+				}
+				try {
+					Assert.assertMonotone(Assert.CmpObj.LESS_EQ, list, true);
+					fail("exception expected. ");
+				} catch (AssertionError e) {
+					assertEquals("In entries [7] and [8] "
+							+ "expected: <5> to be less or equal: <4>. ",
+							e.getMessage());
+				}
+			}
+
+			// an exception before the first pair not ordered is raised
+			boxed[7] = 3;
+			boxed[950] = 475;
+			boxed[500] = null;
+			boxed[980] = 0;
+			for (int run = 0; run < 20; run++) {
+				try {
+					Assert.assertMonotone(Assert.CmpObj.LESS_EQ, boxed, true);
+					fail("exception expected. ");
+				} catch (IllegalArgumentException e) {
+					assertTrue(e.getMessage(), e.getMessage().contains(
+							" raised java.lang.NullPointerException"));
+				}
+			}
+		} finally {
+			Assert.setParallelThreshold(threshold);
+		}
+	} // testAssertSorted
+
+	/* -------------------------------------------------------------------- *
+	 * framework. *
+	 * -------------------------------------------------------------------- */
+
+
+	/**
+	 * Runs the test case.
+	 *
+	 * Uncomment either the textual UI, Swing UI, or AWT UI.
+	 */
+	public static void main(String... args) {
+		Actions.runFromMain(args);
+	}
+
+}